@@ -0,0 +1,163 @@
+package tech.jmcs.floortech.detailing.benchmark;
+
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import tech.jmcs.floortech.detailing.app.components.ArchicadDataFileProcessorImpl;
+import tech.jmcs.floortech.detailing.app.components.fileprocessing.DetailingDataFileProcessorFactory;
+import tech.jmcs.floortech.detailing.app.components.fileprocessing.TableProcessorRegistry;
+import tech.jmcs.floortech.detailing.domain.model.filedata.FileData;
+import tech.jmcs.floortech.detailing.domain.model.files.DetailingFile;
+import tech.jmcs.floortech.detailing.domain.service.exception.FileProcessorException;
+import tech.jmcs.floortech.detailing.infrastructure.persistence.config.MongoConfig;
+import tech.jmcs.floortech.detailing.infrastructure.persistence.entity.ExtractedDataRowEntity;
+import tech.jmcs.floortech.detailing.infrastructure.persistence.entity.FileDataEntity;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static tech.jmcs.floortech.detailing.domain.model.filedata.ExtractedDataRowFacade.toData;
+import static tech.jmcs.floortech.detailing.domain.model.filedata.FileDataFacade.toExtractedData;
+
+/**
+ * The extracted rows of a processed schedule (a claim's file data) written to and read from BSON, as saved to and
+ * loaded from the extracted_data_row collection:
+ * - MAPPED: reflective mapping, each row holding its data by key (the column names in every row) and a type hint
+ * - COMPACT: the ExtractedDataRow converters (MongoConfig), values by position in the columns of the file data
+ * The BSON size of the rows of each codec is printed when the trial is set up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class FileDataCodecBenchmark {
+    private static final DocumentCodec CODEC = new DocumentCodec();
+
+    public enum Codec {
+        MAPPED,
+        COMPACT
+    }
+
+    @Param({"MAPPED", "COMPACT"})
+    public Codec codec;
+
+    @Param({"BEAM", "TRUSS", "SHEET"})
+    public SyntheticSchedules.Kind kind;
+
+    @Param({"5000"})
+    public int rows;
+
+    private MappingMongoConverter converter;
+    private DetailingFile detailingFile;
+    private FileDataEntity fileDataEntity;
+    private List<ExtractedDataRowEntity> rowEntities;
+    private List<byte[]> encodedRows;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, FileProcessorException {
+        var directory = Files.createTempDirectory("jmh-codec-");
+        var file = directory.resolve(kind.filename());
+        SyntheticSchedules.write(kind, rows, 42L, file);
+        detailingFile = SyntheticSchedules.detailingFile(kind.filename());
+        FileData fileData;
+        try {
+            fileData = new ArchicadDataFileProcessorImpl(new DetailingDataFileProcessorFactory(true, new TableProcessorRegistry()))
+                    .processFileData(detailingFile, directory);
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(directory);
+        }
+
+        converter = converter(codec == Codec.COMPACT
+                ? new MongoConfig().mongoCustomConversions()
+                : new MongoCustomConversions(List.of()));
+        fileDataEntity = FileDataEntity.fromDomainObject(fileData, "CLAIM-0001", "FILESET-0001");
+        rowEntities = new ArrayList<>();
+        toExtractedData.apply(fileData).values().forEach(row -> {
+            var rowEntity = ExtractedDataRowEntity.fromDomainObject(row, fileDataEntity);
+            if (codec == Codec.MAPPED) {
+                rowEntity.setValues(null);
+                rowEntity.setData(new HashMap<>(toData.apply(row)));
+            }
+            rowEntities.add(rowEntity);
+        });
+
+        encodedRows = new ArrayList<>(rowEntities.size());
+        long bytes = 0;
+        for (var rowEntity : rowEntities) {
+            var encoded = encode(rowEntity);
+            encodedRows.add(encoded);
+            bytes += encoded.length;
+        }
+        System.out.printf("%n%s %s rows: %,d rows, %,d bytes (%.1f bytes/row)%n", codec, kind, rowEntities.size(), bytes, (double) bytes / rowEntities.size());
+    }
+
+    @Benchmark
+    public long write() {
+        long bytes = 0;
+        for (var rowEntity : rowEntities) {
+            bytes += encode(rowEntity).length;
+        }
+        return bytes;
+    }
+
+    @Benchmark
+    public FileData read() {
+        var decoded = new ArrayList<ExtractedDataRowEntity>(encodedRows.size());
+        for (var encoded : encodedRows) {
+            var document = CODEC.decode(new BsonBinaryReader(ByteBuffer.wrap(encoded)), DecoderContext.builder().build());
+            decoded.add(converter.read(ExtractedDataRowEntity.class, document));
+        }
+        return fileDataEntity.toDomainObject(detailingFile, decoded);
+    }
+
+    // <editor-fold desc="Instance Helper methods">
+    private byte[] encode(ExtractedDataRowEntity rowEntity) {
+        var document = new Document();
+        converter.write(rowEntity, document);
+        var buffer = new BasicOutputBuffer();
+        CODEC.encode(new BsonBinaryWriter(buffer), document, EncoderContext.builder().build());
+        return buffer.toByteArray();
+    }
+    // </editor-fold>
+
+    // <editor-fold desc="Static helper methods">
+    private static MappingMongoConverter converter(MongoCustomConversions conversions) {
+        var mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        var converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+    // </editor-fold>
+}
@@ -0,0 +1,69 @@
+package tech.jmcs.floortech.detailing.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.jmcs.floortech.detailing.app.components.ArchicadDataFileProcessorImpl;
+import tech.jmcs.floortech.detailing.app.components.fileprocessing.DetailingDataFileProcessorFactory;
+import tech.jmcs.floortech.detailing.app.components.fileprocessing.TableProcessorRegistry;
+import tech.jmcs.floortech.detailing.domain.model.filedata.FileData;
+import tech.jmcs.floortech.detailing.domain.model.files.DetailingFile;
+import tech.jmcs.floortech.detailing.domain.service.exception.FileProcessorException;
+import tech.jmcs.floortech.detailing.domain.service.fileprocessing.FileProcessor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A text schedule processed end to end, as by the service: ArchicadDataFileProcessorImpl with the processor
+ * factory and table processors configured as in the application (mapped reader enabled, no cache).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class FileProcessorBenchmark {
+
+    @Param({"BEAM", "TRUSS", "SHEET"})
+    public SyntheticSchedules.Kind kind;
+
+    @Param({"100", "10000", "1000000"})
+    public int rows;
+
+    private Path directory;
+    private DetailingFile detailingFile;
+    private FileProcessor fileProcessor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("jmh-file-");
+        SyntheticSchedules.write(kind, rows, 42L, directory.resolve(kind.filename()));
+        detailingFile = SyntheticSchedules.detailingFile(kind.filename());
+        fileProcessor = new ArchicadDataFileProcessorImpl(new DetailingDataFileProcessorFactory(true, new TableProcessorRegistry()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(directory.resolve(kind.filename()));
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public FileData processFileData() throws FileProcessorException {
+        return fileProcessor.processFileData(detailingFile, directory);
+    }
+}
@@ -0,0 +1,108 @@
+package tech.jmcs.floortech.detailing.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes synthetic ArchiCAD job exports: a zip archive of a beam, truss and sheet schedule (see SyntheticSchedules)
+ * alongside drawing attachments, as a detailer uploads them.  The attachments (PDFs) are not processed by the
+ * service, they are random (incompressible) bytes that only add to the size of the upload and of the download.
+ *
+ * Run as an application to write archives to a folder:
+ * SyntheticExports <output folder> [archives=1] [rows=1000] [attachment kilobytes=512] [seed=42]
+ */
+public final class SyntheticExports {
+    private static final String[] ATTACHMENTS = {"Builder.pdf", "Steel Cutting List.pdf"};
+
+    private SyntheticExports() {
+    }
+
+    /**
+     * @param rows data rows of each schedule
+     * @param attachmentKilobytes size of each attachment, 0 for none
+     * @param seed
+     * @return the zip archive
+     * @throws IOException
+     */
+    public static byte[] archive(int rows, int attachmentKilobytes, long seed) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        write(rows, attachmentKilobytes, seed, bytes);
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param rows data rows of each schedule
+     * @param attachmentKilobytes size of each attachment, 0 for none
+     * @param seed
+     * @param zip written (replaced if it exists)
+     * @throws IOException
+     */
+    public static void write(int rows, int attachmentKilobytes, long seed, Path zip) throws IOException {
+        try (var out = Files.newOutputStream(zip)) {
+            write(rows, attachmentKilobytes, seed, out);
+        }
+    }
+
+    /**
+     * @param rows data rows of each schedule
+     * @param attachmentKilobytes size of each attachment, 0 for none
+     * @param seed
+     * @param out receives the zip archive, not closed
+     * @throws IOException
+     */
+    public static void write(int rows, int attachmentKilobytes, long seed, OutputStream out) throws IOException {
+        var zip = new ZipOutputStream(out);
+        for (var kind : SyntheticSchedules.Kind.values()) {
+            zip.putNextEntry(new ZipEntry(kind.filename()));
+            var writer = new OutputStreamWriter(zip, StandardCharsets.UTF_8);
+            SyntheticSchedules.write(kind, rows, seed + kind.ordinal(), writer);
+            writer.flush();
+            zip.closeEntry();
+        }
+        if (attachmentKilobytes > 0) {
+            var random = new SplittableRandom(seed);
+            for (var attachment : ATTACHMENTS) {
+                zip.putNextEntry(new ZipEntry(attachment));
+                writeAttachment(zip, attachmentKilobytes, random);
+                zip.closeEntry();
+            }
+        }
+        zip.finish();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: SyntheticExports <output folder> [archives=1] [rows=1000] [attachment kilobytes=512] [seed=42]");
+            System.exit(1);
+        }
+        var folder = Files.createDirectories(Path.of(args[0]));
+        var archives = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        var rows = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        var attachmentKilobytes = args.length > 3 ? Integer.parseInt(args[3]) : 512;
+        var seed = args.length > 4 ? Long.parseLong(args[4]) : 42L;
+        for (int i = 0; i < archives; i++) {
+            var zip = folder.resolve(String.format("export-%d-rows-%03d.zip", rows, i));
+            write(rows, attachmentKilobytes, seed + i, zip);
+            System.out.printf("%s (%,d bytes)%n", zip, Files.size(zip));
+        }
+    }
+
+    // <editor-fold desc="Static helper methods">
+    private static void writeAttachment(OutputStream out, int kilobytes, SplittableRandom random) throws IOException {
+        out.write("%PDF-1.4\n".getBytes(StandardCharsets.US_ASCII));
+        var block = new byte[1024];
+        for (int i = 0; i < kilobytes; i++) {
+            random.nextBytes(block);
+            out.write(block);
+        }
+    }
+    // </editor-fold>
+}
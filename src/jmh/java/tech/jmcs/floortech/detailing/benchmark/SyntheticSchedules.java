@@ -0,0 +1,175 @@
+package tech.jmcs.floortech.detailing.benchmark;
+
+import tech.jmcs.floortech.detailing.domain.configs.XPath;
+import tech.jmcs.floortech.detailing.domain.model.files.DetailingFile;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Writes synthetic ArchiCAD schedule exports in the layout of the real exports (tab separated, CRLF, a trailing
+ * tab on each line, the title line padded with tabs): beam, truss (joist) and sheet listings of any number of rows.
+ * Values are drawn from a seeded random, so the same arguments always produce the same file.
+ */
+public final class SyntheticSchedules {
+    private static final String TAB = "\t";
+    private static final String CRLF = "\r\n";
+    private static final String[] BEAMS = {"200 UB 18", "200 UB 22", "250 UB 26", "250 UB 31", "310 UB 32", "310 UB 40", "360 UB 45", "150 PFC", "200 PFC", "250 PFC", "100x100x5 SHS", "150x50x3 RHS"};
+    private static final String[] TRUSS_TYPES = {"CW260", "CW200", "CW300"};
+    private static final String[] END_CAPS = {"Standard", "Type A", "Type B", "Type D", "Special"};
+
+    public enum Kind {
+        BEAM("Beam Listing.txt"),
+        TRUSS("260MM TRUSS LISTING.txt"),
+        SHEET("SHEETS.txt");
+
+        private final String filename;
+
+        Kind(String filename) {
+            this.filename = filename;
+        }
+
+        public String filename() {
+            return filename;
+        }
+    }
+
+    /**
+     * A schedule as read from a text export
+     * @param title
+     * @param columns
+     * @param dataRows
+     */
+    public record Table(String title, String[] columns, List<String[]> dataRows) {
+    }
+
+    private SyntheticSchedules() {
+    }
+
+    /**
+     * @param kind
+     * @param rows number of data rows
+     * @param seed
+     * @param file written (replaced if it exists)
+     * @throws IOException
+     */
+    public static void write(Kind kind, int rows, long seed, Path file) throws IOException {
+        try (var writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            write(kind, rows, seed, writer);
+        }
+    }
+
+    /**
+     * @param kind
+     * @param rows number of data rows
+     * @param seed
+     * @param writer
+     * @throws IOException
+     */
+    public static void write(Kind kind, int rows, long seed, Writer writer) throws IOException {
+        var random = new SplittableRandom(seed);
+        switch (kind) {
+            case BEAM -> writeBeams(writer, rows, random);
+            case TRUSS -> writeTrusses(writer, rows, random);
+            case SHEET -> writeSheets(writer, rows, random);
+        }
+    }
+
+    /**
+     * @param kind
+     * @param rows number of data rows
+     * @param seed
+     * @return the schedule split into title, columns and data rows, as the text reader hands them to a table
+     * processor
+     */
+    public static Table table(Kind kind, int rows, long seed) {
+        var text = new StringWriter();
+        try {
+            write(kind, rows, seed, text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        var lines = text.toString().split(CRLF);
+        var dataRows = new ArrayList<String[]>(lines.length);
+        for (int i = 2; i < lines.length; i++) {
+            dataRows.add(lines[i].trim().split(TAB));
+        }
+        return new Table(lines[0].trim(), lines[1].trim().split(TAB), dataRows);
+    }
+
+    /**
+     * @param relativePath path of the file relative to the storage root
+     * @return an unprocessed detailing file for the path, with the extension of the path
+     */
+    public static DetailingFile detailingFile(String relativePath) {
+        var path = XPath.relative(relativePath);
+        var filename = Path.of(relativePath).getFileName().toString();
+        var extension = filename.substring(filename.lastIndexOf('.') + 1);
+        return new DetailingFile.DetailingFileBuilder(filename, path, extension, filename, false)
+                .build();
+    }
+
+    // <editor-fold desc="Static helper methods">
+    private static void writeBeams(Writer writer, int rows, SplittableRandom random) throws IOException {
+        line(writer, "", "", "BEAM SCHEDULE", "");
+        line(writer, "Beam", "Qty", "ID", "Length");
+        for (int i = 1; i <= rows; i++) {
+            var length = 600 + random.nextInt(11400);
+            line(writer,
+                    BEAMS[random.nextInt(BEAMS.length)],
+                    Integer.toString(1 + random.nextInt(4)),
+                    "B" + i,
+                    String.format(Locale.ROOT, "%,d", length));
+        }
+    }
+
+    private static void writeTrusses(Writer writer, int rows, SplittableRandom random) throws IOException {
+        line(writer, "", "", "", "", "", "", "CW260 Joist Schedule", "", "", "", "", "");
+        line(writer, "ID", "No. ", "Truss Length", "Type", "Left  End Cap", "Right End Cap", "NECs", "STDs", "", "p.HAS PENO", "p.CUT WEBS (count from: Left End Cap)", "Truss Grouping Pack");
+        for (int i = 1; i <= rows; i++) {
+            var length = 500 + random.nextInt(9000) + (random.nextBoolean() ? 0.5 : 0.0);
+            var hasPeno = random.nextInt(10) == 0;
+            line(writer,
+                    "CW" + i,
+                    Integer.toString(1 + random.nextInt(3)),
+                    String.format(Locale.ROOT, "%.1f", length),
+                    TRUSS_TYPES[random.nextInt(TRUSS_TYPES.length)],
+                    END_CAPS[random.nextInt(END_CAPS.length)],
+                    END_CAPS[random.nextInt(END_CAPS.length)],
+                    Integer.toString(random.nextInt(3)),
+                    Integer.toString(random.nextInt(3)),
+                    "",
+                    hasPeno ? "1" : "0",
+                    hasPeno ? Integer.toString(1 + random.nextInt(8)) : "",
+                    "PACK " + (1 + random.nextInt(6)));
+        }
+    }
+
+    private static void writeSheets(Writer writer, int rows, SplittableRandom random) throws IOException {
+        line(writer, "", "SHEETS", "");
+        line(writer, "Length", "ID", "Qty");
+        for (int i = 1; i <= rows; i++) {
+            line(writer,
+                    String.format(Locale.ROOT, "%d.00", 900 + 300 * random.nextInt(30)),
+                    String.format(Locale.ROOT, "Z%02d", i),
+                    Integer.toString(1 + random.nextInt(40)));
+        }
+    }
+
+    private static void line(Writer writer, String... cells) throws IOException {
+        writer.write(String.join(TAB, cells));
+        writer.write(TAB);
+        writer.write(CRLF);
+    }
+
+    // </editor-fold>
+}
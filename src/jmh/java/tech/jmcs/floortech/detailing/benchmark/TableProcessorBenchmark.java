@@ -0,0 +1,71 @@
+package tech.jmcs.floortech.detailing.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.jmcs.floortech.detailing.app.components.fileprocessing.processors.BeamListTextTableProcessor;
+import tech.jmcs.floortech.detailing.app.components.fileprocessing.processors.SheetListTextTableProcessor;
+import tech.jmcs.floortech.detailing.app.components.fileprocessing.processors.TrussListTextTableProcessor;
+import tech.jmcs.floortech.detailing.domain.model.filedata.ExtractedDataRow;
+import tech.jmcs.floortech.detailing.domain.model.filedata.FileData;
+import tech.jmcs.floortech.detailing.domain.service.fileprocessing.TableProcessor;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The table processors on rows already read from a schedule: recognizing the table from its title and columns,
+ * and processing the data rows into a table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class TableProcessorBenchmark {
+
+    @Param({"BEAM", "TRUSS", "SHEET"})
+    public SyntheticSchedules.Kind kind;
+
+    @Param({"100", "10000", "1000000"})
+    public int rows;
+
+    private TableProcessor processor;
+    private SyntheticSchedules.Table table;
+    private FileData fileData;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        processor = switch (kind) {
+            case BEAM -> new BeamListTextTableProcessor();
+            case TRUSS -> new TrussListTextTableProcessor();
+            case SHEET -> new SheetListTextTableProcessor();
+        };
+        table = SyntheticSchedules.table(kind, rows, 42L);
+        fileData = FileData.createEmpty(SyntheticSchedules.detailingFile(kind.filename()));
+        if (!processor.isRecognized(table.title(), table.columns())) {
+            throw new IllegalStateException("Synthetic " + kind + " schedule not recognized by " + processor.getClass().getSimpleName());
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean isRecognized() {
+        return processor.isRecognized(table.title(), table.columns());
+    }
+
+    @Benchmark
+    public Map<String, ExtractedDataRow> processData() {
+        return processor.processData(fileData, table.title(), table.columns(), table.dataRows());
+    }
+}
@@ -0,0 +1,95 @@
+package tech.jmcs.floortech.detailing.benchmark.load;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Records the latency of each call by endpoint, and reports the count, errors, throughput and latency percentiles
+ * of each endpoint over a run
+ */
+public class LatencyRecorder {
+    private final Map<String, Samples> samples = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    /**
+     * @param endpoint
+     * @param nanos latency of the call
+     * @param success false if the call failed (the latency of failed calls is not part of the percentiles)
+     */
+    public void record(String endpoint, long nanos, boolean success) {
+        samples.computeIfAbsent(endpoint, key -> new Samples()).add(nanos, success);
+    }
+
+    /**
+     * @param out
+     * @param elapsed duration of the run, throughput is the number of successful calls over it
+     */
+    public void report(PrintStream out, Duration elapsed) {
+        var seconds = elapsed.toNanos() / 1e9;
+        out.printf("%-60s %8s %7s %12s %10s %10s %10s%n", "Endpoint", "Count", "Errors", "Throughput/s", "p50 ms", "p99 ms", "Max ms");
+        synchronized (samples) {
+            samples.forEach((endpoint, endpointSamples) -> {
+                var latencies = endpointSamples.sorted();
+                out.printf("%-60s %8d %7d %12.2f %10.1f %10.1f %10.1f%n",
+                        endpoint,
+                        latencies.length,
+                        endpointSamples.errors(),
+                        latencies.length / seconds,
+                        millis(percentile(latencies, 0.50)),
+                        millis(percentile(latencies, 0.99)),
+                        millis(latencies.length > 0 ? latencies[latencies.length - 1] : 0));
+            });
+        }
+        out.printf("Run time: %.1f s%n", seconds);
+    }
+
+    // <editor-fold desc="Static helper methods">
+    /**
+     * Nearest rank percentile
+     * @param sorted
+     * @param percentile 0 to 1
+     * @return
+     */
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        var rank = (int) Math.ceil(percentile * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+    // </editor-fold>
+
+    private static class Samples {
+        private long[] latencies = new long[256];
+        private int count;
+        private int errors;
+
+        private synchronized void add(long nanos, boolean success) {
+            if (!success) {
+                errors++;
+                return;
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+
+        private synchronized long[] sorted() {
+            var sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+
+        private synchronized int errors() {
+            return errors;
+        }
+    }
+}
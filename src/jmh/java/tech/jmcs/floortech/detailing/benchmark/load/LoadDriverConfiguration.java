@@ -0,0 +1,179 @@
+package tech.jmcs.floortech.detailing.benchmark.load;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.AuthenticationWebFilter;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import tech.jmcs.floortech.detailing.domain.model.detailingclaim.DetailingClaim;
+import tech.jmcs.floortech.detailing.domain.service.FloortechJobDataService;
+import tech.jmcs.floortech.detailing.domain.service.ProcessingJobQueue;
+import tech.jmcs.floortech.detailing.domain.service.RemoteLoggingService;
+import tech.jmcs.floortech.detailing.presentation.web.config.Authorities;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import static tech.jmcs.floortech.detailing.domain.model.detailingclaim.DetailingClaimFacade.*;
+
+/**
+ * In-memory stand-ins for the services this service calls, so it can be run on its own under load:
+ * - the job info RPC (FloortechJobDataService), answering with synthetic job data after an optional delay
+ * - the log sender (RemoteLoggingService), counting the messages
+ * - the processing job work queue (ProcessingJobQueue), run by the workers of this instance
+ * Requests are authenticated as internal (FT_STAFF) users from the USER_HEADER header instead of a JWT.
+ *
+ * Not annotated as a configuration so it is never picked up by component scanning (it is on the test class path
+ * with the benchmarks profile), the PipelineLoadDriver adds it as a source of the application.
+ */
+public class LoadDriverConfiguration {
+    public static final String USER_HEADER = "X-Load-Driver-User";
+
+    @Bean
+    @Primary
+    public InMemoryJobDataService inMemoryJobDataService(@Value("${load-driver.rpc-latency:0ms}") Duration rpcLatency) {
+        return new InMemoryJobDataService(rpcLatency);
+    }
+
+    @Bean
+    @Primary
+    public InMemoryRemoteLoggingService inMemoryRemoteLoggingService() {
+        return new InMemoryRemoteLoggingService();
+    }
+
+    @Bean
+    @Primary
+    public InMemoryProcessingJobQueue inMemoryProcessingJobQueue(@Value("${files.processing.jobs.concurrency:2}") int concurrency) {
+        return new InMemoryProcessingJobQueue(concurrency);
+    }
+
+    /**
+     * Takes precedence over the application's (JWT) security filter chain
+     * @param http
+     * @return
+     */
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public SecurityWebFilterChain loadDriverSecurityWebFilterChain(ServerHttpSecurity http) {
+        var authentication = new AuthenticationWebFilter((ReactiveAuthenticationManager) Mono::just);
+        authentication.setServerAuthenticationConverter(exchange -> Mono.justOrEmpty(exchange.getRequest().getHeaders().getFirst(USER_HEADER))
+                .map(LoadDriverConfiguration::internalUser));
+        http.httpBasic().disable();
+        http.formLogin().disable();
+        http.logout().disable();
+        http.csrf().disable();
+        http.addFilterAt(authentication, SecurityWebFiltersOrder.AUTHENTICATION);
+        http.authorizeExchange().anyExchange().authenticated();
+        return http.build();
+    }
+
+    // <editor-fold desc="Static helper methods">
+    private static Authentication internalUser(String username) {
+        var authorities = new ArrayList<String>();
+        authorities.add("ROLE_FT_STAFF");
+        authorities.addAll(Authorities.getAuthoritiesForRole("ROLE_FT_STAFF"));
+        return new UsernamePasswordAuthenticationToken(username, "", AuthorityUtils.createAuthorityList(authorities.toArray(String[]::new)));
+    }
+    // </editor-fold>
+
+    public static class InMemoryJobDataService implements FloortechJobDataService {
+        private final Duration latency;
+        private final LongAdder requests = new LongAdder();
+
+        public InMemoryJobDataService(Duration latency) {
+            this.latency = latency;
+        }
+
+        @Override
+        public Mono<DetailingClaim> requestDataAndUpdate(DetailingClaim detailingClaim) {
+            var reply = Mono.fromCallable(() -> detailingClaim.updateIgnoringNullsAndEmpty(jobData(detailingClaim)))
+                    .doOnSubscribe(subscription -> requests.increment());
+            return latency.isZero() ? reply : reply.delaySubscription(latency);
+        }
+
+        public long getRequests() {
+            return requests.sum();
+        }
+
+        private static DetailingClaim jobData(DetailingClaim detailingClaim) {
+            var jobId = toJobId.apply(detailingClaim);
+            var client = Math.floorMod(jobId.hashCode(), 50);
+            return DetailingClaim.builder(jobId, toClaimedByStaffUsername.apply(detailingClaim))
+                    .floortechJobNumber(20000 + Math.floorMod(jobId.hashCode(), 10000))
+                    .jobClientId(String.format("CLIENT-%05d", client))
+                    .jobClientName("Load Test Builders " + client)
+                    .jobEngineerId("ENGINEER-00001")
+                    .jobEngineerName("Load Test Engineers")
+                    .claimedByStaffId("STAFF-" + toClaimedByStaffUsername.apply(detailingClaim))
+                    .build();
+        }
+    }
+
+    public static class InMemoryRemoteLoggingService implements RemoteLoggingService {
+        private final LongAdder messages = new LongAdder();
+
+        @Override
+        public void sendSystemError(String message) {
+            messages.increment();
+        }
+
+        @Override
+        public void sendSystemInfo(String message) {
+            messages.increment();
+        }
+
+        @Override
+        public void sendBusinessInfo(String message) {
+            messages.increment();
+        }
+
+        public long getMessages() {
+            return messages.sum();
+        }
+    }
+
+    public static class InMemoryProcessingJobQueue implements ProcessingJobQueue {
+        static final Logger log = LoggerFactory.getLogger(InMemoryProcessingJobQueue.class);
+        private final Sinks.Many<String> jobs = Sinks.many().unicast().onBackpressureBuffer();
+        private final int concurrency;
+
+        public InMemoryProcessingJobQueue(int concurrency) {
+            this.concurrency = Math.max(1, concurrency);
+        }
+
+        @Override
+        public Mono<Void> submit(String jobId) {
+            return Mono.fromRunnable(() -> {
+                synchronized (jobs) {
+                    jobs.tryEmitNext(jobId).orThrow();
+                }
+            });
+        }
+
+        @Override
+        public Disposable consume(Function<String, Mono<?>> worker) {
+            return jobs.asFlux()
+                    .flatMap(jobId -> worker.apply(jobId)
+                            .onErrorResume(error -> {
+                                log.warn("Processing job {} failed: {}", jobId, error.getMessage());
+                                return Mono.empty();
+                            }), concurrency)
+                    .subscribe();
+        }
+    }
+}
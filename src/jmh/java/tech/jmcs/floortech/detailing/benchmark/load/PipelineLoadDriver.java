@@ -0,0 +1,306 @@
+package tech.jmcs.floortech.detailing.benchmark.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.testcontainers.containers.MongoDBContainer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tech.jmcs.floortech.detailing.DetailingServiceApplication;
+import tech.jmcs.floortech.detailing.benchmark.SyntheticExports;
+import tech.jmcs.floortech.detailing.presentation.web.config.GlobalRoutingHandler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static tech.jmcs.floortech.detailing.benchmark.load.LoadDriverConfiguration.USER_HEADER;
+
+/**
+ * Replays the traffic of many detailers working at once against the real routes of the service, started in this JVM
+ * on a random port with the in-memory stand-ins of LoadDriverConfiguration (no RabbitMQ, Eureka or JWT needed).
+ * MongoDB is started in a container unless a server is given.
+ *
+ * Each detailer repeatedly claims a new job, uploads a synthetic export (SyntheticExports), processes the file set
+ * (in the request, or as a processing job polled until it finishes), downloads the file set archive and completes
+ * the claim.  The count, errors, throughput and p50/p99 latency of each endpoint are reported at the end of the run.
+ *
+ * Arguments (key=value, all optional):
+ * detailers=8 iterations=5 rows=1000 attachment-kb=512 process=sync|async poll-interval=250ms job-timeout=10m
+ * rpc-latency=0ms mongo=host:port keep-files=false
+ */
+public class PipelineLoadDriver {
+    static final Logger log = LoggerFactory.getLogger(PipelineLoadDriver.class);
+    static final String MONGO_IMAGE_NAME = "mongo:latest";
+    static final String PROCESSING_JOB_ENDPOINT = "processing job (submitted to finished)";
+    final WebClient client;
+    final LatencyRecorder recorder;
+    final Options options;
+    final byte[] archive;
+
+    public PipelineLoadDriver(WebClient client, LatencyRecorder recorder, Options options, byte[] archive) {
+        this.client = client;
+        this.recorder = recorder;
+        this.options = options;
+        this.archive = archive;
+    }
+
+    public static void main(String[] args) throws IOException {
+        var options = Options.parse(args);
+        MongoDBContainer mongo = null;
+        var mongoAddress = options.mongo();
+        if (mongoAddress == null) {
+            mongo = new MongoDBContainer(MONGO_IMAGE_NAME).withExposedPorts(27017);
+            mongo.start();
+            mongoAddress = mongo.getHost() + ":" + mongo.getMappedPort(27017);
+        }
+        var storageRoot = Files.createTempDirectory("ft-detailing-load-");
+        var context = new SpringApplicationBuilder(DetailingServiceApplication.class, LoadDriverConfiguration.class)
+                .properties(applicationProperties(options, mongoAddress, storageRoot))
+                .run();
+        try {
+            var environment = context.getEnvironment();
+            var basePath = environment.getProperty("spring.webflux.base-path", "").replaceAll("/+$", "");
+            var client = WebClient.builder()
+                    .baseUrl("http://localhost:" + environment.getProperty("local.server.port") + basePath)
+                    .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(-1))
+                    .build();
+            var archive = SyntheticExports.archive(options.rows(), options.attachmentKilobytes(), 42L);
+            System.out.printf("Detailers: %d, iterations: %d, schedule rows: %d, archive: %,d bytes, processing: %s%n",
+                    options.detailers(), options.iterations(), options.rows(), archive.length, options.asyncProcessing() ? "async" : "sync");
+
+            var recorder = new LatencyRecorder();
+            var started = System.nanoTime();
+            new PipelineLoadDriver(client, recorder, options, archive).run();
+            recorder.report(System.out, Duration.ofNanos(System.nanoTime() - started));
+
+            var jobData = context.getBean(LoadDriverConfiguration.InMemoryJobDataService.class);
+            var logging = context.getBean(LoadDriverConfiguration.InMemoryRemoteLoggingService.class);
+            System.out.printf("Job info requests: %d, log messages: %d%n", jobData.getRequests(), logging.getMessages());
+        } finally {
+            context.close();
+            if (mongo != null) {
+                mongo.stop();
+            }
+            if (!options.keepFiles()) {
+                FileUtils.deleteDirectory(storageRoot.toFile());
+            }
+        }
+    }
+
+    /**
+     * Runs the detailers at once, each running its iterations one after the other
+     */
+    public void run() {
+        Flux.range(0, options.detailers())
+                .flatMap(detailer -> Flux.range(0, options.iterations())
+                        .concatMap(iteration -> iteration(String.format("load-detailer-%03d", detailer))), options.detailers())
+                .blockLast();
+    }
+
+    // <editor-fold desc="Instance Helper methods">
+    private Mono<Void> iteration(String username) {
+        var jobId = "LOAD-JOB-" + UUID.randomUUID();
+        return timed("POST /detailing/claim/job/{jobId}", client.post()
+                        .uri("/detailing/claim/job/{jobId}", jobId)
+                        .header(USER_HEADER, username)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .retrieve()
+                        .bodyToMono(JsonNode.class))
+                .flatMap(claim -> submit(username, jobId)
+                        .flatMap(fileSetId -> process(username, jobId, fileSetId)
+                                .then(download(username, jobId, claimedDate(claim), fileSetId)))
+                        .then(timed("POST /detailing/complete/{claimId}", client.post()
+                                .uri("/detailing/complete/{claimId}", jobId)
+                                .header(USER_HEADER, username)
+                                .accept(MediaType.APPLICATION_JSON)
+                                .retrieve()
+                                .toBodilessEntity())))
+                .onErrorResume(error -> {
+                    log.warn("Iteration of {} for job {} failed: {}", username, jobId, error.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private Mono<String> submit(String username, String jobId) {
+        var body = new MultipartBodyBuilder();
+        body.part("file", new ByteArrayResource(archive))
+                .filename("export.zip")
+                .contentType(MediaType.parseMediaType("application/zip"));
+        return timed("POST /detailing-files/submit/for/{claimId}", client.post()
+                .uri("/detailing-files/submit/for/{claimId}", jobId)
+                .header(USER_HEADER, username)
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(body.build()))
+                .retrieve()
+                .bodyToMono(JsonNode.class))
+                .map(fileSet -> fileSet.get("id").asText());
+    }
+
+    private Mono<?> process(String username, String jobId, String fileSetId) {
+        if (!options.asyncProcessing()) {
+            return timed("GET /detailing-files/process-file-set/{fileSetId}/of/{claimId}", client.get()
+                    .uri("/detailing-files/process-file-set/{fileSetId}/of/{claimId}", fileSetId, jobId)
+                    .header(USER_HEADER, username)
+                    .accept(MediaType.APPLICATION_JSON)
+                    .retrieve()
+                    .toBodilessEntity());
+        }
+
+        return timed("POST /detailing-files/process-file-set/{fileSetId}/of/{claimId}", client.post()
+                .uri("/detailing-files/process-file-set/{fileSetId}/of/{claimId}", fileSetId, jobId)
+                .header(USER_HEADER, username)
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToMono(JsonNode.class))
+                .flatMap(job -> {
+                    var submitted = System.nanoTime();
+                    return Flux.interval(options.pollInterval())
+                            .concatMap(tick -> timed("GET /detailing-files/process-job/{jobId}", client.get()
+                                    .uri("/detailing-files/process-job/{jobId}", job.get("id").asText())
+                                    .header(USER_HEADER, username)
+                                    .accept(MediaType.APPLICATION_JSON)
+                                    .retrieve()
+                                    .bodyToMono(JsonNode.class)))
+                            .map(polled -> polled.get("status").asText())
+                            .filter(status -> status.equals("COMPLETED") || status.equals("FAILED"))
+                            .next()
+                            .timeout(options.jobTimeout())
+                            .doOnNext(status -> recorder.record(PROCESSING_JOB_ENDPOINT, System.nanoTime() - submitted, status.equals("COMPLETED")))
+                            .doOnError(error -> recorder.record(PROCESSING_JOB_ENDPOINT, System.nanoTime() - submitted, false));
+                });
+    }
+
+    private Mono<Long> download(String username, String jobId, String claimedDate, String fileSetId) {
+        return timed("GET /detailing-files/get-zip/{fileSetId}/of/{claimId}", client.get()
+                .uri(uri -> uri.path("/detailing-files/get-zip/{fileSetId}/of/{claimId}")
+                        .queryParam("claimedDate", "{claimedDate}")
+                        .build(fileSetId, jobId, claimedDate))
+                .header(USER_HEADER, username)
+                .retrieve()
+                .bodyToFlux(DataBuffer.class)
+                .map(buffer -> {
+                    long size = buffer.readableByteCount();
+                    DataBufferUtils.release(buffer);
+                    return size;
+                })
+                .reduce(0L, Long::sum));
+    }
+
+    /**
+     * @param endpoint
+     * @param call
+     * @return the call, recording its latency (from subscription to its result) once it completes
+     */
+    private <T> Mono<T> timed(String endpoint, Mono<T> call) {
+        return Mono.defer(() -> {
+            var start = System.nanoTime();
+            return call
+                    .doOnSuccess(result -> recorder.record(endpoint, System.nanoTime() - start, true))
+                    .doOnError(error -> recorder.record(endpoint, System.nanoTime() - start, false));
+        });
+    }
+    // </editor-fold>
+
+    // <editor-fold desc="Static helper methods">
+    private static Map<String, Object> applicationProperties(Options options, String mongoAddress, Path storageRoot) {
+        var mongoHost = mongoAddress.substring(0, mongoAddress.lastIndexOf(':'));
+        var mongoPort = mongoAddress.substring(mongoAddress.lastIndexOf(':') + 1);
+        var properties = new HashMap<String, Object>();
+        properties.put("server.port", 0);
+        properties.put("eureka.client.enabled", false);
+        properties.put("spring.data.mongodb.host", mongoHost);
+        properties.put("spring.data.mongodb.port", mongoPort);
+        properties.put("spring.data.mongodb.database", "ft-detailing-load-" + System.currentTimeMillis());
+        properties.put("spring.data.mongodb.auto-index-creation", true);
+        properties.put("files.storage-root", storageRoot.toString());
+        properties.put("files.storage-root-linux", storageRoot.toString());
+        properties.put("files.processing.jobs.worker-enabled", true);
+        properties.put("load-driver.rpc-latency", options.rpcLatency().toMillis() + "ms");
+        properties.put("logging.level.root", "WARN");
+        return properties;
+    }
+
+    /**
+     * @param claim
+     * @return the claim date of the claim in the route date format
+     */
+    private static String claimedDate(JsonNode claim) {
+        var claimedAt = claim.get("claimedAt");
+        var date = claimedAt.isNumber()
+                ? new Date(claimedAt.asLong())
+                : Date.from(OffsetDateTime.parse(claimedAt.asText()).toInstant());
+        return new SimpleDateFormat(GlobalRoutingHandler.CLAIMED_DATE_FORMAT).format(date);
+    }
+    // </editor-fold>
+
+    /**
+     * Options of a run, parsed from key=value arguments
+     */
+    public record Options(int detailers,
+                          int iterations,
+                          int rows,
+                          int attachmentKilobytes,
+                          boolean asyncProcessing,
+                          Duration pollInterval,
+                          Duration jobTimeout,
+                          Duration rpcLatency,
+                          String mongo,
+                          boolean keepFiles) {
+
+        public static Options parse(String[] args) {
+            var values = new HashMap<String, String>();
+            for (var arg : args) {
+                var separator = arg.indexOf('=');
+                if (separator < 1) {
+                    throw new IllegalArgumentException("Expected key=value: " + arg);
+                }
+                values.put(arg.substring(0, separator), arg.substring(separator + 1));
+            }
+            return new Options(
+                    Integer.parseInt(values.getOrDefault("detailers", "8")),
+                    Integer.parseInt(values.getOrDefault("iterations", "5")),
+                    Integer.parseInt(values.getOrDefault("rows", "1000")),
+                    Integer.parseInt(values.getOrDefault("attachment-kb", "512")),
+                    values.getOrDefault("process", "sync").equalsIgnoreCase("async"),
+                    duration(values.getOrDefault("poll-interval", "250ms")),
+                    duration(values.getOrDefault("job-timeout", "10m")),
+                    duration(values.getOrDefault("rpc-latency", "0ms")),
+                    values.get("mongo"),
+                    Boolean.parseBoolean(values.getOrDefault("keep-files", "false")));
+        }
+
+        /**
+         * @param value a number followed by ms, s or m
+         * @return
+         */
+        private static Duration duration(String value) {
+            if (value.endsWith("ms")) {
+                return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+            } else if (value.endsWith("s")) {
+                return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+            } else if (value.endsWith("m")) {
+                return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+            }
+            return Duration.ofMillis(Long.parseLong(value));
+        }
+    }
+}
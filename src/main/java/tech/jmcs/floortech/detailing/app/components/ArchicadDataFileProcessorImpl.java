@@ -21,6 +21,8 @@ import static tech.jmcs.floortech.detailing.domain.model.files.DetailingFileFaca
 public class ArchicadDataFileProcessorImpl implements FileProcessor {
     static final Logger log = LoggerFactory.getLogger(ArchicadDataFileProcessorImpl.class);
     static final String[] ACCEPTED_TYPES = {"XLS", "XLSX", "TXT"};
+    // bump when a change to the file processors or table processors changes the extracted data
+    static final String VERSION = "1";
     final DetailingDataFileProcessorFactory detailingDataFileProcessorFactory;
     @Autowired
     public ArchicadDataFileProcessorImpl(DetailingDataFileProcessorFactory detailingDataFileProcessorFactory) {
@@ -31,7 +33,7 @@ public class ArchicadDataFileProcessorImpl implements FileProcessor {
     public FileData processFileData(DetailingFile detailingFile, Path storageBasePath) throws FileProcessorException {
         var mimetype = toMimeType.apply(detailingFile);
         var extension = toExtension.apply(detailingFile);
-        if (extension == null || !ArrayUtils.contains(ACCEPTED_TYPES, extension.toUpperCase())) {
+        if (!isSupported(detailingFile)) {
             throw new FileProcessorException("Unsupported file extension: " + extension);
         }
 
@@ -44,4 +46,14 @@ public class ArchicadDataFileProcessorImpl implements FileProcessor {
         return data;
     }
 
+    @Override
+    public boolean isSupported(DetailingFile detailingFile) {
+        var extension = toExtension.apply(detailingFile);
+        return extension != null && ArrayUtils.contains(ACCEPTED_TYPES, extension.toUpperCase());
+    }
+
+    @Override
+    public String getVersion() {
+        return VERSION;
+    }
 }
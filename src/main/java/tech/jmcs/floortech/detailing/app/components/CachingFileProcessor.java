@@ -0,0 +1,106 @@
+package tech.jmcs.floortech.detailing.app.components;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import tech.jmcs.floortech.detailing.domain.model.filedata.FileData;
+import tech.jmcs.floortech.detailing.domain.model.files.DetailingFile;
+import tech.jmcs.floortech.detailing.domain.service.exception.FileProcessorException;
+import tech.jmcs.floortech.detailing.domain.service.fileprocessing.FileProcessor;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.UUID;
+
+import static tech.jmcs.floortech.detailing.domain.model.filedata.FileDataFacade.*;
+import static tech.jmcs.floortech.detailing.domain.model.files.DetailingFileFacade.*;
+
+/**
+ * Caches the data extracted from files by content hash (SHA-256 recorded when the file was extracted), extension
+ * and processor version, so a file resubmitted unchanged in another file set is not parsed again.
+ * The cache is bounded by weight, the number of extracted values (and lines) held, and the data of a hit is copied
+ * for the file being processed (see FileData.copyFor).  Files without a content hash are always processed.
+ * Hits, misses and evictions are published as cache metrics ("fileData") when a MeterRegistry is available.
+ */
+@Primary
+@Component("cachingFileProcessor")
+public class CachingFileProcessor implements FileProcessor {
+    static final Logger log = LoggerFactory.getLogger(CachingFileProcessor.class);
+    public static final String CACHE_NAME = "fileData";
+    final FileProcessor fileProcessor;
+    final Cache<CacheKey, FileData> cache;
+
+    @Autowired
+    public CachingFileProcessor(@Qualifier("archicadDataFileProcessingService") FileProcessor fileProcessor,
+                                @Value("${files.processing.cache.enabled:true}") boolean enabled,
+                                @Value("${files.processing.cache.max-weight:2000000}") long maxWeight,
+                                @Value("${files.processing.cache.expire-after-access:12h}") Duration expireAfterAccess,
+                                ObjectProvider<MeterRegistry> meterRegistry) {
+        this.fileProcessor = fileProcessor;
+        if (enabled) {
+            this.cache = Caffeine.newBuilder()
+                    .maximumWeight(maxWeight)
+                    .weigher((CacheKey key, FileData fileData) -> weigh(fileData))
+                    .expireAfterAccess(expireAfterAccess)
+                    .recordStats()
+                    .build();
+            meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME));
+            log.info("File data cache created: maxWeight={}, expireAfterAccess={}", maxWeight, expireAfterAccess);
+        } else {
+            this.cache = null;
+        }
+    }
+
+    @Override
+    public FileData processFileData(DetailingFile detailingFile, Path storageBasePath) throws FileProcessorException {
+        var contentHash = toContentHash.apply(detailingFile);
+        if (cache == null || contentHash == null || contentHash.isEmpty()) {
+            return fileProcessor.processFileData(detailingFile, storageBasePath);
+        }
+
+        var extension = toExtension.apply(detailingFile);
+        var key = new CacheKey(contentHash, extension != null ? extension.toUpperCase() : "", fileProcessor.getVersion());
+        var cached = cache.getIfPresent(key);
+        if (cached == null) {
+            var data = fileProcessor.processFileData(detailingFile, storageBasePath);
+            cache.put(key, data);
+            return data;
+        }
+
+        log.debug("Reusing the data extracted from a file with the same content for: {}", toPath.apply(detailingFile));
+        var fileData = toFileData.apply(detailingFile);
+        var id = fileData != null ? toFileDataId.apply(fileData) : UUID.randomUUID().toString();
+        return cached.copyFor(id, detailingFile);
+    }
+
+    @Override
+    public boolean isSupported(DetailingFile detailingFile) {
+        return fileProcessor.isSupported(detailingFile);
+    }
+
+    @Override
+    public String getVersion() {
+        return fileProcessor.getVersion();
+    }
+
+    // <editor-fold desc="Static helper methods">
+    private static int weigh(FileData fileData) {
+        var table = toExtractedTable.apply(fileData);
+        long values = table.map(t -> (long) t.getRowCount() * t.getKeys().size())
+                .orElseGet(() -> (long) toExtractedData.apply(fileData).size());
+        return (int) Math.min(Integer.MAX_VALUE, 1 + values + toLines.apply(fileData).size());
+    }
+    // </editor-fold>
+
+    record CacheKey(String contentHash, String extension, String processorVersion) {
+    }
+}
@@ -0,0 +1,69 @@
+package tech.jmcs.floortech.detailing.app.components;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import tech.jmcs.floortech.detailing.app.service.DetailingFileService;
+import tech.jmcs.floortech.detailing.domain.service.ProcessingJobQueue;
+
+import java.time.Duration;
+
+/**
+ * Runs the processing jobs taken from the work queue, once the application is ready.
+ * Instances that only serve requests can disable the worker (files.processing.jobs.worker-enabled).
+ * Jobs that stopped making progress (files.processing.jobs.stale-after) are failed by a periodic sweep.
+ */
+@Component
+public class ProcessingJobWorker {
+    static final Logger log = LoggerFactory.getLogger(ProcessingJobWorker.class);
+    final ProcessingJobQueue processingJobQueue;
+    final DetailingFileService detailingFileService;
+    final boolean enabled;
+    final Duration staleAfter;
+    private Disposable consumer;
+
+    @Autowired
+    public ProcessingJobWorker(ProcessingJobQueue processingJobQueue,
+                               DetailingFileService detailingFileService,
+                               @Value("${files.processing.jobs.worker-enabled:true}") boolean enabled,
+                               @Value("${files.processing.jobs.stale-after:1h}") Duration staleAfter) {
+        this.processingJobQueue = processingJobQueue;
+        this.detailingFileService = detailingFileService;
+        this.enabled = enabled;
+        this.staleAfter = staleAfter;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Processing job worker is disabled");
+            return;
+        }
+        consumer = processingJobQueue.consume(detailingFileService::runProcessingJob);
+    }
+
+    @Scheduled(initialDelayString = "${files.processing.jobs.stale-sweep-interval:10m}", fixedDelayString = "${files.processing.jobs.stale-sweep-interval:10m}")
+    public void failStaleJobs() {
+        if (!enabled) {
+            return;
+        }
+        detailingFileService.failStaleProcessingJobs(staleAfter)
+                .filter(count -> count > 0)
+                .subscribe(count -> log.warn("Failed {} processing jobs with no progress for {}", count, staleAfter),
+                        e -> log.warn("Stale processing job sweep failed: {}", e.getMessage()));
+    }
+
+    @PreDestroy
+    private void stop() {
+        if (consumer != null) {
+            consumer.dispose();
+        }
+    }
+}
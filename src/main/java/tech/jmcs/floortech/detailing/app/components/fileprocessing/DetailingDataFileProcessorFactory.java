@@ -3,6 +3,8 @@ package tech.jmcs.floortech.detailing.app.components.fileprocessing;
 import org.apache.commons.lang.NotImplementedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import tech.jmcs.floortech.detailing.domain.model.files.DetailingFile;
 import tech.jmcs.floortech.detailing.domain.service.fileprocessing.DetailingDataFileProcessor;
@@ -15,7 +17,15 @@ import static tech.jmcs.floortech.detailing.domain.model.files.DetailingFileFaca
 public class DetailingDataFileProcessorFactory {
     static final Logger log = LoggerFactory.getLogger(DetailingDataFileProcessorFactory.class);
 
-    public DetailingDataFileProcessorFactory() {
+    final boolean mappedTextReader;
+    final TableProcessorRegistry tableProcessors;
+
+    @Autowired
+    public DetailingDataFileProcessorFactory(
+            @Value("${files.processing.mapped-text-reader:true}") boolean mappedTextReader,
+            TableProcessorRegistry tableProcessors) {
+        this.mappedTextReader = mappedTextReader;
+        this.tableProcessors = tableProcessors;
     }
 
     public DetailingDataFileProcessor createDetailingDataFileProcessor(DetailingFile detailingFile, Path storageBasePath) {
@@ -28,13 +38,18 @@ public class DetailingDataFileProcessorFactory {
             case "TXT":
                 return createTextDetailingFileProcessor(storageBasePath);
             case "XLS":
-                throw new NotImplementedException("XLS handling not yet implemented");
+            case "XLSX":
+                return createSpreadsheetDetailingFileProcessor(storageBasePath);
             default:
                 throw new NotImplementedException("No other handling available");
         }
     }
 
     private TextDetailingFileProcessor createTextDetailingFileProcessor(Path storagePath) {
-        return new TextDetailingFileProcessor(storagePath);
+        return new TextDetailingFileProcessor(storagePath, mappedTextReader, tableProcessors);
+    }
+
+    private SpreadsheetDetailingFileProcessor createSpreadsheetDetailingFileProcessor(Path storagePath) {
+        return new SpreadsheetDetailingFileProcessor(storagePath, tableProcessors);
     }
 }
@@ -0,0 +1,44 @@
+package tech.jmcs.floortech.detailing.app.components.fileprocessing;
+
+import tech.jmcs.floortech.detailing.domain.service.fileprocessing.TableRow;
+
+import java.util.Iterator;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Stops reading the rows of a file once the processing thread is interrupted.
+ * A file that does not finish processing within the file timeout is cancelled by interrupting its thread (see
+ * DetailingFileService), so the abandoned file stops at the next row rather than being read to the end.
+ */
+final class InterruptibleRows {
+    private InterruptibleRows() {
+    }
+
+    /**
+     * @throws CancellationException when the processing thread is interrupted
+     */
+    static void checkInterrupted() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("File processing was interrupted");
+        }
+    }
+
+    /**
+     * @param rows
+     * @return the rows, checking for interruption before each row
+     */
+    static Iterator<TableRow> of(Iterator<TableRow> rows) {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                checkInterrupted();
+                return rows.hasNext();
+            }
+
+            @Override
+            public TableRow next() {
+                return rows.next();
+            }
+        };
+    }
+}
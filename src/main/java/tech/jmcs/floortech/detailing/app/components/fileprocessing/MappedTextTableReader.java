@@ -0,0 +1,227 @@
+package tech.jmcs.floortech.detailing.app.components.fileprocessing;
+
+import org.apache.commons.lang.SystemUtils;
+import tech.jmcs.floortech.detailing.domain.service.fileprocessing.TableRow;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads a tab separated text table (title line, column line, then data rows) directly from a memory mapped file.
+ * Lines and fields are located by scanning the mapped bytes: tabs and line breaks are single bytes in UTF-8 and
+ * never occur inside a multibyte character, so nothing has to be decoded to split the file.  A data row is a set
+ * of field offsets into the buffer, reused for every row, and a String is only created for a field that is read.
+ * Each line is trimmed and split as String.trim().split("\t") would.
+ */
+class MappedTextTableReader {
+    private static final byte TAB = '\t';
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+    private final ByteBuffer buffer;
+    private final int limit;
+    private final String title;
+    private final String[] columns;
+    private byte[] scratch = new byte[256];
+    private int position;
+
+    private MappedTextTableReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.limit = buffer.limit();
+        this.position = byteOrderMarkLength(buffer);
+        var header = new SliceRow();
+        this.title = nextLine(header) ? header.line() : "";
+        this.columns = nextLine(header) ? header.toArray() : new String[]{};
+    }
+
+    /**
+     * Maps the file.  On Windows a mapped file can't be moved or deleted until the mapping is garbage collected, so
+     * the file is read into a heap buffer instead (still one copy of the file, with no per line copies).
+     * @param file
+     * @return
+     * @throws IOException
+     */
+    static MappedTextTableReader open(Path file) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            var size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File is too large to read as a table: " + file);
+            }
+            if (!SystemUtils.IS_OS_WINDOWS) {
+                return new MappedTextTableReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+            }
+            var buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+                // read the whole file
+            }
+            return new MappedTextTableReader(buffer.flip());
+        }
+    }
+
+    String title() {
+        return title;
+    }
+
+    String[] columns() {
+        return columns;
+    }
+
+    /**
+     * The data rows, in file order.  The same row instance is returned for every row, it is only valid until the
+     * next call to next().  Can only be iterated once.
+     * @return
+     */
+    Iterator<TableRow> rows() {
+        var row = new SliceRow();
+        return new Iterator<>() {
+            private boolean ready;
+
+            @Override
+            public boolean hasNext() {
+                if (!ready) {
+                    ready = nextLine(row);
+                }
+                return ready;
+            }
+
+            @Override
+            public TableRow next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                ready = false;
+                return row;
+            }
+        };
+    }
+
+    // <editor-fold desc="Instance Helper methods">
+    /**
+     * Reads the next line into the row, line breaks are \n, \r\n or \r (as BufferedReader.readLine)
+     * @param row
+     * @return false at the end of the file
+     */
+    private boolean nextLine(SliceRow row) {
+        if (position >= limit) {
+            return false;
+        }
+        var start = position;
+        var end = start;
+        while (end < limit && buffer.get(end) != LF && buffer.get(end) != CR) {
+            end++;
+        }
+        position = end;
+        if (position < limit) {
+            position += buffer.get(position) == CR && position + 1 < limit && buffer.get(position + 1) == LF ? 2 : 1;
+        }
+        row.set(start, end);
+        return true;
+    }
+
+    private boolean isWhitespace(int index) {
+        return (buffer.get(index) & 0xFF) <= ' ';
+    }
+
+    private String decode(int start, int end) {
+        var length = end - start;
+        if (length == 0) {
+            return "";
+        }
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(start, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+    // </editor-fold>
+
+    // <editor-fold desc="Static helper methods">
+    private static int byteOrderMarkLength(ByteBuffer buffer) {
+        if (buffer.limit() >= 3
+                && (buffer.get(0) & 0xFF) == 0xEF
+                && (buffer.get(1) & 0xFF) == 0xBB
+                && (buffer.get(2) & 0xFF) == 0xBF) {
+            return 3;
+        }
+        return 0;
+    }
+    // </editor-fold>
+
+    /**
+     * A trimmed line and the offsets of its tab separated fields
+     */
+    private class SliceRow implements TableRow {
+        private int[] starts = new int[16];
+        private int[] ends = new int[16];
+        private int count;
+        private int lineStart;
+        private int lineEnd;
+
+        private void set(int start, int end) {
+            while (start < end && isWhitespace(start)) {
+                start++;
+            }
+            while (end > start && isWhitespace(end - 1)) {
+                end--;
+            }
+            lineStart = start;
+            lineEnd = end;
+            count = 0;
+            var fieldStart = start;
+            for (int i = start; i < end; i++) {
+                if (buffer.get(i) == TAB) {
+                    add(fieldStart, i);
+                    fieldStart = i + 1;
+                }
+            }
+            add(fieldStart, end);
+        }
+
+        private void add(int start, int end) {
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+                ends = Arrays.copyOf(ends, count * 2);
+            }
+            starts[count] = start;
+            ends[count] = end;
+            count++;
+        }
+
+        private String line() {
+            return decode(lineStart, lineEnd);
+        }
+
+        private String[] toArray() {
+            var fields = new ArrayList<String>(count);
+            for (int i = 0; i < count; i++) {
+                fields.add(field(i));
+            }
+            return fields.toArray(new String[0]);
+        }
+
+        @Override
+        public int fieldCount() {
+            return count;
+        }
+
+        @Override
+        public String field(int index) {
+            if (index < 0 || index >= count) {
+                throw new IndexOutOfBoundsException("Field " + index + " of " + count);
+            }
+            return decode(starts[index], ends[index]);
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.toString(toArray());
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package tech.jmcs.floortech.detailing.app.components.fileprocessing;
+
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tech.jmcs.floortech.detailing.domain.model.filedata.ExtractedDataTable;
+import tech.jmcs.floortech.detailing.domain.model.filedata.FileData;
+import tech.jmcs.floortech.detailing.domain.model.files.DetailingFile;
+import tech.jmcs.floortech.detailing.domain.service.exception.FileProcessorException;
+import tech.jmcs.floortech.detailing.domain.service.fileprocessing.DetailingDataFileProcessor;
+import tech.jmcs.floortech.detailing.domain.service.fileprocessing.TableRow;
+import tech.jmcs.floortech.detailing.domain.service.fileprocessing.TableSink;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static tech.jmcs.floortech.detailing.domain.model.files.DetailingFileFacade.*;
+
+/**
+ * Processes a schedule exported as a spreadsheet (XLS or XLSX, detected from the content of the file).
+ * The first sheet is read as a stream of rows (event API, the workbook is never loaded as a whole): the first row
+ * is the title, the second row the column names, and the rows after are data rows, as in a text schedule.  The
+ * table is recognized from the title and column rows with the same table processors as text files, so an
+ * unrecognized spreadsheet is rejected once its second row has been read.  Empty rows are skipped.
+ */
+public class SpreadsheetDetailingFileProcessor implements DetailingDataFileProcessor {
+    static final Logger log = LoggerFactory.getLogger(SpreadsheetDetailingFileProcessor.class);
+    final Path storagePath;
+    final TableProcessorRegistry tableProcessors;
+
+    public SpreadsheetDetailingFileProcessor(Path storagePath, TableProcessorRegistry tableProcessors) {
+        this.storagePath = storagePath;
+        this.tableProcessors = tableProcessors;
+    }
+
+    @Override
+    public FileData processFile(DetailingFile detailingFile) throws FileProcessorException {
+        var fileData = toFileData.apply(detailingFile);
+        if (fileData == null) {
+            fileData = FileData.createEmpty(detailingFile);
+        }
+        var _path = toPath.apply(detailingFile);
+        var filePath = Paths.get(_path.path());
+        if (_path.isRelative()) {
+            filePath = Paths.get(storagePath.toString(), _path.path());
+        }
+
+        var sheet = new SheetRows(fileData);
+        try {
+            if (isOfficeOpenXml(filePath)) {
+                XlsxSheetReader.read(filePath, sheet::row);
+            } else {
+                XlsSheetReader.read(filePath, sheet::row);
+            }
+        } catch (TableNotRecognizedException e) {
+            log.info("Spreadsheet not recognized by any processors");
+            throw new FileProcessorException("Data file not recognized");
+        } catch (IOException | RuntimeException e) {
+            throw new FileProcessorException("An expected file could not be found or read: " + e.getMessage());
+        }
+
+        return fileData.withExtractedTable(sheet.finish());
+    }
+
+    // <editor-fold desc="Static helper methods">
+    /**
+     * Detects the format from the content of the file rather than its extension
+     * @param file
+     * @return true for an XLSX (Office Open XML) workbook, false for an XLS (OLE2) workbook
+     * @throws IOException
+     */
+    private static boolean isOfficeOpenXml(Path file) throws IOException {
+        try (var in = FileMagic.prepareToCheckMagic(Files.newInputStream(file))) {
+            return FileMagic.valueOf(in) == FileMagic.OOXML;
+        }
+    }
+    // </editor-fold>
+
+    /**
+     * Feeds the rows of a sheet to the table processor recognized from its title and column rows
+     */
+    private class SheetRows {
+        private final FileData fileData;
+        private String title;
+        private TableSink table;
+
+        private SheetRows(FileData fileData) {
+            this.fileData = fileData;
+        }
+
+        private void row(List<String> cells) {
+            InterruptibleRows.checkInterrupted();
+            var length = cells.size();
+            while (length > 0 && cells.get(length - 1).isBlank()) {
+                length--;
+            }
+            if (length == 0) {
+                return;
+            }
+            var values = cells.subList(0, length).toArray(new String[0]);
+            if (title == null) {
+                title = String.join(" ", values).trim();
+            } else if (table == null) {
+                var tableProcessor = tableProcessors.resolve(title, values)
+                        .orElseThrow(TableNotRecognizedException::new);
+                table = tableProcessor.openTable(fileData, title, values);
+            } else {
+                table.accept(TableRow.of(values));
+            }
+        }
+
+        private ExtractedDataTable finish() throws FileProcessorException {
+            if (table == null) {
+                log.info("Spreadsheet has no title and column rows");
+                throw new FileProcessorException("Data file not recognized");
+            }
+            return table.finish();
+        }
+    }
+
+    /**
+     * Stops reading the sheet when the table is not recognized from its header rows
+     */
+    private static class TableNotRecognizedException extends RuntimeException {
+        private TableNotRecognizedException() {
+            super("Table not recognized", null, false, false);
+        }
+    }
+}
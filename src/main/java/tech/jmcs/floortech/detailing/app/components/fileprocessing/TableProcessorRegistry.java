@@ -0,0 +1,113 @@
+package tech.jmcs.floortech.detailing.app.components.fileprocessing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import tech.jmcs.floortech.detailing.app.components.fileprocessing.processors.BeamListTextTableProcessor;
+import tech.jmcs.floortech.detailing.app.components.fileprocessing.processors.SheetListTextTableProcessor;
+import tech.jmcs.floortech.detailing.app.components.fileprocessing.processors.TrussListTextTableProcessor;
+import tech.jmcs.floortech.detailing.domain.service.fileprocessing.TableProcessor;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Selects the table processor for a table from its header (title and column names).
+ * Each processor's template is compiled into a fingerprint of the normalized title and the sorted set of
+ * normalized column names, so a table laid out like a template is resolved with one hash lookup.  On a miss the
+ * processors are asked in registration order (isRecognized) and the outcome, including no match, is remembered
+ * against the fingerprint of the table so the next table with the same header is resolved by the lookup.
+ */
+@Component
+public class TableProcessorRegistry {
+    static final Logger log = LoggerFactory.getLogger(TableProcessorRegistry.class);
+    private static final int MAX_LEARNED_FINGERPRINTS = 1000;
+    private final List<TableProcessor> processors;
+    private final Map<String, Optional<TableProcessor>> fingerprints = new ConcurrentHashMap<>();
+    private final Set<String> templateFingerprints;
+
+    public TableProcessorRegistry() {
+        this(List.of(
+                new BeamListTextTableProcessor(),
+                new TrussListTextTableProcessor(),
+                new SheetListTextTableProcessor()));
+    }
+
+    public TableProcessorRegistry(List<TableProcessor> processors) {
+        this.processors = List.copyOf(processors);
+        for (var processor : this.processors) {
+            var fingerprint = fingerprint(processor.templateTitle(), processor.templateColumns());
+            var existing = fingerprints.putIfAbsent(fingerprint, Optional.of(processor));
+            if (existing != null) {
+                log.warn("Template of {} has the same header as {}", processor.getClass().getSimpleName(), existing.get().getClass().getSimpleName());
+            }
+        }
+        this.templateFingerprints = Set.copyOf(fingerprints.keySet());
+    }
+
+    /**
+     * Finds the processor for a table
+     * @param title title line of the table
+     * @param columns column names of the table
+     * @return the processor, or empty if no processor recognizes the table
+     */
+    public Optional<TableProcessor> resolve(String title, String[] columns) {
+        var fingerprint = fingerprint(title, columns);
+        var resolved = fingerprints.get(fingerprint);
+        if (resolved != null) {
+            return resolved;
+        }
+
+        resolved = processors.stream()
+                .filter(processor -> processor.isRecognized(title, columns))
+                .findFirst();
+        if (fingerprints.size() - templateFingerprints.size() < MAX_LEARNED_FINGERPRINTS) {
+            fingerprints.putIfAbsent(fingerprint, resolved);
+        }
+        log.info("Table with title '{}' resolved by matching to: {}", title, resolved.map(p -> p.getClass().getSimpleName()).orElse("none"));
+        return resolved;
+    }
+
+    // <editor-fold desc="Static helper methods">
+    /**
+     * Fingerprint of a table header: the normalized title and the sorted, distinct, normalized column names
+     * @param title
+     * @param columns
+     * @return
+     */
+    static String fingerprint(String title, String[] columns) {
+        var normalizedColumns = new TreeSet<String>();
+        for (var column : columns) {
+            normalizedColumns.add(normalize(column));
+        }
+        var fingerprint = new StringBuilder(normalize(title));
+        for (var column : normalizedColumns) {
+            fingerprint.append('\t').append(column);
+        }
+        return fingerprint.toString();
+    }
+
+    /**
+     * Trims, collapses runs of whitespace to a single space and lowercases
+     * @param value
+     * @return
+     */
+    static String normalize(String value) {
+        var normalized = new StringBuilder(value.length());
+        var pendingSpace = false;
+        for (int i = 0; i < value.length(); i++) {
+            var c = value.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = normalized.length() > 0;
+            } else {
+                if (pendingSpace) {
+                    normalized.append(' ');
+                    pendingSpace = false;
+                }
+                normalized.append(Character.toLowerCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+    // </editor-fold>
+}
@@ -3,14 +3,13 @@ package tech.jmcs.floortech.detailing.app.components.fileprocessing;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import tech.jmcs.floortech.detailing.domain.service.exception.FileProcessorException;
-import tech.jmcs.floortech.detailing.app.components.fileprocessing.processors.BeamListTextTableProcessor;
-import tech.jmcs.floortech.detailing.app.components.fileprocessing.processors.SheetListTextTableProcessor;
-import tech.jmcs.floortech.detailing.app.components.fileprocessing.processors.TrussListTextTableProcessor;
-import tech.jmcs.floortech.detailing.domain.model.filedata.ExtractedDataRow;
+import tech.jmcs.floortech.detailing.domain.model.filedata.ExtractedDataTable;
 import tech.jmcs.floortech.detailing.domain.model.filedata.FileData;
 import tech.jmcs.floortech.detailing.domain.model.files.DetailingFile;
 import tech.jmcs.floortech.detailing.domain.model.files.DetailingFileFacade;
 import tech.jmcs.floortech.detailing.domain.service.fileprocessing.DetailingDataFileProcessor;
+import tech.jmcs.floortech.detailing.domain.service.fileprocessing.TableProcessor;
+import tech.jmcs.floortech.detailing.domain.service.fileprocessing.TableRow;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -18,15 +17,29 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
-import java.util.stream.Collectors;
 
 import static tech.jmcs.floortech.detailing.domain.model.files.DetailingFileFacade.*;
 
 public class TextDetailingFileProcessor implements DetailingDataFileProcessor {
     static final Logger log = LoggerFactory.getLogger(TextDetailingFileProcessor.class);
     final Path storagePath;
+    final boolean mappedReader;
+    final TableProcessorRegistry tableProcessors;
+
     public TextDetailingFileProcessor(Path storagePath) {
+        this(storagePath, true, new TableProcessorRegistry());
+    }
+
+    /**
+     * @param storagePath
+     * @param mappedReader when true the file is tokenized from a memory mapped buffer and only the values of the
+     *                     extracted rows are materialized, otherwise every line is read into memory first
+     * @param tableProcessors selects the processor from the title and column lines
+     */
+    public TextDetailingFileProcessor(Path storagePath, boolean mappedReader, TableProcessorRegistry tableProcessors) {
         this.storagePath = storagePath;
+        this.mappedReader = mappedReader;
+        this.tableProcessors = tableProcessors;
     }
 
     @Override
@@ -42,31 +55,49 @@ public class TextDetailingFileProcessor implements DetailingDataFileProcessor {
             filePath = Paths.get(storagePath.toString(), _path.path());
         }
 
-        List<String> rawRowData;
-        try (BufferedReader br = Files.newBufferedReader(filePath)) {
-            rawRowData = br.lines().collect(Collectors.toList());
-        } catch (IOException e) {
-            throw new FileProcessorException("An expected file could not be found or accessed: " + e.getMessage());
+        ExtractedDataTable extractedTable;
+        if (mappedReader) {
+            MappedTextTableReader reader;
+            try {
+                reader = MappedTextTableReader.open(filePath);
+            } catch (IOException e) {
+                throw new FileProcessorException("An expected file could not be found or accessed: " + e.getMessage());
+            }
+            var tableProcessor = recognizeTable(reader.title(), reader.columns());
+            extractedTable = tableProcessor.processRows(fileData, reader.title(), reader.columns(), InterruptibleRows.of(reader.rows()));
+        } else {
+            List<String> rawRowData = new ArrayList<>();
+            TableProcessor tableProcessor;
+            try (BufferedReader br = Files.newBufferedReader(filePath)) {
+                // only the title and column lines are needed to reject a file that is not recognized
+                String line;
+                while (rawRowData.size() < 2 && (line = br.readLine()) != null) {
+                    rawRowData.add(line);
+                }
+                TextFileData header = iterateData(rawRowData);
+                tableProcessor = recognizeTable(header.title(), header.columns());
+                while ((line = br.readLine()) != null) {
+                    rawRowData.add(line);
+                }
+            } catch (IOException e) {
+                throw new FileProcessorException("An expected file could not be found or accessed: " + e.getMessage());
+            }
+
+            TextFileData _d = iterateData(rawRowData);
+            var dataRows = _d.dataRows().stream().map(TableRow::of).iterator();
+            extractedTable = tableProcessor.processRows(fileData, _d.title(), _d.columns(), InterruptibleRows.of(dataRows));
         }
 
-        TextFileData _d = iterateData(rawRowData);
-
-        var beamListTextProcessor = new BeamListTextTableProcessor();
-        var trussListTextProcessor = new TrussListTextTableProcessor();
-        var sheetListTextProcessor = new SheetListTextTableProcessor();
-        Map<String, ExtractedDataRow> processedDataMap = null;
-        if (beamListTextProcessor.isRecognized(_d.title(), _d.columns())) {
-            processedDataMap = beamListTextProcessor.processData(fileData, _d.title(), _d.columns(), _d.dataRows());
-        } else if (trussListTextProcessor.isRecognized(_d.title(), _d.columns())) {
-            processedDataMap = trussListTextProcessor.processData(fileData, _d.title(), _d.columns(), _d.dataRows());
-        } else if (sheetListTextProcessor.isRecognized(_d.title(), _d.columns())) {
-            processedDataMap = sheetListTextProcessor.processData(fileData, _d.title(), _d.columns(), _d.dataRows());
-        } else {
+        return fileData.withExtractedTable(extractedTable);
+    }
+
+    private TableProcessor recognizeTable(String title, String[] columns) throws FileProcessorException {
+        var tableProcessor = tableProcessors.resolve(title, columns);
+        if (tableProcessor.isEmpty()) {
             log.info("Text file not recognized by any processors");
             throw new FileProcessorException("Data file not recognized");
         }
-
-        return fileData.withExtractedData(processedDataMap);
+        return tableProcessor.get();
     }
 
     private TextFileData iterateData(List<String> rawRowData) {
@@ -0,0 +1,140 @@
+package tech.jmcs.floortech.detailing.app.components.fileprocessing;
+
+import org.apache.poi.hssf.eventusermodel.FormatTrackingHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.eventusermodel.MissingRecordAwareHSSFListener;
+import org.apache.poi.hssf.eventusermodel.dummyrecord.LastCellOfRowDummyRecord;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.CellType;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads the rows of the first sheet of an XLS (BIFF8) workbook with the HSSF event API: records are read from the
+ * file one at a time and each row is handed over once its last cell has been read, so only the current row (and
+ * the shared strings table) is held in memory.
+ */
+class XlsSheetReader {
+
+    private XlsSheetReader() {
+    }
+
+    /**
+     * @param file
+     * @param rows receives the formatted cell values of each row, empty cells as "" (trailing empty cells omitted)
+     * @throws IOException if the workbook can't be read
+     */
+    static void read(Path file, Consumer<List<String>> rows) throws IOException {
+        try (var fileSystem = new POIFSFileSystem(file.toFile(), true)) {
+            var listener = new RowListener(rows);
+            var formats = new FormatTrackingHSSFListener(new MissingRecordAwareHSSFListener(listener));
+            listener.formats = formats;
+            var request = new HSSFRequest();
+            request.addListenerForAllRecords(formats);
+            new HSSFEventFactory().processWorkbookEvents(request, fileSystem);
+        }
+    }
+
+    private static class RowListener implements HSSFListener {
+        private final Consumer<List<String>> rows;
+        private final List<String> cells = new ArrayList<>();
+        private FormatTrackingHSSFListener formats;
+        private SSTRecord sharedStrings;
+        private int sheetIndex = -1;
+        private int pendingFormulaColumn = -1;
+
+        private RowListener(Consumer<List<String>> rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public void processRecord(Record record) {
+            switch (record.getSid()) {
+                case BOFRecord.sid -> {
+                    if (((BOFRecord) record).getType() == BOFRecord.TYPE_WORKSHEET) {
+                        sheetIndex++;
+                    }
+                }
+                case SSTRecord.sid -> sharedStrings = (SSTRecord) record;
+                default -> {
+                    if (sheetIndex == 0) {
+                        processSheetRecord(record);
+                    }
+                }
+            }
+        }
+
+        // <editor-fold desc="Instance Helper methods">
+        private void processSheetRecord(Record record) {
+            if (record instanceof LastCellOfRowDummyRecord) {
+                rows.accept(cells);
+                cells.clear();
+                return;
+            }
+            switch (record.getSid()) {
+                case LabelSSTRecord.sid -> {
+                    var label = (LabelSSTRecord) record;
+                    cell(label.getColumn(), sharedStrings.getString(label.getSSTIndex()).getString());
+                }
+                case LabelRecord.sid -> {
+                    var label = (LabelRecord) record;
+                    cell(label.getColumn(), label.getValue());
+                }
+                case NumberRecord.sid -> {
+                    var number = (NumberRecord) record;
+                    cell(number.getColumn(), formats.formatNumberDateCell(number));
+                }
+                case BoolErrRecord.sid -> {
+                    var boolErr = (BoolErrRecord) record;
+                    cell(boolErr.getColumn(), boolErr.isBoolean() ? Boolean.toString(boolErr.getBooleanValue()).toUpperCase() : "");
+                }
+                case FormulaRecord.sid -> {
+                    var formula = (FormulaRecord) record;
+                    if (formula.hasCachedResultString()) {
+                        // the cached text follows in a StringRecord
+                        pendingFormulaColumn = formula.getColumn();
+                    } else if (formula.getCachedResultTypeEnum() == CellType.NUMERIC) {
+                        cell(formula.getColumn(), formats.formatNumberDateCell(formula));
+                    } else if (formula.getCachedResultTypeEnum() == CellType.BOOLEAN) {
+                        cell(formula.getColumn(), Boolean.toString(formula.getCachedBooleanValue()).toUpperCase());
+                    }
+                }
+                case StringRecord.sid -> {
+                    if (pendingFormulaColumn >= 0) {
+                        cell(pendingFormulaColumn, ((StringRecord) record).getString());
+                        pendingFormulaColumn = -1;
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        private void cell(int column, String value) {
+            while (cells.size() < column) {
+                cells.add("");
+            }
+            if (cells.size() == column) {
+                cells.add(value);
+            } else {
+                cells.set(column, value);
+            }
+        }
+        // </editor-fold>
+    }
+}
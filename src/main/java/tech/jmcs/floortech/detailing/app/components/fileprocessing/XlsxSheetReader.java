@@ -0,0 +1,85 @@
+package tech.jmcs.floortech.detailing.app.components.fileprocessing;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads the rows of the first sheet of an XLSX workbook with the SAX (event) API: the sheet XML is parsed as a
+ * stream and each row is handed over as it ends, so only the current row (and the shared strings table) is held in
+ * memory.
+ */
+class XlsxSheetReader {
+
+    private XlsxSheetReader() {
+    }
+
+    /**
+     * @param file
+     * @param rows receives the formatted cell values of each row, empty cells as "" (trailing empty cells omitted)
+     * @throws IOException if the workbook can't be read
+     */
+    static void read(Path file, Consumer<List<String>> rows) throws IOException {
+        try (var workbook = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            var strings = new ReadOnlySharedStringsTable(workbook);
+            var reader = new XSSFReader(workbook);
+            var styles = reader.getStylesTable();
+            var sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                throw new IOException("Workbook has no sheets: " + file);
+            }
+            try (var sheet = sheets.next()) {
+                var handler = new XSSFSheetXMLHandler(styles, null, strings, new RowHandler(rows), new DataFormatter(), false);
+                var xmlReader = XMLHelper.newXMLReader();
+                xmlReader.setContentHandler(handler);
+                xmlReader.parse(new InputSource(sheet));
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Unable to read workbook: " + e.getMessage(), e);
+        }
+    }
+
+    private static class RowHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final Consumer<List<String>> rows;
+        private final List<String> cells = new ArrayList<>();
+
+        private RowHandler(Consumer<List<String>> rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cells.clear();
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            rows.accept(cells);
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            var column = cellReference != null ? new CellReference(cellReference).getCol() : cells.size();
+            while (cells.size() < column) {
+                cells.add("");
+            }
+            cells.add(formattedValue != null ? formattedValue : "");
+        }
+    }
+}
@@ -3,9 +3,10 @@ package tech.jmcs.floortech.detailing.app.components.fileprocessing.processors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import tech.jmcs.floortech.detailing.app.components.fileprocessing.config.ArchiCadBeamListingTextFile;
-import tech.jmcs.floortech.detailing.domain.model.filedata.ExtractedDataRow;
+import tech.jmcs.floortech.detailing.domain.model.filedata.ColumnType;
 import tech.jmcs.floortech.detailing.domain.model.filedata.FileData;
 import tech.jmcs.floortech.detailing.domain.service.fileprocessing.TableProcessor;
+import tech.jmcs.floortech.detailing.domain.service.fileprocessing.TableSink;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -16,10 +17,27 @@ public class BeamListTextTableProcessor implements TableProcessor {
     static final String QTY = "qty";
     static final String LEN = "len";
     static final String BEAM = "beam";
+    static final ColumnTemplate COLUMNS = ColumnTemplate.builder()
+            .column(ID, "id")
+            .column(QTY, ColumnType.INT, "qty", "quantity")
+            .column(LEN, ColumnType.LENGTH_MM, "len", "length")
+            .column(BEAM, ColumnType.DICTIONARY, "beam", "name", "size")
+            .itemId(ID)
+            .build();
 
     public BeamListTextTableProcessor() {
     }
 
+    @Override
+    public String templateTitle() {
+        return ArchiCadBeamListingTextFile.getTitle();
+    }
+
+    @Override
+    public String[] templateColumns() {
+        return ArchiCadBeamListingTextFile.getColumnArray();
+    }
+
     @Override
     public boolean isRecognized(String title, String[] columns) {
         boolean titleMatch = ArchiCadBeamListingTextFile.getTitle().equalsIgnoreCase(title.trim().replaceAll("\s+", " "));
@@ -46,88 +64,14 @@ public class BeamListTextTableProcessor implements TableProcessor {
     }
 
     @Override
-    public Map<String, ExtractedDataRow> processData(FileData fileData, String title, String[] columns, List<String[]> dataRows) {
-        List<String> cleanColumns = new ArrayList<>();
-        for (String column : columns) {
-            cleanColumns.add(column.trim().replaceAll("\s+", " "));
-        }
-
-        Integer idColumnIdx = detectColumn(cleanColumns, "id");
-        Integer lengthColumnIdx = detectColumn(cleanColumns, "len", "length");
-        Integer qtyColumnIdx = detectColumn(cleanColumns, "qty", "quantity");
-        Integer nameColumnIdx = detectColumn(cleanColumns, "beam", "name", "size");
-        if (idColumnIdx == null || lengthColumnIdx == null || qtyColumnIdx == null || nameColumnIdx == null) {
-            log.info("A column wasn't found: '{}', '{}', '{}', '{}'", idColumnIdx, lengthColumnIdx, qtyColumnIdx, nameColumnIdx);
+    public TableSink openTable(FileData fileData, String title, String[] columns) {
+        var plan = COLUMNS.compile(columns);
+        if (!plan.isComplete()) {
+            log.info("A column wasn't found: {}", plan.getMissingKeys());
         } else {
-            log.info("Columns found with indexes: '{}', '{}', '{}', '{}'", idColumnIdx, lengthColumnIdx, qtyColumnIdx, nameColumnIdx);
+            log.info("Columns found with indexes: {}", plan);
         }
 
-        Map<String, Integer> columnIndexMap = Map.of(
-                ID, idColumnIdx,
-                QTY, qtyColumnIdx,
-                LEN, lengthColumnIdx,
-                BEAM, nameColumnIdx
-        );
-
-        Map<String, ExtractedDataRow> processedDataMap = new HashMap<>();
-        int count = 1;
-        for (String[] rowData : dataRows) {
-            Map<String, String> valuesMap = new HashMap<>();
-            try {
-                processRow(rowData, cleanColumns, valuesMap, columnIndexMap);
-                System.out.println("Values map for this row: " + valuesMap.size());
-            } catch (InvalidRowException e) {
-                log.warn("Encountered an invalid row in the table data: {}", Arrays.toString(rowData));
-            }
-
-            var extractedDataRow = ExtractedDataRow.builder()
-                    .row(count)
-                    .itemId(valuesMap.get(ID))
-                    .parent(fileData)
-                    .data(valuesMap)
-                    .build();
-            log.info("Row number='{}', id='{}'", count, valuesMap.get(ID));
-            processedDataMap.put(valuesMap.get(ID), extractedDataRow);
-            count++;
-        }
-
-        return processedDataMap;
-    }
-
-    private class InvalidRowException extends Exception {}
-    private void processRow(
-            String[] dataRow,
-            List<String> columns,
-            Map<String, String> valuesMap,
-            Map<String, Integer> columnIndexMap) throws InvalidRowException {
-        if (dataRow.length != columns.size()) {
-            throw new InvalidRowException();
-        }
-
-        Integer idx_id = columnIndexMap.get(ID);
-        Integer idx_qty = columnIndexMap.get(QTY);
-        Integer idx_len = columnIndexMap.get(LEN);
-        Integer idx_name = columnIndexMap.get(BEAM);
-
-        valuesMap.put(ID, dataRow[idx_id]);
-        valuesMap.put(QTY, dataRow[idx_qty]);
-        valuesMap.put(LEN, dataRow[idx_len]);
-        valuesMap.put(BEAM, dataRow[idx_name]);
+        return plan.openTable(fileData);
     }
-
-    private Integer detectColumn(List<String> columns, String... possibleValues) {
-        int idx = 0;
-        for (String column : columns) {
-            for (String possibleValue : possibleValues) {
-                if (column.equalsIgnoreCase(possibleValue)
-                        || column.toLowerCase().startsWith(possibleValue.toLowerCase())
-                ) {
-                    return idx;
-                }
-            }
-            idx++;
-        }
-        return null;
-    }
-
 }
@@ -0,0 +1,110 @@
+package tech.jmcs.floortech.detailing.app.components.fileprocessing.processors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tech.jmcs.floortech.detailing.domain.model.filedata.ColumnType;
+import tech.jmcs.floortech.detailing.domain.model.filedata.ExtractedDataTable;
+import tech.jmcs.floortech.detailing.domain.model.filedata.FileData;
+import tech.jmcs.floortech.detailing.domain.service.fileprocessing.TableRow;
+import tech.jmcs.floortech.detailing.domain.service.fileprocessing.TableSink;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * A ColumnTemplate compiled against the column line of a table: the column index of each value, by slot.
+ * Rows are extracted by reading the planned fields into a fixed array of slots, no lookups are made per row, and
+ * appended to a columnar ExtractedDataTable.
+ * A value whose column was not found is left out of the row data.
+ */
+public final class ColumnPlan {
+    static final Logger log = LoggerFactory.getLogger(ColumnPlan.class);
+    static final int NOT_FOUND = -1;
+    private final String[] keys;
+    private final ColumnType[] types;
+    private final int[] indexes;
+    private final int columnCount;
+    private final String itemIdKey;
+
+    ColumnPlan(String[] keys, ColumnType[] types, int[] indexes, int columnCount, String itemIdKey) {
+        this.keys = keys;
+        this.types = types;
+        this.indexes = indexes;
+        this.columnCount = columnCount;
+        this.itemIdKey = itemIdKey;
+    }
+
+    public boolean isComplete() {
+        for (int index : indexes) {
+            if (index == NOT_FOUND) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public List<String> getMissingKeys() {
+        var missing = new ArrayList<String>();
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (indexes[slot] == NOT_FOUND) {
+                missing.add(keys[slot]);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Reads the planned values of a row
+     * @param row
+     * @return the values by slot, or null when the row does not have the same number of fields as the column line
+     */
+    public String[] bind(TableRow row) {
+        if (row.fieldCount() != columnCount) {
+            return null;
+        }
+        var values = new String[keys.length];
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (indexes[slot] != NOT_FOUND) {
+                values[slot] = row.field(indexes[slot]);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Starts a table that extracts each row it receives.
+     * Rows are numbered from 1.  An invalid row (field count different to the column line) is kept with no data.
+     * @param fileData parent of the extracted rows
+     * @return
+     */
+    public TableSink openTable(FileData fileData) {
+        var table = ExtractedDataTable.builder(fileData, keys, types, itemIdKey);
+        var invalidRow = new String[keys.length];
+        return new TableSink() {
+            @Override
+            public void accept(TableRow row) {
+                var values = bind(row);
+                if (values == null) {
+                    log.warn("Encountered an invalid row in the table data: {}", row);
+                    values = invalidRow;
+                }
+                table.row(values);
+            }
+
+            @Override
+            public ExtractedDataTable finish() {
+                return table.build();
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        var plan = new StringJoiner(", ", "ColumnPlan{", "}");
+        for (int slot = 0; slot < keys.length; slot++) {
+            plan.add(keys[slot] + "=" + indexes[slot]);
+        }
+        return plan.toString();
+    }
+}
@@ -0,0 +1,115 @@
+package tech.jmcs.floortech.detailing.app.components.fileprocessing.processors;
+
+import tech.jmcs.floortech.detailing.domain.model.filedata.ColumnType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The values a table processor extracts, each with the column names it is read from.
+ * A template is compiled against the column line of a table once (compile) into a ColumnPlan, which then extracts
+ * every row without further lookups.
+ * A column matches a name when it equals, or starts with, the name (ignoring case and runs of whitespace).
+ * Each value has a ColumnType, the storage of its column in the extracted table.
+ */
+public final class ColumnTemplate {
+    private final String[] keys;
+    private final String[][] names;
+    private final ColumnType[] types;
+    private final String itemIdKey;
+
+    private ColumnTemplate(ColumnTemplateBuilder builder) {
+        this.keys = builder.keys.toArray(new String[0]);
+        this.names = builder.names.toArray(new String[0][]);
+        this.types = builder.types.toArray(new ColumnType[0]);
+        this.itemIdKey = builder.itemIdKey;
+        if (!builder.keys.contains(builder.itemIdKey)) {
+            throw new IllegalStateException("The item id key is not a column of the template: " + builder.itemIdKey);
+        }
+    }
+
+    public static ColumnTemplateBuilder builder() {
+        return new ColumnTemplateBuilder();
+    }
+
+    /**
+     * Resolves each value of the template to the index of the first column that matches one of its names
+     * @param columns column line of the table
+     * @return
+     */
+    public ColumnPlan compile(String[] columns) {
+        var cleanColumns = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            cleanColumns[i] = columns[i].trim().replaceAll("\\s+", " ").toLowerCase();
+        }
+        var indexes = new int[keys.length];
+        for (int slot = 0; slot < keys.length; slot++) {
+            indexes[slot] = detectColumn(cleanColumns, names[slot]);
+        }
+        return new ColumnPlan(keys, types, indexes, columns.length, itemIdKey);
+    }
+
+    // <editor-fold desc="Static helper methods">
+    private static int detectColumn(String[] cleanColumns, String[] possibleValues) {
+        for (int idx = 0; idx < cleanColumns.length; idx++) {
+            for (String possibleValue : possibleValues) {
+                if (cleanColumns[idx].startsWith(possibleValue)) {
+                    return idx;
+                }
+            }
+        }
+        return ColumnPlan.NOT_FOUND;
+    }
+    // </editor-fold>
+
+    public static class ColumnTemplateBuilder {
+        private final List<String> keys = new ArrayList<>();
+        private final List<String[]> names = new ArrayList<>();
+        private final List<ColumnType> types = new ArrayList<>();
+        private String itemIdKey;
+
+        public ColumnTemplateBuilder() {
+        }
+
+        /**
+         * Adds a text value to the template
+         * @param key key of the value in the extracted row data
+         * @param possibleValues column names the value is read from
+         * @return
+         */
+        public ColumnTemplateBuilder column(String key, String... possibleValues) {
+            return column(key, ColumnType.TEXT, possibleValues);
+        }
+
+        /**
+         * Adds a value to the template
+         * @param key key of the value in the extracted row data
+         * @param type storage of the value
+         * @param possibleValues column names the value is read from
+         * @return
+         */
+        public ColumnTemplateBuilder column(String key, ColumnType type, String... possibleValues) {
+            var lowerCaseValues = new String[possibleValues.length];
+            for (int i = 0; i < possibleValues.length; i++) {
+                lowerCaseValues[i] = possibleValues[i].toLowerCase();
+            }
+            this.keys.add(key);
+            this.names.add(lowerCaseValues);
+            this.types.add(type);
+            return this;
+        }
+
+        /**
+         * @param key key of the value that identifies the item of a row
+         * @return
+         */
+        public ColumnTemplateBuilder itemId(String key) {
+            this.itemIdKey = key;
+            return this;
+        }
+
+        public ColumnTemplate build() {
+            return new ColumnTemplate(this);
+        }
+    }
+}
@@ -3,9 +3,10 @@ package tech.jmcs.floortech.detailing.app.components.fileprocessing.processors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import tech.jmcs.floortech.detailing.app.components.fileprocessing.config.ArchiCadSheetListingTextFile;
-import tech.jmcs.floortech.detailing.domain.model.filedata.ExtractedDataRow;
+import tech.jmcs.floortech.detailing.domain.model.filedata.ColumnType;
 import tech.jmcs.floortech.detailing.domain.model.filedata.FileData;
 import tech.jmcs.floortech.detailing.domain.service.fileprocessing.TableProcessor;
+import tech.jmcs.floortech.detailing.domain.service.fileprocessing.TableSink;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -15,6 +16,22 @@ public class SheetListTextTableProcessor implements TableProcessor {
     static final String ID = "id";
     static final String QTY = "qty";
     static final String LEN = "len";
+    static final ColumnTemplate COLUMNS = ColumnTemplate.builder()
+            .column(ID, "id")
+            .column(QTY, ColumnType.INT, "qty", "quantity")
+            .column(LEN, ColumnType.LENGTH_MM, "len", "length")
+            .itemId(ID)
+            .build();
+
+    @Override
+    public String templateTitle() {
+        return ArchiCadSheetListingTextFile.getTitle();
+    }
+
+    @Override
+    public String[] templateColumns() {
+        return ArchiCadSheetListingTextFile.getColumnArray();
+    }
 
     @Override
     public boolean isRecognized(String title, String[] columns) {
@@ -49,87 +66,14 @@ public class SheetListTextTableProcessor implements TableProcessor {
     }
 
     @Override
-    public Map<String, ExtractedDataRow> processData(FileData fileData, String title, String[] columns, List<String[]> dataRows) {
-        List<String> cleanColumns = new ArrayList<>();
-        for (String column : columns) {
-            cleanColumns.add(column.trim().replaceAll("\s+", " "));
-        }
-
-        System.out.println("Processing data...");
-
-        Integer idColumnIdx = detectColumn(cleanColumns, "id");
-        Integer lengthColumnIdx = detectColumn(cleanColumns, "len", "length");
-        Integer qtyColumnIdx = detectColumn(cleanColumns, "qty", "quantity");
-        if (idColumnIdx == null || lengthColumnIdx == null || qtyColumnIdx == null ) {
-            System.out.printf("A column wasn't found: %s, %s, %s \n", idColumnIdx, lengthColumnIdx, qtyColumnIdx);
+    public TableSink openTable(FileData fileData, String title, String[] columns) {
+        var plan = COLUMNS.compile(columns);
+        if (!plan.isComplete()) {
+            log.info("A column wasn't found: {}", plan.getMissingKeys());
         } else {
-            System.out.printf("Columns found with indexes: %s, %s, %s \n", idColumnIdx, lengthColumnIdx, qtyColumnIdx);
+            log.info("Columns found with indexes: {}", plan);
         }
 
-        Map<String, Integer> columnIndexMap = Map.of(
-                ID, idColumnIdx,
-                QTY, qtyColumnIdx,
-                LEN, lengthColumnIdx
-        );
-
-        Map<String, ExtractedDataRow> processedDataMap = new HashMap<>();
-
-        int count = 1;
-        for (String[] rowData : dataRows) {
-            Map<String, String> valuesMap = new HashMap<>();
-            try {
-                processRow(rowData, cleanColumns, valuesMap, columnIndexMap);
-                System.out.println("Values map for this row: " + valuesMap.size());
-            } catch (InvalidRowException e) {
-                log.warn("Encountered an invalid row in the table data: {}", Arrays.toString(rowData));
-            }
-
-            var extractedDataRow = ExtractedDataRow.builder()
-                    .row(count)
-                    .itemId(valuesMap.get(ID))
-                    .parent(fileData)
-                    .data(valuesMap)
-                    .build();
-            System.out.println("Row number: " + count + ", with id: " + valuesMap.get(ID));
-
-            processedDataMap.put(valuesMap.get(ID), extractedDataRow);
-            count++;
-        }
-
-        return processedDataMap;
-    }
-
-    private class InvalidRowException extends Exception {}
-    private void processRow(
-            String[] dataRow,
-            List<String> columns,
-            Map<String, String> valuesMap,
-            Map<String, Integer> columnIndexMap) throws InvalidRowException {
-        if (dataRow.length != columns.size()) {
-            throw new InvalidRowException();
-        }
-
-        Integer idx_id = columnIndexMap.get(ID);
-        Integer idx_qty = columnIndexMap.get(QTY);
-        Integer idx_len = columnIndexMap.get(LEN);
-
-        valuesMap.put(ID, dataRow[idx_id]);
-        valuesMap.put(QTY, dataRow[idx_qty]);
-        valuesMap.put(LEN, dataRow[idx_len]);
-    }
-
-    private Integer detectColumn(List<String> columns, String... possibleValues) {
-        int idx = 0;
-        for (String column : columns) {
-            for (String possibleValue : possibleValues) {
-                if (column.equalsIgnoreCase(possibleValue)
-                        || column.toLowerCase().startsWith(possibleValue.toLowerCase())
-                ) {
-                    return idx;
-                }
-            }
-            idx++;
-        }
-        return null;
+        return plan.openTable(fileData);
     }
 }
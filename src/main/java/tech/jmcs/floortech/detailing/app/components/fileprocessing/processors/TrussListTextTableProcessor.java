@@ -3,9 +3,10 @@ package tech.jmcs.floortech.detailing.app.components.fileprocessing.processors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import tech.jmcs.floortech.detailing.app.components.fileprocessing.config.ArchiCadTrussListingTextFile;
-import tech.jmcs.floortech.detailing.domain.model.filedata.ExtractedDataRow;
+import tech.jmcs.floortech.detailing.domain.model.filedata.ColumnType;
 import tech.jmcs.floortech.detailing.domain.model.filedata.FileData;
 import tech.jmcs.floortech.detailing.domain.service.fileprocessing.TableProcessor;
+import tech.jmcs.floortech.detailing.domain.service.fileprocessing.TableSink;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -27,10 +28,34 @@ public class TrussListTextTableProcessor implements TableProcessor {
     static final String PENO = "peno";
     static final String PENO_POS = "peno position";
     static final String TRUSS_GRP = "truss group";
+    static final ColumnTemplate COLUMNS = ColumnTemplate.builder()
+            .column(ID, "id")
+            .column(QTY, ColumnType.INT, "no", "qty")
+            .column(LEN, ColumnType.LENGTH_MM, "truss length")
+            .column(TYPE, ColumnType.DICTIONARY, "type")
+            .column(LEC, ColumnType.DICTIONARY, "left end cap")
+            .column(REC, ColumnType.DICTIONARY, "right end cap")
+            .column(NEC, ColumnType.DICTIONARY, "nec")
+            .column(STC, ColumnType.DICTIONARY, "std")
+            .column(PENO, ColumnType.DICTIONARY, "has peno", "p.has peno")
+            .column(PENO_POS, "cut webs", "p.cut webs")
+            .column(TRUSS_GRP, ColumnType.DICTIONARY, "truss grouping pack", "truss group")
+            .itemId(ID)
+            .build();
 
     public TrussListTextTableProcessor() {
     }
 
+    @Override
+    public String templateTitle() {
+        return String.join(" ", ArchiCadTrussListingTextFile.getTitleParts());
+    }
+
+    @Override
+    public String[] templateColumns() {
+        return ArchiCadTrussListingTextFile.getColumnArray();
+    }
+
     @Override
     public boolean isRecognized(String title, String[] columns) {
         log.info("Truss List Title={}", title);
@@ -96,122 +121,14 @@ public class TrussListTextTableProcessor implements TableProcessor {
     }
 
     @Override
-    public Map<String, ExtractedDataRow> processData(FileData fileData, String title, String[] columns, List<String[]> dataRows) {
-        List<String> cleanColumns = new ArrayList<>();
-        for (String column : columns) {
-            cleanColumns.add(column.trim().replaceAll("\s+", " "));
-        }
-
-        System.out.println("Processing data...");
-
-//        "ID", "No", "Truss Length", "Type", "Left End Cap", "Right End Cap", "NEC", "STD", "Has Peno", "Cut Webs", "Truss Grouping Pack"
-        Integer idxIdColumn = detectColumn(cleanColumns, "id");
-        Integer idxQtyColumn = detectColumn(cleanColumns, "no", "qty");
-        Integer idxLengthColumn = detectColumn(cleanColumns, "truss length");
-        Integer idxTypeColumn = detectColumn(cleanColumns, "type");
-        Integer idxLeftEcColumn = detectColumn(cleanColumns, "left end cap");
-        Integer idxRightEcColumn = detectColumn(cleanColumns, "right end cap");
-        Integer idxNecColumn = detectColumn(cleanColumns, "nec");
-        Integer idxStdColumn = detectColumn(cleanColumns, "std");
-        Integer idxHasPenoColumn = detectColumn(cleanColumns, "has peno", "p.has peno");
-        Integer idxCutWebsColumn = detectColumn(cleanColumns, "cut webs", "p.cut webs");
-        Integer idxTrussGroupColumn = detectColumn(cleanColumns, "truss grouping pack", "truss group");
-        if (idxIdColumn == null || idxQtyColumn == null || idxLengthColumn == null || idxTypeColumn == null
-                || idxLeftEcColumn == null || idxRightEcColumn == null || idxNecColumn == null || idxStdColumn == null
-                || idxHasPenoColumn == null || idxCutWebsColumn == null || idxTrussGroupColumn == null) {
-            System.out.printf("A column wasn't found: %s, %s, %s, %s, %s, %s, %s, %s, %s, %s, %s \n",
-                    idxIdColumn, idxQtyColumn, idxLengthColumn, idxTypeColumn, idxLeftEcColumn, idxRightEcColumn,
-                    idxNecColumn, idxStdColumn, idxHasPenoColumn, idxCutWebsColumn, idxTrussGroupColumn);
-        }
-        Map<String, Integer> columnIndexMap = new HashMap<>();
-        columnIndexMap.put(ID, idxIdColumn);
-        columnIndexMap.put(QTY, idxQtyColumn);
-        columnIndexMap.put(LEN, idxLengthColumn);
-        columnIndexMap.put(TYPE, idxTypeColumn);
-        columnIndexMap.put(LEC, idxLeftEcColumn);
-        columnIndexMap.put(REC, idxRightEcColumn);
-        columnIndexMap.put(NEC, idxNecColumn);
-        columnIndexMap.put(STC, idxStdColumn);
-        columnIndexMap.put(PENO, idxHasPenoColumn);
-        columnIndexMap.put(PENO_POS, idxCutWebsColumn);
-        columnIndexMap.put(TRUSS_GRP, idxTrussGroupColumn);
-
-        Map<String, ExtractedDataRow> processedDataMap = new HashMap<>();
-
-        int count = 1;
-        for (String[] rowData : dataRows) {
-            Map<String, String> valuesMap = new HashMap<>();
-            try {
-                processRow(rowData, cleanColumns, valuesMap, columnIndexMap);
-                System.out.println("Values map for this row: " + valuesMap.size());
-            } catch (InvalidRowException e) {
-                log.warn("Encountered an invalid row in the table data: {}", Arrays.toString(rowData));
-            }
-
-            var extractedDataRow = ExtractedDataRow.builder()
-                    .row(count)
-                    .itemId(valuesMap.get(ID))
-                    .parent(fileData)
-                    .data(valuesMap)
-                    .build();
-            System.out.println("Row number: " + count + ", with id: " + valuesMap.get(ID));
-
-            processedDataMap.put(valuesMap.get(ID), extractedDataRow);
-            count++;
+    public TableSink openTable(FileData fileData, String title, String[] columns) {
+        var plan = COLUMNS.compile(columns);
+        if (!plan.isComplete()) {
+            log.info("A column wasn't found: {}", plan.getMissingKeys());
+        } else {
+            log.info("Columns found with indexes: {}", plan);
         }
 
-        return processedDataMap;
-    }
-
-    private void processRow(
-            String[] dataRow,
-            List<String> columns,
-            Map<String, String> valuesMap,
-            Map<String, Integer> columnIndexMap) throws InvalidRowException {
-        if (dataRow.length != columns.size()) {
-            throw new InvalidRowException();
-        }
-
-        Integer idx_id = columnIndexMap.get(ID);
-        Integer idx_qty = columnIndexMap.get(QTY);
-        Integer idx_len = columnIndexMap.get(LEN);
-        Integer idx_type = columnIndexMap.get(TYPE);
-        Integer idx_lec = columnIndexMap.get(LEC);
-        Integer idx_rec = columnIndexMap.get(REC);
-        Integer idx_nec = columnIndexMap.get(NEC);
-        Integer idx_stc = columnIndexMap.get(STC);
-        Integer idx_peno = columnIndexMap.get(PENO);
-        Integer idx_peno_pos = columnIndexMap.get(PENO_POS);
-        Integer idx_truss_grp = columnIndexMap.get(TRUSS_GRP);
-
-        valuesMap.put(ID, dataRow[idx_id]);
-        valuesMap.put(QTY, dataRow[idx_qty]);
-        valuesMap.put(LEN, dataRow[idx_len]);
-        valuesMap.put(TYPE, dataRow[idx_type]);
-        valuesMap.put(LEC, dataRow[idx_lec]);
-        valuesMap.put(REC, dataRow[idx_rec]);
-        valuesMap.put(NEC, dataRow[idx_nec]);
-        valuesMap.put(STC, dataRow[idx_stc]);
-        valuesMap.put(PENO, dataRow[idx_peno]);
-        valuesMap.put(PENO_POS, dataRow[idx_peno_pos]);
-        valuesMap.put(TRUSS_GRP, dataRow[idx_truss_grp]);
-    }
-
-    private Integer detectColumn(List<String> columns, String... possibleValues) {
-        int idx = 0;
-        for (String column : columns) {
-            for (String possibleValue : possibleValues) {
-                if (column.equalsIgnoreCase(possibleValue)
-                        || column.toLowerCase().startsWith(possibleValue.toLowerCase())
-                ) {
-                    return idx;
-                }
-            }
-            idx++;
-        }
-        return null;
-    }
-
-    private class InvalidRowException extends Exception {
+        return plan.openTable(fileData);
     }
 }
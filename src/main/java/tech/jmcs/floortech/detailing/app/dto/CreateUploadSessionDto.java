@@ -0,0 +1,8 @@
+package tech.jmcs.floortech.detailing.app.dto;
+
+public record CreateUploadSessionDto(
+        String filename,
+        long totalSize,
+        int chunkCount
+) {
+}
@@ -0,0 +1,26 @@
+package tech.jmcs.floortech.detailing.app.dto;
+
+import tech.jmcs.floortech.detailing.domain.configs.DetailingStatus;
+
+import java.util.Date;
+
+/**
+ * Claim in a claim list, without its file sets (see GetDetailingClaimDto)
+ * @param fileSetCount number of file sets submitted to the claim
+ * @param fileCount number of files in all the file sets of the claim
+ */
+public record GetDetailingClaimSummaryDto(
+        String jobId,
+        Integer floortechJobNumber,
+        String jobClientId,
+        String jobClientName,
+        String jobEngineerId,
+        String jobEngineerName,
+        String claimedByStaffUsername,
+        String claimedByStaffId,
+        Date claimedAt,
+        DetailingStatus status,
+        int fileSetCount,
+        int fileCount
+) {
+}
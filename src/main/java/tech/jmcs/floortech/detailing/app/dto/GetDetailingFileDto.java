@@ -11,6 +11,8 @@ public record GetDetailingFileDto(
     String filename,
     Long fileSize,
     String mimetype,
+    String contentHash,
+    String processingError,
     XPath parentFolder,
     String label,
     Date creationDate,
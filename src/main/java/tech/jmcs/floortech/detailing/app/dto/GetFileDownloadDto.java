@@ -0,0 +1,14 @@
+package tech.jmcs.floortech.detailing.app.dto;
+
+import org.springframework.core.io.Resource;
+
+import java.time.Instant;
+
+public record GetFileDownloadDto(
+        Resource resource,
+        String filename,
+        long contentLength,
+        Instant lastModified,
+        String eTag
+) {
+}
@@ -0,0 +1,25 @@
+package tech.jmcs.floortech.detailing.app.dto;
+
+import tech.jmcs.floortech.detailing.domain.configs.ProcessingJobStatus;
+import tech.jmcs.floortech.detailing.domain.model.processing.ProcessingJob;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * @param fileSet the processed file set, once the job is COMPLETED
+ */
+public record GetProcessingJobDto(
+        String id,
+        String claimId,
+        String fileSetId,
+        ProcessingJobStatus status,
+        int fileCount,
+        int processedCount,
+        List<ProcessingJob.FileProgress> files,
+        String error,
+        Date createdDate,
+        Date updatedDate,
+        GetFileSetDto fileSet
+) {
+}
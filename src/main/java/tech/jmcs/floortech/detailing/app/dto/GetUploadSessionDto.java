@@ -0,0 +1,16 @@
+package tech.jmcs.floortech.detailing.app.dto;
+
+import java.util.Date;
+import java.util.List;
+
+public record GetUploadSessionDto(
+        String id,
+        String jobId,
+        String filename,
+        long totalSize,
+        int chunkCount,
+        List<Integer> receivedChunks,
+        List<Integer> missingChunks,
+        Date createdDate
+) {
+}
@@ -3,9 +3,11 @@ package tech.jmcs.floortech.detailing.app.dto.mapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import tech.jmcs.floortech.detailing.app.dto.GetDetailingClaimDto;
+import tech.jmcs.floortech.detailing.app.dto.GetDetailingClaimSummaryDto;
 import tech.jmcs.floortech.detailing.app.dto.GetFileSetDto;
 import tech.jmcs.floortech.detailing.domain.model.detailingclaim.DetailingClaim;
 import tech.jmcs.floortech.detailing.domain.model.detailingclaim.DetailingClaimFacade;
+import tech.jmcs.floortech.detailing.domain.model.detailingclaim.DetailingClaimSummary;
 
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -55,4 +57,13 @@ public class DetailingClaimDtoMapper {
         );
     }
 
+    public GetDetailingClaimSummaryDto toGetSummaryDto(DetailingClaimSummary summary) {
+        return new GetDetailingClaimSummaryDto(
+                summary.jobId(), summary.floortechJobNumber(), summary.jobClientId(), summary.jobClientName(),
+                summary.jobEngineerId(), summary.jobEngineerName(), summary.claimedByStaffUsername(),
+                summary.claimedByStaffId(), summary.claimedAt(), summary.status(),
+                summary.fileSetCount(), summary.fileCount()
+        );
+    }
+
 }
@@ -25,6 +25,8 @@ public class DetailingFileDtoMapper {
         var filename = toFilename.apply(detailingFile);
         var fileSize = toFileSize.apply(detailingFile);
         var mimetype = toMimeType.apply(detailingFile);
+        var contentHash = toContentHash.apply(detailingFile);
+        var processingError = toProcessingError.apply(detailingFile);
         var parentFolder = toParentFolder.apply(detailingFile);
         var label = toLabel.apply(detailingFile);
         var creationDate = toCreationDate.apply(detailingFile);
@@ -36,7 +38,7 @@ public class DetailingFileDtoMapper {
         }
 
         return new GetDetailingFileDto(
-                id, path, extension, filename, fileSize, mimetype, parentFolder, label, creationDate,
+                id, path, extension, filename, fileSize, mimetype, contentHash, processingError, parentFolder, label, creationDate,
                 getFileDataDto
         );
     }
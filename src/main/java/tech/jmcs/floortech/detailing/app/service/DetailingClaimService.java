@@ -1,13 +1,13 @@
 package tech.jmcs.floortech.detailing.app.service;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.convert.converter.Converter;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 import reactor.core.publisher.Flux;
@@ -18,8 +18,11 @@ import tech.jmcs.floortech.common.dto.AppUserDto;
 import tech.jmcs.floortech.common.dto.FloortechJobDto;
 import tech.jmcs.floortech.detailing.app.dto.mapper.DetailingClaimDtoMapper;
 import tech.jmcs.floortech.detailing.app.service.exception.DetailingClaimServiceException;
+import tech.jmcs.floortech.detailing.domain.configs.CursorPage;
+import tech.jmcs.floortech.detailing.domain.configs.PageCursor;
 import tech.jmcs.floortech.detailing.domain.model.detailingclaim.DetailingClaim;
 import tech.jmcs.floortech.detailing.app.dto.GetDetailingClaimDto;
+import tech.jmcs.floortech.detailing.app.dto.GetDetailingClaimSummaryDto;
 import tech.jmcs.floortech.detailing.domain.repository.DetailingClaimRepository;
 import tech.jmcs.floortech.detailing.domain.service.FloortechJobDataService;
 import tech.jmcs.floortech.detailing.domain.service.RemoteLoggingService;
@@ -123,15 +126,27 @@ public class DetailingClaimService {
 
     /**
      * Get all active claims (Started, Paused status)
-     * @param paging
+     * @param after cursor of the page, null for the first page
+     * @param size
      * @return
      */
     @IsAuthenticatedAsFloortechInternalUser
-    public Flux<GetDetailingClaimDto> getAllActiveClaims(Pageable paging) {
-        if (paging == null) paging = PageRequest.of(0, 50);
-        return detailingClaimRepository.findAllActive(paging)
-                .map(detailingClaimDtoMapper::toGetDto)
-                        .doOnNext(detailingClaim -> logMessageSender.sendSystemInfo("Claim retrieved: ID=" + detailingClaim.id()));
+    public Mono<CursorPage<GetDetailingClaimDto>> getAllActiveClaims(PageCursor after, @Min(1) @Max(CursorPage.MAX_SIZE) int size) {
+        return detailingClaimRepository.findAllActive(after, size)
+                .map(page -> page.map(detailingClaimDtoMapper::toGetDto))
+                        .doOnNext(page -> page.items().forEach(detailingClaim -> logMessageSender.sendSystemInfo("Claim retrieved: ID=" + detailingClaim.id())));
+    }
+
+    /**
+     * Get all active claims (Started status), without their file sets
+     * @param after cursor of the page, null for the first page
+     * @param size
+     * @return Summary Dto page
+     */
+    @IsAuthenticatedAsFloortechInternalUser
+    public Mono<CursorPage<GetDetailingClaimSummaryDto>> getAllActiveClaimSummaries(PageCursor after, @Min(1) @Max(CursorPage.MAX_SIZE) int size) {
+        return detailingClaimRepository.findAllActiveSummaries(after, size)
+                .map(page -> page.map(detailingClaimDtoMapper::toGetSummaryDto));
     }
 
     /**
@@ -150,7 +165,7 @@ public class DetailingClaimService {
                         .switchIfEmpty(Mono.error(DetailingClaimServiceException.notClaimOwner()))
                 .<DetailingClaim>handle(DetailingClaimService::verifyAndCancelOrError) // update the job status to cancelled
                 .log()
-                .flatMap(detailingClaimRepository::save)
+                .flatMap(detailingClaimRepository::saveStatus)
                         .doOnError(error -> log.info("Unable to save: " + error.getMessage()))
                 .map(detailingClaimDtoMapper::toGetDto);
     }
@@ -171,7 +186,7 @@ public class DetailingClaimService {
                         .doOnError(error -> logMessageSender.sendSystemInfo("(completeDetailingClaim): " + error.getMessage()))
                 .single()// there should only be one if database is not in an invalid state
                 .<DetailingClaim>handle(DetailingClaimService::verifyAndPauseOrError)
-                .flatMap(detailingClaimRepository::save)
+                .flatMap(detailingClaimRepository::saveStatus)
                         .doOnError(error -> logMessageSender.sendSystemError("(completeDetailingClaim): " + error.getMessage()))
                 .map(detailingClaimDtoMapper::toGetDto)
                         .doOnNext(detailingClaim -> logMessageSender.sendBusinessInfo("Detailing Job Paused: ID=" + detailingClaim.jobId() + ", Job Number=" + detailingClaim.floortechJobNumber() + ", User=" + currentUser));
@@ -193,7 +208,7 @@ public class DetailingClaimService {
                         .doOnError(error -> logMessageSender.sendSystemInfo("(completeDetailingClaim): " + error.getMessage()))
                 .single()
                 .handle(DetailingClaimService::verifyAndStartOrError)
-                .flatMap(detailingClaimRepository::save)
+                .flatMap(detailingClaimRepository::saveStatus)
                         .doOnError(error -> logMessageSender.sendSystemError("(completeDetailingClaim): " + error.getMessage()))
                 .map(detailingClaimDtoMapper::toGetDto)
                         .doOnNext(detailingClaim -> logMessageSender.sendBusinessInfo("Detailing Job Resumed: ID=" + detailingClaim.jobId() + ", Job Number=" + detailingClaim.floortechJobNumber() + ", User=" + currentUser));
@@ -219,7 +234,7 @@ public class DetailingClaimService {
                 .single()
                         .doOnError(error -> logMessageSender.sendSystemError("Database error: " + error.getMessage()))
                 .<DetailingClaim>handle(DetailingClaimService::verifyAndCompleteOrError)
-                .flatMap(detailingClaimRepository::save)
+                .flatMap(detailingClaimRepository::saveStatus)
                         .doOnError(error -> logMessageSender.sendSystemError("(completeDetailingClaim): " + error.getMessage()))
                 .map(detailingClaimDtoMapper::toGetDto)
                         .doOnNext(detailingClaim -> logMessageSender.sendBusinessInfo("Detailing Job Completed: ID=" + detailingClaim.jobId() + ", Job Number=" + detailingClaim.floortechJobNumber() + ", User=" + currentUser));
@@ -228,39 +243,55 @@ public class DetailingClaimService {
     /**
      * Get all claims active by user (Status is Unverified, Started, or Paused)
      * @param username
-     * @param paging
-     * @return Dto Flux for Active claims for user
+     * @param after cursor of the page, null for the first page
+     * @param size
+     * @return Dto page for Active claims for user
      */
     @IsAuthenticatedAsFloortechInternalUser
-    public Flux<GetDetailingClaimDto> getAllClaimsByStaffUsernameAndActive(@NotNull String username, Pageable paging) {
-        return detailingClaimRepository.findAllByStaffUsernameAndActive(username, paging)
-                .map(detailingClaimDtoMapper::toGetDto);
+    public Mono<CursorPage<GetDetailingClaimDto>> getAllClaimsByStaffUsernameAndActive(@NotNull String username, PageCursor after, @Min(1) @Max(CursorPage.MAX_SIZE) int size) {
+        return detailingClaimRepository.findAllByStaffUsernameAndActive(username, after, size)
+                .map(page -> page.map(detailingClaimDtoMapper::toGetDto));
+    }
+
+    /**
+     * Get all claims active by user, without their file sets
+     * @param username
+     * @param after cursor of the page, null for the first page
+     * @param size
+     * @return Summary Dto page for Active claims for user
+     */
+    @IsAuthenticatedAsFloortechInternalUser
+    public Mono<CursorPage<GetDetailingClaimSummaryDto>> getAllClaimSummariesByStaffUsernameAndActive(@NotNull String username, PageCursor after, @Min(1) @Max(CursorPage.MAX_SIZE) int size) {
+        return detailingClaimRepository.findAllSummariesByStaffUsernameAndActive(username, after, size)
+                .map(page -> page.map(detailingClaimDtoMapper::toGetSummaryDto));
     }
 
     /**
      * Get all completed claims by user
      * @param username
-     * @param paging
-     * @return Dto Flux of Completed claims for user
+     * @param after cursor of the page, null for the first page
+     * @param size
+     * @return Dto page of Completed claims for user
      */
     @IsAuthenticatedAsFloortechInternalUser
-    public Flux<GetDetailingClaimDto> getAllClaimsByStaffUsernameAndCompleted(@NotNull String username, Pageable paging) {
+    public Mono<CursorPage<GetDetailingClaimDto>> getAllClaimsByStaffUsernameAndCompleted(@NotNull String username, PageCursor after, @Min(1) @Max(CursorPage.MAX_SIZE) int size) {
         Objects.requireNonNull(username);
-        return detailingClaimRepository.findAllByStaffUsernameAndCompleted(username, paging)
-                .map(detailingClaimDtoMapper::toGetDto);
+        return detailingClaimRepository.findAllByStaffUsernameAndCompleted(username, after, size)
+                .map(page -> page.map(detailingClaimDtoMapper::toGetDto));
     }
 
     /**
      * Get all cancelled claims by user
      * @param username
-     * @param paging
-     * @return Dto Flux of Cancelled claims for user
+     * @param after cursor of the page, null for the first page
+     * @param size
+     * @return Dto page of Cancelled claims for user
      */
     @IsAuthenticatedAsFloortechInternalUser
-    public Flux<GetDetailingClaimDto> getAllClaimsByStaffUsernameAndCancelled(@NotNull String username, Pageable paging) {
+    public Mono<CursorPage<GetDetailingClaimDto>> getAllClaimsByStaffUsernameAndCancelled(@NotNull String username, PageCursor after, @Min(1) @Max(CursorPage.MAX_SIZE) int size) {
         Objects.requireNonNull(username);
-        return detailingClaimRepository.findAllByStaffUsernameAndCancelled(username, paging)
-                .map(detailingClaimDtoMapper::toGetDto);
+        return detailingClaimRepository.findAllByStaffUsernameAndCancelled(username, after, size)
+                .map(page -> page.map(detailingClaimDtoMapper::toGetDto));
     }
 
     /**
@@ -8,32 +8,47 @@ import org.apache.commons.lang.NotImplementedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
 import org.springframework.core.io.buffer.DataBuffer;
-import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.codec.multipart.FilePartEvent;
+import org.springframework.http.codec.multipart.PartEvent;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.validation.annotation.Validated;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.publisher.SynchronousSink;
 import tech.jmcs.floortech.common.auth.IsAuthenticatedAsFloortechInternalUser;
 import tech.jmcs.floortech.common.helper.ArchiveContents;
 import tech.jmcs.floortech.common.helper.FileHelper;
 import tech.jmcs.floortech.detailing.app.dto.mapper.FileSetDtoMapper;
 import tech.jmcs.floortech.detailing.domain.service.exception.FileProcessorException;
 import tech.jmcs.floortech.detailing.app.service.exception.DetailingFileServiceException;
-import tech.jmcs.floortech.detailing.domain.service.exception.ZipFileStorageException;
+import tech.jmcs.floortech.detailing.domain.configs.ProcessingJobStatus;
 import tech.jmcs.floortech.detailing.domain.configs.XPath;
 import tech.jmcs.floortech.detailing.domain.model.detailingclaim.DetailingClaim;
 import tech.jmcs.floortech.detailing.domain.model.detailingclaim.DetailingClaimFacade;
 import tech.jmcs.floortech.detailing.domain.model.fileset.FileSet;
+import tech.jmcs.floortech.detailing.domain.model.processing.ProcessingJob;
+import tech.jmcs.floortech.detailing.domain.model.upload.UploadSession;
 import tech.jmcs.floortech.detailing.domain.repository.DetailingClaimRepository;
+import tech.jmcs.floortech.detailing.domain.repository.ProcessingJobRepository;
 import tech.jmcs.floortech.detailing.domain.model.files.DetailingFile;
+import tech.jmcs.floortech.detailing.domain.model.files.DetailingFileFacade;
+import tech.jmcs.floortech.detailing.domain.model.files.ExtractedArchiveContents;
+import tech.jmcs.floortech.detailing.app.dto.CreateUploadSessionDto;
+import tech.jmcs.floortech.detailing.app.dto.GetFileDownloadDto;
 import tech.jmcs.floortech.detailing.app.dto.GetFileSetDto;
+import tech.jmcs.floortech.detailing.app.dto.GetProcessingJobDto;
+import tech.jmcs.floortech.detailing.app.dto.GetUploadSessionDto;
 import tech.jmcs.floortech.detailing.domain.service.RemoteLoggingService;
 import tech.jmcs.floortech.detailing.domain.service.fileprocessing.FileProcessor;
+import tech.jmcs.floortech.detailing.domain.service.BlockingIoScheduler;
+import tech.jmcs.floortech.detailing.domain.service.ChunkedUploadStorageService;
 import tech.jmcs.floortech.detailing.domain.service.FileStorageService;
 import tech.jmcs.floortech.detailing.domain.service.IdGenerator;
+import tech.jmcs.floortech.detailing.domain.service.ProcessingJobQueue;
 import tech.jmcs.floortech.detailing.domain.service.ZipFileStorageService;
 
 import java.io.IOException;
@@ -41,7 +56,13 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
 
 import static tech.jmcs.floortech.detailing.domain.model.detailingclaim.DetailingClaimFacade.*;
 import static tech.jmcs.floortech.detailing.domain.model.files.DetailingFileFacade.*;
@@ -52,18 +73,34 @@ import static tech.jmcs.floortech.detailing.domain.model.fileset.FileSetFacade.*
 public class DetailingFileService {
     static final Logger log = LoggerFactory.getLogger(DetailingFileService.class);
     private static final long MAX_CONTENT_LENGTH = 100*1000*1000;
+    private static final String ARCHIVE_PART_NAME = "file";
+    private static final int MAX_CHUNK_COUNT = 10000;
     final DetailingClaimRepository detailingClaimRepository;
     final FileStorageService fileStorage;
     final ZipFileStorageService zipFileStorage;
-    @Qualifier("archicadDataFileProcessingService")
     final FileProcessor fileProcessor;
     final IdGenerator idGenerator;
     final RemoteLoggingService logMessageSender;
     final FileSetDtoMapper fileSetDtoMapper;
     final Validator validator;
+    final BlockingIoScheduler blockingIo;
+    final ChunkedUploadStorageService chunkedUploadStorage;
+    final ProcessingJobRepository processingJobs;
+    final ProcessingJobQueue processingJobQueue;
+    // maximum files of a file set processed at once, 0 for the number of processors
+    final int processingParallelism;
+    final Duration processingFileTimeout;
+    // submit a processing job for each new file set as soon as it is saved
+    final boolean eagerProcessing;
+    // largest archive of an upload session, every open session can hold this much in _TEMP_ until it is committed
+    final DataSize maxUploadSessionSize;
 
     @Autowired
-    public DetailingFileService(DetailingClaimRepository detailingClaimRepository, FileStorageService fileStorage, ZipFileStorageService zipFileStorage, FileProcessor fileProcessor, IdGenerator idGenerator, RemoteLoggingService logMessageSender, FileSetDtoMapper fileSetDtoMapper, Validator validator) {
+    public DetailingFileService(DetailingClaimRepository detailingClaimRepository, FileStorageService fileStorage, ZipFileStorageService zipFileStorage, FileProcessor fileProcessor, IdGenerator idGenerator, RemoteLoggingService logMessageSender, FileSetDtoMapper fileSetDtoMapper, Validator validator, BlockingIoScheduler blockingIo, ChunkedUploadStorageService chunkedUploadStorage, ProcessingJobRepository processingJobs, ProcessingJobQueue processingJobQueue,
+                                @Value("${files.processing.parallelism:0}") int processingParallelism,
+                                @Value("${files.processing.file-timeout:60s}") Duration processingFileTimeout,
+                                @Value("${files.processing.eager:false}") boolean eagerProcessing,
+                                @Value("${files.upload-session.max-size:500MB}") DataSize maxUploadSessionSize) {
         this.detailingClaimRepository = detailingClaimRepository;
         this.fileStorage = fileStorage;
         this.zipFileStorage = zipFileStorage;
@@ -72,37 +109,173 @@ public class DetailingFileService {
         this.logMessageSender = logMessageSender;
         this.fileSetDtoMapper = fileSetDtoMapper;
         this.validator = validator;
+        this.blockingIo = blockingIo;
+        this.chunkedUploadStorage = chunkedUploadStorage;
+        this.processingJobs = processingJobs;
+        this.processingJobQueue = processingJobQueue;
+        this.processingParallelism = processingParallelism;
+        this.processingFileTimeout = processingFileTimeout;
+        this.eagerProcessing = eagerProcessing;
+        this.maxUploadSessionSize = maxUploadSessionSize;
     }
 
     // <editor-fold desc="Webflux Service methods">
     /**
      * Accepts a zip file to be attached to a DetailingClaim
+     * The upload is rejected before it is written when the declared content length is too large, and aborted
+     * while streaming when it is not a zip archive or exceeds the byte budget.  The archive part is read from the
+     * part events, so nothing is written before the checks see the content.
      * The method is only accessible to Internal users
-     * TODO: Validate FilePart is zip archive and validate file size
      * @param currentUser
      * @param jobId
-     * @param filePartMono
+     * @param partEvents
      * @param contentLength
      * @return Dto Mono
      */
     @IsAuthenticatedAsFloortechInternalUser
     public Mono<GetFileSetDto> submitDetailingFilesArchive(@NotNull String currentUser,
                                                            @NotNull @Size(min = 10, max = 100) String jobId,
-                                                           @NotNull Mono<FilePart> filePartMono,
+                                                           @NotNull Flux<PartEvent> partEvents,
                                                            @NotNull @Max(MAX_CONTENT_LENGTH+1000) long contentLength) {
-        return getActiveDetailingClaimIfAllowed(jobId, currentUser)
+        if (contentLength > MAX_CONTENT_LENGTH+1000) {
+            return Mono.error(DetailingFileServiceException.contentLengthError(MAX_CONTENT_LENGTH));
+        }
+        var archiveContentsMono = getActiveDetailingClaimIfAllowed(jobId, currentUser)
                 .onErrorStop()
-                .flatMap(detailingClaim -> storeFileMono(filePartMono, detailingClaim))
-                .handle(this::unzipArchiveOrError).log()
-                .map(this::createFileSetFromFiles)
-                .zipWith(getActiveDetailingClaimIfAllowed(jobId, currentUser))
-                .flatMap(tuple -> saveFileSetToDetailingClaim(tuple.getT1(), tuple.getT2()))
-                .map(fileSetDtoMapper::toGetDto).log()
-                        .doOnNext(fileSetDto -> logMessageSender.sendBusinessInfo("Submitted FileSet for detailing claim: ID=" + fileSetDto.jobClaimId() + ", FileSet Label=" + fileSetDto.label() + ", User=" + currentUser));
+                .flatMap(detailingClaim -> storeArchiveMono(partEvents, detailingClaim, uploadBudget(contentLength)))
+                .flatMap(absoluteZipPath -> blockingIo.fromCallable(() -> zipFileStorage.unzipArchive(absoluteZipPath, false)));
+        return createAndSaveFileSet(archiveContentsMono, jobId, currentUser);
+    }
+
+    /**
+     * Accepts a zip file to be attached to a DetailingClaim, extracting the archive while the multipart body
+     * is still arriving.  The archive is written to disk and unzipped in a single pass.
+     * The method is only accessible to Internal users
+     * @param currentUser
+     * @param jobId
+     * @param partEvents
+     * @param contentLength
+     * @return Dto Mono
+     */
+    @IsAuthenticatedAsFloortechInternalUser
+    public Mono<GetFileSetDto> submitDetailingFilesArchiveStreaming(@NotNull String currentUser,
+                                                                    @NotNull @Size(min = 10, max = 100) String jobId,
+                                                                    @NotNull Flux<PartEvent> partEvents,
+                                                                    @NotNull @Max(MAX_CONTENT_LENGTH+1000) long contentLength) {
+        if (contentLength > MAX_CONTENT_LENGTH+1000) {
+            return Mono.error(DetailingFileServiceException.contentLengthError(MAX_CONTENT_LENGTH));
+        }
+        var archiveContentsMono = getActiveDetailingClaimIfAllowed(jobId, currentUser)
+                .onErrorStop()
+                .flatMap(detailingClaim -> storeAndExtractArchiveMono(partEvents, detailingClaim, uploadBudget(contentLength)));
+        return createAndSaveFileSet(archiveContentsMono, jobId, currentUser);
+    }
+
+    /**
+     * Starts a resumable upload of a zip file to be attached to a DetailingClaim.
+     * The archive is then sent as numbered chunks (in any order, and in parallel) and committed once all chunks
+     * are received.
+     * The method is only accessible to Internal users
+     * @param currentUser
+     * @param jobId
+     * @param request
+     * @return Upload session Dto Mono
+     */
+    @IsAuthenticatedAsFloortechInternalUser
+    public Mono<GetUploadSessionDto> createUploadSession(@NotNull String currentUser,
+                                                         @NotNull @Size(min = 10, max = 100) String jobId,
+                                                         @NotNull CreateUploadSessionDto request) {
+        if (request.totalSize() <= 0 || request.totalSize() > maxUploadSessionSize.toBytes()) {
+            return Mono.error(DetailingFileServiceException.contentLengthError(maxUploadSessionSize.toBytes()));
+        }
+        if (request.chunkCount() < 1 || request.chunkCount() > MAX_CHUNK_COUNT) {
+            return Mono.error(DetailingFileServiceException.chunkCountError(MAX_CHUNK_COUNT));
+        }
+        return getActiveDetailingClaimIfAllowed(jobId, currentUser)
+                .map(detailingClaim -> UploadSession.create(idGenerator.generateUuid(), jobId, currentUser, toSafeFilename(request.filename()), request.totalSize(), request.chunkCount()))
+                .flatMap(chunkedUploadStorage::createSession)
+                .map(DetailingFileService::toUploadSessionDto)
+                        .doOnNext(session -> logMessageSender.sendBusinessInfo("Started upload session for detailing claim: ID=" + jobId + ", Session=" + session.id() + ", User=" + currentUser));
+    }
+
+    /**
+     * Gets the state of an upload session, so an interrupted upload can resume with the missing chunks.
+     * The method is only accessible to Internal users
+     * @param currentUser
+     * @param sessionId
+     * @return Upload session Dto Mono
+     */
+    @IsAuthenticatedAsFloortechInternalUser
+    public Mono<GetUploadSessionDto> getUploadSession(@NotNull String currentUser, @NotNull @Size(min = 10, max = 100) String sessionId) {
+        return getUploadSessionIfAllowed(sessionId, currentUser)
+                .map(DetailingFileService::toUploadSessionDto);
+    }
+
+    /**
+     * Receives a chunk of an upload session.  A chunk that was already received is replaced.
+     * The method is only accessible to Internal users
+     * @param currentUser
+     * @param sessionId
+     * @param index
+     * @param content
+     * @return Upload session Dto Mono
+     */
+    @IsAuthenticatedAsFloortechInternalUser
+    public Mono<GetUploadSessionDto> uploadChunk(@NotNull String currentUser,
+                                                 @NotNull @Size(min = 10, max = 100) String sessionId,
+                                                 int index,
+                                                 @NotNull Flux<DataBuffer> content) {
+        return getUploadSessionIfAllowed(sessionId, currentUser)
+                .<UploadSession>handle((session, sink) -> {
+                    if (session.isChunkIndexValid(index)) sink.next(session);
+                    else sink.error(DetailingFileServiceException.chunkIndexOutOfRange(index, session.chunkCount()));
+                })
+                .flatMap(session -> chunkedUploadStorage.writeChunk(session, index, content))
+                .map(DetailingFileService::toUploadSessionDto);
+    }
+
+    /**
+     * Joins the chunks of a complete upload session into the archive, extracts it and attaches the FileSet to
+     * the DetailingClaim.  The session is removed once the archive is assembled.
+     * The method is only accessible to Internal users
+     * @param currentUser
+     * @param sessionId
+     * @return Dto Mono
+     */
+    @IsAuthenticatedAsFloortechInternalUser
+    public Mono<GetFileSetDto> commitUploadSession(@NotNull String currentUser, @NotNull @Size(min = 10, max = 100) String sessionId) {
+        return getUploadSessionIfAllowed(sessionId, currentUser)
+                .flatMap(session -> {
+                    var archiveContentsMono = getActiveDetailingClaimIfAllowed(session.jobId(), currentUser)
+                            .onErrorStop()
+                            .flatMap(detailingClaim -> chunkedUploadStorage.assemble(session, archivePathParts(detailingClaim)))
+                            .flatMap(absoluteZipPath -> blockingIo.fromCallable(() -> zipFileStorage.unzipArchive(absoluteZipPath, false)));
+                    return createAndSaveFileSet(archiveContentsMono, session.jobId(), currentUser);
+                });
+    }
+
+    /**
+     * Discards an upload session that will not be committed, removing the chunks received so far.  A session that
+     * is receiving chunks or being committed is not discarded.
+     * The method is only accessible to Internal users
+     * @param currentUser
+     * @param sessionId
+     * @return Dto Mono of the discarded session
+     */
+    @IsAuthenticatedAsFloortechInternalUser
+    public Mono<GetUploadSessionDto> abortUploadSession(@NotNull String currentUser, @NotNull @Size(min = 10, max = 100) String sessionId) {
+        return getUploadSessionIfAllowed(sessionId, currentUser)
+                .flatMap(session -> chunkedUploadStorage.deleteSession(session.id()).thenReturn(session))
+                .map(DetailingFileService::toUploadSessionDto);
     }
 
     /**
      * Attempts to extract scheduling data from files in a file set.
+     * Files are processed concurrently on the blocking io scheduler (files.processing.parallelism at a time, each
+     * within files.processing.file-timeout) and kept in the order of the file set.  A file that fails is kept
+     * unprocessed with its processing error, the other files of the set are still processed.
+     * The response is sent once the whole file set is processed and saved, see submitProcessFileSet to process
+     * large file sets in the background.
      * The method is only accessible to Internal users
      * @param currentUser
      * @param claimId
@@ -111,25 +284,96 @@ public class DetailingFileService {
      */
     @IsAuthenticatedAsFloortechInternalUser
     public Mono<GetFileSetDto> processFileSet(@NotNull String currentUser, @NotNull @Size(min = 10, max = 100) String claimId, @NotNull @Size(min = 10, max = 100) String fileSetId) {
-        var processedMono = getActiveDetailingClaimIfAllowed(claimId, currentUser)
-                .map(toFileSets::apply)
-                .map(fileSetList -> fileSetList.get(fileSetId))
-                .flatMapIterable(toFiles::apply)
-                .flatMap(this::preprocessDetailingFile)
-                .onErrorComplete()
-                .map(this::processDetailingFile).collectList();
-
-        return processedMono
-                .zipWith(getActiveDetailingClaimIfAllowed(claimId, currentUser))
-                .map(tuple -> addDetailingFilesToDetailingClaimFileSet(fileSetId, tuple.getT1(),tuple.getT2()))
-                .flatMap(detailingClaimRepository::save)
+        return processFileSet(currentUser, claimId, fileSetId, (index, detailingFile) -> Mono.just(detailingFile));
+    }
+
+    /**
+     * Submits the processing of the files of a file set as a job, run by a background worker from the work queue.
+     * The job is polled with getProcessingJob for the progress of each file, and the processed file set once the
+     * job is completed.
+     * The method is only accessible to Internal users
+     * @param currentUser
+     * @param claimId
+     * @param fileSetId
+     * @return Processing job Dto Mono
+     */
+    @IsAuthenticatedAsFloortechInternalUser
+    public Mono<GetProcessingJobDto> submitProcessFileSet(@NotNull String currentUser, @NotNull @Size(min = 10, max = 100) String claimId, @NotNull @Size(min = 10, max = 100) String fileSetId) {
+        return getActiveDetailingClaimIfAllowed(claimId, currentUser)
                 .map(toFileSets::apply)
-                .map(fileSets -> fileSets.get(fileSetId))
-                .map(fileSetDtoMapper::toGetDto);
+                .flatMap(fileSets -> Mono.justOrEmpty(fileSets.get(fileSetId)))
+                .switchIfEmpty(Mono.error(DetailingFileServiceException.noFileSetForId(fileSetId)))
+                .flatMap(fileSet -> queueProcessingJob(claimId, fileSet, currentUser))
+                .map(job -> toProcessingJobDto(job, null));
     }
 
     /**
-     * Get a list of file information for a specific claim.  (Does not include the actual file)
+     * Gets the progress of a processing job, and the processed file set (with the file data) once the job is completed.
+     * The file set is looked up in the claims of the user for the job, so the final state is returned even when the
+     * claim is no longer active.
+     * The method is only accessible to Internal users
+     * @param currentUser
+     * @param jobId
+     * @return Processing job Dto Mono
+     */
+    @IsAuthenticatedAsFloortechInternalUser
+    public Mono<GetProcessingJobDto> getProcessingJob(@NotNull String currentUser, @NotNull @Size(min = 10, max = 100) String jobId) {
+        return getProcessingJobIfAllowed(jobId, currentUser)
+                .flatMap(job -> {
+                    if (job.status() != ProcessingJobStatus.COMPLETED) {
+                        return Mono.just(toProcessingJobDto(job, null));
+                    }
+                    // whatever the status of the claim now, it may have been completed, paused or released since
+                    return detailingClaimRepository.findClaims(job.claimId(), currentUser)
+                            .flatMap(claim -> Mono.justOrEmpty(toFileSets.apply(claim).get(job.fileSetId())))
+                            .next()
+                            .flatMap(detailingClaimRepository::loadFileData)
+                            .map(fileSetDtoMapper::toGetDto)
+                            .map(fileSetDto -> toProcessingJobDto(job, fileSetDto))
+                            .defaultIfEmpty(toProcessingJobDto(job, null));
+                });
+    }
+
+    /**
+     * Runs a processing job taken from the work queue, as the user that submitted it, recording the progress of
+     * each file as it is processed.  A job that already finished is not run again.
+     * Not called for a request: the user was authorized when the job was submitted.
+     * @param jobId
+     * @return the finished job, empty if the job had already finished
+     */
+    public Mono<ProcessingJob> runProcessingJob(String jobId) {
+        return processingJobs.findById(jobId)
+                .switchIfEmpty(Mono.error(DetailingFileServiceException.noProcessingJobForId(jobId)))
+                .filter(job -> !job.isFinished())
+                .flatMap(job -> processingJobs.save(job.running()))
+                .flatMap(job -> {
+                    var progress = new AtomicReference<>(job);
+                    return processFileSet(job.username(), job.claimId(), job.fileSetId(), (index, detailingFile) -> {
+                                var updated = progress.updateAndGet(current -> current.withFileProgress(index, toFileProgress(detailingFile)));
+                                return processingJobs.save(updated).thenReturn(detailingFile);
+                            })
+                            .then(Mono.defer(() -> processingJobs.save(progress.get().completed())))
+                            .onErrorResume(e -> {
+                                log.error("Processing job {} failed: {}", jobId, e.getMessage());
+                                return processingJobs.save(progress.get().failed(e.getMessage()));
+                            });
+                });
+    }
+
+    /**
+     * Fails the processing jobs that have not been updated for staleAfter: the worker stopped without recording
+     * the outcome, or the job was dead lettered.  A running job is updated as each file is processed.
+     * Not called for a request.
+     * @param staleAfter
+     * @return number of jobs failed
+     */
+    public Mono<Long> failStaleProcessingJobs(Duration staleAfter) {
+        var updatedBefore = Date.from(Instant.now().minus(staleAfter));
+        return processingJobs.failUnfinishedUpdatedBefore(updatedBefore, "Processing job stalled, no progress for " + staleAfter);
+    }
+
+    /**
+     * Get a list of file information for a specific claim.  (Does not include the actual file or the data extracted from it)
      * The method is only accessible to Internal users
      * @param jobId
      * @param claimedByUsername
@@ -148,7 +392,7 @@ public class DetailingFileService {
     }
 
     /**
-     * Get a list of all files information for a job. This can include multiple claims.  (Does not include the actual file)
+     * Get a list of all files information for a job. This can include multiple claims.  (Does not include the actual file or the data extracted from it)
      * The method is only accessible to Internal users
      * @param jobId
      * @return Dto Flux
@@ -176,61 +420,110 @@ public class DetailingFileService {
                                             @NotNull Date claimDate,
                                             @NotNull @Size(min = 10, max = 100) String fileSetId
     ) {
-        return detailingClaimRepository.findClaim(jobId, currentUser, claimDate)
-                        .switchIfEmpty(Mono.error(DetailingFileServiceException.noClaimFound(jobId, currentUser)))
-                        .doOnError(error -> logMessageSender.sendSystemInfo("(completeDetailingClaim): " + error.getMessage()))
-                .<FileSet>handle((detailingClaim, sink) -> {
-                        var fileSet = findFileSet.apply(detailingClaim, fileSetId);
-                        if (fileSet != null) sink.next(fileSet);
-                        else sink.error(DetailingFileServiceException.noFileSetForId(fileSetId));
-                })
-                        .doOnError(error -> logMessageSender.sendSystemInfo("(completeDetailingClaim): " + error.getMessage()))
-                .map(toZipArchivePath::apply)
-                        .doOnNext(path -> logMessageSender.sendBusinessInfo("Download FileSet Zip Archive: Path=" + path.path() + ", Rel=" + path.isRelative()))
+        return findFileSetArchivePath(currentUser, jobId, claimDate, fileSetId)
                 .flatMapMany(this::loadFileAsDataBuffer);
     }
+
+    /**
+     * Gets the archive (zip) of files in a FileSet as a file resource with the information required for
+     * conditional and range requests.  The resource is written to the response with zero-copy transfer.
+     * The method is only accessible to Internal users
+     * @param currentUser
+     * @param jobId
+     * @param claimDate
+     * @param fileSetId
+     * @return File download Mono
+     */
+    @IsAuthenticatedAsFloortechInternalUser
+    public Mono<GetFileDownloadDto> getFileSetArchive(@NotNull String currentUser,
+                                                      @NotNull @Size(min = 10, max = 100) String jobId,
+                                                      @NotNull Date claimDate,
+                                                      @NotNull @Size(min = 10, max = 100) String fileSetId
+    ) {
+        return findFileSetArchivePath(currentUser, jobId, claimDate, fileSetId)
+                .flatMap(fileStorage::loadResourceFromRoot)
+                .flatMap(resource -> blockingIo.fromCallable(() -> toFileDownload(resource)));
+    }
     // </editor-fold>
 
     // <editor-fold desc="Instance Helper methods">
     private DetailingFile processDetailingFile(DetailingFile detailingFile) {
-        if (!toIsProcessed.apply(detailingFile)) {
+        if (!toIsProcessed.apply(detailingFile) && fileProcessor.isSupported(detailingFile)) {
             try {
                 var data = fileProcessor.processFileData(detailingFile, fileStorage.getRoot());
-                detailingFile = detailingFile.withFileData(data).withIsProcessed(true);
+                detailingFile = detailingFile.withFileData(data).withIsProcessed(true).withProcessingError(null);
             } catch (FileProcessorException e) {
                 log.error("File processing failed with the following error: {}", e.getMessage());
-                detailingFile = detailingFile.withIsProcessed(false);
+                detailingFile = detailingFile.withProcessingError(e.getMessage());
+            } catch (CancellationException e) {
+                // timed out, the result is no longer awaited
+                log.debug("File processing cancelled: {}", toFilename.apply(detailingFile));
+                detailingFile = detailingFile.withProcessingError(e.getMessage());
             }
         }
         return detailingFile;
     }
 
-    private DetailingClaim addDetailingFilesToDetailingClaimFileSet(String fileSetId, List<DetailingFile> processedDetailingFiles, DetailingClaim detailingClaim) {
-        var fileSets = toFileSets.apply(detailingClaim); // get current file sets map from detailing claim
-        fileSets.computeIfPresent(fileSetId, (key, value) -> value.withFiles(processedDetailingFiles)); // only update an existing fileSet (File set should exist)
-        return detailingClaim.withFileSets(fileSets);
+    /**
+     * Processes the files of a file set (see processFileSet)
+     * @param onFileProcessed called with the position and the result of each file, in the order of the file set
+     * @return Dto Mono
+     */
+    private Mono<GetFileSetDto> processFileSet(String currentUser, String claimId, String fileSetId, BiFunction<Integer, DetailingFile, Mono<DetailingFile>> onFileProcessed) {
+        return getActiveDetailingClaimIfAllowed(claimId, currentUser)
+                .flatMap(detailingClaim -> Mono.justOrEmpty(toFileSets.apply(detailingClaim).get(fileSetId))
+                        .switchIfEmpty(Mono.error(DetailingFileServiceException.noFileSetForId(fileSetId)))
+                        .flatMap(fileSet -> Flux.fromIterable(toFiles.apply(fileSet))
+                                .flatMapSequential(this::preprocessAndProcessDetailingFile, processingParallelism())
+                                .index()
+                                .concatMap(indexed -> onFileProcessed.apply(indexed.getT1().intValue(), indexed.getT2()))
+                                .collectList()
+                                // only the file set is written, the rest of the claim may have changed while processing
+                                .flatMap(processed -> detailingClaimRepository.saveFileSet(detailingClaim, fileSet.withFiles(processed)))))
+                .map(toFileSets::apply)
+                .map(fileSets -> fileSets.get(fileSetId))
+                .flatMap(detailingClaimRepository::loadFileData) // files processed before this request
+                .map(fileSetDtoMapper::toGetDto);
+    }
+
+    private int processingParallelism() {
+        return processingParallelism > 0 ? processingParallelism : Runtime.getRuntime().availableProcessors();
     }
 
     private FileSet createFileSetFromFiles(ArchiveContents archiveContents) {
         var id = idGenerator.generateUuid();
         var xPath = XPath.relative(archiveContents.getRelativeArchivePath());
         var unprocessedDetailingFiles = DetailingFile.createUnprocessedDetailingFileList(archiveContents.getContainedFileRelativePaths());
+        if (archiveContents instanceof ExtractedArchiveContents extractedArchiveContents) {
+            unprocessedDetailingFiles = unprocessedDetailingFiles.stream()
+                    .map(detailingFile -> withExtractedFileInfo(detailingFile, extractedArchiveContents))
+                    .toList();
+        }
         return FileSet.createNewFileSet(id, xPath, unprocessedDetailingFiles);
     }
     // </editor-fold>
 
     // <editor-fold desc="Instance Webflux Helper methods">
     /**
-     * Unzip zip archive
-     * @param absoluteZipPath
-     * @param sink
+     * Finds the archive path of a FileSet of a claim
+     * @param currentUser
+     * @param jobId
+     * @param claimDate
+     * @param fileSetId
+     * @return XPath Mono
      */
-    private void unzipArchiveOrError(Path absoluteZipPath, SynchronousSink<ArchiveContents> sink) {
-        try {
-            sink.next(zipFileStorage.unzipArchive(absoluteZipPath, false));
-        } catch (ZipFileStorageException e) {
-            sink.error(e);
-        }
+    private Mono<XPath> findFileSetArchivePath(String currentUser, String jobId, Date claimDate, String fileSetId) {
+        return detailingClaimRepository.findClaim(jobId, currentUser, claimDate)
+                        .switchIfEmpty(Mono.error(DetailingFileServiceException.noClaimFound(jobId, currentUser)))
+                        .doOnError(error -> logMessageSender.sendSystemInfo("(completeDetailingClaim): " + error.getMessage()))
+                .<FileSet>handle((detailingClaim, sink) -> {
+                        var fileSet = findFileSet.apply(detailingClaim, fileSetId);
+                        if (fileSet != null) sink.next(fileSet);
+                        else sink.error(DetailingFileServiceException.noFileSetForId(fileSetId));
+                })
+                        .doOnError(error -> logMessageSender.sendSystemInfo("(completeDetailingClaim): " + error.getMessage()))
+                .map(toZipArchivePath::apply)
+                        .doOnNext(path -> logMessageSender.sendBusinessInfo("Download FileSet Zip Archive: Path=" + path.path() + ", Rel=" + path.isRelative()));
     }
 
     /**
@@ -247,8 +540,31 @@ public class DetailingFileService {
         }
     }
 
+    /**
+     * Preprocesses and processes a file within the file timeout.  The file is emitted with its processing error
+     * when either step fails or times out, so one file does not fail the whole file set.
+     * A timed out file is cancelled: its processing thread is interrupted and the file processors stop reading at the
+     * next row, so abandoned files do not keep the blocking io scheduler busy.
+     * @param detailingFile
+     * @return
+     */
+    private Mono<DetailingFile> preprocessAndProcessDetailingFile(DetailingFile detailingFile) {
+        return preprocessDetailingFile(detailingFile)
+                .flatMap(preprocessed -> blockingIo.fromCallable(() -> processDetailingFile(preprocessed)))
+                .timeout(processingFileTimeout)
+                .onErrorResume(e -> {
+                    var error = e instanceof TimeoutException
+                            ? "File processing timed out after " + processingFileTimeout.toSeconds() + "s"
+                            : e.getMessage();
+                    log.error("File {} could not be processed: {}", toFilename.apply(detailingFile), error);
+                    return Mono.just(detailingFile.withProcessingError(error));
+                });
+    }
+
     /**
      * Populates file info to DetailingFile object.
+     * File info recorded during extraction is kept, the file is only probed when the info is missing (ie file sets
+     * submitted before the info was recorded).
      * Use before extracting / processing scheduling data
      * @param detailingFile
      * @return
@@ -258,25 +574,113 @@ public class DetailingFileService {
         if (_filePath == null || _filePath.path() == null || _filePath.path().isEmpty()) {
             return Mono.error(DetailingFileServiceException.detailingFilePathIsNull());
         }
-        Path filePath;
-        if (_filePath.isRelative()) {
-            filePath = fileStorage.makeAbsolute(Paths.get(_filePath.path()));
-        } else {
-            filePath = Paths.get(_filePath.path());
+        if (toFileSize.apply(detailingFile) != null && toMimeType.apply(detailingFile) != null) {
+            return Mono.just(detailingFile);
         }
-        detailingFile = detailingFile.withFileSize(tryGetFileSize(filePath));
-        detailingFile = detailingFile.withMimeType(tryGetMimeType(filePath));
-        return Mono.just(detailingFile);
-    }
-
-    private Mono<Path> storeFileMono(Mono<FilePart> filePartMono, DetailingClaim detailingClaim) {
-        return filePartMono
-                .flatMap(filePart -> {
-                    var clientPathPart = toClientIdentifier.apply(detailingClaim); // TODO: Remove this and replace with line below
-                    var jobNumber = toJobNumber.apply(detailingClaim);
-                    var jobId = toJobId.apply(detailingClaim);
-                    var claimIdPathPart = jobId + "_" + new SimpleDateFormat("dd-MM-yyyy_HH.mm.ss.S").format(new Date());
-                    return fileStorage.saveToRoot(filePart, clientPathPart, jobNumber.toString(), claimIdPathPart);
+        return blockingIo.fromCallable(() -> {
+            Path filePath;
+            if (_filePath.isRelative()) {
+                filePath = fileStorage.makeAbsolute(Paths.get(_filePath.path()));
+            } else {
+                filePath = Paths.get(_filePath.path());
+            }
+            return detailingFile
+                    .withFileSize(tryGetFileSize(filePath))
+                    .withMimeType(tryGetMimeType(filePath));
+        });
+    }
+
+    /**
+     * Stores the archive part of a multipart body as the part events arrive.
+     * @param partEvents
+     * @param detailingClaim
+     * @param maxBytes
+     * @return absolute path of the archive Mono
+     */
+    private Mono<Path> storeArchiveMono(Flux<PartEvent> partEvents, DetailingClaim detailingClaim, long maxBytes) {
+        return withArchivePart(partEvents, (filename, content) -> zipFileStorage.saveArchive(filename, content, maxBytes, archivePathParts(detailingClaim)));
+    }
+
+    /**
+     * Stores and extracts the archive part of a multipart body as the part events arrive.
+     * @param partEvents
+     * @param detailingClaim
+     * @param maxBytes
+     * @return ArchiveContents Mono
+     */
+    private Mono<ArchiveContents> storeAndExtractArchiveMono(Flux<PartEvent> partEvents, DetailingClaim detailingClaim, long maxBytes) {
+        return withArchivePart(partEvents, (filename, content) -> zipFileStorage.saveArchiveAndExtractStreaming(filename, content, maxBytes, archivePathParts(detailingClaim)));
+    }
+
+    /**
+     * Passes the filename and content of the archive part of a multipart body to archiveHandler.
+     * Parts other than the archive are discarded.
+     * @param partEvents
+     * @param archiveHandler
+     * @return result of archiveHandler Mono
+     */
+    private static <T> Mono<T> withArchivePart(Flux<PartEvent> partEvents, BiFunction<String, Flux<DataBuffer>, Mono<T>> archiveHandler) {
+        return partEvents
+                .windowUntil(PartEvent::isLast)
+                .concatMap(partEventFlux -> partEventFlux.switchOnFirst((signal, events) -> {
+                    if (signal.hasValue() && signal.get() instanceof FilePartEvent filePartEvent && ARCHIVE_PART_NAME.equals(filePartEvent.name())) {
+                        return archiveHandler.apply(filePartEvent.filename(), events.map(PartEvent::content));
+                    }
+                    return events
+                            .doOnNext(partEvent -> DataBufferUtils.release(partEvent.content()))
+                            .then(Mono.<T>empty());
+                }))
+                .next()
+                .switchIfEmpty(Mono.error(DetailingFileServiceException.noArchivePart(ARCHIVE_PART_NAME)));
+    }
+
+    /**
+     * Creates a FileSet from the extracted archive and saves it to the Detailing Claim
+     * @param archiveContentsMono
+     * @param jobId
+     * @param currentUser
+     * @return Dto Mono
+     */
+    private Mono<GetFileSetDto> createAndSaveFileSet(Mono<ArchiveContents> archiveContentsMono, String jobId, String currentUser) {
+        return archiveContentsMono.log()
+                .map(this::createFileSetFromFiles)
+                .zipWith(getActiveDetailingClaimIfAllowed(jobId, currentUser))
+                .flatMap(tuple -> saveFileSetToDetailingClaim(tuple.getT1(), tuple.getT2()))
+                .flatMap(fileSet -> eagerProcessing ? queueEagerProcessingJob(jobId, fileSet, currentUser) : Mono.just(fileSet))
+                .map(fileSetDtoMapper::toGetDto).log()
+                        .doOnNext(fileSetDto -> logMessageSender.sendBusinessInfo("Submitted FileSet for detailing claim: ID=" + fileSetDto.jobClaimId() + ", FileSet Label=" + fileSetDto.label() + ", User=" + currentUser));
+    }
+
+    /**
+     * Creates a processing job for the files of a file set and queues it for the background workers
+     * @param claimId
+     * @param fileSet
+     * @param currentUser
+     * @return Mono of the queued job
+     */
+    private Mono<ProcessingJob> queueProcessingJob(String claimId, FileSet fileSet, String currentUser) {
+        var filePaths = toFiles.apply(fileSet).stream()
+                .map(DetailingFileService::toFileProgressPath)
+                .toList();
+        return processingJobs.save(ProcessingJob.create(idGenerator.generateUuid(), claimId, toFileSetId.apply(fileSet), currentUser, filePaths))
+                .flatMap(job -> processingJobQueue.submit(job.id()).thenReturn(job));
+    }
+
+    /**
+     * Queues the processing of a new file set (eager processing), so the schedules are already extracted when
+     * the file set is processed.  The submission of the file set does not fail when the job can't be queued.
+     * @param jobId
+     * @param fileSet
+     * @param currentUser
+     * @return Mono of the file set
+     */
+    private Mono<FileSet> queueEagerProcessingJob(String jobId, FileSet fileSet, String currentUser) {
+        return queueProcessingJob(jobId, fileSet, currentUser)
+                .doOnNext(job -> log.info("Queued eager processing job {} for file set {}", job.id(), toFileSetId.apply(fileSet)))
+                .thenReturn(fileSet)
+                .onErrorResume(e -> {
+                    log.warn("Could not queue eager processing of file set {}: {}", toFileSetId.apply(fileSet), e.getMessage());
+                    return Mono.just(fileSet);
                 });
     }
 
@@ -287,9 +691,9 @@ public class DetailingFileService {
      * @return Mono of the saved FileSet
      */
     private Mono<FileSet> saveFileSetToDetailingClaim(FileSet fileSet, DetailingClaim detailingClaim) {
-        var detailingClaimWithFileSet = detailingClaim.addFileSet(fileSet);
+        var detailingClaimWithFileSet = detailingClaim.addFileSet(fileSet); // throws if the claim has a file set with the same id
         var fileSetId = toFileSetId.apply(fileSet);
-        return detailingClaimRepository.save(detailingClaimWithFileSet)
+        return detailingClaimRepository.saveFileSet(detailingClaimWithFileSet, fileSet)
                 .map(savedDetailingClaim -> toFileSets.apply(savedDetailingClaim).get(fileSetId).withJobClaim(savedDetailingClaim));
     }
 
@@ -306,9 +710,138 @@ public class DetailingFileService {
                 .switchIfEmpty(Mono.error(DetailingFileServiceException.notClaimOwner()))
                 .log();
     }
+
+    /**
+     * Access processing job only if same user
+     * @param jobId
+     * @param currentUser
+     * @return Processing job Mono, otherwise Error
+     */
+    private Mono<ProcessingJob> getProcessingJobIfAllowed(String jobId, String currentUser) {
+        return processingJobs.findById(jobId)
+                .switchIfEmpty(Mono.error(DetailingFileServiceException.noProcessingJobForId(jobId)))
+                .filter(job -> job.username().equals(currentUser))
+                .switchIfEmpty(Mono.error(DetailingFileServiceException.notProcessingJobOwner()));
+    }
+
+    /**
+     * Access upload session only if same user
+     * @param sessionId
+     * @param currentUser
+     * @return Upload Session Mono, otherwise Error
+     */
+    private Mono<UploadSession> getUploadSessionIfAllowed(String sessionId, String currentUser) {
+        return chunkedUploadStorage.findSession(sessionId)
+                .switchIfEmpty(Mono.error(DetailingFileServiceException.noUploadSessionForId(sessionId)))
+                .filter(session -> session.username().equals(currentUser))
+                .switchIfEmpty(Mono.error(DetailingFileServiceException.notUploadSessionOwner()));
+    }
     // </editor-fold>
 
     // <editor-fold desc="Static helper methods">
+    /**
+     * Reads the file information of a download.  The ETag is derived from the size and modification time.
+     * @param resource
+     * @return
+     * @throws IOException
+     */
+    private static GetFileDownloadDto toFileDownload(Resource resource) throws IOException {
+        var contentLength = resource.contentLength();
+        var lastModified = Instant.ofEpochMilli(resource.lastModified());
+        var eTag = "\"" + Long.toHexString(contentLength) + "-" + Long.toHexString(lastModified.toEpochMilli()) + "\"";
+        return new GetFileDownloadDto(resource, resource.getFilename(), contentLength, lastModified, eTag);
+    }
+
+    private static GetUploadSessionDto toUploadSessionDto(UploadSession session) {
+        return new GetUploadSessionDto(
+                session.id(),
+                session.jobId(),
+                session.filename(),
+                session.totalSize(),
+                session.chunkCount(),
+                List.copyOf(session.receivedChunks()),
+                List.copyOf(session.missingChunks()),
+                session.createdDate()
+        );
+    }
+
+    private static GetProcessingJobDto toProcessingJobDto(ProcessingJob job, GetFileSetDto fileSet) {
+        return new GetProcessingJobDto(
+                job.id(),
+                job.claimId(),
+                job.fileSetId(),
+                job.status(),
+                job.files().size(),
+                job.processedCount(),
+                job.files(),
+                job.error(),
+                job.createdDate(),
+                job.updatedDate(),
+                fileSet
+        );
+    }
+
+    private static ProcessingJob.FileProgress toFileProgress(DetailingFile detailingFile) {
+        var path = toFileProgressPath(detailingFile);
+        var error = toProcessingError.apply(detailingFile);
+        if (error != null) {
+            return new ProcessingJob.FileProgress(path, ProcessingJob.FileStatus.FAILED, error);
+        }
+        if (!Boolean.TRUE.equals(toIsProcessed.apply(detailingFile))) {
+            return new ProcessingJob.FileProgress(path, ProcessingJob.FileStatus.SKIPPED, null);
+        }
+        return new ProcessingJob.FileProgress(path, ProcessingJob.FileStatus.PROCESSED, null);
+    }
+
+    private static String toFileProgressPath(DetailingFile detailingFile) {
+        var path = toPath.apply(detailingFile);
+        return path != null ? path.path() : DetailingFileFacade.toLabel.apply(detailingFile);
+    }
+
+    /**
+     * Strips any folders and characters that are not valid in a filename from a client supplied filename
+     * @param filename
+     * @return filename
+     */
+    private static String toSafeFilename(String filename) {
+        if (filename == null || filename.isBlank()) {
+            return "upload.zip";
+        }
+        var name = filename.substring(Math.max(filename.lastIndexOf('/'), filename.lastIndexOf('\\')) + 1);
+        name = name.replaceAll("[:*?\"<>|\\p{Cntrl}]", "_");
+        return name.isBlank() || name.equals(".") || name.equals("..") ? "upload.zip" : name;
+    }
+
+    /**
+     * Byte budget of an uploaded archive: the declared content length of the request when known (the archive part
+     * can't be larger than the whole body), but never more than the maximum archive size
+     * @param contentLength declared content length, or -1 if unknown
+     * @return
+     */
+    private static long uploadBudget(long contentLength) {
+        return contentLength > 0 ? Math.min(contentLength, MAX_CONTENT_LENGTH) : MAX_CONTENT_LENGTH;
+    }
+
+    /**
+     * Folders of a submitted archive: client / job number / job id and submission date
+     * @param detailingClaim
+     * @return path parts
+     */
+    private static String[] archivePathParts(DetailingClaim detailingClaim) {
+        var clientPathPart = toClientIdentifier.apply(detailingClaim); // TODO: Remove this and replace with line below
+        var jobNumber = toJobNumber.apply(detailingClaim);
+        var jobId = toJobId.apply(detailingClaim);
+        var claimIdPathPart = jobId + "_" + new SimpleDateFormat("dd-MM-yyyy_HH.mm.ss.S").format(new Date());
+        return new String[] {clientPathPart, jobNumber.toString(), claimIdPathPart};
+    }
+
+    private static DetailingFile withExtractedFileInfo(DetailingFile detailingFile, ExtractedArchiveContents archiveContents) {
+        var relativePath = toPath.apply(detailingFile).toPath();
+        return archiveContents.getFileInfo(relativePath)
+                .map(info -> detailingFile.withFileInfo(info.fileSize(), info.mimeType() != null ? info.mimeType() : "", info.contentHash()))
+                .orElse(detailingFile);
+    }
+
     /**
      * Tries to get the size of a file with Path
      * @param filePath
@@ -24,4 +24,25 @@ public class DetailingFileServiceException extends Exception {
         var contentInMb = contentLength/1000/1000;
         return new DetailingFileServiceException("Empty files and files larger than "+contentInMb+"MB are not accepted.");
     }
+    public static DetailingFileServiceException noArchivePart(String partName) {
+        return new DetailingFileServiceException("No archive was found in the multipart body (expected part: " + partName + ")");
+    }
+    public static DetailingFileServiceException noUploadSessionForId(String sessionId) {
+        return new DetailingFileServiceException("No upload session exists for id: " + sessionId);
+    }
+    public static DetailingFileServiceException notUploadSessionOwner() {
+        return new DetailingFileServiceException("Not the owner of this upload session.");
+    }
+    public static DetailingFileServiceException noProcessingJobForId(String jobId) {
+        return new DetailingFileServiceException("No processing job exists for id: " + jobId);
+    }
+    public static DetailingFileServiceException notProcessingJobOwner() {
+        return new DetailingFileServiceException("Not the owner of this processing job.");
+    }
+    public static DetailingFileServiceException chunkCountError(int maxChunkCount) {
+        return new DetailingFileServiceException("An upload must be split into 1 to " + maxChunkCount + " chunks.");
+    }
+    public static DetailingFileServiceException chunkIndexOutOfRange(int index, int chunkCount) {
+        return new DetailingFileServiceException("Chunk index " + index + " is out of range, expected 0 to " + (chunkCount - 1));
+    }
 }
@@ -0,0 +1,19 @@
+package tech.jmcs.floortech.detailing.domain.configs;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A page of a list paged by cursor (see PageCursor)
+ * @param items
+ * @param next cursor of the next page, null if this is the last page
+ * @param <T>
+ */
+public record CursorPage<T>(List<T> items, PageCursor next) {
+    public static final int DEFAULT_SIZE = 50;
+    public static final int MAX_SIZE = 200;
+
+    public <R> CursorPage<R> map(Function<T, R> mapper) {
+        return new CursorPage<>(items.stream().map(mapper).toList(), next);
+    }
+}
@@ -0,0 +1,45 @@
+package tech.jmcs.floortech.detailing.domain.configs;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * Position in a list ordered newest first by a date and then by id (keyset pagination), the next page starts after
+ * the item with this date and id.  Passed to and from clients as an opaque token (toToken, fromToken).
+ * @param date the date the list is ordered by (the last modified date of claim lists)
+ * @param id id of the last item of the page
+ */
+public record PageCursor(Date date, String id) {
+    private static final String SEPARATOR = ":";
+
+    public PageCursor {
+        Objects.requireNonNull(date);
+        Objects.requireNonNull(id);
+    }
+
+    public String toToken() {
+        var value = date.getTime() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param token token of a cursor (toToken)
+     * @return
+     * @throws IllegalArgumentException if the token is not a cursor token
+     */
+    public static PageCursor fromToken(String token) {
+        try {
+            var value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            var separator = value.indexOf(SEPARATOR);
+            var id = value.substring(separator + 1);
+            if (separator < 1 || id.isBlank()) {
+                throw new IllegalArgumentException("Invalid page cursor: " + token);
+            }
+            return new PageCursor(new Date(Long.parseLong(value.substring(0, separator))), id);
+        } catch (IllegalArgumentException e) { // also thrown for bad base64 and bad numbers
+            throw new IllegalArgumentException("Invalid page cursor: " + token, e);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package tech.jmcs.floortech.detailing.domain.configs;
+
+public enum ProcessingJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
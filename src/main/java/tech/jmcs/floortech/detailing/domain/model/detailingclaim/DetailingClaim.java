@@ -23,6 +23,7 @@ public class DetailingClaim {
     final Date claimedAt;
     final Map<String, FileSet> fileSets; // fileSets by ID (FileSet.id)
     final DetailingStatus status;
+    final Long version; // version of the saved claim, null until saved
 
     // <editor-fold desc="Immutable Modifier methods">
     // TODO: Job ID is FloortechJobNumber, can remove
@@ -35,6 +36,7 @@ public class DetailingClaim {
                 .jobEngineerName(jobEngineerName)
                 .claimedByStaffId(claimedByStaffId)
                 .claimedAt(claimedAt)
+                .version(version)
                 .fileSets(fileSets)
                 .status(status)
                 .build();
@@ -49,6 +51,7 @@ public class DetailingClaim {
                 .jobEngineerName(jobEngineerName)
                 .claimedByStaffId(claimedByStaffId)
                 .claimedAt(claimedAt)
+                .version(version)
                 .fileSets(fileSets)
                 .status(status)
                 .build();
@@ -63,6 +66,7 @@ public class DetailingClaim {
                 .jobEngineerName(jobEngineerName)
                 .claimedByStaffId(claimedByStaffId)
                 .claimedAt(claimedAt)
+                .version(version)
                 .fileSets(fileSets)
                 .status(status)
                 .build();
@@ -77,6 +81,7 @@ public class DetailingClaim {
                 .jobEngineerName(jobEngineerName)
                 .claimedByStaffId(claimedByStaffId)
                 .claimedAt(claimedAt)
+                .version(version)
                 .fileSets(fileSets)
                 .status(status)
                 .build();
@@ -91,6 +96,7 @@ public class DetailingClaim {
                 .jobEngineerName(newValue)
                 .claimedByStaffId(claimedByStaffId)
                 .claimedAt(claimedAt)
+                .version(version)
                 .fileSets(fileSets)
                 .status(status)
                 .build();
@@ -105,6 +111,7 @@ public class DetailingClaim {
                 .jobEngineerName(jobEngineerName)
                 .claimedByStaffId(claimedByStaffId)
                 .claimedAt(claimedAt)
+                .version(version)
                 .fileSets(fileSets)
                 .status(newValue)
                 .build();
@@ -120,6 +127,7 @@ public class DetailingClaim {
                 .jobEngineerName(jobEngineerName)
                 .claimedByStaffId(claimedByStaffId)
                 .claimedAt(claimedAt)
+                .version(version)
                 .fileSets(newValue)
                 .status(status)
                 .build();
@@ -140,6 +148,7 @@ public class DetailingClaim {
                 .jobEngineerName(jobEngineerName)
                 .claimedByStaffId(claimedByStaffId)
                 .claimedAt(claimedAt)
+                .version(version)
                 .fileSets(updatedFileSets)
                 .status(status)
                 .build();
@@ -204,6 +213,7 @@ public class DetailingClaim {
         var _status = newValues.status;
         return DetailingClaim.builder(jobId, claimedByStaffUsername)
                 .claimedAt(claimedAt)
+                .version(version)
                 .floortechJobNumber(_floortechJobNumber)
                 .jobClientId(_jobClientId)
                 .jobClientName(_jobClientName)
@@ -233,6 +243,7 @@ public class DetailingClaim {
         var _status = newValues.status != null ? newValues.status : this.status;
         return DetailingClaim.builder(jobId, claimedByStaffUsername)
                 .claimedAt(claimedAt)
+                .version(version)
                 .floortechJobNumber(_floortechJobNumber)
                 .jobClientId(_jobClientId)
                 .jobClientName(_jobClientName)
@@ -270,6 +281,7 @@ public class DetailingClaim {
         this.claimedAt = builder.claimedAt;
         this.fileSets = builder.fileSets != null ? builder.fileSets : new HashMap();
         this.status = builder.status;
+        this.version = builder.version;
     }
 
     public static class DetailingClaimBuilder {
@@ -284,6 +296,7 @@ public class DetailingClaim {
         private Date claimedAt;
         private Map<String, FileSet> fileSets; // fileSets by ID (FileSet.id)
         private DetailingStatus status;
+        private Long version;
         public DetailingClaimBuilder(String jobId, String username) {
             Objects.requireNonNull(jobId);
             Objects.requireNonNull(username);
@@ -347,6 +360,11 @@ public class DetailingClaim {
             return this;
         }
 
+        public DetailingClaimBuilder version(Long version) {
+            this.version = version;
+            return this;
+        }
+
         public DetailingClaim build() {
             Objects.requireNonNull(this.jobId);
             Objects.requireNonNull(this.claimedByStaffUsername);
@@ -370,6 +388,7 @@ public class DetailingClaim {
                 ", claimedAt=" + claimedAt +
                 ", fileSets=" + fileSets +
                 ", status=" + status +
+                ", version=" + version +
                 '}';
     }
 
@@ -26,6 +26,7 @@ public interface DetailingClaimFacade {
     Function<DetailingClaim, String> toClaimedByStaffUsername = dc -> dc.claimedByStaffUsername;
     Function<DetailingClaim, String> toClaimedByStaffUserId = dc -> dc.claimedByStaffId;
     Function<DetailingClaim, Date> toClaimedAt = dc -> dc.claimedAt;
+    Function<DetailingClaim, Long> toVersion = dc -> dc.version;
     BiFunction<DetailingClaim, String, FileSet> findFileSet = (dc, id) -> new HashMap<>(dc.fileSets).get(id); // TODO: Need to deep copy
     BiFunction<DetailingClaim, String, Boolean> isOwnedBy = (dc, username) -> {
                                                     Objects.requireNonNull(username);
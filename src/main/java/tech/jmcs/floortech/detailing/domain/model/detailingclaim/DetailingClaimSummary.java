@@ -0,0 +1,36 @@
+package tech.jmcs.floortech.detailing.domain.model.detailingclaim;
+
+import tech.jmcs.floortech.detailing.domain.configs.DetailingStatus;
+
+import java.util.Date;
+
+/**
+ * Read model of a detailing claim for claim lists: the claim's values without its file sets, only their counts.
+ * @param jobId
+ * @param floortechJobNumber
+ * @param jobClientId
+ * @param jobClientName
+ * @param jobEngineerId
+ * @param jobEngineerName
+ * @param claimedByStaffUsername
+ * @param claimedByStaffId
+ * @param claimedAt
+ * @param status
+ * @param fileSetCount number of file sets submitted to the claim
+ * @param fileCount number of files in all the file sets of the claim
+ */
+public record DetailingClaimSummary(
+        String jobId,
+        Integer floortechJobNumber,
+        String jobClientId,
+        String jobClientName,
+        String jobEngineerId,
+        String jobEngineerName,
+        String claimedByStaffUsername,
+        String claimedByStaffId,
+        Date claimedAt,
+        DetailingStatus status,
+        int fileSetCount,
+        int fileCount
+) {
+}
@@ -0,0 +1,23 @@
+package tech.jmcs.floortech.detailing.domain.model.filedata;
+
+/**
+ * Storage of a column of extracted table data
+ */
+public enum ColumnType {
+    /**
+     * One String per row
+     */
+    TEXT,
+    /**
+     * Whole numbers (ie quantities) in an int[]
+     */
+    INT,
+    /**
+     * Whole millimetres in a long[]
+     */
+    LENGTH_MM,
+    /**
+     * Few distinct values (ie types, groups), stored once and referenced by an int code per row
+     */
+    DICTIONARY
+}
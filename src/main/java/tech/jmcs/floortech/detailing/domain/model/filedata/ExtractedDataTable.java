@@ -0,0 +1,236 @@
+package tech.jmcs.floortech.detailing.domain.model.filedata;
+
+import java.util.*;
+
+/**
+ * Extracted data rows of a table, stored by column: one typed TableColumn per value key, shared keys, and no
+ * object per row.  Row n of the table has row number n + 1.
+ * Rows are read through ExtractedDataRow views (getRow, asRowMap), whose data is a read-only map over the columns,
+ * so code reading rows with ExtractedDataRowFacade works unchanged.  Totals and aggregations can be run over the
+ * primitive columns directly (getColumn).
+ */
+public final class ExtractedDataTable {
+    private final FileData parent;
+    private final String[] keys;
+    private final TableColumn[] columns;
+    private final int itemIdColumn;
+    private final int rowCount;
+    private final Map<String, Integer> rowIndexByItemId;
+
+    private ExtractedDataTable(ExtractedDataTableBuilder builder) {
+        this.parent = builder.parent;
+        this.keys = builder.keys;
+        this.columns = builder.columns;
+        this.itemIdColumn = builder.itemIdColumn;
+        this.rowCount = builder.rowCount;
+        this.rowIndexByItemId = builder.rowIndexByItemId;
+        for (var column : columns) {
+            column.trimTo(rowCount);
+        }
+    }
+
+    private ExtractedDataTable(ExtractedDataTable table, FileData parent) {
+        this.parent = parent;
+        this.keys = table.keys;
+        this.columns = table.columns;
+        this.itemIdColumn = table.itemIdColumn;
+        this.rowCount = table.rowCount;
+        this.rowIndexByItemId = table.rowIndexByItemId;
+    }
+
+    /**
+     * @param parent file data the rows belong to
+     * @param keys value keys, in slot order
+     * @param types storage of each value, in slot order
+     * @param itemIdKey key of the value that identifies the item of a row
+     * @return
+     */
+    public static ExtractedDataTableBuilder builder(FileData parent, String[] keys, ColumnType[] types, String itemIdKey) {
+        return new ExtractedDataTableBuilder(parent, keys, types, itemIdKey);
+    }
+
+    /**
+     * @param newValue file data the rows belong to
+     * @return the same rows (columns are shared, not copied) with another parent
+     */
+    public ExtractedDataTable withParent(FileData newValue) {
+        Objects.requireNonNull(newValue);
+        return new ExtractedDataTable(this, newValue);
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public List<String> getKeys() {
+        return List.of(keys);
+    }
+
+    public Optional<TableColumn> getColumn(String key) {
+        var slot = slotOf(key);
+        return slot < 0 ? Optional.empty() : Optional.of(columns[slot]);
+    }
+
+    /**
+     * @param index row index (row number - 1)
+     * @return a row view of the table
+     */
+    public ExtractedDataRow getRow(int index) {
+        Objects.checkIndex(index, rowCount);
+        return ExtractedDataRow.builder()
+                .row(index + 1)
+                .itemId(columns[itemIdColumn].get(index))
+                .parent(parent)
+                .data(new RowData(index))
+                .build();
+    }
+
+    /**
+     * Rows keyed by item id.  When rows share an item id the last row is mapped, as when the rows are put into a
+     * map in row order.
+     * @return read-only map of row views
+     */
+    public Map<String, ExtractedDataRow> asRowMap() {
+        return new AbstractMap<>() {
+            @Override
+            public ExtractedDataRow get(Object key) {
+                var index = rowIndexByItemId.get(key);
+                return index == null ? null : getRow(index);
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return rowIndexByItemId.containsKey(key);
+            }
+
+            @Override
+            public int size() {
+                return rowIndexByItemId.size();
+            }
+
+            @Override
+            public Set<Entry<String, ExtractedDataRow>> entrySet() {
+                return new AbstractSet<>() {
+                    @Override
+                    public Iterator<Entry<String, ExtractedDataRow>> iterator() {
+                        var indexes = rowIndexByItemId.entrySet().iterator();
+                        return new Iterator<>() {
+                            @Override
+                            public boolean hasNext() {
+                                return indexes.hasNext();
+                            }
+
+                            @Override
+                            public Entry<String, ExtractedDataRow> next() {
+                                var index = indexes.next();
+                                return new SimpleImmutableEntry<>(index.getKey(), getRow(index.getValue()));
+                            }
+                        };
+                    }
+
+                    @Override
+                    public int size() {
+                        return rowIndexByItemId.size();
+                    }
+                };
+            }
+        };
+    }
+
+    // <editor-fold desc="Instance Helper methods">
+    private int slotOf(Object key) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot].equals(key)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+    // </editor-fold>
+
+    @Override
+    public String toString() {
+        return "ExtractedDataTable{" +
+                "keys=" + Arrays.toString(keys) +
+                ", rowCount=" + rowCount +
+                '}';
+    }
+
+    /**
+     * Data of a row view: the values of the row, a null value is not an entry of the map
+     */
+    private final class RowData extends AbstractMap<String, String> {
+        private final int index;
+
+        private RowData(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String get(Object key) {
+            var slot = slotOf(key);
+            return slot < 0 ? null : columns[slot].get(index);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            var entries = new LinkedHashSet<Entry<String, String>>();
+            for (int slot = 0; slot < keys.length; slot++) {
+                var value = columns[slot].get(index);
+                if (value != null) {
+                    entries.add(new SimpleImmutableEntry<>(keys[slot], value));
+                }
+            }
+            return Collections.unmodifiableSet(entries);
+        }
+    }
+
+    public static class ExtractedDataTableBuilder {
+        private final FileData parent;
+        private final String[] keys;
+        private final TableColumn[] columns;
+        private final int itemIdColumn;
+        private final Map<String, Integer> rowIndexByItemId = new HashMap<>();
+        private int rowCount;
+
+        public ExtractedDataTableBuilder(FileData parent, String[] keys, ColumnType[] types, String itemIdKey) {
+            Objects.requireNonNull(parent);
+            if (keys.length != types.length) {
+                throw new IllegalArgumentException("A column type is required for each key");
+            }
+            this.parent = parent;
+            this.keys = keys.clone();
+            this.columns = new TableColumn[keys.length];
+            for (int slot = 0; slot < keys.length; slot++) {
+                columns[slot] = TableColumn.create(keys[slot], types[slot]);
+            }
+            this.itemIdColumn = Arrays.asList(keys).indexOf(itemIdKey);
+            if (itemIdColumn < 0) {
+                throw new IllegalArgumentException("The item id key is not one of the keys: " + itemIdKey);
+            }
+        }
+
+        /**
+         * Appends a row
+         * @param values values by slot, null for no value
+         * @return
+         */
+        public ExtractedDataTableBuilder row(String[] values) {
+            for (int slot = 0; slot < columns.length; slot++) {
+                columns[slot].set(rowCount, values[slot]);
+            }
+            rowIndexByItemId.put(values[itemIdColumn], rowCount);
+            rowCount++;
+            return this;
+        }
+
+        public ExtractedDataTable build() {
+            return new ExtractedDataTable(this);
+        }
+    }
+}
@@ -11,6 +11,7 @@ public class FileData {
     final String id;
     final Map<Integer, String> lines;
     final Map<String, tech.jmcs.floortech.detailing.domain.model.filedata.ExtractedDataRow> extractedData;
+    final ExtractedDataTable extractedTable;
     final DetailingFile parent;
 
     // <editor-fold desc="Immutable Modifier methods">
@@ -20,6 +21,32 @@ public class FileData {
                 .extractedData(newValue)
                 .build();
     }
+
+    public FileData withExtractedTable(ExtractedDataTable newValue) {
+        return FileData.builder(id, parent)
+                .lines(lines)
+                .extractedTable(newValue)
+                .build();
+    }
+
+    /**
+     * Copy of the data for another file with the same content.  The extracted values are shared, only the parents
+     * of the copy and its rows change.
+     * @param id id of the copy
+     * @param parent file of the copy
+     * @return
+     */
+    public FileData copyFor(String id, DetailingFile parent) {
+        var copy = FileData.builder(id, parent)
+                .lines(new HashMap<>(lines))
+                .build();
+        if (extractedTable != null) {
+            return copy.withExtractedTable(extractedTable.withParent(copy));
+        }
+        var rows = new HashMap<String, ExtractedDataRow>();
+        extractedData.forEach((itemId, row) -> rows.put(itemId, row.withParent(copy)));
+        return copy.withExtractedData(rows);
+    }
     // </editor-fold>
 
     // <editor-fold desc="Builder components (Constructor, Builder Class, Static method)">
@@ -36,7 +63,12 @@ public class FileData {
     public FileData(FileDataBuilder builder) {
         this.id = builder.id;
         this.lines = builder.lines != null ? builder.lines : new HashMap<>();
-        this.extractedData = builder.extractedData != null ? builder.extractedData : new HashMap<>();
+        this.extractedTable = builder.extractedTable;
+        if (builder.extractedTable != null) {
+            this.extractedData = builder.extractedTable.asRowMap();
+        } else {
+            this.extractedData = builder.extractedData != null ? builder.extractedData : new HashMap<>();
+        }
         this.parent = builder.parent;
     }
 
@@ -44,6 +76,7 @@ public class FileData {
         private String id;
         private Map<Integer, String> lines;
         private Map<String, tech.jmcs.floortech.detailing.domain.model.filedata.ExtractedDataRow> extractedData;
+        private ExtractedDataTable extractedTable;
         private DetailingFile parent;
         public FileDataBuilder(String id, DetailingFile parent) {
             Objects.requireNonNull(id);
@@ -67,6 +100,16 @@ public class FileData {
             return this;
         }
 
+        /**
+         * Extracted data stored by column, when set the extracted data is a view of the table's rows
+         * @param extractedTable
+         * @return
+         */
+        public FileDataBuilder extractedTable(ExtractedDataTable extractedTable) {
+            this.extractedTable = extractedTable;
+            return this;
+        }
+
         public FileDataBuilder parent(DetailingFile parent) {
             this.parent = parent;
             return this;
@@ -3,6 +3,7 @@ package tech.jmcs.floortech.detailing.domain.model.filedata;
 import tech.jmcs.floortech.detailing.domain.model.files.DetailingFile;
 
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.Function;
 
 /**
@@ -13,5 +14,6 @@ public interface FileDataFacade {
     Function<FileData, String> toFileDataId = fileData -> fileData.id;
     Function<FileData, Map<Integer, String>> toLines = fileData -> fileData.lines;
     Function<FileData, Map<String, ExtractedDataRow>> toExtractedData = fileData -> fileData.extractedData;
+    Function<FileData, Optional<ExtractedDataTable>> toExtractedTable = fileData -> Optional.ofNullable(fileData.extractedTable);
     Function<FileData, DetailingFile> toDetailingFile = fileData -> fileData.parent;
 }
@@ -0,0 +1,282 @@
+package tech.jmcs.floortech.detailing.domain.model.filedata;
+
+import java.util.*;
+
+/**
+ * A column of extracted table data, indexed by row.
+ * Numeric columns keep the value of a row as a primitive when the text is the canonical form of a whole number
+ * (so it is returned unchanged by get); any other text is kept as is and the row is not a number.
+ * Columns are filled once by an ExtractedDataTable builder and are read-only afterwards.
+ */
+public abstract sealed class TableColumn {
+    protected final String key;
+
+    protected TableColumn(String key) {
+        this.key = key;
+    }
+
+    static TableColumn create(String key, ColumnType type) {
+        return switch (type) {
+            case TEXT -> new TextColumn(key);
+            case INT -> new IntColumn(key);
+            case LENGTH_MM -> new LongColumn(key);
+            case DICTIONARY -> new DictionaryColumn(key);
+        };
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public abstract ColumnType getType();
+
+    /**
+     * @param row
+     * @return the value of the row as it was read, or null if the row has no value
+     */
+    public abstract String get(int row);
+
+    abstract void set(int row, String value);
+
+    abstract void trimTo(int rowCount);
+
+    // <editor-fold desc="Static helper methods">
+    /**
+     * Checks the text is the canonical form of a whole number (no sign other than '-', no leading zeros, no
+     * whitespace), so it can be parsed and written back unchanged
+     * @param value
+     * @param maxDigits
+     * @return
+     */
+    static boolean isCanonical(String value, int maxDigits) {
+        var length = value.length();
+        var start = length > 0 && value.charAt(0) == '-' ? 1 : 0;
+        var digits = length - start;
+        if (digits == 0 || digits > maxDigits || (digits > 1 && value.charAt(start) == '0') || value.equals("-0")) {
+            return false;
+        }
+        for (int i = start; i < length; i++) {
+            var c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+    // </editor-fold>
+
+    public static final class TextColumn extends TableColumn {
+        private String[] values = new String[16];
+
+        TextColumn(String key) {
+            super(key);
+        }
+
+        @Override
+        public ColumnType getType() {
+            return ColumnType.TEXT;
+        }
+
+        @Override
+        public String get(int row) {
+            return values[row];
+        }
+
+        @Override
+        void set(int row, String value) {
+            if (row >= values.length) {
+                values = Arrays.copyOf(values, Math.max(row + 1, values.length * 2));
+            }
+            values[row] = value;
+        }
+
+        @Override
+        void trimTo(int rowCount) {
+            values = Arrays.copyOf(values, rowCount);
+        }
+    }
+
+    public static final class IntColumn extends TableColumn {
+        private int[] values = new int[16];
+        private final BitSet notNumbers = new BitSet();
+        private final Map<Integer, String> texts = new HashMap<>();
+
+        IntColumn(String key) {
+            super(key);
+        }
+
+        @Override
+        public ColumnType getType() {
+            return ColumnType.INT;
+        }
+
+        public boolean isNumber(int row) {
+            return !notNumbers.get(row);
+        }
+
+        /**
+         * @param row
+         * @return the number of the row, 0 if the row is not a number
+         */
+        public int getInt(int row) {
+            return values[row];
+        }
+
+        /**
+         * @return sum of the rows that are numbers
+         */
+        public long sum() {
+            long sum = 0;
+            for (int value : values) {
+                sum += value;
+            }
+            return sum;
+        }
+
+        @Override
+        public String get(int row) {
+            return isNumber(row) ? Integer.toString(values[row]) : texts.get(row);
+        }
+
+        @Override
+        void set(int row, String value) {
+            if (row >= values.length) {
+                values = Arrays.copyOf(values, Math.max(row + 1, values.length * 2));
+            }
+            if (value != null && isCanonical(value, 9)) {
+                values[row] = Integer.parseInt(value);
+            } else {
+                notNumbers.set(row);
+                if (value != null) {
+                    texts.put(row, value);
+                }
+            }
+        }
+
+        @Override
+        void trimTo(int rowCount) {
+            values = Arrays.copyOf(values, rowCount);
+        }
+    }
+
+    public static final class LongColumn extends TableColumn {
+        private long[] values = new long[16];
+        private final BitSet notNumbers = new BitSet();
+        private final Map<Integer, String> texts = new HashMap<>();
+
+        LongColumn(String key) {
+            super(key);
+        }
+
+        @Override
+        public ColumnType getType() {
+            return ColumnType.LENGTH_MM;
+        }
+
+        public boolean isNumber(int row) {
+            return !notNumbers.get(row);
+        }
+
+        /**
+         * @param row
+         * @return the number of the row, 0 if the row is not a number
+         */
+        public long getLong(int row) {
+            return values[row];
+        }
+
+        /**
+         * @return sum of the rows that are numbers
+         */
+        public long sum() {
+            long sum = 0;
+            for (long value : values) {
+                sum += value;
+            }
+            return sum;
+        }
+
+        @Override
+        public String get(int row) {
+            return isNumber(row) ? Long.toString(values[row]) : texts.get(row);
+        }
+
+        @Override
+        void set(int row, String value) {
+            if (row >= values.length) {
+                values = Arrays.copyOf(values, Math.max(row + 1, values.length * 2));
+            }
+            if (value != null && isCanonical(value, 18)) {
+                values[row] = Long.parseLong(value);
+            } else {
+                notNumbers.set(row);
+                if (value != null) {
+                    texts.put(row, value);
+                }
+            }
+        }
+
+        @Override
+        void trimTo(int rowCount) {
+            values = Arrays.copyOf(values, rowCount);
+        }
+    }
+
+    public static final class DictionaryColumn extends TableColumn {
+        private static final int NO_VALUE = -1;
+        private int[] codes = new int[16];
+        private final List<String> dictionary = new ArrayList<>();
+        private Map<String, Integer> dictionaryCodes = new HashMap<>();
+
+        DictionaryColumn(String key) {
+            super(key);
+        }
+
+        @Override
+        public ColumnType getType() {
+            return ColumnType.DICTIONARY;
+        }
+
+        /**
+         * @param row
+         * @return index of the value of the row in the dictionary, or -1 if the row has no value
+         */
+        public int getCode(int row) {
+            return codes[row];
+        }
+
+        public List<String> getDictionary() {
+            return Collections.unmodifiableList(dictionary);
+        }
+
+        @Override
+        public String get(int row) {
+            var code = codes[row];
+            return code == NO_VALUE ? null : dictionary.get(code);
+        }
+
+        @Override
+        void set(int row, String value) {
+            if (row >= codes.length) {
+                codes = Arrays.copyOf(codes, Math.max(row + 1, codes.length * 2));
+            }
+            if (value == null) {
+                codes[row] = NO_VALUE;
+                return;
+            }
+            var code = dictionaryCodes.get(value);
+            if (code == null) {
+                code = dictionary.size();
+                dictionary.add(value);
+                dictionaryCodes.put(value, code);
+            }
+            codes[row] = code;
+        }
+
+        @Override
+        void trimTo(int rowCount) {
+            codes = Arrays.copyOf(codes, rowCount);
+            dictionaryCodes = null;
+        }
+    }
+}
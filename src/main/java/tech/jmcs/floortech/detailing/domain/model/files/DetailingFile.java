@@ -21,6 +21,8 @@ public class DetailingFile {
     final Boolean isProcessed;
     final Long fileSize;
     final String mimetype;
+    final String contentHash;
+    final String processingError;
     final XPath parentFolder;
     final Date creationDate;
     final FileData fileData;
@@ -32,6 +34,8 @@ public class DetailingFile {
                 .isProcessed(newValue)
                 .fileSize(fileSize)
                 .mimetype(mimetype)
+                .contentHash(contentHash)
+                .processingError(processingError)
                 .parentFolder(parentFolder)
                 .creationDate(creationDate)
                 .fileData(fileData)
@@ -44,6 +48,8 @@ public class DetailingFile {
                 .isProcessed(isProcessed)
                 .fileSize(fileSize)
                 .mimetype(mimetype)
+                .contentHash(contentHash)
+                .processingError(processingError)
                 .parentFolder(parentFolder)
                 .creationDate(creationDate)
                 .fileData(newValue)
@@ -56,6 +62,48 @@ public class DetailingFile {
                 .isProcessed(isProcessed)
                 .fileSize(fileSize)
                 .mimetype(newValue)
+                .contentHash(contentHash)
+                .processingError(processingError)
+                .parentFolder(parentFolder)
+                .creationDate(creationDate)
+                .fileData(fileData)
+                .build();
+    }
+
+    /**
+     * File information recorded when the file was extracted, so it does not need to be probed again
+     * @param fileSize
+     * @param mimetype
+     * @param contentHash hex encoded SHA-256 of the file
+     * @return
+     */
+    public DetailingFile withFileInfo(Long fileSize, String mimetype, String contentHash) {
+        return DetailingFile.builder(label, path, filename, extension)
+                .id(id)
+                .isProcessed(isProcessed)
+                .fileSize(fileSize)
+                .mimetype(mimetype)
+                .contentHash(contentHash)
+                .processingError(processingError)
+                .parentFolder(parentFolder)
+                .creationDate(creationDate)
+                .fileData(fileData)
+                .build();
+    }
+
+    /**
+     * Records why the file could not be processed, the file is left unprocessed
+     * @param error message of the failure, null to clear a previous failure
+     * @return
+     */
+    public DetailingFile withProcessingError(String error) {
+        return DetailingFile.builder(label, path, filename, extension)
+                .id(id)
+                .isProcessed(error == null && isProcessed)
+                .fileSize(fileSize)
+                .mimetype(mimetype)
+                .contentHash(contentHash)
+                .processingError(error)
                 .parentFolder(parentFolder)
                 .creationDate(creationDate)
                 .fileData(fileData)
@@ -68,6 +116,8 @@ public class DetailingFile {
                 .isProcessed(isProcessed)
                 .fileSize(newValue)
                 .mimetype(mimetype)
+                .contentHash(contentHash)
+                .processingError(processingError)
                 .parentFolder(parentFolder)
                 .creationDate(creationDate)
                 .fileData(fileData)
@@ -99,7 +149,7 @@ public class DetailingFile {
         Objects.requireNonNull(path);
         Objects.requireNonNull(filename);
         Objects.requireNonNull(extension);
-        return new DetailingFileBuilder(label, path, filename, extension, false);
+        return new DetailingFileBuilder(label, path, extension, filename, false);
     }
 
     public DetailingFile(DetailingFileBuilder builder) {
@@ -111,6 +161,8 @@ public class DetailingFile {
         this.isProcessed = builder.isProcessed;
         this.fileSize = builder.fileSize;
         this.mimetype = builder.mimetype;
+        this.contentHash = builder.contentHash;
+        this.processingError = builder.processingError;
         this.parentFolder = builder.parentFolder;
         this.creationDate = builder.creationDate;
         this.fileData = builder.fileData;
@@ -125,6 +177,8 @@ public class DetailingFile {
         private Boolean isProcessed;
         private Long fileSize;
         private String mimetype;
+        private String contentHash;
+        private String processingError;
         private XPath parentFolder;
         private Date creationDate;
         private FileData fileData;
@@ -182,6 +236,16 @@ public class DetailingFile {
             return this;
         }
 
+        public DetailingFileBuilder contentHash(String contentHash) {
+            this.contentHash = contentHash;
+            return this;
+        }
+
+        public DetailingFileBuilder processingError(String processingError) {
+            this.processingError = processingError;
+            return this;
+        }
+
         public DetailingFileBuilder parentFolder(XPath parentFolder) {
             this.parentFolder = parentFolder;
             return this;
@@ -216,6 +280,8 @@ public class DetailingFile {
                 ", isProcessed=" + isProcessed +
                 ", fileSize=" + fileSize +
                 ", mimetype='" + mimetype + '\'' +
+                ", contentHash='" + contentHash + '\'' +
+                ", processingError='" + processingError + '\'' +
                 ", parentFolder=" + parentFolder +
                 ", creationDate=" + creationDate +
                 ", fileData=" + fileData +
@@ -227,11 +293,11 @@ public class DetailingFile {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         DetailingFile that = (DetailingFile) o;
-        return id.equals(that.id) && label.equals(that.label) && path.equals(that.path) && extension.equals(that.extension) && filename.equals(that.filename) && isProcessed.equals(that.isProcessed) && Objects.equals(fileSize, that.fileSize) && Objects.equals(mimetype, that.mimetype) && Objects.equals(parentFolder, that.parentFolder) && Objects.equals(creationDate, that.creationDate) && Objects.equals(fileData, that.fileData);
+        return id.equals(that.id) && label.equals(that.label) && path.equals(that.path) && extension.equals(that.extension) && filename.equals(that.filename) && isProcessed.equals(that.isProcessed) && Objects.equals(fileSize, that.fileSize) && Objects.equals(mimetype, that.mimetype) && Objects.equals(contentHash, that.contentHash) && Objects.equals(processingError, that.processingError) && Objects.equals(parentFolder, that.parentFolder) && Objects.equals(creationDate, that.creationDate) && Objects.equals(fileData, that.fileData);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, label, path, extension, filename, isProcessed, fileSize, mimetype, parentFolder, creationDate, fileData);
+        return Objects.hash(id, label, path, extension, filename, isProcessed, fileSize, mimetype, contentHash, processingError, parentFolder, creationDate, fileData);
     }
 }
@@ -17,6 +17,8 @@ public interface DetailingFileFacade {
     Function<DetailingFile, String> toFilename = detailingFile -> detailingFile.filename;
     Function<DetailingFile, Long> toFileSize = detailingFile -> detailingFile.fileSize;
     Function<DetailingFile, String> toMimeType = detailingFile -> detailingFile.mimetype;
+    Function<DetailingFile, String> toContentHash = detailingFile -> detailingFile.contentHash;
+    Function<DetailingFile, String> toProcessingError = detailingFile -> detailingFile.processingError;
     Function<DetailingFile, XPath> toParentFolder = detailingFile -> detailingFile.parentFolder;
     Function<DetailingFile, String> toLabel = detailingFile -> detailingFile.label;
     Function<DetailingFile, Date> toCreationDate = detailingFile -> detailingFile.creationDate;
@@ -0,0 +1,36 @@
+package tech.jmcs.floortech.detailing.domain.model.files;
+
+import tech.jmcs.floortech.common.helper.ArchiveContents;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Archive contents with the information of each extracted file, recorded once while the archive was extracted.
+ * File information is keyed by the relative path of the file.
+ */
+public class ExtractedArchiveContents extends ArchiveContents {
+    private final Map<Path, ExtractedFileInfo> fileInfo = new HashMap<>();
+
+    public ExtractedArchiveContents() {
+        super();
+    }
+
+    public void putFileInfo(Path relativePath, long fileSize, String mimeType, String contentHash) {
+        fileInfo.put(relativePath, new ExtractedFileInfo(fileSize, mimeType, contentHash));
+    }
+
+    public Optional<ExtractedFileInfo> getFileInfo(Path relativePath) {
+        return Optional.ofNullable(fileInfo.get(relativePath));
+    }
+
+    /**
+     * @param fileSize size in bytes
+     * @param mimeType
+     * @param contentHash hex encoded SHA-256 of the file
+     */
+    public record ExtractedFileInfo(long fileSize, String mimeType, String contentHash) {
+    }
+}
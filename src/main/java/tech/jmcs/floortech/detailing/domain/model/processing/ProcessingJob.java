@@ -0,0 +1,92 @@
+package tech.jmcs.floortech.detailing.domain.model.processing;
+
+import tech.jmcs.floortech.detailing.domain.configs.ProcessingJobStatus;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Processing of the files of a file set, submitted by a user and run by a background worker.
+ * The progress of each file is kept in the order of the file set.
+ * @param id
+ * @param claimId id the claim was looked up with when the job was submitted
+ * @param fileSetId
+ * @param username user that submitted the job
+ * @param status
+ * @param files progress of each file of the file set
+ * @param error reason the job failed, null unless FAILED
+ * @param createdDate
+ * @param updatedDate
+ */
+public record ProcessingJob(
+        String id,
+        String claimId,
+        String fileSetId,
+        String username,
+        ProcessingJobStatus status,
+        List<FileProgress> files,
+        String error,
+        Date createdDate,
+        Date updatedDate
+) {
+    public static ProcessingJob create(String id, String claimId, String fileSetId, String username, List<String> filePaths) {
+        var files = filePaths.stream()
+                .map(FileProgress::pending)
+                .toList();
+        var now = new Date();
+        return new ProcessingJob(id, claimId, fileSetId, username, ProcessingJobStatus.QUEUED, files, null, now, now);
+    }
+
+    public ProcessingJob running() {
+        return new ProcessingJob(id, claimId, fileSetId, username, ProcessingJobStatus.RUNNING, files, null, createdDate, new Date());
+    }
+
+    public ProcessingJob completed() {
+        return new ProcessingJob(id, claimId, fileSetId, username, ProcessingJobStatus.COMPLETED, files, null, createdDate, new Date());
+    }
+
+    public ProcessingJob failed(String error) {
+        return new ProcessingJob(id, claimId, fileSetId, username, ProcessingJobStatus.FAILED, files, error, createdDate, new Date());
+    }
+
+    /**
+     * @param index position of the file in the file set
+     * @param progress
+     * @return
+     */
+    public ProcessingJob withFileProgress(int index, FileProgress progress) {
+        var newFiles = new ArrayList<>(files);
+        newFiles.set(index, progress);
+        return new ProcessingJob(id, claimId, fileSetId, username, status, List.copyOf(newFiles), error, createdDate, new Date());
+    }
+
+    public boolean isFinished() {
+        return status == ProcessingJobStatus.COMPLETED || status == ProcessingJobStatus.FAILED;
+    }
+
+    public int processedCount() {
+        return (int) files.stream()
+                .filter(file -> file.status() != FileStatus.PENDING)
+                .count();
+    }
+
+    public enum FileStatus {
+        PENDING,
+        PROCESSED,
+        FAILED,
+        // not a type data is extracted from
+        SKIPPED
+    }
+
+    /**
+     * @param path path of the file in the file set
+     * @param status
+     * @param error reason the file could not be processed, null unless FAILED
+     */
+    public record FileProgress(String path, FileStatus status, String error) {
+        public static FileProgress pending(String path) {
+            return new FileProgress(path, FileStatus.PENDING, null);
+        }
+    }
+}
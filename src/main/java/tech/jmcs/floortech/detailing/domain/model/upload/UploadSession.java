@@ -0,0 +1,54 @@
+package tech.jmcs.floortech.detailing.domain.model.upload;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * A resumable, chunked upload of an archive for a Detailing Claim.
+ * Chunks are numbered from 0 to chunkCount - 1 and may be received in any order.
+ * @param id
+ * @param jobId job id of the claim the archive will be attached to
+ * @param username user that created the session
+ * @param filename original filename of the archive
+ * @param totalSize size of the complete archive in bytes
+ * @param chunkCount number of chunks the archive is split into
+ * @param receivedChunks indexes of the chunks that have been completely received
+ * @param createdDate
+ */
+public record UploadSession(
+        String id,
+        String jobId,
+        String username,
+        String filename,
+        long totalSize,
+        int chunkCount,
+        SortedSet<Integer> receivedChunks,
+        Date createdDate
+) {
+    public static UploadSession create(String id, String jobId, String username, String filename, long totalSize, int chunkCount) {
+        return new UploadSession(id, jobId, username, filename, totalSize, chunkCount, Collections.emptySortedSet(), new Date());
+    }
+
+    public UploadSession withReceivedChunks(SortedSet<Integer> receivedChunks) {
+        return new UploadSession(id, jobId, username, filename, totalSize, chunkCount, Collections.unmodifiableSortedSet(new TreeSet<>(receivedChunks)), createdDate);
+    }
+
+    public boolean isChunkIndexValid(int index) {
+        return index >= 0 && index < chunkCount;
+    }
+
+    public boolean isComplete() {
+        return receivedChunks.size() == chunkCount;
+    }
+
+    public SortedSet<Integer> missingChunks() {
+        return IntStream.range(0, chunkCount)
+                .filter(index -> !receivedChunks.contains(index))
+                .boxed()
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+}
@@ -1,15 +1,22 @@
 package tech.jmcs.floortech.detailing.domain.repository;
 
-import org.springframework.data.domain.Pageable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import tech.jmcs.floortech.detailing.domain.configs.CrudRepository;
+import tech.jmcs.floortech.detailing.domain.configs.CursorPage;
 import tech.jmcs.floortech.detailing.domain.configs.DetailingStatus;
+import tech.jmcs.floortech.detailing.domain.configs.PageCursor;
 import tech.jmcs.floortech.detailing.domain.model.detailingclaim.DetailingClaim;
+import tech.jmcs.floortech.detailing.domain.model.detailingclaim.DetailingClaimSummary;
+import tech.jmcs.floortech.detailing.domain.model.fileset.FileSet;
 
 import java.util.Date;
 import java.util.List;
 
+/**
+ * Claim lists (findAll..., with a cursor and a size) are paged by cursor, newest modified first: the first page
+ * is found with a null cursor and the next pages with the next cursor of the previous page.
+ */
 public interface DetailingClaimRepository extends CrudRepository<DetailingClaim, String> {
     Flux<DetailingClaim> findClaims(String jobId, String username);
     Mono<DetailingClaim> findClaim(String jobId, String username, Date claimedDate);
@@ -17,17 +24,44 @@ public interface DetailingClaimRepository extends CrudRepository<DetailingClaim,
     Mono<DetailingClaim> findPausedClaim(String jobId, String username);
 
     Mono<DetailingClaim> findByIdAndActive(String claimId);
-    Flux<DetailingClaim> findAll(Pageable paging);
-    Flux<DetailingClaim> findAllActive(Pageable paging);
-    Flux<DetailingClaim> findAllByStaffUsernameAndActive(String username, Pageable paging);
+    Mono<CursorPage<DetailingClaim>> findAll(PageCursor after, int size);
+    Mono<CursorPage<DetailingClaim>> findAllActive(PageCursor after, int size);
+    Mono<CursorPage<DetailingClaim>> findAllByStaffUsernameAndActive(String username, PageCursor after, int size);
+    Mono<CursorPage<DetailingClaimSummary>> findAllActiveSummaries(PageCursor after, int size);
+    Mono<CursorPage<DetailingClaimSummary>> findAllSummariesByStaffUsernameAndActive(String username, PageCursor after, int size);
     Flux<DetailingClaim> findByJobId(String jobId);
     Flux<DetailingClaim> findByJobIds(List<String> jobIds);
     Mono<DetailingClaim> findByJobIdAndUnverified(String jobId);
     Flux<DetailingClaim> findByJobIdAndNotStatus(String jobId, DetailingStatus notStatus);
     Mono<DetailingClaim> findByJobIdAndClaimed(String jobId);
     Mono<DetailingClaim> findByIdAndClaimed(String claimId);
-    Flux<DetailingClaim> findAllByStaffUsernameAndCompleted(String username, Pageable paging);
+    Mono<CursorPage<DetailingClaim>> findAllByStaffUsernameAndCompleted(String username, PageCursor after, int size);
 
-    Flux<DetailingClaim> findAllByStaffUsernameAndCancelled(String username, Pageable paging);
+    Mono<CursorPage<DetailingClaim>> findAllByStaffUsernameAndCancelled(String username, PageCursor after, int size);
+
+    /**
+     * Claims are found without the data extracted from their files, this loads the data of the processed files of
+     * a file set (files that already have their data are left as they are)
+     * @param fileSet
+     * @return the file set with the file data
+     */
+    Mono<FileSet> loadFileData(FileSet fileSet);
+
+    /**
+     * Saves the status of a saved claim, only if the claim has not been saved since it was found (its version is
+     * unchanged), the rest of the claim is left as it is
+     * @param detailingClaim
+     * @return the updated claim, or an OptimisticLockingFailureException if the claim was changed or removed
+     */
+    Mono<DetailingClaim> saveStatus(DetailingClaim detailingClaim);
+
+    /**
+     * Saves a file set of a saved claim (adding it, or replacing the file set with the same id) with the data
+     * attached to its files, the other file sets and values of the claim are left as they are
+     * @param detailingClaim
+     * @param fileSet
+     * @return the updated claim, with the data of the files of the file set
+     */
+    Mono<DetailingClaim> saveFileSet(DetailingClaim detailingClaim, FileSet fileSet);
 
 }
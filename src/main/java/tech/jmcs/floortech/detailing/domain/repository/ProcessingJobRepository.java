@@ -0,0 +1,17 @@
+package tech.jmcs.floortech.detailing.domain.repository;
+
+import reactor.core.publisher.Mono;
+import tech.jmcs.floortech.detailing.domain.configs.CrudRepository;
+import tech.jmcs.floortech.detailing.domain.model.processing.ProcessingJob;
+
+import java.util.Date;
+
+public interface ProcessingJobRepository extends CrudRepository<ProcessingJob, String> {
+    /**
+     * Fails the jobs that are not finished and were last updated before updatedBefore
+     * @param updatedBefore
+     * @param error
+     * @return number of jobs failed
+     */
+    Mono<Long> failUnfinishedUpdatedBefore(Date updatedBefore, String error);
+}
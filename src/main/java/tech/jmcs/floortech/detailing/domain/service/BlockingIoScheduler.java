@@ -0,0 +1,14 @@
+package tech.jmcs.floortech.detailing.domain.service;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Execution layer for blocking filesystem and processing calls, keeping them off the event loop threads.
+ */
+public interface BlockingIoScheduler {
+    Scheduler scheduler();
+    <T> Mono<T> fromCallable(Callable<T> callable);
+}
@@ -0,0 +1,16 @@
+package tech.jmcs.floortech.detailing.domain.service;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tech.jmcs.floortech.detailing.domain.model.upload.UploadSession;
+
+import java.nio.file.Path;
+
+public interface ChunkedUploadStorageService {
+    Mono<UploadSession> createSession(UploadSession session);
+    Mono<UploadSession> findSession(String sessionId);
+    Mono<UploadSession> writeChunk(UploadSession session, int index, Flux<DataBuffer> content);
+    Mono<Path> assemble(UploadSession session, String... pathParts);
+    Mono<Void> deleteSession(String sessionId);
+}
@@ -1,5 +1,6 @@
 package tech.jmcs.floortech.detailing.domain.service;
 
+import org.springframework.core.io.Resource;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.codec.multipart.FilePart;
 import reactor.core.publisher.Flux;
@@ -13,8 +14,13 @@ public interface FileStorageService {
     Path makeRelative(Path path);
     Path makeAbsolute(Path relativePath);
     Path softDelete(String relativePath);
+    boolean isContentAddressed();
+    Path deduplicate(Path absolutePath);
+    Path deduplicate(Path absolutePath, String sha256);
     Mono<Path> saveToRoot(FilePart filePart, String... pathParts);
+    Mono<Path> createInRoot(String filename, String... pathParts);
     Mono<String> saveToTemp(Mono<FilePart> filePartMono, String... pathParts);
+    Mono<Resource> loadResourceFromRoot(XPath xPath);
     Flux<DataBuffer> loadFromRoot(String relativePath);
     Flux<DataBuffer> loadFromRoot(Path relativePath);
     Flux<DataBuffer> loadFromRoot(XPath xPath);
@@ -0,0 +1,22 @@
+package tech.jmcs.floortech.detailing.domain.service;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Function;
+
+/**
+ * Work queue of processing jobs: jobs are submitted by id and taken by the workers consuming the queue
+ */
+public interface ProcessingJobQueue {
+    Mono<Void> submit(String jobId);
+
+    /**
+     * Starts consuming the queue.  A job is acknowledged once the worker's Mono completes, so a job that was
+     * taken by an instance that stopped is delivered again.  The worker only errors when it could not record the
+     * outcome of the job: the job is then retried, up to the configured attempts, before it is dead lettered.
+     * @param worker runs the job with the given id, completing once the job is finished and saved
+     * @return to stop consuming
+     */
+    Disposable consume(Function<String, Mono<?>> worker);
+}
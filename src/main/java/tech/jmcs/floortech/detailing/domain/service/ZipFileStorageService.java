@@ -1,6 +1,8 @@
 package tech.jmcs.floortech.detailing.domain.service;
 
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.codec.multipart.FilePart;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import tech.jmcs.floortech.common.helper.ArchiveContents;
 import tech.jmcs.floortech.detailing.domain.service.exception.ZipFileStorageException;
@@ -8,7 +10,9 @@ import tech.jmcs.floortech.detailing.domain.service.exception.ZipFileStorageExce
 import java.nio.file.Path;
 
 public interface ZipFileStorageService {
+    Mono<Path> saveArchive(String filename, Flux<DataBuffer> content, long maxBytes, String... pathParts);
     Mono<ArchiveContents> saveArchiveAndExtract(FilePart filePart, String... pathParts);
+    Mono<ArchiveContents> saveArchiveAndExtractStreaming(String filename, Flux<DataBuffer> content, long maxBytes, String... pathParts);
     Mono<ArchiveContents> unzipArchiveMono(Path zipPath, boolean isRelative);
     ArchiveContents unzipArchive(Path zipPath, boolean isRelative) throws ZipFileStorageException;
 }
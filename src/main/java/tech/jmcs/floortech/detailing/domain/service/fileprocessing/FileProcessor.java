@@ -10,4 +10,15 @@ import java.nio.file.Path;
 @Component
 public interface FileProcessor {
     FileData processFileData(DetailingFile detailingFile, Path storageBasePath) throws FileProcessorException;
+
+    /**
+     * @param detailingFile
+     * @return true when the file is of a type data can be extracted from (files of other types are not processed)
+     */
+    boolean isSupported(DetailingFile detailingFile);
+
+    /**
+     * @return version of the extraction, to be changed whenever the same file would be extracted differently
+     */
+    String getVersion();
 }
@@ -1,15 +1,55 @@
 package tech.jmcs.floortech.detailing.domain.service.fileprocessing;
 
 import tech.jmcs.floortech.detailing.domain.model.filedata.ExtractedDataRow;
+import tech.jmcs.floortech.detailing.domain.model.filedata.ExtractedDataTable;
 import tech.jmcs.floortech.detailing.domain.model.filedata.FileData;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 public interface TableProcessor {
 
+    /**
+     * @return title of the table template this processor handles
+     */
+    String templateTitle();
+
+    /**
+     * @return column names of the table template this processor handles
+     */
+    String[] templateColumns();
+
     boolean isRecognized(String title, String[] columns);
 
-    Map<String, ExtractedDataRow> processData(FileData fileData, String title, String[] columns, List<String[]> dataRows);
+    default Map<String, ExtractedDataRow> processData(FileData fileData, String title, String[] columns, List<String[]> dataRows) {
+        return processRows(fileData, title, columns, dataRows.stream().map(TableRow::of).iterator()).asRowMap();
+    }
+
+    /**
+     * Processes the data rows in a single pass into a columnar table.  A row may be reused by the iterator, so only
+     * the values read from it are kept.
+     * @param fileData
+     * @param title
+     * @param columns
+     * @param dataRows
+     * @return
+     */
+    default ExtractedDataTable processRows(FileData fileData, String title, String[] columns, Iterator<TableRow> dataRows) {
+        var table = openTable(fileData, title, columns);
+        while (dataRows.hasNext()) {
+            table.accept(dataRows.next());
+        }
+        return table.finish();
+    }
+
+    /**
+     * Starts a table that receives its data rows one at a time
+     * @param fileData
+     * @param title
+     * @param columns
+     * @return
+     */
+    TableSink openTable(FileData fileData, String title, String[] columns);
 
 }
@@ -0,0 +1,38 @@
+package tech.jmcs.floortech.detailing.domain.service.fileprocessing;
+
+import java.util.Arrays;
+
+/**
+ * A row of table data, read field by field.
+ * A row handed out by a table reader may be a view over the reader's buffer that is reused for the next row, so
+ * it is only valid until the next row is read.  Values are only materialized when a field is requested.
+ */
+public interface TableRow {
+
+    int fieldCount();
+
+    /**
+     * @param index
+     * @return the value of the field as a new String
+     */
+    String field(int index);
+
+    static TableRow of(String[] fields) {
+        return new TableRow() {
+            @Override
+            public int fieldCount() {
+                return fields.length;
+            }
+
+            @Override
+            public String field(int index) {
+                return fields[index];
+            }
+
+            @Override
+            public String toString() {
+                return Arrays.toString(fields);
+            }
+        };
+    }
+}
@@ -0,0 +1,20 @@
+package tech.jmcs.floortech.detailing.domain.service.fileprocessing;
+
+import tech.jmcs.floortech.detailing.domain.model.filedata.ExtractedDataTable;
+
+/**
+ * Receives the data rows of a recognized table as they are read, for readers that push rows (ie event based
+ * spreadsheet readers) rather than iterate them.
+ */
+public interface TableSink {
+
+    /**
+     * @param row the next data row, only valid for the duration of the call
+     */
+    void accept(TableRow row);
+
+    /**
+     * @return the table of the rows received
+     */
+    ExtractedDataTable finish();
+}
@@ -0,0 +1,102 @@
+package tech.jmcs.floortech.detailing.infrastructure.files.storage;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SynchronousSink;
+import tech.jmcs.floortech.detailing.infrastructure.files.storage.exception.FileStorageException;
+
+import java.security.MessageDigest;
+
+/**
+ * Pre-flight checks of an uploaded archive, applied to the content while it streams in.
+ * The first bytes must be a zip local file header signature and the running byte count must stay within the
+ * budget.  A failed check errors the content, which cancels the upload, so a bad upload is rejected after its
+ * first buffer instead of after it has been written to disk.
+ */
+final class ArchiveUploadGuard {
+    private static final byte[] ZIP_SIGNATURE = {'P', 'K', 3, 4};
+    private final long maxBytes;
+    private final boolean checkSignature;
+    private final MessageDigest digest;
+    private final byte[] head = new byte[ZIP_SIGNATURE.length];
+    private int headLength;
+    private long received;
+
+    private ArchiveUploadGuard(long maxBytes, boolean checkSignature, MessageDigest digest) {
+        this.maxBytes = maxBytes;
+        this.checkSignature = checkSignature;
+        this.digest = digest;
+    }
+
+    /**
+     * Guards the content of an archive upload
+     * @param content
+     * @param maxBytes byte budget of the upload
+     * @return content that errors with a FileStorageException when it is not a zip or exceeds the budget
+     */
+    static Flux<DataBuffer> guard(Flux<DataBuffer> content, long maxBytes) {
+        return guard(content, maxBytes, true, null);
+    }
+
+    /**
+     * Guards the content of an upload
+     * @param content
+     * @param maxBytes byte budget of the upload
+     * @param checkSignature when true the content must start with a zip signature
+     * @param digest when not null, updated with every byte that passes the guard
+     * @return guarded content
+     */
+    static Flux<DataBuffer> guard(Flux<DataBuffer> content, long maxBytes, boolean checkSignature, MessageDigest digest) {
+        return Flux.defer(() -> {
+            var guard = new ArchiveUploadGuard(maxBytes, checkSignature, digest);
+            return content
+                    .<DataBuffer>handle(guard::accept)
+                    .concatWith(Flux.defer(guard::complete));
+        });
+    }
+
+    // <editor-fold desc="Instance Helper methods">
+    private void accept(DataBuffer dataBuffer, SynchronousSink<DataBuffer> sink) {
+        received += dataBuffer.readableByteCount();
+        if (received > maxBytes) {
+            DataBufferUtils.release(dataBuffer);
+            sink.error(new FileStorageException("Upload exceeds the limit of " + maxBytes + " bytes"));
+            return;
+        }
+        if (checkSignature && headLength < head.length) {
+            var position = dataBuffer.readPosition();
+            while (headLength < head.length && position < dataBuffer.writePosition()) {
+                head[headLength++] = dataBuffer.getByte(position++);
+            }
+            if (headLength == head.length && !isZipSignature()) {
+                DataBufferUtils.release(dataBuffer);
+                sink.error(new FileStorageException("Upload is not a zip archive"));
+                return;
+            }
+        }
+        if (digest != null) {
+            try (var byteBuffers = dataBuffer.readableByteBuffers()) {
+                byteBuffers.forEachRemaining(digest::update);
+            }
+        }
+        sink.next(dataBuffer);
+    }
+
+    private Flux<DataBuffer> complete() {
+        if (checkSignature && headLength < head.length) {
+            return Flux.error(new FileStorageException("Upload is not a zip archive"));
+        }
+        return Flux.empty();
+    }
+
+    private boolean isZipSignature() {
+        for (int i = 0; i < ZIP_SIGNATURE.length; i++) {
+            if (head[i] != ZIP_SIGNATURE[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    // </editor-fold>
+}
@@ -0,0 +1,408 @@
+package tech.jmcs.floortech.detailing.infrastructure.files.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tech.jmcs.floortech.detailing.domain.model.upload.UploadSession;
+import tech.jmcs.floortech.detailing.domain.service.BlockingIoScheduler;
+import tech.jmcs.floortech.detailing.domain.service.ChunkedUploadStorageService;
+import tech.jmcs.floortech.detailing.domain.service.FileStorageService;
+import tech.jmcs.floortech.detailing.infrastructure.files.storage.exception.FileStorageException;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Stores the chunks of resumable uploads in the temporary files area (_TEMP_/_UPLOADS_/sessionId).
+ * Each chunk is written to its own file, so chunks can be received in any order and in parallel.  A chunk is
+ * written under a unique temporary name and moved into place once complete, so an interrupted chunk is never
+ * counted as received and can simply be sent again.
+ * The session itself is described by a properties file in the session folder.
+ * The bytes of the chunks of a session (received and being written) are counted against the size of the archive,
+ * so a session never holds more than its archive size on disk.  A chunk index is written by one request at a time,
+ * and a session being assembled accepts no chunks and can't be assembled again or deleted.
+ */
+@Service
+public class ChunkedUploadStorageServiceImpl implements ChunkedUploadStorageService {
+    static final Logger log = LoggerFactory.getLogger(ChunkedUploadStorageServiceImpl.class);
+    public static final String UPLOADS_FOLDER = "_UPLOADS_";
+    private static final String SESSION_FILENAME = "session.properties";
+    private static final String CHUNK_PREFIX = "chunk-";
+    private static final String CHUNK_SUFFIX = ".part";
+    private static final Pattern CHUNK_FILENAME = Pattern.compile("chunk-(\\d{6})\\.part");
+    private static final Pattern SESSION_ID = Pattern.compile("[A-Za-z0-9-]{1,100}");
+    final FileStorageService fileStorage;
+    final BlockingIoScheduler blockingIo;
+    // sessions with chunks being written or being assembled, guarded by itself
+    private final Map<String, SessionState> sessionStates = new HashMap<>();
+
+    @Autowired
+    public ChunkedUploadStorageServiceImpl(FileStorageService fileStorage, BlockingIoScheduler blockingIo) {
+        this.fileStorage = fileStorage;
+        this.blockingIo = blockingIo;
+    }
+
+    @Override
+    public Mono<UploadSession> createSession(UploadSession session) {
+        return blockingIo.fromCallable(() -> {
+            var sessionFolder = sessionFolder(session.id());
+            Files.createDirectories(sessionFolder);
+            writeManifest(sessionFolder.resolve(SESSION_FILENAME), session);
+            log.info("Created upload session {} for job {} ({} bytes in {} chunks)", session.id(), session.jobId(), session.totalSize(), session.chunkCount());
+            return session;
+        });
+    }
+
+    @Override
+    public Mono<UploadSession> findSession(String sessionId) {
+        return blockingIo.fromCallable(() -> {
+            var manifest = sessionFolder(sessionId).resolve(SESSION_FILENAME);
+            if (!Files.isRegularFile(manifest)) {
+                return null;
+            }
+            return readSession(manifest.getParent());
+        });
+    }
+
+    /**
+     * Writes a chunk of an upload session.  A chunk that takes the session past the size of the archive, or a
+     * first chunk that does not start with a zip signature, is rejected while it streams in.
+     * Sending a chunk that was already received replaces it.  A chunk that is still being written, or a chunk of
+     * a session being assembled, is rejected.
+     * @param session
+     * @param index
+     * @param content
+     * @return The session, with the chunks received so far
+     */
+    @Override
+    public Mono<UploadSession> writeChunk(UploadSession session, int index, Flux<DataBuffer> content) {
+        if (!session.isChunkIndexValid(index)) {
+            return Mono.error(new FileStorageException("Chunk index " + index + " is out of range for upload session " + session.id()));
+        }
+        var sessionFolder = sessionFolder(session.id());
+        var chunkFile = sessionFolder.resolve(chunkFilename(index));
+        var partialFile = sessionFolder.resolve(chunkFilename(index) + "." + UUID.randomUUID());
+
+        return blockingIo.fromCallable(() -> startChunk(session, index))
+                .flatMap(chunkWrite -> {
+                    var written = new AtomicLong();
+                    var moved = new AtomicBoolean();
+                    var guardedContent = ArchiveUploadGuard.guard(content, session.totalSize(), index == 0, null)
+                            .<DataBuffer>handle((dataBuffer, sink) -> {
+                                var count = dataBuffer.readableByteCount();
+                                written.addAndGet(count);
+                                if (chunkWrite.state().bytes.addAndGet(count) > session.totalSize()) {
+                                    DataBufferUtils.release(dataBuffer);
+                                    sink.error(new FileStorageException("Upload session " + session.id() + " exceeds the archive size of " + session.totalSize() + " bytes"));
+                                    return;
+                                }
+                                sink.next(dataBuffer);
+                            });
+                    return DataBufferUtils.write(guardedContent, partialFile)
+                            .then(blockingIo.fromCallable(() -> {
+                                Files.move(partialFile, chunkFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                                moved.set(true);
+                                log.debug("Received chunk {} of upload session {}", index, session.id());
+                                return readSession(sessionFolder);
+                            }))
+                            .onErrorResume(error -> blockingIo
+                                    .fromCallable(() -> Files.deleteIfExists(partialFile))
+                                    .then(Mono.error(error)))
+                            // a chunk that was not moved into place leaves the replaced chunk (if any) on disk
+                            .doFinally(signal -> endChunk(session.id(), index, moved.get() ? 0 : chunkWrite.replacedBytes() - written.get()));
+                });
+    }
+
+    /**
+     * Joins the chunks of a complete upload session into a new file in root storage (inside the folder path
+     * created by pathParts), then removes the session.  A session is assembled once, it fails while the session
+     * is already being assembled or chunks are still being received.
+     * @param session
+     * @param pathParts
+     * @return the absolute path of the assembled file
+     */
+    @Override
+    public Mono<Path> assemble(UploadSession session, String... pathParts) {
+        var sessionFolder = sessionFolder(session.id());
+        var started = new AtomicBoolean();
+        return blockingIo
+                .fromCallable(() -> {
+                    startAssembly(session.id());
+                    started.set(true);
+                    var current = readSession(sessionFolder);
+                    if (!current.isComplete()) {
+                        throw new FileStorageException("Upload session " + session.id() + " is incomplete, missing chunks: " + current.missingChunks());
+                    }
+                    return current;
+                })
+                .flatMap(current -> fileStorage.createInRoot(current.filename(), pathParts))
+                .flatMap(target -> blockingIo.fromCallable(() -> {
+                    joinChunks(sessionFolder, session.chunkCount(), target);
+                    var size = Files.size(target);
+                    if (size != session.totalSize()) {
+                        Files.deleteIfExists(target);
+                        throw new FileStorageException("Upload session " + session.id() + " assembled to " + size + " bytes, expected " + session.totalSize());
+                    }
+                    deleteFolder(sessionFolder);
+                    log.info("Assembled upload session {} to {}", session.id(), target);
+                    return target;
+                }))
+                .doFinally(signal -> {
+                    if (started.get()) {
+                        endAssembly(session.id());
+                    }
+                });
+    }
+
+    /**
+     * Removes an upload session and the chunks received so far.  A session that is receiving chunks or being
+     * assembled is not removed.
+     * @param sessionId
+     * @return
+     */
+    @Override
+    public Mono<Void> deleteSession(String sessionId) {
+        var started = new AtomicBoolean();
+        return blockingIo
+                .fromCallable(() -> {
+                    startAssembly(sessionId);
+                    started.set(true);
+                    deleteFolder(sessionFolder(sessionId));
+                    log.info("Deleted upload session {}", sessionId);
+                    return sessionId;
+                })
+                .doFinally(signal -> {
+                    if (started.get()) {
+                        endAssembly(sessionId);
+                    }
+                })
+                .then();
+    }
+
+    // <editor-fold desc="Instance Helper methods">
+    /**
+     * Registers a chunk being written, counting the session's received bytes from disk when no other chunk of the
+     * session is being written
+     * @param session
+     * @param index
+     * @return the state of the session, and the size of the chunk replaced by this one (0 if none)
+     * @throws FileStorageException if the chunk is already being written or the session is being assembled
+     */
+    private ChunkWrite startChunk(UploadSession session, int index) throws IOException, FileStorageException {
+        var sessionFolder = sessionFolder(session.id());
+        synchronized (sessionStates) {
+            var state = sessionStates.get(session.id());
+            if (state == null) {
+                state = new SessionState(receivedBytes(sessionFolder, session.chunkCount()));
+            }
+            if (state.assembling) {
+                throw new FileStorageException("Upload session " + session.id() + " is being committed");
+            }
+            if (!state.writing.add(index)) {
+                throw new FileStorageException("Chunk " + index + " of upload session " + session.id() + " is already being received");
+            }
+            sessionStates.put(session.id(), state);
+            var chunkFile = sessionFolder.resolve(chunkFilename(index));
+            var replacedBytes = Files.isRegularFile(chunkFile) ? Files.size(chunkFile) : 0L;
+            // the replaced chunk stops counting once the new chunk is received
+            state.bytes.addAndGet(-replacedBytes);
+            return new ChunkWrite(state, replacedBytes);
+        }
+    }
+
+    /**
+     * @param sessionId
+     * @param index
+     * @param bytesAdjustment bytes to add back to the session count (chunk not received)
+     */
+    private void endChunk(String sessionId, int index, long bytesAdjustment) {
+        synchronized (sessionStates) {
+            var state = sessionStates.get(sessionId);
+            if (state == null) {
+                return;
+            }
+            state.bytes.addAndGet(bytesAdjustment);
+            state.writing.remove(index);
+            if (state.isIdle()) {
+                sessionStates.remove(sessionId);
+            }
+        }
+    }
+
+    /**
+     * Registers a session being assembled or deleted, no chunk is received meanwhile
+     * @param sessionId
+     * @throws FileStorageException if the session is receiving chunks or already being assembled
+     */
+    private void startAssembly(String sessionId) throws FileStorageException {
+        synchronized (sessionStates) {
+            var state = sessionStates.get(sessionId);
+            if (state != null && state.assembling) {
+                throw new FileStorageException("Upload session " + sessionId + " is already being committed");
+            }
+            if (state != null && !state.writing.isEmpty()) {
+                throw new FileStorageException("Upload session " + sessionId + " is still receiving chunks: " + state.writing);
+            }
+            state = new SessionState(0);
+            state.assembling = true;
+            sessionStates.put(sessionId, state);
+        }
+    }
+
+    private void endAssembly(String sessionId) {
+        synchronized (sessionStates) {
+            sessionStates.remove(sessionId);
+        }
+    }
+
+    private Path uploadsRoot() {
+        return fileStorage.getRoot().resolve(FileStorageServiceImpl.TEMP_FOLDER_PREFIX).resolve(UPLOADS_FOLDER);
+    }
+
+    /**
+     * Folder of a session, the session id is checked so it can't be used to leave the uploads folder
+     * @param sessionId
+     * @return
+     */
+    private Path sessionFolder(String sessionId) {
+        if (sessionId == null || !SESSION_ID.matcher(sessionId).matches()) {
+            throw new IllegalArgumentException("Invalid upload session id: " + sessionId);
+        }
+        return uploadsRoot().resolve(sessionId);
+    }
+    // </editor-fold>
+
+    // <editor-fold desc="Static helper methods">
+    private static String chunkFilename(int index) {
+        return CHUNK_PREFIX + String.format("%06d", index) + CHUNK_SUFFIX;
+    }
+
+    private static UploadSession readSession(Path sessionFolder) throws IOException {
+        var properties = new Properties();
+        try (var in = Files.newInputStream(sessionFolder.resolve(SESSION_FILENAME))) {
+            properties.load(in);
+        }
+        var session = new UploadSession(
+                properties.getProperty("id"),
+                properties.getProperty("jobId"),
+                properties.getProperty("username"),
+                properties.getProperty("filename"),
+                Long.parseLong(properties.getProperty("totalSize")),
+                Integer.parseInt(properties.getProperty("chunkCount")),
+                new TreeSet<>(),
+                new Date(Long.parseLong(properties.getProperty("createdDate"))));
+        return session.withReceivedChunks(receivedChunks(sessionFolder, session.chunkCount()));
+    }
+
+    private static long receivedBytes(Path sessionFolder, int chunkCount) throws IOException {
+        var bytes = 0L;
+        for (var index : receivedChunks(sessionFolder, chunkCount)) {
+            bytes += Files.size(sessionFolder.resolve(chunkFilename(index)));
+        }
+        return bytes;
+    }
+
+    private static TreeSet<Integer> receivedChunks(Path sessionFolder, int chunkCount) throws IOException {
+        var received = new TreeSet<Integer>();
+        try (var files = Files.list(sessionFolder)) {
+            files.map(path -> CHUNK_FILENAME.matcher(path.getFileName().toString()))
+                    .filter(matcher -> matcher.matches())
+                    .map(matcher -> Integer.parseInt(matcher.group(1)))
+                    .filter(index -> index < chunkCount)
+                    .forEach(received::add);
+        }
+        return received;
+    }
+
+    private static void writeManifest(Path manifest, UploadSession session) throws IOException {
+        var properties = new Properties();
+        properties.setProperty("id", session.id());
+        properties.setProperty("jobId", session.jobId());
+        properties.setProperty("username", session.username());
+        properties.setProperty("filename", session.filename());
+        properties.setProperty("totalSize", Long.toString(session.totalSize()));
+        properties.setProperty("chunkCount", Integer.toString(session.chunkCount()));
+        properties.setProperty("createdDate", Long.toString(session.createdDate().getTime()));
+        try (var out = Files.newOutputStream(manifest)) {
+            properties.store(out, "Upload session");
+        }
+    }
+
+    /**
+     * Appends the chunks to the target in index order, using channel transfer so the chunk bytes are not copied
+     * through the heap
+     * @param sessionFolder
+     * @param chunkCount
+     * @param target
+     * @throws IOException
+     */
+    private static void joinChunks(Path sessionFolder, int chunkCount, Path target) throws IOException {
+        try (var out = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (int index = 0; index < chunkCount; index++) {
+                try (var in = FileChannel.open(sessionFolder.resolve(chunkFilename(index)), StandardOpenOption.READ)) {
+                    var size = in.size();
+                    var position = 0L;
+                    while (position < size) {
+                        position += in.transferTo(position, size - position, out);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void deleteFolder(Path folder) throws IOException {
+        if (!Files.exists(folder)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(folder)) {
+            for (var path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+    // </editor-fold>
+
+    /**
+     * State of a session with chunks being written or being assembled
+     */
+    private static final class SessionState {
+        // bytes of the received chunks and of the chunks being written
+        final AtomicLong bytes;
+        final Set<Integer> writing = new HashSet<>();
+        boolean assembling;
+
+        SessionState(long bytes) {
+            this.bytes = new AtomicLong(bytes);
+        }
+
+        boolean isIdle() {
+            return writing.isEmpty() && !assembling;
+        }
+    }
+
+    /**
+     * @param state
+     * @param replacedBytes size of the received chunk being replaced, 0 if none
+     */
+    private record ChunkWrite(SessionState state, long replacedBytes) {
+    }
+}
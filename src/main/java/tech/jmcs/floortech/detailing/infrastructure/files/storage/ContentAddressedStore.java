@@ -0,0 +1,72 @@
+package tech.jmcs.floortech.detailing.infrastructure.files.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.*;
+
+/**
+ * Deduplicating store of file contents keyed by SHA-256.
+ * Each distinct content is kept once as a blob (blobRoot/ab/cd/abcd...), and every stored file path
+ * (DetailingFile and FileSet archive paths) is a hard link to its blob. The link count of a blob is therefore
+ * its reference count: a blob with a single link is no longer referenced by any path and can be removed.
+ * Where hard links are not supported the file is left in place (stored, but not deduplicated).
+ */
+public class ContentAddressedStore {
+    static final Logger log = LoggerFactory.getLogger(ContentAddressedStore.class);
+    private static final String LINK_SUFFIX = ".cas-link";
+    private final Path blobRoot;
+
+    public ContentAddressedStore(Path blobRoot) {
+        this.blobRoot = blobRoot;
+    }
+
+    public Path getBlobRoot() {
+        return blobRoot;
+    }
+
+    /**
+     * Stores the content of a written file.  When identical content is already stored, the file is replaced
+     * with a link to the existing blob, otherwise the file becomes the blob.
+     * @param file absolute path of the written file
+     * @param sha256 hex encoded hash of the file
+     * @return the path of the file (unchanged)
+     * @throws IOException
+     */
+    public Path store(Path file, String sha256) throws IOException {
+        var blob = blobPath(sha256);
+        Files.createDirectories(blob.getParent());
+        try {
+            Files.createLink(blob, file);
+            log.debug("Stored new blob {} for {}", sha256, file);
+        } catch (FileAlreadyExistsException e) {
+            var link = file.resolveSibling(file.getFileName() + LINK_SUFFIX);
+            Files.deleteIfExists(link);
+            Files.createLink(link, blob);
+            Files.move(link, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Deduplicated {} to existing blob {}", file, sha256);
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            log.warn("Unable to link {} into the content store, keeping file as is: {}", file, e.getMessage());
+        }
+        return file;
+    }
+
+    /**
+     * Number of stored file paths referencing a blob
+     * @param blob
+     * @return reference count, or -1 if the file system does not report link counts
+     */
+    public long referenceCount(Path blob) {
+        try {
+            var links = (Integer) Files.getAttribute(blob, "unix:nlink");
+            return links - 1;
+        } catch (UnsupportedOperationException | IllegalArgumentException | IOException e) {
+            return -1;
+        }
+    }
+
+    public Path blobPath(String sha256) {
+        return blobRoot.resolve(sha256.substring(0, 2)).resolve(sha256.substring(2, 4)).resolve(sha256);
+    }
+}
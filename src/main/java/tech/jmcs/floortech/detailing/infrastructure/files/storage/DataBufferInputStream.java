@@ -0,0 +1,148 @@
+package tech.jmcs.floortech.detailing.infrastructure.files.storage;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.Exceptions;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Blocking InputStream view of a DataBuffer publisher, for use on the blocking I/O scheduler.
+ * At most 'prefetch' buffers are requested ahead of the reader, so a slow reader applies back pressure to the
+ * upload instead of buffering it in memory.  A publisher that sends more than was requested fails the stream, its
+ * bytes are never dropped.
+ */
+class DataBufferInputStream extends InputStream {
+    private static final Object COMPLETE = new Object();
+    private final BlockingQueue<Object> signals;
+    private final Duration idleTimeout;
+    private final BaseSubscriber<DataBuffer> subscriber;
+    private volatile Throwable overflow;
+    private DataBuffer current;
+    private boolean done;
+
+    DataBufferInputStream(Publisher<DataBuffer> content, int prefetch, Duration idleTimeout) {
+        this.signals = new ArrayBlockingQueue<>(prefetch + 1);
+        this.idleTimeout = idleTimeout;
+        this.subscriber = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                subscription.request(prefetch);
+            }
+
+            @Override
+            protected void hookOnNext(DataBuffer dataBuffer) {
+                if (!signals.offer(dataBuffer)) {
+                    DataBufferUtils.release(dataBuffer);
+                    overflow = Exceptions.failWithOverflow("Content published more buffers than were requested");
+                    cancel();
+                }
+            }
+
+            @Override
+            protected void hookOnComplete() {
+                signals.offer(COMPLETE);
+            }
+
+            @Override
+            protected void hookOnError(Throwable throwable) {
+                signals.offer(throwable);
+            }
+        };
+        Flux.from(content).subscribe(subscriber);
+    }
+
+    @Override
+    public int read() throws IOException {
+        var dataBuffer = currentBuffer();
+        if (dataBuffer == null) {
+            return -1;
+        }
+        return dataBuffer.read() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        var dataBuffer = currentBuffer();
+        if (dataBuffer == null) {
+            return -1;
+        }
+        var count = Math.min(length, dataBuffer.readableByteCount());
+        dataBuffer.read(bytes, offset, count);
+        return count;
+    }
+
+    @Override
+    public void close() {
+        subscriber.dispose();
+        releaseCurrent();
+        Object signal;
+        while ((signal = signals.poll()) != null) {
+            if (signal instanceof DataBuffer dataBuffer) {
+                DataBufferUtils.release(dataBuffer);
+            }
+        }
+        done = true;
+    }
+
+    // <editor-fold desc="Instance Helper methods">
+    /**
+     * Returns a buffer with readable bytes, waiting for the next one if required
+     * @return DataBuffer, or null at the end of the content
+     * @throws IOException if the content errored or no data arrived within the idle timeout
+     */
+    private DataBuffer currentBuffer() throws IOException {
+        while (current == null || current.readableByteCount() == 0) {
+            if (current != null) {
+                releaseCurrent();
+                subscriber.request(1);
+            }
+            if (done) {
+                return null;
+            }
+            if (overflow != null) {
+                done = true;
+                throw new IOException(overflow.getMessage(), overflow);
+            }
+            Object signal;
+            try {
+                signal = signals.poll(idleTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for content");
+            }
+            if (signal == null) {
+                throw new IOException("No content received for " + idleTimeout.toSeconds() + " seconds");
+            } else if (signal == COMPLETE) {
+                done = true;
+                return null;
+            } else if (signal instanceof Throwable throwable) {
+                done = true;
+                throw new IOException(throwable.getMessage(), throwable);
+            }
+            current = (DataBuffer) signal;
+        }
+        return current;
+    }
+
+    private void releaseCurrent() {
+        if (current != null) {
+            DataBufferUtils.release(current);
+            current = null;
+        }
+    }
+    // </editor-fold>
+}
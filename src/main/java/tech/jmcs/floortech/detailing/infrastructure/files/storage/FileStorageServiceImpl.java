@@ -6,6 +6,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.env.Environment;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferUtils;
@@ -17,29 +19,38 @@ import reactor.core.publisher.Mono;
 import tech.jmcs.floortech.common.helper.FileHelper;
 import tech.jmcs.floortech.detailing.infrastructure.files.storage.exception.FileStorageException;
 import tech.jmcs.floortech.detailing.domain.configs.XPath;
+import tech.jmcs.floortech.detailing.domain.service.BlockingIoScheduler;
 import tech.jmcs.floortech.detailing.domain.service.FileStorageService;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
 
 @Service
 public class FileStorageServiceImpl implements FileStorageService {
     static final Logger log = LoggerFactory.getLogger(FileStorageServiceImpl.class);
     public static final String DELETED_FOLDER_PREFIX = "_DELETED_";
     public static final String TEMP_FOLDER_PREFIX = "_TEMP_";
+    public static final String BLOBS_FOLDER_PREFIX = "_BLOBS_";
+    public static final String STORAGE_MODE_CONTENT_ADDRESSED = "content-addressed";
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
     final Environment env;
+    final BlockingIoScheduler blockingIo;
     private String fileStorageRoot;
     private Path root;
     private Path deletedFilesPath;
     private Path temporaryFilesPath;
+    private ContentAddressedStore contentStore;
 
     @Autowired
-    public FileStorageServiceImpl(Environment env) {
+    public FileStorageServiceImpl(Environment env, BlockingIoScheduler blockingIo) {
         this.env = env;
+        this.blockingIo = blockingIo;
     }
 
     /**
@@ -57,6 +68,10 @@ public class FileStorageServiceImpl implements FileStorageService {
         this.root = Paths.get(fileStorageRoot);
         this.deletedFilesPath =  Paths.get(fileStorageRoot, DELETED_FOLDER_PREFIX);
         this.temporaryFilesPath = Paths.get(fileStorageRoot, TEMP_FOLDER_PREFIX);
+        if (STORAGE_MODE_CONTENT_ADDRESSED.equalsIgnoreCase(env.getProperty("files.storage-mode", "plain"))) {
+            this.contentStore = new ContentAddressedStore(Paths.get(fileStorageRoot, BLOBS_FOLDER_PREFIX));
+            log.info("Content addressed storage enabled, blobs stored in: {}", contentStore.getBlobRoot());
+        }
 
         try {
             Files.createDirectories(root);
@@ -70,6 +85,13 @@ public class FileStorageServiceImpl implements FileStorageService {
         return root;
     }
 
+    /**
+     * @return the content store when storage mode is content-addressed, otherwise null
+     */
+    public ContentAddressedStore getContentStore() {
+        return contentStore;
+    }
+
     @Override
     public Path makeRelative(Path path) {
         var isTemp = path.toString().startsWith(temporaryFilesPath.toString());
@@ -119,6 +141,11 @@ public class FileStorageServiceImpl implements FileStorageService {
         return writeFileMono(root, filePart, pathParts);
     }
 
+    @Override
+    public Mono<Path> createInRoot(String filename, String... pathParts) {
+        return createFileMono(root, filename, pathParts);
+    }
+
     @Override
     public Flux<DataBuffer> loadFromRoot(XPath xPath) {
         if (xPath.isRelative()) {
@@ -128,6 +155,24 @@ public class FileStorageServiceImpl implements FileStorageService {
         }
     }
 
+    /**
+     * Loads a file as a FileSystemResource, which can be written to the response with zero-copy transfer
+     * @param xPath
+     * @return
+     */
+    @Override
+    public Mono<Resource> loadResourceFromRoot(XPath xPath) {
+        var filePath = xPath.isRelative() ? Paths.get(root.toString(), xPath.path()) : xPath.toPath();
+        return blockingIo.fromCallable(() -> {
+            var resource = new FileSystemResource(filePath);
+            if (resource.isReadable()) {
+                return resource;
+            } else {
+                throw new FileStorageException("Could not read the file! " + filePath);
+            }
+        });
+    }
+
     @Override
     public Flux<DataBuffer> loadFromRoot(String relativePath) {
         return loadFromRoot(Paths.get(relativePath));
@@ -138,6 +183,35 @@ public class FileStorageServiceImpl implements FileStorageService {
         return loadFile(Paths.get(root.toString(), relativePath.toString()));
     }
 
+    @Override
+    public boolean isContentAddressed() {
+        return contentStore != null;
+    }
+
+    @Override
+    public Path deduplicate(Path absolutePath) {
+        if (contentStore == null) {
+            return absolutePath;
+        }
+        try {
+            return contentStore.store(absolutePath, ContentHash.of(absolutePath));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Path deduplicate(Path absolutePath, String sha256) {
+        if (contentStore == null) {
+            return absolutePath;
+        }
+        try {
+            return contentStore.store(absolutePath, sha256);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     @Override
     public Path softDelete(String relativePath) {
         try {
@@ -152,6 +226,7 @@ public class FileStorageServiceImpl implements FileStorageService {
             var destPath = Paths.get(deletedFilesPath.toString(), folders, uniqueFilename);
             Files.createDirectories(destPath.getParent());
             Files.move(sourcePath, destPath);
+            Files.setLastModifiedTime(destPath, FileTime.from(Instant.now())); // deletion time, for the retention of the storage janitor
             return Paths.get(DELETED_FOLDER_PREFIX, folders, uniqueFilename);
         } catch (IOException e) {
             throw new RuntimeException(e);
@@ -166,33 +241,47 @@ public class FileStorageServiceImpl implements FileStorageService {
      * @return
      */
     private Mono<Path> writeFileMono(Path pathRoot, FilePart filePart, String... pathParts) {
-        var subFolderPath = FileHelper.buildPath(pathParts);
-        var filename = FileHelper.generateUniqueFilename(pathRoot, subFolderPath.toString(), filePart.filename());
-        Path absoluteParentFolderPath = null;
-        try {
-            absoluteParentFolderPath = FileHelper.createDirectoriesAndFile(pathRoot, subFolderPath, filename);
-        } catch (IOException e) {
-            return Mono.error(new FileStorageException("File Storage Error: unable to write file: " + filename));
-        }
-        var path = absoluteParentFolderPath.resolve(filename);
-        log.info("Destination path={}",path);
-        return filePart
-                .transferTo(path)
-                .thenReturn(path);
+        return createFileMono(pathRoot, filePart.filename(), pathParts)
+                .flatMap(path -> filePart
+                        .transferTo(path)
+                        .thenReturn(path));
     }
 
-    private Flux<DataBuffer> loadFile(Path filePath) {
-        try {
-            var resource = new UrlResource(filePath.toUri());
-
-            if (resource.exists() || resource.isReadable()) {
-                return DataBufferUtils.read(resource, new DefaultDataBufferFactory(), 4096);
-            } else {
-                throw new RuntimeException("Could not read the file! " + filePath.toString());
+    /**
+     * Creates the folders and an empty, uniquely named file inside folder path created by pathParts.
+     * Returns the absolute path of the created file
+     * @param pathRoot
+     * @param originalFilename
+     * @param pathParts
+     * @return
+     */
+    private Mono<Path> createFileMono(Path pathRoot, String originalFilename, String... pathParts) {
+        return blockingIo.fromCallable(() -> {
+            var subFolderPath = FileHelper.buildPath(pathParts);
+            var filename = FileHelper.generateUniqueFilename(pathRoot, subFolderPath.toString(), originalFilename);
+            Path absoluteParentFolderPath = null;
+            try {
+                absoluteParentFolderPath = FileHelper.createDirectoriesAndFile(pathRoot, subFolderPath, filename);
+            } catch (IOException e) {
+                throw new FileStorageException("File Storage Error: unable to write file: " + filename);
             }
-        } catch (MalformedURLException e) {
-            throw new RuntimeException("Error: " + e.getMessage());
-        }
+            var path = absoluteParentFolderPath.resolve(filename);
+            log.info("Destination path={}",path);
+            return path;
+        });
+    }
+
+    private Flux<DataBuffer> loadFile(Path filePath) {
+        return blockingIo
+                .fromCallable(() -> {
+                    var resource = new UrlResource(filePath.toUri());
+                    if (resource.exists() || resource.isReadable()) {
+                        return resource;
+                    } else {
+                        throw new RuntimeException("Could not read the file! " + filePath.toString());
+                    }
+                })
+                .flatMapMany(resource -> DataBufferUtils.read(resource, DefaultDataBufferFactory.sharedInstance, READ_BUFFER_SIZE));
     }
 
 }
@@ -0,0 +1,155 @@
+package tech.jmcs.floortech.detailing.infrastructure.files.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tech.jmcs.floortech.common.helper.FileHelper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+/**
+ * Extracts a zip archive from disk, inflating independent entries in parallel.
+ * The central directory is read first, folders are created up front, then each file entry is inflated and
+ * written by its own task on a fork-join pool with a capped parallelism.
+ * Entries are extracted to the folder of the archive and reported in archive order.
+ */
+class ParallelZipExtractor {
+    static final Logger log = LoggerFactory.getLogger(ParallelZipExtractor.class);
+    private final ForkJoinPool pool;
+
+    /**
+     * @param parallelism maximum number of entries inflated at once, 0 or less for the number of processors
+     */
+    ParallelZipExtractor(int parallelism) {
+        var cap = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(cap, pool -> {
+            var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("zip-extract-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+        log.info("Zip extraction pool created: parallelism={}", cap);
+    }
+
+    int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    void shutdown() {
+        pool.shutdown();
+        try {
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Extracts every file entry of the archive.  Blocks until all entries are written.
+     * Each entry is hashed (SHA-256) while it is written and its mime type recorded.
+     * @param archivePath absolute path of the archive
+     * @return Extracted files in archive order
+     * @throws IOException if the archive can't be read or any entry fails to extract
+     */
+    List<StreamingZipExtractor.Entry> extract(Path archivePath) throws IOException {
+        var absoluteArchivePath = archivePath.toAbsolutePath().normalize();
+        var extractionFolder = absoluteArchivePath.getParent();
+        try (var zipFile = new ZipFile(absoluteArchivePath.toFile())) {
+            var fileEntries = new ArrayList<ZipEntry>();
+            var targets = new ArrayList<Path>();
+            var folders = new LinkedHashSet<Path>();
+            for (var entry : Collections.list(zipFile.entries())) {
+                var target = resolveEntry(extractionFolder, entry);
+                if (entry.isDirectory()) {
+                    folders.add(target);
+                } else if (target.equals(absoluteArchivePath)) {
+                    log.warn("Skipping zip entry with the same name as the archive: {}", entry.getName());
+                } else {
+                    folders.add(target.getParent());
+                    fileEntries.add(entry);
+                    targets.add(target);
+                }
+            }
+            if (fileEntries.isEmpty()) {
+                throw new ZipException("No entries could be read from archive: " + archivePath);
+            }
+            for (var folder : folders) {
+                Files.createDirectories(folder);
+            }
+
+            var tasks = new ArrayList<Callable<StreamingZipExtractor.Entry>>(fileEntries.size());
+            for (int i = 0; i < fileEntries.size(); i++) {
+                var entry = fileEntries.get(i);
+                var target = targets.get(i);
+                tasks.add(() -> extractEntry(zipFile, entry, target));
+            }
+            return collect(pool.invokeAll(tasks));
+        }
+    }
+
+    // <editor-fold desc="Static helper methods">
+    private static StreamingZipExtractor.Entry extractEntry(ZipFile zipFile, ZipEntry entry, Path target) throws IOException {
+        var digest = ContentHash.newDigest();
+        long size;
+        try (InputStream entryIn = zipFile.getInputStream(entry)) {
+            size = Files.copy(new DigestInputStream(entryIn, digest), target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return new StreamingZipExtractor.Entry(target, size, ContentHash.toHex(digest), FileHelper.getMimeType(target.toFile()));
+    }
+
+    /**
+     * Collects the task results in submission (archive) order, failing with the first error
+     * @param futures
+     * @return
+     * @throws IOException
+     */
+    private static List<StreamingZipExtractor.Entry> collect(List<Future<StreamingZipExtractor.Entry>> futures) throws IOException {
+        var entries = new ArrayList<StreamingZipExtractor.Entry>(futures.size());
+        for (var future : futures) {
+            try {
+                entries.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while extracting archive", e);
+            } catch (ExecutionException e) {
+                var cause = e.getCause();
+                if (cause instanceof IOException ioException) {
+                    throw ioException;
+                } else if (cause instanceof UncheckedIOException uncheckedIOException) {
+                    throw uncheckedIOException.getCause();
+                }
+                throw new IOException(cause.getMessage(), cause);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Resolves the destination of an entry, guarding against entries escaping the extraction folder
+     * @param extractionFolder
+     * @param entry
+     * @return
+     * @throws IOException
+     */
+    private static Path resolveEntry(Path extractionFolder, ZipEntry entry) throws IOException {
+        var target = extractionFolder.resolve(entry.getName()).normalize();
+        if (!target.startsWith(extractionFolder)) {
+            throw new IOException("Zip entry is outside of the target folder: " + entry.getName());
+        }
+        return target;
+    }
+    // </editor-fold>
+}
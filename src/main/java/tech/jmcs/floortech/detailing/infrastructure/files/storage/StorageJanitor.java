@@ -0,0 +1,456 @@
+package tech.jmcs.floortech.detailing.infrastructure.files.storage;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tech.jmcs.floortech.detailing.domain.service.BlockingIoScheduler;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Reclaims the storage areas that are only ever written to:
+ * - _TEMP_: temporary files and upload sessions (_TEMP_/_UPLOADS_/sessionId, purged as a whole) past the temp
+ *   retention
+ * - _DELETED_: soft deleted files past the deleted retention (the modification time of a soft deleted file is its
+ *   deletion time). Files deleted before the deletion time was stamped keep their original modification time, so
+ *   the first run stamps the area instead (deleted-since in the cursor file) and no file is purged from it until
+ *   the deleted retention has passed since then.
+ * - _BLOBS_: content store blobs no longer referenced by any stored path (content-addressed mode only)
+ *
+ * Each run visits at most max-files-per-run files and deletes at most max-deletes-per-second, so a large backlog is
+ * worked through over several runs without starving the disk.  Folders are walked in name order and the last
+ * visited path of each area is persisted, so the next run continues where the previous one stopped.
+ * Scheduled runs are swept on the blocking I/O scheduler, as the delete pacing sleeps, and a run is skipped while
+ * the previous one is still sweeping.
+ */
+@Component
+@ConditionalOnProperty(name = "files.janitor.enabled", havingValue = "true", matchIfMissing = true)
+public class StorageJanitor {
+    static final Logger log = LoggerFactory.getLogger(StorageJanitor.class);
+    public static final String CURSOR_FILENAME = ".janitor-cursor.properties";
+    public static final String DELETED_SINCE_KEY = "deleted-since";
+    private static final String METRIC_PREFIX = "detailing.storage.janitor.";
+    private static final Comparator<Path> BY_NAME = Comparator.comparing(path -> path.getFileName().toString());
+    final FileStorageServiceImpl fileStorage;
+    final BlockingIoScheduler blockingIo;
+    private final Duration tempRetention;
+    private final Duration deletedRetention;
+    private final int maxFilesPerRun;
+    private final int maxDeletesPerSecond;
+    private final Map<String, AtomicLong> bytesReclaimed = new LinkedHashMap<>();
+    private final Map<String, AtomicLong> filesDeleted = new LinkedHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private Timer sweepTimer;
+
+    @Autowired
+    public StorageJanitor(FileStorageServiceImpl fileStorage,
+                          BlockingIoScheduler blockingIo,
+                          @Value("${files.janitor.temp-retention:24h}") Duration tempRetention,
+                          @Value("${files.janitor.deleted-retention:30d}") Duration deletedRetention,
+                          @Value("${files.janitor.max-files-per-run:5000}") int maxFilesPerRun,
+                          @Value("${files.janitor.max-deletes-per-second:200}") int maxDeletesPerSecond,
+                          ObjectProvider<MeterRegistry> meterRegistry) {
+        this.fileStorage = fileStorage;
+        this.blockingIo = blockingIo;
+        this.tempRetention = tempRetention;
+        this.deletedRetention = deletedRetention;
+        this.maxFilesPerRun = maxFilesPerRun;
+        this.maxDeletesPerSecond = maxDeletesPerSecond;
+        for (var area : Area.values()) {
+            bytesReclaimed.put(area.folder, new AtomicLong());
+            filesDeleted.put(area.folder, new AtomicLong());
+        }
+        meterRegistry.ifAvailable(this::bindMetrics);
+    }
+
+    @Scheduled(initialDelayString = "${files.janitor.interval:10m}", fixedDelayString = "${files.janitor.interval:10m}")
+    public void scheduledSweep() {
+        if (!sweeping.compareAndSet(false, true)) {
+            log.debug("Storage janitor is still sweeping, skipping this run");
+            return;
+        }
+        var sample = sweepTimer != null ? Timer.start() : null;
+        blockingIo.fromCallable(() -> {
+                    sweep();
+                    return true;
+                })
+                .doFinally(signal -> {
+                    if (sample != null) {
+                        sample.stop(sweepTimer);
+                    }
+                    sweeping.set(false);
+                })
+                .subscribe(swept -> {}, e -> log.warn("Storage janitor run failed: {}", e.getMessage()));
+    }
+
+    /**
+     * Sweeps each storage area, continuing from the persisted cursor
+     */
+    public void sweep() {
+        var root = fileStorage.getRoot();
+        var cursors = readCursors(root);
+        var deletedSince = deletedSince(cursors);
+        var run = new SweepRun(maxFilesPerRun, maxDeletesPerSecond);
+        for (var area : Area.values()) {
+            var areaRoot = root.resolve(area.folder);
+            if (!Files.isDirectory(areaRoot) || (area == Area.BLOBS && fileStorage.getContentStore() == null)) {
+                cursors.remove(area.folder);
+                continue;
+            }
+            if (area == Area.DELETED && !deletedSince.isBefore(cutoff(area))) {
+                log.debug("Storage janitor keeps {} until the deleted retention has passed since {}", area.folder, deletedSince);
+                continue;
+            }
+            var cursor = Optional.ofNullable(cursors.getProperty(area.folder)).map(Paths::get).orElse(null);
+            var sweep = new AreaSweep(area, areaRoot, cutoff(area), cursor, run);
+            try {
+                if (sweep.sweepFolder(areaRoot)) {
+                    cursors.remove(area.folder);
+                } else if (sweep.lastVisited != null) {
+                    cursors.setProperty(area.folder, sweep.lastVisited.toString());
+                }
+            } catch (IOException e) {
+                log.warn("Storage janitor failed to sweep {}: {}", areaRoot, e.getMessage());
+            }
+            if (sweep.deletedFiles > 0) {
+                log.info("Storage janitor reclaimed {} bytes from {} files in {}", sweep.deletedBytes, sweep.deletedFiles, area.folder);
+            }
+            if (run.isExhausted()) {
+                break;
+            }
+        }
+        writeCursors(root, cursors);
+    }
+
+    // <editor-fold desc="Instance Helper methods">
+    private Instant cutoff(Area area) {
+        return switch (area) {
+            case TEMP, BLOBS -> Instant.now().minus(tempRetention);
+            case DELETED -> Instant.now().minus(deletedRetention);
+        };
+    }
+
+    private void bindMetrics(MeterRegistry registry) {
+        bytesReclaimed.forEach((area, bytes) -> FunctionCounter.builder(METRIC_PREFIX + "bytes.reclaimed", bytes, AtomicLong::get)
+                .description("Bytes reclaimed by the storage janitor")
+                .baseUnit("bytes")
+                .tag("area", area)
+                .register(registry));
+        filesDeleted.forEach((area, files) -> FunctionCounter.builder(METRIC_PREFIX + "files.deleted", files, AtomicLong::get)
+                .description("Files deleted by the storage janitor")
+                .tag("area", area)
+                .register(registry));
+        this.sweepTimer = Timer.builder(METRIC_PREFIX + "sweep")
+                .description("Duration of storage janitor runs")
+                .register(registry);
+    }
+    // </editor-fold>
+
+    // <editor-fold desc="Static helper methods">
+    /**
+     * The soft deleted files are known to have their deletion time stamped since the first run, which stamps it
+     * @param cursors
+     * @return
+     */
+    private static Instant deletedSince(Properties cursors) {
+        var deletedSince = cursors.getProperty(DELETED_SINCE_KEY);
+        if (deletedSince != null) {
+            try {
+                return Instant.parse(deletedSince);
+            } catch (DateTimeParseException e) {
+                log.warn("Unable to read storage janitor {}, stamping it again: {}", DELETED_SINCE_KEY, e.getMessage());
+            }
+        }
+        var now = Instant.now();
+        cursors.setProperty(DELETED_SINCE_KEY, now.toString());
+        return now;
+    }
+
+    private static Properties readCursors(Path root) {
+        var cursors = new Properties();
+        var cursorFile = root.resolve(CURSOR_FILENAME);
+        if (Files.isRegularFile(cursorFile)) {
+            try (var in = Files.newInputStream(cursorFile)) {
+                cursors.load(in);
+            } catch (IOException e) {
+                log.warn("Unable to read storage janitor cursor, starting from the beginning: {}", e.getMessage());
+            }
+        }
+        return cursors;
+    }
+
+    private static void writeCursors(Path root, Properties cursors) {
+        var cursorFile = root.resolve(CURSOR_FILENAME);
+        var tempFile = root.resolve(CURSOR_FILENAME + ".tmp");
+        try {
+            try (var out = Files.newOutputStream(tempFile)) {
+                cursors.store(out, "Storage janitor cursor (last visited path per area)");
+            }
+            Files.move(tempFile, cursorFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Unable to write storage janitor cursor: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Compares paths name by name, which is the order folders are walked in
+     * @param a
+     * @param b
+     * @return
+     */
+    private static int compareByName(Path a, Path b) {
+        var count = Math.min(a.getNameCount(), b.getNameCount());
+        for (int i = 0; i < count; i++) {
+            var result = a.getName(i).toString().compareTo(b.getName(i).toString());
+            if (result != 0) {
+                return result;
+            }
+        }
+        return Integer.compare(a.getNameCount(), b.getNameCount());
+    }
+
+    private static long sizeOf(Path folder) throws IOException {
+        try (Stream<Path> paths = Files.walk(folder)) {
+            return paths.filter(Files::isRegularFile)
+                    .mapToLong(path -> path.toFile().length())
+                    .sum();
+        }
+    }
+    // </editor-fold>
+
+    private enum Area {
+        TEMP(FileStorageServiceImpl.TEMP_FOLDER_PREFIX),
+        DELETED(FileStorageServiceImpl.DELETED_FOLDER_PREFIX),
+        BLOBS(FileStorageServiceImpl.BLOBS_FOLDER_PREFIX);
+
+        final String folder;
+
+        Area(String folder) {
+            this.folder = folder;
+        }
+    }
+
+    /**
+     * Budget shared by the areas swept in one run
+     */
+    private static class SweepRun {
+        private final int maxFiles;
+        private final long deleteIntervalNanos;
+        private int visited;
+        private long nextDeleteAt;
+
+        SweepRun(int maxFiles, int maxDeletesPerSecond) {
+            this.maxFiles = maxFiles;
+            this.deleteIntervalNanos = maxDeletesPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / maxDeletesPerSecond : 0;
+        }
+
+        /**
+         * @return false when the run budget is exhausted or the run was interrupted (the scheduler is shut down)
+         */
+        boolean tryVisit() {
+            if (visited >= maxFiles || Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            visited++;
+            return true;
+        }
+
+        boolean isExhausted() {
+            return visited >= maxFiles || Thread.currentThread().isInterrupted();
+        }
+
+        /**
+         * Paces deletes to the configured rate
+         */
+        void awaitDelete() {
+            var now = System.nanoTime();
+            if (nextDeleteAt > now) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(nextDeleteAt - now);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            nextDeleteAt = Math.max(now, nextDeleteAt) + deleteIntervalNanos;
+        }
+    }
+
+    /**
+     * Sweep of one storage area, walking folders in name order and skipping paths up to the cursor
+     */
+    private class AreaSweep {
+        private final Area area;
+        private final Path areaRoot;
+        private final FileTime cutoff;
+        private final Path cursor;
+        private final SweepRun run;
+        private Path lastVisited;
+        private long deletedFiles;
+        private long deletedBytes;
+
+        AreaSweep(Area area, Path areaRoot, Instant cutoff, Path cursor, SweepRun run) {
+            this.area = area;
+            this.areaRoot = areaRoot;
+            this.cutoff = FileTime.from(cutoff);
+            this.cursor = cursor;
+            this.run = run;
+        }
+
+        /**
+         * @param folder
+         * @return true when the folder was completely swept, false when the run budget was exhausted
+         * @throws IOException
+         */
+        boolean sweepFolder(Path folder) throws IOException {
+            List<Path> children;
+            try (Stream<Path> paths = Files.list(folder)) {
+                children = paths.sorted(BY_NAME).toList();
+            }
+            for (var child : children) {
+                var relativePath = areaRoot.relativize(child);
+                if (isSwept(relativePath)) {
+                    continue;
+                }
+                var attributes = Files.readAttributes(child, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                if (attributes.isDirectory() && isUploadSession(child)) {
+                    if (!run.tryVisit()) {
+                        return false;
+                    }
+                    lastVisited = relativePath;
+                    sweepUploadSession(child);
+                } else if (attributes.isDirectory()) {
+                    if (!sweepFolder(child)) {
+                        return false;
+                    }
+                    deleteFolderIfEmpty(child, attributes.lastModifiedTime());
+                } else {
+                    if (!run.tryVisit()) {
+                        return false;
+                    }
+                    lastVisited = relativePath;
+                    if (isExpired(child, attributes.lastModifiedTime())) {
+                        delete(child, attributes.size());
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * A path has been swept when it is at or before the cursor, and is not a folder containing the cursor
+         * @param relativePath
+         * @return
+         */
+        private boolean isSwept(Path relativePath) {
+            return cursor != null
+                    && compareByName(relativePath, cursor) <= 0
+                    && !(cursor.startsWith(relativePath) && !cursor.equals(relativePath));
+        }
+
+        private boolean isUploadSession(Path folder) {
+            return area == Area.TEMP && folder.getParent().equals(areaRoot.resolve(ChunkedUploadStorageServiceImpl.UPLOADS_FOLDER));
+        }
+
+        private boolean isExpired(Path file, FileTime lastModified) {
+            if (lastModified.compareTo(cutoff) >= 0) {
+                return false;
+            }
+            if (area == Area.BLOBS) {
+                return fileStorage.getContentStore().referenceCount(file) == 0;
+            }
+            return true;
+        }
+
+        /**
+         * Upload sessions are purged as a whole, once nothing in the session has been written within the retention
+         * @param sessionFolder
+         * @throws IOException
+         */
+        private void sweepUploadSession(Path sessionFolder) throws IOException {
+            FileTime lastWritten;
+            try (Stream<Path> paths = Files.walk(sessionFolder)) {
+                lastWritten = paths.map(path -> path.toFile().lastModified())
+                        .max(Long::compare)
+                        .map(FileTime::fromMillis)
+                        .orElse(FileTime.fromMillis(0));
+            }
+            if (lastWritten.compareTo(cutoff) < 0) {
+                var size = sizeOf(sessionFolder);
+                run.awaitDelete();
+                try (Stream<Path> paths = Files.walk(sessionFolder)) {
+                    for (var path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                        Files.deleteIfExists(path);
+                    }
+                }
+                recordDelete(size);
+                log.debug("Purged expired upload session {}", sessionFolder.getFileName());
+            }
+        }
+
+        /**
+         * Deletes a file.  A file that shares its content with other stored paths (content-addressed mode) frees no
+         * space, so it is not counted as reclaimed bytes.
+         * @param file
+         * @param size
+         */
+        private void delete(Path file, long size) {
+            run.awaitDelete();
+            var contentStore = fileStorage.getContentStore();
+            var reclaimed = area != Area.BLOBS && contentStore != null && contentStore.referenceCount(file) > 0 ? 0 : size;
+            try {
+                if (Files.deleteIfExists(file)) {
+                    recordDelete(reclaimed);
+                }
+            } catch (IOException e) {
+                log.warn("Storage janitor could not delete {}: {}", file, e.getMessage());
+            }
+        }
+
+        /**
+         * Removes a folder left empty, unless it was modified within the retention (it may be about to receive a
+         * file)
+         * @param folder
+         * @param lastModified modification time of the folder before it was swept
+         */
+        private void deleteFolderIfEmpty(Path folder, FileTime lastModified) {
+            if (lastModified.compareTo(cutoff) >= 0) {
+                return;
+            }
+            try (Stream<Path> paths = Files.list(folder)) {
+                if (paths.findAny().isEmpty()) {
+                    Files.deleteIfExists(folder);
+                }
+            } catch (DirectoryNotEmptyException e) {
+                // a file was added while sweeping
+            } catch (IOException e) {
+                log.debug("Storage janitor could not remove folder {}: {}", folder, e.getMessage());
+            }
+        }
+
+        private void recordDelete(long size) {
+            deletedFiles++;
+            deletedBytes += size;
+            filesDeleted.get(area.folder).incrementAndGet();
+            bytesReclaimed.get(area.folder).addAndGet(size);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package tech.jmcs.floortech.detailing.infrastructure.files.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tech.jmcs.floortech.common.helper.FileHelper;
+import tech.jmcs.floortech.detailing.domain.service.BlockingIoScheduler;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Writes an incoming zip archive to disk and extracts its entries in the same pass.
+ * The content is read once on the blocking I/O scheduler: every byte read by the ZipInputStream is also written to
+ * the archive file, so each entry is on disk as soon as its bytes have arrived.
+ * Entries are extracted to the folder of the archive.
+ */
+class StreamingZipExtractor {
+    static final Logger log = LoggerFactory.getLogger(StreamingZipExtractor.class);
+    private static final int PREFETCH = 32;
+    private static final int ARCHIVE_BUFFER_SIZE = 256 * 1024;
+    private static final Duration IDLE_TIMEOUT = Duration.ofMinutes(2);
+    private final Path archivePath;
+    private final Path extractionFolder;
+    private final BlockingIoScheduler blockingIo;
+
+    StreamingZipExtractor(Path archivePath, BlockingIoScheduler blockingIo) {
+        this.archivePath = archivePath;
+        this.extractionFolder = archivePath.toAbsolutePath().getParent().normalize();
+        this.blockingIo = blockingIo;
+    }
+
+    /**
+     * Consumes the content, writing the archive to disk and extracting the entries while the bytes arrive.
+     * Completes once the archive is fully written and all entries are extracted.
+     * When the archive can't be read as a stream (ie STORED entries with data descriptors) a ZipException is
+     * emitted after the archive has been fully written, so the caller can fall back to extracting from disk.
+     * The archive and every entry are hashed as they are written, and the mime type of each entry is recorded.
+     * When the content fails (ie rejected by a pre-flight check, or the upload is interrupted) the partial archive
+     * and the entries extracted so far are deleted.
+     * @param content
+     * @return Hash of the archive and the extracted files, in archive order
+     */
+    Mono<Result> extract(Flux<DataBuffer> content) {
+        return blockingIo.fromCallable(() -> {
+            var archiveDigest = ContentHash.newDigest();
+            var entries = new ArrayList<Entry>();
+            try (var contentIn = new DataBufferInputStream(content, PREFETCH, IDLE_TIMEOUT);
+                 var archiveOut = new DigestOutputStream(new BufferedOutputStream(Files.newOutputStream(archivePath), ARCHIVE_BUFFER_SIZE), archiveDigest);
+                 var teeIn = new TeeInputStream(contentIn, archiveOut)) {
+                readEntries(teeIn, entries);
+            } catch (ZipException e) {
+                throw e;
+            } catch (IOException | RuntimeException e) {
+                deletePartial(entries);
+                throw e;
+            }
+            return new Result(ContentHash.toHex(archiveDigest), entries);
+        });
+    }
+
+    // <editor-fold desc="Instance Helper methods">
+    /**
+     * Reads entries until the end of the archive, then drains the remainder (central directory) so the complete
+     * archive is written to disk.  The remainder is also drained when the ZipInputStream can't read an entry, so
+     * the archive can be extracted from disk instead.
+     * @param archiveIn
+     * @param extractedFiles receives the extracted files
+     * @throws ZipException if the archive can't be read as a stream
+     * @throws IOException if the content failed, the archive is incomplete
+     */
+    private void readEntries(InputStream archiveIn, List<Entry> extractedFiles) throws IOException {
+        try (var zipIn = new ZipInputStream(archiveIn)) {
+            try {
+                ZipEntry entry;
+                while ((entry = zipIn.getNextEntry()) != null) {
+                    var target = resolveEntry(entry);
+                    if (entry.isDirectory()) {
+                        Files.createDirectories(target);
+                    } else if (target.equals(archivePath.toAbsolutePath().normalize())) {
+                        log.warn("Skipping zip entry with the same name as the archive: {}", entry.getName());
+                    } else {
+                        Files.createDirectories(target.getParent());
+                        var entryDigest = ContentHash.newDigest();
+                        long size;
+                        try {
+                            size = Files.copy(new DigestInputStream(zipIn, entryDigest), target, StandardCopyOption.REPLACE_EXISTING);
+                        } catch (IOException e) {
+                            Files.deleteIfExists(target);
+                            throw e;
+                        }
+                        extractedFiles.add(new Entry(target, size, ContentHash.toHex(entryDigest), FileHelper.getMimeType(target.toFile())));
+                        log.debug("Extracted entry while streaming: {}", target);
+                    }
+                    zipIn.closeEntry();
+                }
+            } catch (ZipException e) {
+                drain(archiveIn);
+                throw e;
+            }
+            drain(archiveIn);
+        }
+        if (extractedFiles.isEmpty()) {
+            throw new ZipException("No entries could be read from archive: " + archivePath);
+        }
+    }
+
+    private void deletePartial(List<Entry> extractedFiles) {
+        try {
+            for (var entry : extractedFiles) {
+                Files.deleteIfExists(entry.path());
+            }
+            Files.deleteIfExists(archivePath);
+            log.info("Deleted partial archive {} and {} extracted entries", archivePath, extractedFiles.size());
+        } catch (IOException e) {
+            log.warn("Unable to delete partial archive {}: {}", archivePath, e.getMessage());
+        }
+    }
+
+    /**
+     * Resolves the destination of an entry, guarding against entries escaping the extraction folder
+     * @param entry
+     * @return
+     * @throws IOException
+     */
+    private Path resolveEntry(ZipEntry entry) throws IOException {
+        var target = extractionFolder.resolve(entry.getName()).normalize();
+        if (!target.startsWith(extractionFolder)) {
+            throw new IOException("Zip entry is outside of the target folder: " + entry.getName());
+        }
+        return target;
+    }
+    // </editor-fold>
+
+    // <editor-fold desc="Static helper methods">
+    /**
+     * Reads the content to its end, failures of the content (ie budget exceeded, upload interrupted) are thrown
+     * @param in
+     * @throws IOException
+     */
+    private static void drain(InputStream in) throws IOException {
+        var buffer = new byte[8192];
+        while (in.read(buffer) != -1) {
+            // discard the remainder of the archive (central directory)
+        }
+    }
+
+    // </editor-fold>
+
+    /**
+     * Result of a streaming extraction
+     * @param archiveSha256 hash of the archive
+     * @param entries extracted files in archive order
+     */
+    record Result(String archiveSha256, List<Entry> entries) {
+    }
+
+    /**
+     * An extracted file
+     * @param path absolute path of the file
+     * @param size size in bytes
+     * @param sha256 hash of the file
+     * @param mimeType mime type of the file, or null if it could not be determined
+     */
+    record Entry(Path path, long size, String sha256, String mimeType) {
+    }
+
+    /**
+     * Writes every byte read from the source to the archive output
+     */
+    private static class TeeInputStream extends FilterInputStream {
+        private final OutputStream out;
+
+        TeeInputStream(InputStream in, OutputStream out) {
+            super(in);
+            this.out = out;
+        }
+
+        @Override
+        public int read() throws IOException {
+            var b = super.read();
+            if (b != -1) {
+                out.write(b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            var count = super.read(bytes, offset, length);
+            if (count > 0) {
+                out.write(bytes, offset, count);
+            }
+            return count;
+        }
+
+        @Override
+        public void close() {
+            // the source and the archive output are closed by their owner
+        }
+    }
+}
@@ -1,32 +1,53 @@
 package tech.jmcs.floortech.detailing.infrastructure.files.storage;
 
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import tech.jmcs.floortech.common.helper.ArchiveContents;
-import tech.jmcs.floortech.common.helper.FileHelper;
+import tech.jmcs.floortech.detailing.domain.model.files.ExtractedArchiveContents;
+import tech.jmcs.floortech.detailing.domain.service.BlockingIoScheduler;
 import tech.jmcs.floortech.detailing.domain.service.exception.ZipFileStorageException;
 import tech.jmcs.floortech.detailing.domain.service.FileStorageService;
 import tech.jmcs.floortech.detailing.domain.service.ZipFileStorageService;
 
 import java.io.*;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipException;
 
 @Service
 public class ZipFileStorageServiceImpl implements ZipFileStorageService {
     static final Logger log = LoggerFactory.getLogger(ZipFileStorageServiceImpl.class);
     final FileStorageService fileStorage;
+    final BlockingIoScheduler blockingIo;
+    private final ParallelZipExtractor extractor;
 
     @Autowired
-    public ZipFileStorageServiceImpl(FileStorageService fileStorage) {
+    public ZipFileStorageServiceImpl(FileStorageService fileStorage,
+                                     BlockingIoScheduler blockingIo,
+                                     @Value("${files.extract.parallelism:0}") int extractParallelism) {
         this.fileStorage = fileStorage;
+        this.blockingIo = blockingIo;
+        this.extractor = new ParallelZipExtractor(extractParallelism);
+    }
+
+    @PreDestroy
+    private void dispose() {
+        extractor.shutdown();
     }
 
     /**
-     * Unzip archive
+     * Unzip archive, inflating the entries in parallel.  Entries are extracted to the folder of the archive.
      * @param zipPath
      * @param isRelative
      * @return ArchiveContents object with zip archive path and extracted file contents paths
@@ -37,21 +58,44 @@ public class ZipFileStorageServiceImpl implements ZipFileStorageService {
         Path absoluteZipPath = determineAbsolute(zipPath, isRelative);
         Path relativeZipPath = determineRelative(zipPath, isRelative);
 
-        var archiveContents = new ArchiveContents(relativeZipPath, absoluteZipPath);
+        if (absoluteZipPath == null) {
+            throw new ZipFileStorageException("Archive does not exist: " + relativeZipPath);
+        }
         try {
-            return FileHelper.unzipArchive(fileStorage.getRoot(), archiveContents, relativeZipPath.toString());
-        } catch (IOException e) {
+            var entries = extractor.extract(absoluteZipPath);
+            log.debug("Extracted {} entries from {} with parallelism {}", entries.size(), relativeZipPath, extractor.getParallelism());
+            return toArchiveContents(absoluteZipPath, deduplicateContents(absoluteZipPath, null, entries));
+        } catch (IOException | UncheckedIOException e) {
             throw new ZipFileStorageException(e.getMessage());
         }
     }
 
     @Override
     public Mono<ArchiveContents> unzipArchiveMono(Path zipPath, boolean isRelative) {
-        try {
-            return Mono.just(unzipArchive(zipPath, isRelative));
-        } catch (ZipFileStorageException e) {
-            return Mono.error(e);
-        }
+        return blockingIo.fromCallable(() -> unzipArchive(zipPath, isRelative));
+    }
+
+    /**
+     * Saves a Zip File to storage root inside folder path created by pathParts, checking the content while it
+     * streams in.  The upload is aborted and the partial file deleted as soon as the content is not a zip archive
+     * or exceeds maxBytes.
+     * @param filename
+     * @param content
+     * @param maxBytes
+     * @param pathParts
+     * @return the absolute path of the saved archive
+     */
+    @Override
+    public Mono<Path> saveArchive(String filename, Flux<DataBuffer> content, long maxBytes, String... pathParts) {
+        var digest = fileStorage.isContentAddressed() ? ContentHash.newDigest() : null;
+        return fileStorage
+                .createInRoot(filename, pathParts)
+                .flatMap(absoluteZipPath -> DataBufferUtils
+                        .write(ArchiveUploadGuard.guard(content, maxBytes, true, digest), absoluteZipPath)
+                        .then(blockingIo.fromCallable(() -> digest != null
+                                ? fileStorage.deduplicate(absoluteZipPath, ContentHash.toHex(digest))
+                                : absoluteZipPath))
+                        .onErrorResume(error -> deletePartialArchive(absoluteZipPath).then(Mono.error(error))));
     }
 
     /**
@@ -65,18 +109,86 @@ public class ZipFileStorageServiceImpl implements ZipFileStorageService {
     public Mono<ArchiveContents> saveArchiveAndExtract(FilePart filePart, String... pathParts) {
         return fileStorage
                 .saveToRoot(filePart, pathParts)
-                .map(absoluteZipPath -> new ArchiveContents(absoluteZipPath, fileStorage.makeRelative(absoluteZipPath)))
-                .<ArchiveContents>handle((archiveContents, sink) -> {
-                    try {
-                        sink.next(FileHelper.unzipArchive(fileStorage.getRoot(), archiveContents, pathParts));
-                    } catch (IOException e) {
-                        sink.error(e);
-                    }
-                })
+                .flatMap(absoluteZipPath -> unzipArchiveMono(absoluteZipPath, false))
                 .doOnNext(archiveContents -> log.info("Saved archive to: " + archiveContents.getAbsoluteArchivePath()))
                 .doOnNext(archiveContents -> log.info("Archive Contents extracted. File list=" + archiveContents.getContainedFileAbsolutePaths()));
     }
 
+    /**
+     * Saves a Zip File to storage root while extracting the contents as the bytes arrive.  The archive is only
+     * read once; entries are available on disk as soon as they have been received.
+     * Falls back to extracting from the saved archive when the archive can't be read as a stream.
+     * Content that is not a zip archive or exceeds maxBytes aborts the upload.
+     * @param filename
+     * @param content
+     * @param maxBytes
+     * @param pathParts
+     * @return
+     */
+    @Override
+    public Mono<ArchiveContents> saveArchiveAndExtractStreaming(String filename, Flux<DataBuffer> content, long maxBytes, String... pathParts) {
+        return fileStorage
+                .createInRoot(filename, pathParts)
+                .flatMap(absoluteZipPath -> new StreamingZipExtractor(absoluteZipPath, blockingIo)
+                        .extract(ArchiveUploadGuard.guard(content, maxBytes))
+                        .flatMap(result -> blockingIo.fromCallable(() -> deduplicateContents(absoluteZipPath, result.archiveSha256(), result.entries())))
+                        .<ArchiveContents>map(extractedFiles -> toArchiveContents(absoluteZipPath, extractedFiles))
+                        .onErrorResume(ZipException.class, e -> {
+                            log.warn("Archive could not be extracted while streaming, extracting from disk instead: {}", e.getMessage());
+                            return unzipArchiveMono(absoluteZipPath, false);
+                        }))
+                .doOnNext(archiveContents -> log.info("Saved and extracted archive to: " + archiveContents.getAbsoluteArchivePath()))
+                .doOnNext(archiveContents -> log.info("Archive Contents extracted. File list=" + archiveContents.getContainedFileRelativePaths()));
+    }
+
+    private Mono<Boolean> deletePartialArchive(Path absoluteZipPath) {
+        return blockingIo.fromCallable(() -> {
+            log.info("Deleting rejected upload: {}", absoluteZipPath);
+            return Files.deleteIfExists(absoluteZipPath);
+        });
+    }
+
+    /**
+     * Stores the archive and extracted files in the content store (no-op unless storage is content addressed).
+     * Stored paths are unchanged.
+     * @param absoluteZipPath
+     * @param archiveSha256 hash of the archive, or null to hash it from disk
+     * @param entries
+     * @return extracted files
+     */
+    private List<StreamingZipExtractor.Entry> deduplicateContents(Path absoluteZipPath, String archiveSha256, List<StreamingZipExtractor.Entry> entries) {
+        if (!fileStorage.isContentAddressed()) {
+            return entries;
+        }
+        if (archiveSha256 != null) {
+            fileStorage.deduplicate(absoluteZipPath, archiveSha256);
+        } else {
+            fileStorage.deduplicate(absoluteZipPath);
+        }
+        entries.forEach(entry -> fileStorage.deduplicate(entry.path(), entry.sha256()));
+        return entries;
+    }
+
+    /**
+     * Archive contents with the size, mime type and hash of each extracted file
+     * @param absoluteZipPath
+     * @param extractedFiles
+     * @return
+     */
+    private ExtractedArchiveContents toArchiveContents(Path absoluteZipPath, List<StreamingZipExtractor.Entry> extractedFiles) {
+        var archiveContents = new ExtractedArchiveContents();
+        archiveContents.setAbsoluteArchivePath(absoluteZipPath);
+        archiveContents.setRelativeArchivePath(fileStorage.makeRelative(absoluteZipPath));
+        var relativePaths = new ArrayList<Path>(extractedFiles.size());
+        for (var extractedFile : extractedFiles) {
+            var relativePath = fileStorage.makeRelative(extractedFile.path());
+            relativePaths.add(relativePath);
+            archiveContents.putFileInfo(relativePath, extractedFile.size(), extractedFile.mimeType(), extractedFile.sha256());
+        }
+        archiveContents.setContainedFileRelativePaths(relativePaths);
+        return archiveContents;
+    }
+
     private Path determineRelative(Path zipPath, boolean isRelative) {
         if (isRelative) {
             return zipPath;
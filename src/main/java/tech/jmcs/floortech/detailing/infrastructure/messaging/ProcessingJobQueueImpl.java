@@ -0,0 +1,136 @@
+package tech.jmcs.floortech.detailing.infrastructure.messaging;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.MessageProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.rabbitmq.*;
+import reactor.util.retry.Retry;
+import tech.jmcs.floortech.detailing.domain.service.ProcessingJobQueue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Processing jobs queued on a durable RabbitMQ work queue (default exchange, routed by queue name).
+ * Each consumer takes up to the configured concurrency of jobs at a time (prefetch), so the jobs are spread over
+ * the running instances.  The consumer reconnects with a backoff when the broker is not available.
+ * A job is acknowledged once the worker has recorded its outcome.  A job the worker failed on is published again
+ * after a delay, counting the attempts in a header, and moved to the dead letter queue after the last attempt.
+ */
+@Service
+public class ProcessingJobQueueImpl implements ProcessingJobQueue {
+    static final Logger log = LoggerFactory.getLogger(ProcessingJobQueueImpl.class);
+    static final String ATTEMPTS_HEADER = "x-processing-attempts";
+    final Sender sender;
+    final Receiver receiver;
+    final String queueName;
+    final String deadLetterQueueName;
+    final int concurrency;
+    final int maxAttempts;
+    final Duration retryDelay;
+
+    @Autowired
+    public ProcessingJobQueueImpl(Sender sender,
+                                  Receiver receiver,
+                                  @Value("${files.processing.jobs.queue:ft-detailing.processing-jobs}") String queueName,
+                                  @Value("${files.processing.jobs.concurrency:2}") int concurrency,
+                                  @Value("${files.processing.jobs.max-attempts:3}") int maxAttempts,
+                                  @Value("${files.processing.jobs.retry-delay:30s}") Duration retryDelay) {
+        this.sender = sender;
+        this.receiver = receiver;
+        this.queueName = queueName;
+        this.deadLetterQueueName = queueName + ".dead";
+        this.concurrency = Math.max(1, concurrency);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryDelay = retryDelay;
+    }
+
+    @Override
+    public Mono<Void> submit(String jobId) {
+        var message = new OutboundMessage("", queueName, MessageProperties.PERSISTENT_TEXT_PLAIN, jobId.getBytes(StandardCharsets.UTF_8));
+        return declareQueue(queueName)
+                .then(sender.send(Mono.just(message)))
+                .doOnSuccess(v -> log.info("Processing job {} queued on {}", jobId, queueName));
+    }
+
+    @Override
+    public Disposable consume(Function<String, Mono<?>> worker) {
+        log.info("Consuming processing jobs from {} with concurrency {}", queueName, concurrency);
+        return declareQueue(queueName)
+                .then(declareQueue(deadLetterQueueName))
+                .thenMany(receiver.consumeManualAck(queueName, new ConsumeOptions().qos(concurrency)))
+                .flatMap(delivery -> {
+                    var jobId = new String(delivery.getBody(), StandardCharsets.UTF_8);
+                    return worker.apply(jobId)
+                            .then(Mono.fromRunnable(delivery::ack))
+                            .onErrorResume(e -> retryOrDeadLetter(delivery, jobId, e));
+                }, concurrency)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofMinutes(1))
+                        .doBeforeRetry(retry -> log.warn("Processing job consumer stopped, reconnecting: {}", retry.failure().getMessage())))
+                .subscribe();
+    }
+
+    // <editor-fold desc="Instance Helper methods">
+    /**
+     * Publishes a job the worker failed on again, or to the dead letter queue after the last attempt, then
+     * acknowledges the delivery.  The delivery is returned to the queue when the job can't be published.
+     * @param delivery
+     * @param jobId
+     * @param error
+     * @return
+     */
+    private Mono<Void> retryOrDeadLetter(AcknowledgableDelivery delivery, String jobId, Throwable error) {
+        var attempts = attempts(delivery);
+        var retry = attempts < maxAttempts;
+        var target = retry ? queueName : deadLetterQueueName;
+        if (retry) {
+            log.warn("Processing job {} failed (attempt {} of {}), retrying in {}: {}", jobId, attempts, maxAttempts, retryDelay, error.getMessage());
+        } else {
+            log.error("Processing job {} failed (attempt {} of {}), moving it to {}: {}", jobId, attempts, maxAttempts, target, error.getMessage());
+        }
+        var message = new OutboundMessage("", target, withAttempts(attempts + 1), delivery.getBody());
+        return (retry ? Mono.delay(retryDelay).then() : Mono.<Void>empty())
+                .then(sender.send(Mono.just(message)))
+                .then(Mono.<Void>fromRunnable(delivery::ack))
+                .onErrorResume(e -> {
+                    log.error("Processing job {} could not be published to {}, returning it to the queue: {}", jobId, target, e.getMessage());
+                    delivery.nack(true);
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> declareQueue(String name) {
+        return sender.declareQueue(QueueSpecification.queue(name).durable(true))
+                .then();
+    }
+    // </editor-fold>
+
+    // <editor-fold desc="Static Helper methods">
+    /**
+     * @param delivery
+     * @return attempt the delivery is, starting at 1
+     */
+    private static int attempts(AcknowledgableDelivery delivery) {
+        var headers = delivery.getProperties() != null ? delivery.getProperties().getHeaders() : null;
+        if (headers != null && headers.get(ATTEMPTS_HEADER) instanceof Number attempts) {
+            return attempts.intValue();
+        }
+        return 1;
+    }
+
+    private static AMQP.BasicProperties withAttempts(int attempts) {
+        return MessageProperties.PERSISTENT_TEXT_PLAIN.builder()
+                .headers(Map.of(ATTEMPTS_HEADER, attempts))
+                .build();
+    }
+    // </editor-fold>
+}
@@ -0,0 +1,25 @@
+package tech.jmcs.floortech.detailing.infrastructure.persistence.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import tech.jmcs.floortech.detailing.infrastructure.persistence.converter.ExtractedDataRowReadingConverter;
+import tech.jmcs.floortech.detailing.infrastructure.persistence.converter.ExtractedDataRowWritingConverter;
+
+import java.util.List;
+
+@Configuration
+public class MongoConfig {
+    /**
+     * Converters of the entities written in bulk (see ExtractedDataRowEntity), used by the mapping converter in
+     * place of reflective mapping
+     * @return
+     */
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return new MongoCustomConversions(List.of(
+                new ExtractedDataRowWritingConverter(),
+                new ExtractedDataRowReadingConverter()
+        ));
+    }
+}
@@ -0,0 +1,61 @@
+package tech.jmcs.floortech.detailing.infrastructure.persistence.converter;
+
+import org.bson.Document;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import tech.jmcs.floortech.detailing.infrastructure.persistence.entity.ExtractedDataRowEntity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static tech.jmcs.floortech.detailing.infrastructure.persistence.entity.ExtractedDataRowEntity.*;
+
+/**
+ * Reads a row written by the ExtractedDataRowWritingConverter, or a row embedded in a claim saved before the file
+ * data was split out (long field names, data by key, embedded parent file data that is not read).
+ * The parent of the row is linked when the file data is read (see FileDataEntity.toDomainObject).
+ */
+@ReadingConverter
+public class ExtractedDataRowReadingConverter implements Converter<Document, ExtractedDataRowEntity> {
+    @Override
+    public ExtractedDataRowEntity convert(Document source) {
+        var d = new ExtractedDataRowEntity();
+        var id = source.get("_id");
+        d.setId(id != null ? id.toString() : source.getString("id"));
+        d.setClaimId(source.getString(CLAIM_ID));
+        d.setFileSetId(source.getString(FILE_SET_ID));
+        d.setFileId(source.getString(FILE_ID));
+        d.setFileDataId(source.getString(FILE_DATA_ID));
+        if (source.containsKey(VALUES)) {
+            d.setRow(source.getInteger(ROW));
+            d.setItemId(source.getString(ITEM_ID));
+            d.setValues(toValues(source.get(VALUES)));
+        } else { // embedded in a claim
+            d.setRow(source.getInteger("row"));
+            d.setItemId(source.getString("itemId"));
+            d.setData(toData(source.get("data")));
+        }
+        return d;
+    }
+
+    // <editor-fold desc="Static helper methods">
+    private static List<String> toValues(Object values) {
+        if (!(values instanceof List<?> list)) {
+            return List.of();
+        }
+        var strings = new ArrayList<String>(list.size());
+        list.forEach(value -> strings.add(value != null ? value.toString() : null));
+        return strings;
+    }
+
+    private static Map<String, String> toData(Object data) {
+        var strings = new HashMap<String, String>();
+        if (data instanceof Map<?, ?> map) {
+            map.forEach((key, value) -> strings.put(key.toString(), value != null ? value.toString() : null));
+        }
+        return strings;
+    }
+    // </editor-fold>
+}
@@ -0,0 +1,38 @@
+package tech.jmcs.floortech.detailing.infrastructure.persistence.converter;
+
+import org.bson.Document;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.WritingConverter;
+import tech.jmcs.floortech.detailing.infrastructure.persistence.entity.ExtractedDataRowEntity;
+
+import static tech.jmcs.floortech.detailing.infrastructure.persistence.entity.ExtractedDataRowEntity.*;
+
+/**
+ * Writes a row with its short field names, the ids of its claim, file set, file and file data (not the file data
+ * itself) and its values by position.  Written without a type hint, it is the only type of the collection.
+ * Null fields are not written, a row without an id is given one by Mongo.
+ */
+@WritingConverter
+public class ExtractedDataRowWritingConverter implements Converter<ExtractedDataRowEntity, Document> {
+    @Override
+    public Document convert(ExtractedDataRowEntity source) {
+        var document = new Document();
+        putIfNotNull(document, "_id", source.getId());
+        putIfNotNull(document, CLAIM_ID, source.getClaimId());
+        putIfNotNull(document, FILE_SET_ID, source.getFileSetId());
+        putIfNotNull(document, FILE_ID, source.getFileId());
+        putIfNotNull(document, FILE_DATA_ID, source.getFileDataId());
+        putIfNotNull(document, ROW, source.getRow());
+        putIfNotNull(document, ITEM_ID, source.getItemId());
+        putIfNotNull(document, VALUES, source.getValues());
+        return document;
+    }
+
+    // <editor-fold desc="Static helper methods">
+    private static void putIfNotNull(Document document, String key, Object value) {
+        if (value != null) {
+            document.put(key, value);
+        }
+    }
+    // </editor-fold>
+}
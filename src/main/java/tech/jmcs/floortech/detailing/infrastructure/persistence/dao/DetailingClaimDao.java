@@ -1,6 +1,7 @@
 package tech.jmcs.floortech.detailing.infrastructure.persistence.dao;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.stereotype.Repository;
@@ -8,12 +9,29 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import tech.jmcs.floortech.detailing.domain.configs.DetailingStatus;
 import tech.jmcs.floortech.detailing.infrastructure.persistence.entity.DetailingClaimEntity;
+import tech.jmcs.floortech.detailing.infrastructure.persistence.entity.DetailingClaimSummaryEntity;
 
 import java.util.Date;
 import java.util.List;
 
+/**
+ * Claim lists are paged by cursor (keyset pagination): newest modified first, the first page is found with the
+ * paging queries (findByStatus, ...) and the next pages with the ...Before queries, from the last modified date and id
+ * of the last claim of the previous page.  The paging argument only limits the number of claims (page 0), the
+ * order is always KEYSET_SORT (see the last_modified indexes of DetailingClaimEntity).  A claim without a last
+ * modified date (not saved through auditing) is not listed: it would be the last claim of a page without a cursor.
+ */
 @Repository
 public interface DetailingClaimDao extends ReactiveMongoRepository<DetailingClaimEntity, String> {
+    String KEYSET_SORT = "{lastModifiedDate: -1, _id: -1}";
+    String SUMMARY_SORT = "{$sort: " + KEYSET_SORT + "}";
+    /**
+     * Projection of the claim for claim lists (DetailingClaimSummaryEntity), the file sets are counted instead of read
+     */
+    String SUMMARY_PROJECTION = "{$project: {jobId: 1, floortechJobNumber: 1, jobClientId: 1, jobClientName: 1, jobEngineerId: 1, jobEngineerName: 1, claimedByStaffUsername: 1, claimedByStaffId: 1, createdDate: 1, lastModifiedDate: 1, status: 1, "
+            + "fileSetCount: {$size: {$objectToArray: {$ifNull: ['$fileSets', {}]}}}, "
+            + "fileCount: {$sum: {$map: {input: {$objectToArray: {$ifNull: ['$fileSets', {}]}}, in: {$size: {$ifNull: ['$$this.v.files', []]}}}}}}}";
+
     @Query(value = "{jobId: '?0', deleted: {$nin: [true]}}", fields = "{'deleted': 0}")
     Flux<DetailingClaimEntity> findByJobId(String jobId);
     @Query(value = "{jobId: {$in: ?0}, deleted: {$nin: [true]}}", fields = "{'deleted': 0}")
@@ -21,8 +39,14 @@ public interface DetailingClaimDao extends ReactiveMongoRepository<DetailingClai
 
     @Query(value = "{status: '?0', deleted: {$nin: [true]}}", fields = "{'deleted': 0}")
     Flux<DetailingClaimEntity> findByStatus(DetailingStatus status);
-    @Query(value = "{status: '?0', deleted: {$nin: [true]}}", fields = "{'deleted': 0}")
+    @Query(value = "{status: '?0', deleted: {$nin: [true]}, lastModifiedDate: {$type: 'date'}}", fields = "{'deleted': 0}", sort = KEYSET_SORT)
     Flux<DetailingClaimEntity> findByStatus(DetailingStatus status, Pageable paging);
+    @Query(value = "{status: '?0', deleted: {$nin: [true]}, $or: [{lastModifiedDate: {$lt: ?1}}, {lastModifiedDate: ?1, _id: {$lt: ?2}}]}", fields = "{'deleted': 0}", sort = KEYSET_SORT)
+    Flux<DetailingClaimEntity> findByStatusBefore(DetailingStatus status, Date lastModifiedDate, Object id, Pageable paging);
+    @Aggregation(pipeline = {"{$match: {status: '?0', deleted: {$nin: [true]}, lastModifiedDate: {$type: 'date'}}}", SUMMARY_SORT, SUMMARY_PROJECTION})
+    Flux<DetailingClaimSummaryEntity> findSummariesByStatus(DetailingStatus status, Pageable paging);
+    @Aggregation(pipeline = {"{$match: {status: '?0', deleted: {$nin: [true]}, $or: [{lastModifiedDate: {$lt: ?1}}, {lastModifiedDate: ?1, _id: {$lt: ?2}}]}}", SUMMARY_SORT, SUMMARY_PROJECTION})
+    Flux<DetailingClaimSummaryEntity> findSummariesByStatusBefore(DetailingStatus status, Date lastModifiedDate, Object id, Pageable paging);
 
     @Query(value = "{id: '?0', status: '?1', deleted: {$nin: [true]}}", fields = "{'deleted': 0}")
     Mono<DetailingClaimEntity> findByIdAndStatus(String jobId, DetailingStatus status);
@@ -34,8 +58,14 @@ public interface DetailingClaimDao extends ReactiveMongoRepository<DetailingClai
     @Query(value = "{jobId: '?0', status: {$in: ?1}, deleted: {$nin: [true]}}", fields = "{'deleted': 0}")
     Flux<DetailingClaimEntity> findByJobIdAndStatus(String jobId, DetailingStatus... status);
 
-    @Query(value = "{claimedByStaffUsername: '?0', status: '?1', deleted: {$nin: [true]}}", fields = "{'deleted': 0}")
+    @Query(value = "{claimedByStaffUsername: '?0', status: '?1', deleted: {$nin: [true]}, lastModifiedDate: {$type: 'date'}}", fields = "{'deleted': 0}", sort = KEYSET_SORT)
     Flux<DetailingClaimEntity> findByStaffUsernameAndStatus(String username, DetailingStatus status, Pageable paging);
+    @Query(value = "{claimedByStaffUsername: '?0', status: '?1', deleted: {$nin: [true]}, $or: [{lastModifiedDate: {$lt: ?2}}, {lastModifiedDate: ?2, _id: {$lt: ?3}}]}", fields = "{'deleted': 0}", sort = KEYSET_SORT)
+    Flux<DetailingClaimEntity> findByStaffUsernameAndStatusBefore(String username, DetailingStatus status, Date lastModifiedDate, Object id, Pageable paging);
+    @Aggregation(pipeline = {"{$match: {claimedByStaffUsername: '?0', status: '?1', deleted: {$nin: [true]}, lastModifiedDate: {$type: 'date'}}}", SUMMARY_SORT, SUMMARY_PROJECTION})
+    Flux<DetailingClaimSummaryEntity> findSummariesByStaffUsernameAndStatus(String username, DetailingStatus status, Pageable paging);
+    @Aggregation(pipeline = {"{$match: {claimedByStaffUsername: '?0', status: '?1', deleted: {$nin: [true]}, $or: [{lastModifiedDate: {$lt: ?2}}, {lastModifiedDate: ?2, _id: {$lt: ?3}}]}}", SUMMARY_SORT, SUMMARY_PROJECTION})
+    Flux<DetailingClaimSummaryEntity> findSummariesByStaffUsernameAndStatusBefore(String username, DetailingStatus status, Date lastModifiedDate, Object id, Pageable paging);
 
     @Query(value = "{jobId: '?0', claimedByStaffUsername: '?1', status: '?2', deleted: {$nin: [true]}}", fields = "{'deleted': 0}")
     Flux<DetailingClaimEntity> findByCompoundIdAndStatus(String jobId, String username, DetailingStatus status);
@@ -43,12 +73,15 @@ public interface DetailingClaimDao extends ReactiveMongoRepository<DetailingClai
     @Query(value = "{jobId: '?0', claimedByStaffUsername: '?1', createdDate: ?2, deleted: {$nin: [true]}}", fields = "{'deleted': 0}")
     Mono<DetailingClaimEntity> findByCompoundId(String jobId, String username, Date createdDate);
 
+    @Query(value = "{jobId: '?0', claimedByStaffUsername: '?1', createdDate: {$gte: ?2, $lt: ?3}, deleted: {$nin: [true]}}", fields = "{'deleted': 0}")
+    Flux<DetailingClaimEntity> findByCompoundIdCreatedBetween(String jobId, String username, Date createdFrom, Date createdBefore);
+
     @Query(value = "{jobId: '?0', claimedByStaffUsername: '?1', deleted: {$nin: [true]}}", fields = "{'deleted': 0}")
     Flux<DetailingClaimEntity> findByCompoundId(String jobId, String username);
 
-    @Query(value = "{deleted: {$nin: [true]}}", fields = "{'deleted': 0}", sort = "{lastModifiedDate : -1}")
+    @Query(value = "{deleted: {$nin: [true]}, lastModifiedDate: {$type: 'date'}}", fields = "{'deleted': 0}", sort = KEYSET_SORT)
     Flux<DetailingClaimEntity> findAllByLastModifiedDescending(Pageable paging);
+    @Query(value = "{deleted: {$nin: [true]}, $or: [{lastModifiedDate: {$lt: ?0}}, {lastModifiedDate: ?0, _id: {$lt: ?1}}]}", fields = "{'deleted': 0}", sort = KEYSET_SORT)
+    Flux<DetailingClaimEntity> findAllByLastModifiedDescendingBefore(Date lastModifiedDate, Object id, Pageable paging);
 
-    @Query(value = "{deleted: {$nin: [true]}}", fields = "{'deleted': 0}", sort = "{createdDate : -1}")
-    Flux<DetailingClaimEntity> findAllByCreatedDateDescending(Pageable paging);
 }
@@ -0,0 +1,19 @@
+package tech.jmcs.floortech.detailing.infrastructure.persistence.dao;
+
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tech.jmcs.floortech.detailing.infrastructure.persistence.entity.ExtractedDataRowEntity;
+
+import java.util.Collection;
+
+@Repository
+public interface ExtractedDataRowDao extends ReactiveMongoRepository<ExtractedDataRowEntity, String> {
+    @Query(value = "{d: '?0'}")
+    Flux<ExtractedDataRowEntity> findByFileDataId(String fileDataId);
+
+    @Query(value = "{d: {$in: ?0}}", delete = true)
+    Mono<Long> deleteByFileDataIds(Collection<String> fileDataIds);
+}
@@ -0,0 +1,19 @@
+package tech.jmcs.floortech.detailing.infrastructure.persistence.dao;
+
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tech.jmcs.floortech.detailing.infrastructure.persistence.entity.FileDataEntity;
+
+import java.util.Collection;
+
+@Repository
+public interface FileDataDao extends ReactiveMongoRepository<FileDataEntity, String> {
+    @Query(value = "{fileId: {$in: ?0}}")
+    Flux<FileDataEntity> findByFileIds(Collection<String> fileIds);
+
+    @Query(value = "{_id: {$in: ?0}}", delete = true)
+    Mono<Long> deleteByIds(Collection<String> ids);
+}
@@ -0,0 +1,9 @@
+package tech.jmcs.floortech.detailing.infrastructure.persistence.dao;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import tech.jmcs.floortech.detailing.infrastructure.persistence.entity.ProcessingJobEntity;
+
+@Repository
+public interface ProcessingJobDao extends ReactiveMongoRepository<ProcessingJobEntity, String> {
+}
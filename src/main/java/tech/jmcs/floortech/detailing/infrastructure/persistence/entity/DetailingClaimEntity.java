@@ -16,7 +16,11 @@ import static tech.jmcs.floortech.detailing.domain.model.detailingclaim.Detailin
 
 @Document(collection = "detailing_claim")
 @CompoundIndexes({
-        @CompoundIndex(name = "compound_uid", def = "{'jobId' : -1, 'claimedByStaffUsername' : 1, 'createdDate': -1}", unique = true)
+        @CompoundIndex(name = "compound_uid", def = "{'jobId' : -1, 'claimedByStaffUsername' : 1, 'createdDate': -1}", unique = true),
+        // keyset pagination of claim lists (see DetailingClaimDao)
+        @CompoundIndex(name = "status_last_modified", def = "{'status' : 1, 'lastModifiedDate' : -1, '_id' : -1}"),
+        @CompoundIndex(name = "staff_status_last_modified", def = "{'claimedByStaffUsername' : 1, 'status' : 1, 'lastModifiedDate' : -1, '_id' : -1}"),
+        @CompoundIndex(name = "last_modified", def = "{'lastModifiedDate' : -1, '_id' : -1}")
 })
 public class DetailingClaimEntity extends AuditBase {
     @Id
@@ -199,6 +203,7 @@ public class DetailingClaimEntity extends AuditBase {
                 .jobEngineerName(jobEngineerName)
                 .claimedByStaffId(claimedByStaffId)
                 .claimedAt(createdDate)
+                .version(version)
                 .fileSets(fileSetsDomain)
                 .build();
     }
@@ -0,0 +1,186 @@
+package tech.jmcs.floortech.detailing.infrastructure.persistence.entity;
+
+import org.springframework.data.annotation.Id;
+import tech.jmcs.floortech.detailing.domain.configs.DetailingStatus;
+import tech.jmcs.floortech.detailing.domain.model.detailingclaim.DetailingClaimSummary;
+
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * Projection of a detailing_claim document for claim lists (see DetailingClaimDao.SUMMARY_PROJECTION), the file
+ * sets are not read, they are counted by the query.  Only read, never saved.
+ */
+public class DetailingClaimSummaryEntity {
+    @Id
+    String id;
+    String jobId;
+    Integer floortechJobNumber;
+    String jobClientId;
+    String jobClientName;
+    String jobEngineerId;
+    String jobEngineerName;
+    String claimedByStaffUsername;
+    String claimedByStaffId;
+    Date createdDate;
+    Date lastModifiedDate;
+    DetailingStatus status;
+    Integer fileSetCount;
+    Integer fileCount;
+
+    public DetailingClaimSummaryEntity() {
+    }
+
+    // <editor-fold desc="Getters">
+    public String getId() {
+        return id;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public Integer getFloortechJobNumber() {
+        return floortechJobNumber;
+    }
+
+    public String getJobClientId() {
+        return jobClientId;
+    }
+
+    public String getJobClientName() {
+        return jobClientName;
+    }
+
+    public String getJobEngineerId() {
+        return jobEngineerId;
+    }
+
+    public String getJobEngineerName() {
+        return jobEngineerName;
+    }
+
+    public String getClaimedByStaffUsername() {
+        return claimedByStaffUsername;
+    }
+
+    public String getClaimedByStaffId() {
+        return claimedByStaffId;
+    }
+
+    public Date getCreatedDate() {
+        return createdDate;
+    }
+
+    public Date getLastModifiedDate() {
+        return lastModifiedDate;
+    }
+
+    public DetailingStatus getStatus() {
+        return status;
+    }
+
+    public Integer getFileSetCount() {
+        return fileSetCount;
+    }
+
+    public Integer getFileCount() {
+        return fileCount;
+    }
+    // </editor-fold>
+
+    // <editor-fold desc="Setters">
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public void setFloortechJobNumber(Integer floortechJobNumber) {
+        this.floortechJobNumber = floortechJobNumber;
+    }
+
+    public void setJobClientId(String jobClientId) {
+        this.jobClientId = jobClientId;
+    }
+
+    public void setJobClientName(String jobClientName) {
+        this.jobClientName = jobClientName;
+    }
+
+    public void setJobEngineerId(String jobEngineerId) {
+        this.jobEngineerId = jobEngineerId;
+    }
+
+    public void setJobEngineerName(String jobEngineerName) {
+        this.jobEngineerName = jobEngineerName;
+    }
+
+    public void setClaimedByStaffUsername(String claimedByStaffUsername) {
+        this.claimedByStaffUsername = claimedByStaffUsername;
+    }
+
+    public void setClaimedByStaffId(String claimedByStaffId) {
+        this.claimedByStaffId = claimedByStaffId;
+    }
+
+    public void setCreatedDate(Date createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    public void setLastModifiedDate(Date lastModifiedDate) {
+        this.lastModifiedDate = lastModifiedDate;
+    }
+
+    public void setStatus(DetailingStatus status) {
+        this.status = status;
+    }
+
+    public void setFileSetCount(Integer fileSetCount) {
+        this.fileSetCount = fileSetCount;
+    }
+
+    public void setFileCount(Integer fileCount) {
+        this.fileCount = fileCount;
+    }
+    // </editor-fold>
+
+    public DetailingClaimSummary toDomainObject() {
+        return new DetailingClaimSummary(
+                jobId, floortechJobNumber, jobClientId, jobClientName, jobEngineerId, jobEngineerName,
+                claimedByStaffUsername, claimedByStaffId, createdDate, status,
+                fileSetCount != null ? fileSetCount : 0,
+                fileCount != null ? fileCount : 0
+        );
+    }
+
+    @Override
+    public String toString() {
+        return "DetailingClaimSummaryEntity{" +
+                "id='" + id + '\'' +
+                ", jobId='" + jobId + '\'' +
+                ", floortechJobNumber=" + floortechJobNumber +
+                ", claimedByStaffUsername='" + claimedByStaffUsername + '\'' +
+                ", createdDate=" + createdDate +
+                ", lastModifiedDate=" + lastModifiedDate +
+                ", status=" + status +
+                ", fileSetCount=" + fileSetCount +
+                ", fileCount=" + fileCount +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DetailingClaimSummaryEntity that = (DetailingClaimSummaryEntity) o;
+        return Objects.equals(id, that.id) && Objects.equals(jobId, that.jobId) && Objects.equals(floortechJobNumber, that.floortechJobNumber) && Objects.equals(jobClientId, that.jobClientId) && Objects.equals(jobClientName, that.jobClientName) && Objects.equals(jobEngineerId, that.jobEngineerId) && Objects.equals(jobEngineerName, that.jobEngineerName) && Objects.equals(claimedByStaffUsername, that.claimedByStaffUsername) && Objects.equals(claimedByStaffId, that.claimedByStaffId) && Objects.equals(createdDate, that.createdDate) && Objects.equals(lastModifiedDate, that.lastModifiedDate) && status == that.status && Objects.equals(fileSetCount, that.fileSetCount) && Objects.equals(fileCount, that.fileCount);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, jobId, floortechJobNumber, jobClientId, jobClientName, jobEngineerId, jobEngineerName, claimedByStaffUsername, claimedByStaffId, createdDate, lastModifiedDate, status, fileSetCount, fileCount);
+    }
+}
@@ -2,7 +2,6 @@ package tech.jmcs.floortech.detailing.infrastructure.persistence.entity;
 
 import org.springframework.data.annotation.Id;
 import tech.jmcs.floortech.detailing.domain.configs.XPath;
-import tech.jmcs.floortech.detailing.domain.model.filedata.FileData;
 import tech.jmcs.floortech.detailing.domain.model.files.DetailingFile;
 
 import java.util.Date;
@@ -10,6 +9,10 @@ import java.util.Objects;
 
 import static tech.jmcs.floortech.detailing.domain.model.files.DetailingFileFacade.*;
 
+/**
+ * Information of a file of a file set.  The data extracted from the file is not embedded, it is stored in its own
+ * collections (see FileDataEntity), the file data field is only read from claims saved before it was split out.
+ */
 public class DetailingFileEntity {
     @Id
     String id;
@@ -19,6 +22,8 @@ public class DetailingFileEntity {
     Boolean processed;
     Long fileSize;
     String mimetype;
+    String contentHash;
+    String processingError;
     XPath parentFolder;
     String label;
     FileDataEntity fileData;
@@ -32,14 +37,11 @@ public class DetailingFileEntity {
         var isProcessed = toIsProcessed.apply(detailingFile);
         var fileSize = toFileSize.apply(detailingFile);
         var mimeType = toMimeType.apply(detailingFile);
+        var contentHash = toContentHash.apply(detailingFile);
+        var processingError = toProcessingError.apply(detailingFile);
         var parentFolder = toParentFolder.apply(detailingFile);
         var label = toLabel.apply(detailingFile);
         var createdData = toCreationDate.apply(detailingFile);
-        var _fileData = toFileData.apply(detailingFile);
-        FileDataEntity fileData = null;
-        if (_fileData != null) {
-            fileData = FileDataEntity.fromDomainObject(toFileData.apply(detailingFile));
-        }
 
         var d = new DetailingFileEntity();
         d.setId(id);
@@ -49,9 +51,10 @@ public class DetailingFileEntity {
         d.setProcessed(isProcessed);
         d.setFileSize(fileSize);
         d.setMimetype(mimeType);
+        d.setContentHash(contentHash);
+        d.setProcessingError(processingError);
         d.setParentFolder(parentFolder);
         d.setLabel(label);
-        d.setFileData(fileData);
         d.setCreatedDate(createdData);
         return d;
     }
@@ -87,6 +90,14 @@ public class DetailingFileEntity {
         return mimetype;
     }
 
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public String getProcessingError() {
+        return processingError;
+    }
+
     public XPath getParentFolder() {
         return parentFolder;
     }
@@ -133,6 +144,14 @@ public class DetailingFileEntity {
         this.mimetype = mimetype;
     }
 
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public void setProcessingError(String processingError) {
+        this.processingError = processingError;
+    }
+
     public void setParentFolder(XPath parentFolder) {
         this.parentFolder = parentFolder;
     }
@@ -151,20 +170,19 @@ public class DetailingFileEntity {
     // </editor-fold>
 
     public DetailingFile toDomainObject() {
-        FileData fileDataDomain = null;
-        if (fileData != null) {
-            fileDataDomain = fileData.toDomainObject();
-        }
-
-        return DetailingFile.builder(label, path, filename, extension)
+        var builder = DetailingFile.builder(label, path, filename, extension)
                 .id(id)
                 .isProcessed(processed)
                 .fileSize(fileSize)
                 .mimetype(mimetype)
+                .contentHash(contentHash)
+                .processingError(processingError)
                 .parentFolder(parentFolder)
-                .creationDate(createdDate)
-                .fileData(fileDataDomain)
-                .build();
+                .creationDate(createdDate);
+        if (fileData != null) { // embedded before the file data was split out, moved out when the claim is saved
+            builder.fileData(fileData.toDomainObject(builder.build()));
+        }
+        return builder.build();
     }
 
     @Override
@@ -177,6 +195,8 @@ public class DetailingFileEntity {
                 ", isProcessed=" + processed +
                 ", fileSize=" + fileSize +
                 ", mimetype='" + mimetype + '\'' +
+                ", contentHash='" + contentHash + '\'' +
+                ", processingError='" + processingError + '\'' +
                 ", parentFolder=" + parentFolder +
                 ", label='" + label + '\'' +
                 ", fileData=" + fileData +
@@ -189,11 +209,11 @@ public class DetailingFileEntity {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         DetailingFileEntity that = (DetailingFileEntity) o;
-        return id.equals(that.id) && path.equals(that.path) && extension.equals(that.extension) && filename.equals(that.filename) && processed.equals(that.processed) && Objects.equals(fileSize, that.fileSize) && Objects.equals(mimetype, that.mimetype) && Objects.equals(parentFolder, that.parentFolder) && label.equals(that.label) && Objects.equals(fileData, that.fileData) && createdDate.equals(that.createdDate);
+        return id.equals(that.id) && path.equals(that.path) && extension.equals(that.extension) && filename.equals(that.filename) && processed.equals(that.processed) && Objects.equals(fileSize, that.fileSize) && Objects.equals(mimetype, that.mimetype) && Objects.equals(contentHash, that.contentHash) && Objects.equals(processingError, that.processingError) && Objects.equals(parentFolder, that.parentFolder) && label.equals(that.label) && Objects.equals(fileData, that.fileData) && createdDate.equals(that.createdDate);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, path, extension, filename, processed, fileSize, mimetype, parentFolder, label, fileData, createdDate);
+        return Objects.hash(id, path, extension, filename, processed, fileSize, mimetype, contentHash, processingError, parentFolder, label, fileData, createdDate);
     }
 }
@@ -1,34 +1,75 @@
 package tech.jmcs.floortech.detailing.infrastructure.persistence.entity;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
 import tech.jmcs.floortech.detailing.domain.model.filedata.ExtractedDataRow;
-import tech.jmcs.floortech.detailing.domain.model.filedata.ExtractedDataRowFacade;
+import tech.jmcs.floortech.detailing.domain.model.filedata.FileData;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
 import static tech.jmcs.floortech.detailing.domain.model.filedata.ExtractedDataRowFacade.*;
 
+/**
+ * A row of data extracted from a file, stored one document per row (keyed by the claim, file set, file and file
+ * data ids), written with unordered bulk inserts.  Rows without an id are given one by Mongo.
+ * The values of the row are stored by position in the columns of its file data (see FileDataEntity.getColumns),
+ * with short field names, by the ExtractedDataRow converters.  The data field is only read, from rows embedded in
+ * the claims saved before the file data was split out.
+ */
+@Document(collection = "extracted_data_row")
 public class ExtractedDataRowEntity {
+    public static final String CLAIM_ID = "c";
+    public static final String FILE_SET_ID = "s";
+    public static final String FILE_ID = "f";
+    public static final String FILE_DATA_ID = "d";
+    public static final String ROW = "r";
+    public static final String ITEM_ID = "i";
+    public static final String VALUES = "v";
+
     @Id
     String id;
+    @Indexed
+    @Field(CLAIM_ID)
+    String claimId;
+    @Field(FILE_SET_ID)
+    String fileSetId;
+    @Indexed
+    @Field(FILE_ID)
+    String fileId;
+    @Indexed
+    @Field(FILE_DATA_ID)
+    String fileDataId;
+    @Field(ROW)
     Integer row;
+    @Field(ITEM_ID)
     String itemId;
-    FileDataEntity parentFileData;
+    @Field(VALUES)
+    List<String> values;
     Map<String, String> data;
 
-    public static ExtractedDataRowEntity fromDomainObject(ExtractedDataRow extractedDataRow) {
+    public static ExtractedDataRowEntity fromDomainObject(ExtractedDataRow extractedDataRow, FileDataEntity fileData) {
         var id = toRowId.apply(extractedDataRow);
         var row = toRow.apply(extractedDataRow);
         var itemId = toItemId.apply(extractedDataRow);
-        var parentFileData = FileDataEntity.fromDomainObject(toParent.apply(extractedDataRow));
         var data = toData.apply(extractedDataRow);
+        var columns = fileData.getColumns();
+        var values = new ArrayList<String>(columns.size());
+        columns.forEach(column -> values.add(data != null ? data.get(column) : null));
         var d = new ExtractedDataRowEntity();
         d.setId(id);
+        d.setClaimId(fileData.getClaimId());
+        d.setFileSetId(fileData.getFileSetId());
+        d.setFileId(fileData.getFileId());
+        d.setFileDataId(fileData.getId());
         d.setRow(row);
         d.setItemId(itemId);
-        d.setParentFileData(parentFileData);
-        d.setData(data);
+        d.setValues(values);
         return d;
     }
 
@@ -40,6 +81,22 @@ public class ExtractedDataRowEntity {
         return id;
     }
 
+    public String getClaimId() {
+        return claimId;
+    }
+
+    public String getFileSetId() {
+        return fileSetId;
+    }
+
+    public String getFileId() {
+        return fileId;
+    }
+
+    public String getFileDataId() {
+        return fileDataId;
+    }
+
     public Integer getRow() {
         return row;
     }
@@ -48,8 +105,8 @@ public class ExtractedDataRowEntity {
         return itemId;
     }
 
-    public FileDataEntity getParentFileData() {
-        return parentFileData;
+    public List<String> getValues() {
+        return values;
     }
 
     public Map<String, String> getData() {
@@ -62,6 +119,22 @@ public class ExtractedDataRowEntity {
         this.id = id;
     }
 
+    public void setClaimId(String claimId) {
+        this.claimId = claimId;
+    }
+
+    public void setFileSetId(String fileSetId) {
+        this.fileSetId = fileSetId;
+    }
+
+    public void setFileId(String fileId) {
+        this.fileId = fileId;
+    }
+
+    public void setFileDataId(String fileDataId) {
+        this.fileDataId = fileDataId;
+    }
+
     public void setRow(Integer row) {
         this.row = row;
     }
@@ -70,8 +143,8 @@ public class ExtractedDataRowEntity {
         this.itemId = itemId;
     }
 
-    public void setParentFileData(FileDataEntity parentFileData) {
-        this.parentFileData = parentFileData;
+    public void setValues(List<String> values) {
+        this.values = values;
     }
 
     public void setData(Map<String, String> data) {
@@ -79,13 +152,28 @@ public class ExtractedDataRowEntity {
     }
     // </editor-fold>
 
-    public ExtractedDataRow toDomainObject() {
+    /**
+     * @param parent the file data of the row
+     * @param columns the columns of the file data, the keys of the values of the row
+     * @return
+     */
+    public ExtractedDataRow toDomainObject(FileData parent, List<String> columns) {
+        var rowData = data;
+        if (values != null && columns != null) {
+            rowData = new LinkedHashMap<>();
+            for (int i = 0; i < Math.min(values.size(), columns.size()); i++) {
+                var value = values.get(i);
+                if (value != null) { // a null value is not an entry of the row data
+                    rowData.put(columns.get(i), value);
+                }
+            }
+        }
         return ExtractedDataRow.builder()
                 .id(id)
                 .row(row)
                 .itemId(itemId)
-                .parent(parentFileData.toDomainObject())
-                .data(data)
+                .parent(parent)
+                .data(rowData)
                 .build();
     }
 
@@ -93,9 +181,10 @@ public class ExtractedDataRowEntity {
     public String toString() {
         return "ExtractedDataRowEntity{" +
                 "id='" + id + '\'' +
+                ", fileDataId='" + fileDataId + '\'' +
                 ", row=" + row +
                 ", itemId='" + itemId + '\'' +
-//                ", parentFileData=" + parentFileData +
+                ", values=" + values +
                 ", data=" + data +
                 '}';
     }
@@ -105,11 +194,11 @@ public class ExtractedDataRowEntity {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         ExtractedDataRowEntity that = (ExtractedDataRowEntity) o;
-        return id.equals(that.id) && Objects.equals(row, that.row) && Objects.equals(itemId, that.itemId) && Objects.equals(parentFileData, that.parentFileData) && Objects.equals(data, that.data);
+        return Objects.equals(id, that.id) && Objects.equals(fileDataId, that.fileDataId) && Objects.equals(row, that.row) && Objects.equals(itemId, that.itemId) && Objects.equals(values, that.values) && Objects.equals(data, that.data);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, row, itemId, parentFileData, data);
+        return Objects.hash(id, fileDataId, row, itemId, values, data);
     }
 }
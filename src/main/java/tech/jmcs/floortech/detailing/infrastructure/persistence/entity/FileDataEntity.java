@@ -1,46 +1,64 @@
 package tech.jmcs.floortech.detailing.infrastructure.persistence.entity;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
 import tech.jmcs.floortech.detailing.domain.model.filedata.ExtractedDataRow;
+import tech.jmcs.floortech.detailing.domain.model.filedata.ExtractedDataTable;
 import tech.jmcs.floortech.detailing.domain.model.filedata.FileData;
-import tech.jmcs.floortech.detailing.domain.model.filedata.FileDataFacade;
+import tech.jmcs.floortech.detailing.domain.model.files.DetailingFile;
 
-import java.util.Map;
-import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.*;
 
+import static tech.jmcs.floortech.detailing.domain.model.filedata.ExtractedDataRowFacade.toData;
 import static tech.jmcs.floortech.detailing.domain.model.filedata.FileDataFacade.*;
-
+import static tech.jmcs.floortech.detailing.domain.model.files.DetailingFileFacade.toFileId;
+
+/**
+ * Data extracted from a file, stored apart from the detailing claim (keyed by the claim, file set and file ids) so
+ * the claim document only holds the file information.  The extracted rows are stored in their own collection
+ * (see ExtractedDataRowEntity), with their values in the order of the columns of the file data, so the column
+ * names are stored once for the file instead of in every row.
+ * Each save of the data of a file is a new document (with a new id), the documents of earlier saves of the file are
+ * deleted once it is written; the saved date orders the saves of a file (see SAVE_ORDER).
+ * The extracted data and parent file fields are only read, from file data embedded in the claims saved before the
+ * file data was split out.
+ */
+@Document(collection = "file_data")
 public class FileDataEntity {
+    /**
+     * Order of the saves of the data of a file, the last is the current data of the file
+     */
+    public static final Comparator<FileDataEntity> SAVE_ORDER = Comparator
+            .comparing(FileDataEntity::getSavedDate, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(FileDataEntity::getId);
     @Id
     String id;
+    @Indexed
+    String claimId;
+    String fileSetId;
+    @Indexed
+    String fileId;
     Map<Integer, String> lines;
+    List<String> columns;
     Map<String, ExtractedDataRowEntity> extractedData;
     DetailingFileEntity parentFile;
+    Date savedDate;
 
-    public static FileDataEntity fromDomainObject(FileData fileData) {
+    public static FileDataEntity fromDomainObject(FileData fileData, String claimId, String fileSetId) {
         var id = toFileDataId.apply(fileData);
         var lines = toLines.apply(fileData);
-        var _extractedData = toExtractedData.apply(fileData);
-        Map<String, ExtractedDataRowEntity> extractedData = Map.of();
-        if (_extractedData != null) {
-            extractedData = _extractedData.entrySet().stream()
-                    .map(entry -> {
-                        var key = entry.getKey();
-                        var value = ExtractedDataRowEntity.fromDomainObject(entry.getValue());
-                        return Map.entry(key, value);
-                    })
-                    .collect(Collectors.toMap(
-                            e -> (String) e.getKey(),
-                            e -> (ExtractedDataRowEntity) e.getValue()
-                    ));
-        }
-        var parentFile = DetailingFileEntity.fromDomainObject(toDetailingFile.apply(fileData));
+        var fileId = toFileId.apply(toDetailingFile.apply(fileData));
+        var columns = toExtractedTable.apply(fileData)
+                .map(ExtractedDataTable::getKeys)
+                .orElseGet(() -> columnsOf(toExtractedData.apply(fileData).values()));
         var d = new FileDataEntity();
         d.setId(id);
+        d.setClaimId(claimId);
+        d.setFileSetId(fileSetId);
+        d.setFileId(fileId);
         d.setLines(lines);
-        d.setExtractedData(extractedData);
-        d.setParentFile(parentFile);
+        d.setColumns(new ArrayList<>(columns));
         return d;
     }
 
@@ -52,10 +70,26 @@ public class FileDataEntity {
         return id;
     }
 
+    public String getClaimId() {
+        return claimId;
+    }
+
+    public String getFileSetId() {
+        return fileSetId;
+    }
+
+    public String getFileId() {
+        return fileId;
+    }
+
     public Map<Integer, String> getLines() {
         return lines;
     }
 
+    public List<String> getColumns() {
+        return columns;
+    }
+
     public Map<String, ExtractedDataRowEntity> getExtractedData() {
         return extractedData;
     }
@@ -63,6 +97,10 @@ public class FileDataEntity {
     public DetailingFileEntity getParentFile() {
         return parentFile;
     }
+
+    public Date getSavedDate() {
+        return savedDate;
+    }
     // </editor-fold>
 
     // <editor-fold desc="Setters">
@@ -70,10 +108,26 @@ public class FileDataEntity {
         this.id = id;
     }
 
+    public void setClaimId(String claimId) {
+        this.claimId = claimId;
+    }
+
+    public void setFileSetId(String fileSetId) {
+        this.fileSetId = fileSetId;
+    }
+
+    public void setFileId(String fileId) {
+        this.fileId = fileId;
+    }
+
     public void setLines(Map<Integer, String> lines) {
         this.lines = lines;
     }
 
+    public void setColumns(List<String> columns) {
+        this.columns = columns;
+    }
+
     public void setExtractedData(Map<String, ExtractedDataRowEntity> extractedData) {
         this.extractedData = extractedData;
     }
@@ -81,31 +135,64 @@ public class FileDataEntity {
     public void setParentFile(DetailingFileEntity parentFile) {
         this.parentFile = parentFile;
     }
+
+    public void setSavedDate(Date savedDate) {
+        this.savedDate = savedDate;
+    }
     // </editor-fold>
 
-    public FileData toDomainObject() {
-        var extractedDataDomain = extractedData.entrySet().stream()
-                .map(entry -> {
-                    var key = entry.getKey();
-                    var value = entry.getValue().toDomainObject();
-                    return Map.entry(key, value);
-                })
-                .collect(Collectors.toMap(
-                    e -> (String) e.getKey(),
-                    e -> (ExtractedDataRow) e.getValue()
-                ));
-        return FileData.builder(id, parentFile.toDomainObject())
+    /**
+     * @param parent the file the data was extracted from
+     * @param rows the extracted rows of this file data
+     * @return
+     */
+    public FileData toDomainObject(DetailingFile parent, Collection<ExtractedDataRowEntity> rows) {
+        var fileData = FileData.builder(id, parent)
                 .lines(lines)
-                .extractedData(extractedDataDomain)
                 .build();
+        var extractedDataDomain = new HashMap<String, ExtractedDataRow>();
+        rows.forEach(row -> extractedDataDomain.put(row.getItemId(), row.toDomainObject(fileData, columns)));
+        return fileData.withExtractedData(extractedDataDomain);
+    }
+
+    /**
+     * File data embedded in a claim saved before the file data was split out, with its embedded rows
+     * @param parent the file the data was extracted from
+     * @return
+     */
+    public FileData toDomainObject(DetailingFile parent) {
+        var rows = extractedData != null ? extractedData.values() : List.<ExtractedDataRowEntity>of();
+        return toDomainObject(parent, rows);
     }
 
+    // <editor-fold desc="Static helper methods">
+    /**
+     * Keys of the data of the rows, in the order they are first found
+     * @param rows
+     * @return
+     */
+    private static List<String> columnsOf(Collection<ExtractedDataRow> rows) {
+        var columns = new LinkedHashSet<String>();
+        rows.forEach(row -> {
+            var data = toData.apply(row);
+            if (data != null) {
+                columns.addAll(data.keySet());
+            }
+        });
+        return new ArrayList<>(columns);
+    }
+    // </editor-fold>
+
     @Override
     public String toString() {
         return "FileDataEntity{" +
                 "id='" + id + '\'' +
+                ", claimId='" + claimId + '\'' +
+                ", fileSetId='" + fileSetId + '\'' +
+                ", fileId='" + fileId + '\'' +
                 ", lines=" + lines +
-                ", extractedData=" + extractedData +
+                ", columns=" + columns +
+                ", savedDate=" + savedDate +
 //                ", parentFile=" + parentFile +
                 '}';
     }
@@ -115,11 +202,11 @@ public class FileDataEntity {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         FileDataEntity that = (FileDataEntity) o;
-        return id.equals(that.id) && Objects.equals(lines, that.lines) && Objects.equals(extractedData, that.extractedData) && Objects.equals(parentFile, that.parentFile);
+        return id.equals(that.id) && Objects.equals(claimId, that.claimId) && Objects.equals(fileSetId, that.fileSetId) && Objects.equals(fileId, that.fileId) && Objects.equals(lines, that.lines) && Objects.equals(columns, that.columns) && Objects.equals(extractedData, that.extractedData);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, lines, extractedData, parentFile);
+        return Objects.hash(id, claimId, fileSetId, fileId, lines, columns, extractedData);
     }
 }
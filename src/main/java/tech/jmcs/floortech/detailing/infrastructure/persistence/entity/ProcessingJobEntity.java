@@ -0,0 +1,155 @@
+package tech.jmcs.floortech.detailing.infrastructure.persistence.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import tech.jmcs.floortech.detailing.domain.configs.ProcessingJobStatus;
+import tech.jmcs.floortech.detailing.domain.model.processing.ProcessingJob;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Status of a processing job.  Jobs are removed by Mongo 7 days after they were created.
+ */
+@Document(collection = "processing_job")
+public class ProcessingJobEntity {
+    @Id
+    String id;
+    String claimId;
+    String fileSetId;
+    @Indexed
+    String username;
+    ProcessingJobStatus status;
+    List<ProcessingJob.FileProgress> files;
+    String error;
+    @Indexed(expireAfter = "7d")
+    Date createdDate;
+    Date updatedDate;
+
+    public static ProcessingJobEntity fromDomainObject(ProcessingJob processingJob) {
+        var d = new ProcessingJobEntity();
+        d.setId(processingJob.id());
+        d.setClaimId(processingJob.claimId());
+        d.setFileSetId(processingJob.fileSetId());
+        d.setUsername(processingJob.username());
+        d.setStatus(processingJob.status());
+        d.setFiles(processingJob.files());
+        d.setError(processingJob.error());
+        d.setCreatedDate(processingJob.createdDate());
+        d.setUpdatedDate(processingJob.updatedDate());
+        return d;
+    }
+
+    public ProcessingJobEntity() {
+    }
+
+    // <editor-fold desc="Getters">
+    public String getId() {
+        return id;
+    }
+
+    public String getClaimId() {
+        return claimId;
+    }
+
+    public String getFileSetId() {
+        return fileSetId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public ProcessingJobStatus getStatus() {
+        return status;
+    }
+
+    public List<ProcessingJob.FileProgress> getFiles() {
+        return files;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public Date getCreatedDate() {
+        return createdDate;
+    }
+
+    public Date getUpdatedDate() {
+        return updatedDate;
+    }
+    // </editor-fold>
+
+    // <editor-fold desc="Setters">
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public void setClaimId(String claimId) {
+        this.claimId = claimId;
+    }
+
+    public void setFileSetId(String fileSetId) {
+        this.fileSetId = fileSetId;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public void setStatus(ProcessingJobStatus status) {
+        this.status = status;
+    }
+
+    public void setFiles(List<ProcessingJob.FileProgress> files) {
+        this.files = files;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public void setCreatedDate(Date createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    public void setUpdatedDate(Date updatedDate) {
+        this.updatedDate = updatedDate;
+    }
+    // </editor-fold>
+
+    public ProcessingJob toDomainObject() {
+        return new ProcessingJob(id, claimId, fileSetId, username, status, files != null ? List.copyOf(files) : List.of(), error, createdDate, updatedDate);
+    }
+
+    @Override
+    public String toString() {
+        return "ProcessingJobEntity{" +
+                "id='" + id + '\'' +
+                ", claimId='" + claimId + '\'' +
+                ", fileSetId='" + fileSetId + '\'' +
+                ", username='" + username + '\'' +
+                ", status=" + status +
+                ", files=" + files +
+                ", error='" + error + '\'' +
+                ", createdDate=" + createdDate +
+                ", updatedDate=" + updatedDate +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ProcessingJobEntity that = (ProcessingJobEntity) o;
+        return id.equals(that.id) && Objects.equals(claimId, that.claimId) && Objects.equals(fileSetId, that.fileSetId) && Objects.equals(username, that.username) && status == that.status && Objects.equals(files, that.files) && Objects.equals(error, that.error) && Objects.equals(createdDate, that.createdDate) && Objects.equals(updatedDate, that.updatedDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, claimId, fileSetId, username, status, files, error, createdDate, updatedDate);
+    }
+}
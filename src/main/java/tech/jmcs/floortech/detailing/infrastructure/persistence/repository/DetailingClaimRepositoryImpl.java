@@ -1,34 +1,95 @@
 package tech.jmcs.floortech.detailing.infrastructure.persistence.repository;
 
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import tech.jmcs.floortech.detailing.domain.configs.CursorPage;
 import tech.jmcs.floortech.detailing.domain.configs.DetailingStatus;
+import tech.jmcs.floortech.detailing.domain.configs.PageCursor;
 import tech.jmcs.floortech.detailing.domain.model.detailingclaim.DetailingClaim;
+import tech.jmcs.floortech.detailing.domain.model.detailingclaim.DetailingClaimSummary;
+import tech.jmcs.floortech.detailing.domain.model.filedata.FileData;
+import tech.jmcs.floortech.detailing.domain.model.files.DetailingFile;
+import tech.jmcs.floortech.detailing.domain.model.fileset.FileSet;
 import tech.jmcs.floortech.detailing.domain.repository.DetailingClaimRepository;
 import tech.jmcs.floortech.detailing.infrastructure.persistence.dao.DetailingClaimDao;
+import tech.jmcs.floortech.detailing.infrastructure.persistence.dao.ExtractedDataRowDao;
+import tech.jmcs.floortech.detailing.infrastructure.persistence.dao.FileDataDao;
 import tech.jmcs.floortech.detailing.infrastructure.persistence.entity.DetailingClaimEntity;
+import tech.jmcs.floortech.detailing.infrastructure.persistence.entity.DetailingClaimSummaryEntity;
+import tech.jmcs.floortech.detailing.infrastructure.persistence.entity.ExtractedDataRowEntity;
+import tech.jmcs.floortech.detailing.infrastructure.persistence.entity.FileDataEntity;
+import tech.jmcs.floortech.detailing.infrastructure.persistence.entity.FileSetEntity;
+import tech.jmcs.floortech.detailing.infrastructure.persistence.exception.PersistenceException;
 
-import java.util.Date;
-import java.util.List;
-import java.util.Objects;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
 
 import static tech.jmcs.floortech.detailing.domain.configs.DetailingStatus.*;
 import static tech.jmcs.floortech.detailing.domain.model.detailingclaim.DetailingClaimFacade.*;
+import static tech.jmcs.floortech.detailing.domain.model.filedata.FileDataFacade.*;
+import static tech.jmcs.floortech.detailing.domain.model.files.DetailingFileFacade.*;
+import static tech.jmcs.floortech.detailing.domain.model.fileset.FileSetFacade.toFileSetId;
+import static tech.jmcs.floortech.detailing.domain.model.fileset.FileSetFacade.toFiles;
 
+/**
+ * Detailing claims are stored with the information of their file sets and files, the data extracted from the files
+ * is stored in its own collections (file data and extracted rows, keyed by claim, file set and file ids) so that
+ * claim status changes and list queries only read and write the claim.
+ * The file data attached to the files of a claim is written when the claim is saved and is only read by loadFileData.
+ * Saving the data of a file inserts it and then deletes the data of the earlier saves of the file, so a file never
+ * has no data while it is replaced; when two saves of a file overlap the later one is kept (see
+ * FileDataEntity.SAVE_ORDER), and until the other is deleted loadFileData reads the later one.
+ * Status changes and file sets are saved with a single findAndModify of those fields of the claim (saveStatus,
+ * saveFileSet), instead of reading and replacing the whole claim.  Auditing does not apply to these updates, so
+ * they set the last modified date and user themselves (the user from the same AuditorAware as saved claims).
+ * Claim lists are paged by cursor (the last modified date and id of the last claim of a page), one more claim than
+ * the page size is found to know if there is a next page.
+ */
 @Repository
 public class DetailingClaimRepositoryImpl implements DetailingClaimRepository {
     static final Logger log = LoggerFactory.getLogger(DetailingClaimRepositoryImpl.class);
+    static final InsertManyOptions UNORDERED = new InsertManyOptions().ordered(false);
+    static final int INSERT_CONCURRENCY = 4;
+    static final FindAndModifyOptions RETURN_NEW = FindAndModifyOptions.options().returnNew(true);
     private final DetailingClaimDao detailingClaimDao;
-//    private final FileSetDao fileSetDao;
+    private final FileDataDao fileDataDao;
+    private final ExtractedDataRowDao extractedDataRowDao;
+    private final ReactiveMongoOperations mongoOperations;
+    private final AuditorAware<String> auditorAware;
+    private final int insertBatchSize;
+
     @Autowired
-    public DetailingClaimRepositoryImpl(DetailingClaimDao detailingClaimDao) {
+    public DetailingClaimRepositoryImpl(DetailingClaimDao detailingClaimDao,
+                                        FileDataDao fileDataDao,
+                                        ExtractedDataRowDao extractedDataRowDao,
+                                        ReactiveMongoOperations mongoOperations,
+                                        AuditorAware<String> auditorAware,
+                                        @Value("${persistence.file-data.insert-batch-size:1000}") int insertBatchSize) {
         this.detailingClaimDao = detailingClaimDao;
-//        this.fileSetDao = fileSetDao;
+        this.fileDataDao = fileDataDao;
+        this.extractedDataRowDao = extractedDataRowDao;
+        this.mongoOperations = mongoOperations;
+        this.auditorAware = auditorAware;
+        this.insertBatchSize = Math.max(1, insertBatchSize);
     }
 
     @Override
@@ -55,20 +116,97 @@ public class DetailingClaimRepositoryImpl implements DetailingClaimRepository {
         var jobId = toJobId.apply(detailingClaim);
         var claimedByStaffUsername = toClaimedByStaffUsername.apply(detailingClaim);
         var createdDate = toClaimedAt.apply(detailingClaim);
+        var fileData = attachedFileData(detailingClaim);
         if (createdDate == null) { // is a new claim
             log.info("Saving a new DetailingClaim entity to database: {}, {}", jobId, claimedByStaffUsername);
             return detailingClaimDao.save(DetailingClaimEntity.fromDomainObject(detailingClaim))
-                    .map(DetailingClaimEntity::toDomainObject);
+                    .flatMap(saved -> saveFileData(saved.getId(), fileData).thenReturn(saved))
+                    .map(saved -> withFileData(saved.toDomainObject(), fileData));
         }
 
         log.info("Updating a DetailingClaim entity in database: {}, {}", jobId, claimedByStaffUsername);
         return detailingClaimDao.findByCompoundId(jobId, claimedByStaffUsername, createdDate)
                 .doOnNext(dce -> log.info("Found a job with job id: {} and username: {} and created date: {}", jobId, claimedByStaffUsername, createdDate))
-                .flatMap(existing -> detailingClaimDao.save(existing.updateFrom(detailingClaim)))
+                // the file data is written first, the data embedded in claims saved before it was split out is only dropped once moved
+                .flatMap(existing -> saveFileData(existing.getId(), fileData).then(detailingClaimDao.save(existing.updateFrom(detailingClaim))))
                 .log()
+                .map(saved -> withFileData(saved.toDomainObject(), fileData));
+    }
+
+    @Override
+    public Mono<FileSet> loadFileData(FileSet fileSet) {
+        var files = toFiles.apply(fileSet);
+        var fileIds = files.stream()
+                .filter(file -> toFileData.apply(file) == null && Boolean.TRUE.equals(toIsProcessed.apply(file)))
+                .map(toFileId)
+                .toList();
+        if (fileIds.isEmpty()) {
+            return Mono.just(fileSet);
+        }
+
+        var filesById = new HashMap<String, DetailingFile>();
+        files.forEach(file -> filesById.put(toFileId.apply(file), file));
+        return fileDataDao.findByFileIds(fileIds)
+                .collect(HashMap<String, FileDataEntity>::new, (latest, fileDataEntity) -> latest.merge(fileDataEntity.getFileId(), fileDataEntity, BinaryOperator.maxBy(FileDataEntity.SAVE_ORDER)))
+                .flatMapIterable(Map::values)
+                .flatMap(fileDataEntity -> {
+                    var file = filesById.get(fileDataEntity.getFileId());
+                    return extractedDataRowDao.findByFileDataId(fileDataEntity.getId())
+                            .collectList()
+                            .map(rows -> fileDataEntity.toDomainObject(file, rows));
+                })
+                .collectMap(fileData -> toFileId.apply(toDetailingFile.apply(fileData)))
+                .map(fileData -> fileSet.withFiles(files.stream()
+                        .map(file -> withFileData(file, fileData.get(toFileId.apply(file))))
+                        .toList()));
+    }
+
+    /**
+     * The status is only set if the claim still has the version it was found with, the version is incremented
+     * @param detailingClaim
+     * @return
+     */
+    @Override
+    public Mono<DetailingClaim> saveStatus(DetailingClaim detailingClaim) {
+        Objects.requireNonNull(detailingClaim);
+        var jobId = toJobId.apply(detailingClaim);
+        var claimedByStaffUsername = toClaimedByStaffUsername.apply(detailingClaim);
+        var status = toStatus.apply(detailingClaim);
+        var version = toVersion.apply(detailingClaim);
+        var query = claimQuery(detailingClaim)
+                .addCriteria(Criteria.where("version").is(version));
+        var update = modifiedUpdate()
+                .set("status", status);
+        log.info("Updating the status of a DetailingClaim entity in database: {}, {} -> {}", jobId, claimedByStaffUsername, status);
+        return mongoOperations.findAndModify(query, update, RETURN_NEW, DetailingClaimEntity.class)
+                .switchIfEmpty(Mono.error(() -> new OptimisticLockingFailureException(String.format("Claim %s of %s (version %s) was changed or removed before its status was saved", jobId, claimedByStaffUsername, version))))
                 .map(DetailingClaimEntity::toDomainObject);
     }
 
+    /**
+     * Sets the file set at its path in the claim's file sets (by id), the claim's version is incremented but not
+     * checked, the write does not touch the other file sets or the status
+     * @param detailingClaim
+     * @param fileSet
+     * @return
+     */
+    @Override
+    public Mono<DetailingClaim> saveFileSet(DetailingClaim detailingClaim, FileSet fileSet) {
+        Objects.requireNonNull(detailingClaim);
+        Objects.requireNonNull(fileSet);
+        var jobId = toJobId.apply(detailingClaim);
+        var claimedByStaffUsername = toClaimedByStaffUsername.apply(detailingClaim);
+        var fileSetId = toFileSetId.apply(fileSet);
+        var fileData = attachedFileData(fileSet);
+        var update = modifiedUpdate()
+                .set("fileSets." + fileSetId, FileSetEntity.fromDomainObject(fileSet));
+        log.info("Saving file set {} to a DetailingClaim entity in database: {}, {}", fileSetId, jobId, claimedByStaffUsername);
+        return mongoOperations.findAndModify(claimQuery(detailingClaim), update, RETURN_NEW, DetailingClaimEntity.class)
+                .switchIfEmpty(Mono.error(() -> new OptimisticLockingFailureException(String.format("Claim %s of %s was removed before file set %s was saved", jobId, claimedByStaffUsername, fileSetId))))
+                .flatMap(saved -> saveFileData(saved.getId(), fileData).thenReturn(saved))
+                .map(saved -> withFileData(saved.toDomainObject(), fileData));
+    }
+
     @Override
     public Mono<DetailingClaim> delete(String s) {
         return null;
@@ -81,9 +219,29 @@ public class DetailingClaimRepositoryImpl implements DetailingClaimRepository {
                 .map(DetailingClaimEntity::toDomainObject);
     }
 
+    /**
+     * Claim dates are passed in routes with milliseconds and match the claim exactly. A date without milliseconds may
+     * have been given with second precision (the earlier route format), so when there is no exact match the claim
+     * created within that second is found, and the lookup fails if more than one claim was created within it.
+     * @param jobId
+     * @param username
+     * @param claimedDate
+     * @return
+     */
     @Override
     public Mono<DetailingClaim> findClaim(String jobId, String username, Date claimedDate) {
-        return detailingClaimDao.findByCompoundId(jobId, username, claimedDate)
+        var exactMatch = detailingClaimDao.findByCompoundId(jobId, username, claimedDate);
+        var createdFrom = claimedDate.toInstant().truncatedTo(ChronoUnit.SECONDS);
+        if (!createdFrom.equals(claimedDate.toInstant())) {
+            return exactMatch.map(DetailingClaimEntity::toDomainObject);
+        }
+        var withinSecond = detailingClaimDao.findByCompoundIdCreatedBetween(jobId, username, Date.from(createdFrom), Date.from(createdFrom.plusSeconds(1)))
+                .take(2)
+                .collectList()
+                .flatMap(entities -> entities.size() > 1
+                        ? Mono.error(new PersistenceException("More than one claim of " + jobId + " by " + username + " was created at " + createdFrom + ", the claim date must be given with milliseconds"))
+                        : Mono.justOrEmpty(entities.stream().findFirst()));
+        return exactMatch.switchIfEmpty(withinSecond)
                 .map(DetailingClaimEntity::toDomainObject);
     }
 
@@ -108,20 +266,37 @@ public class DetailingClaimRepositoryImpl implements DetailingClaimRepository {
     }
 
     @Override
-    public Flux<DetailingClaim> findAll(Pageable paging) {
-        return null;
+    public Mono<CursorPage<DetailingClaim>> findAll(PageCursor after, int size) {
+        var claims = after == null
+                ? detailingClaimDao.findAllByLastModifiedDescending(limit(size))
+                : detailingClaimDao.findAllByLastModifiedDescendingBefore(after.date(), idOf(after), limit(size));
+        return toPage(claims, size, DetailingClaimEntity::getLastModifiedDate, DetailingClaimEntity::getId, DetailingClaimEntity::toDomainObject);
     }
 
     @Override
-    public Flux<DetailingClaim> findAllActive(Pageable paging) {
-        return detailingClaimDao.findByStatus(STARTED, paging)
-                .map(DetailingClaimEntity::toDomainObject);
+    public Mono<CursorPage<DetailingClaim>> findAllActive(PageCursor after, int size) {
+        return findAllByStatus(STARTED, after, size);
     }
 
     @Override
-    public Flux<DetailingClaim> findAllByStaffUsernameAndActive(String username, Pageable paging) {
-        return detailingClaimDao.findByStaffUsernameAndStatus(username, STARTED, paging)
-                .map(DetailingClaimEntity::toDomainObject);
+    public Mono<CursorPage<DetailingClaim>> findAllByStaffUsernameAndActive(String username, PageCursor after, int size) {
+        return findAllByStaffUsernameAndStatus(username, STARTED, after, size);
+    }
+
+    @Override
+    public Mono<CursorPage<DetailingClaimSummary>> findAllActiveSummaries(PageCursor after, int size) {
+        var summaries = after == null
+                ? detailingClaimDao.findSummariesByStatus(STARTED, limit(size))
+                : detailingClaimDao.findSummariesByStatusBefore(STARTED, after.date(), idOf(after), limit(size));
+        return toPage(summaries, size, DetailingClaimSummaryEntity::getLastModifiedDate, DetailingClaimSummaryEntity::getId, DetailingClaimSummaryEntity::toDomainObject);
+    }
+
+    @Override
+    public Mono<CursorPage<DetailingClaimSummary>> findAllSummariesByStaffUsernameAndActive(String username, PageCursor after, int size) {
+        var summaries = after == null
+                ? detailingClaimDao.findSummariesByStaffUsernameAndStatus(username, STARTED, limit(size))
+                : detailingClaimDao.findSummariesByStaffUsernameAndStatusBefore(username, STARTED, after.date(), idOf(after), limit(size));
+        return toPage(summaries, size, DetailingClaimSummaryEntity::getLastModifiedDate, DetailingClaimSummaryEntity::getId, DetailingClaimSummaryEntity::toDomainObject);
     }
 
     @Override
@@ -160,15 +335,230 @@ public class DetailingClaimRepositoryImpl implements DetailingClaimRepository {
     }
 
     @Override
-    public Flux<DetailingClaim> findAllByStaffUsernameAndCompleted(String username, Pageable paging) {
-        return detailingClaimDao.findByStaffUsernameAndStatus(username, DetailingStatus.COMPLETED, paging)
-                .map(DetailingClaimEntity::toDomainObject);
+    public Mono<CursorPage<DetailingClaim>> findAllByStaffUsernameAndCompleted(String username, PageCursor after, int size) {
+        return findAllByStaffUsernameAndStatus(username, DetailingStatus.COMPLETED, after, size);
     }
 
     @Override
-    public Flux<DetailingClaim> findAllByStaffUsernameAndCancelled(String username, Pageable paging) {
-        return detailingClaimDao.findByStaffUsernameAndStatus(username, DetailingStatus.CANCELLED, paging)
-                .map(DetailingClaimEntity::toDomainObject);
+    public Mono<CursorPage<DetailingClaim>> findAllByStaffUsernameAndCancelled(String username, PageCursor after, int size) {
+        return findAllByStaffUsernameAndStatus(username, DetailingStatus.CANCELLED, after, size);
+    }
+
+    // <editor-fold desc="Instance Helper methods">
+    private Mono<CursorPage<DetailingClaim>> findAllByStatus(DetailingStatus status, PageCursor after, int size) {
+        var claims = after == null
+                ? detailingClaimDao.findByStatus(status, limit(size))
+                : detailingClaimDao.findByStatusBefore(status, after.date(), idOf(after), limit(size));
+        return toPage(claims, size, DetailingClaimEntity::getLastModifiedDate, DetailingClaimEntity::getId, DetailingClaimEntity::toDomainObject);
+    }
+
+    private Mono<CursorPage<DetailingClaim>> findAllByStaffUsernameAndStatus(String username, DetailingStatus status, PageCursor after, int size) {
+        var claims = after == null
+                ? detailingClaimDao.findByStaffUsernameAndStatus(username, status, limit(size))
+                : detailingClaimDao.findByStaffUsernameAndStatusBefore(username, status, after.date(), idOf(after), limit(size));
+        return toPage(claims, size, DetailingClaimEntity::getLastModifiedDate, DetailingClaimEntity::getId, DetailingClaimEntity::toDomainObject);
+    }
+
+    /**
+     * Saves the file data (and extracted rows) of the files, then deletes the data of the earlier saves of the files.
+     * The rows are inserted before the file data that refers to them, and a save that fails deletes what it inserted.
+     * @param claimId
+     * @param fileData file data by file set id
+     * @return
+     */
+    private Mono<Void> saveFileData(String claimId, List<FileSetFileData> fileData) {
+        if (fileData.isEmpty()) {
+            return Mono.empty();
+        }
+
+        var savedDate = new Date();
+        var fileDataEntities = fileData.stream()
+                .map(data -> FileDataEntity.fromDomainObject(data.fileData(), claimId, data.fileSetId()))
+                .peek(fileDataEntity -> fileDataEntity.setSavedDate(savedDate))
+                .toList();
+        var fileDataIds = fileDataEntities.stream()
+                .map(FileDataEntity::getId)
+                .toList();
+        var fileIds = fileDataEntities.stream()
+                .map(FileDataEntity::getFileId)
+                .toList();
+        var rows = Flux.range(0, fileData.size())
+                .concatMap(i -> Flux.fromIterable(toExtractedData.apply(fileData.get(i).fileData()).values())
+                        .map(row -> ExtractedDataRowEntity.fromDomainObject(row, fileDataEntities.get(i))));
+        return insertUnordered(ExtractedDataRowEntity.class, rows)
+                .zipWhen(rowCount -> insertUnordered(FileDataEntity.class, Flux.fromIterable(fileDataEntities)))
+                .onErrorResume(e -> deleteFileData(fileDataIds).then(Mono.error(e)))
+                .doOnNext(inserted -> log.info("Saved the data of {} files ({} extracted rows) of claim: {}", inserted.getT2(), inserted.getT1(), claimId))
+                .then(deleteEarlierFileData(fileIds));
+    }
+
+    /**
+     * Deletes the data of the files, except the last saved data of each file
+     * @param fileIds
+     * @return
+     */
+    private Mono<Void> deleteEarlierFileData(List<String> fileIds) {
+        return fileDataDao.findByFileIds(fileIds)
+                .collectMultimap(FileDataEntity::getFileId)
+                .map(savesByFileId -> savesByFileId.values().stream()
+                        .flatMap(saves -> saves.stream()
+                                .sorted(FileDataEntity.SAVE_ORDER.reversed())
+                                .skip(1))
+                        .map(FileDataEntity::getId)
+                        .toList())
+                .flatMap(earlierIds -> earlierIds.isEmpty() ? Mono.empty() : deleteFileData(earlierIds)
+                        .doOnSuccess(v -> log.info("Deleted the data of {} earlier saves of the files", earlierIds.size())));
+    }
+
+    private Mono<Void> deleteFileData(List<String> fileDataIds) {
+        return Mono.when(fileDataDao.deleteByIds(fileDataIds), extractedDataRowDao.deleteByFileDataIds(fileDataIds));
+    }
+
+    /**
+     * Inserts the entities with unordered bulk inserts, in batches of the insert batch size
+     * @param entityClass
+     * @param entities
+     * @return number of entities inserted
+     */
+    private Mono<Long> insertUnordered(Class<?> entityClass, Flux<?> entities) {
+        var collectionName = mongoOperations.getCollectionName(entityClass);
+        return entities.map(this::toDocument)
+                .buffer(insertBatchSize)
+                .flatMap(documents -> mongoOperations.getCollection(collectionName)
+                        .flatMap(collection -> Mono.from(collection.insertMany(documents, UNORDERED)))
+                        .map(result -> (long) documents.size()), INSERT_CONCURRENCY)
+                .reduce(0L, Long::sum);
+    }
+
+    private Document toDocument(Object entity) {
+        var document = new Document();
+        mongoOperations.getConverter().write(entity, document);
+        return document;
+    }
+    // </editor-fold>
+
+    // <editor-fold desc="Static helper methods">
+    /**
+     * One more than the page size, the extra claim is only found to know if there is a next page
+     * @param size
+     * @return
+     */
+    private static Pageable limit(int size) {
+        return PageRequest.ofSize(Math.max(1, size) + 1);
+    }
+
+    /**
+     * Claim ids are stored as object ids (generated by Mongo), the id is compared as it is stored
+     * @param cursor
+     * @return
+     */
+    private static Object idOf(PageCursor cursor) {
+        return ObjectId.isValid(cursor.id()) ? new ObjectId(cursor.id()) : cursor.id();
+    }
+
+    /**
+     * @param found the claims of the page, and the first claim of the next page if there is one (see limit)
+     * @param size
+     * @param toDate date of the claim the list is ordered by, set on every listed claim (see DetailingClaimDao)
+     * @param toId
+     * @param toDomain
+     * @return the page with the cursor of its last claim, if there is a next page
+     */
+    private static <E, T> Mono<CursorPage<T>> toPage(Flux<E> found, int size, Function<E, Date> toDate, Function<E, String> toId, Function<E, T> toDomain) {
+        var pageSize = Math.max(1, size);
+        return found.collectList()
+                .map(entities -> {
+                    var hasNext = entities.size() > pageSize;
+                    var page = hasNext ? entities.subList(0, pageSize) : entities;
+                    var last = hasNext ? page.get(page.size() - 1) : null;
+                    var next = last != null ? new PageCursor(Objects.requireNonNull(toDate.apply(last)), toId.apply(last)) : null;
+                    return new CursorPage<>(page.stream().map(toDomain).toList(), next);
+                });
+    }
+
+    /**
+     * @return update of the audit fields of a modified claim, and of its version
+     */
+    private Update modifiedUpdate() {
+        var update = new Update()
+                .set("lastModifiedDate", new Date())
+                .inc("version", 1);
+        auditorAware.getCurrentAuditor().ifPresent(user -> update.set("modifiedByUser", user));
+        return update;
+    }
+
+    /**
+     * Query of the (not deleted) claim by its compound id: job id, username and claim date
+     * @param detailingClaim a saved claim
+     * @return
+     */
+    private static Query claimQuery(DetailingClaim detailingClaim) {
+        var createdDate = Objects.requireNonNull(toClaimedAt.apply(detailingClaim), "The claim has not been saved");
+        return Query.query(Criteria.where("jobId").is(toJobId.apply(detailingClaim))
+                .and("claimedByStaffUsername").is(toClaimedByStaffUsername.apply(detailingClaim))
+                .and("createdDate").is(createdDate)
+                .and("deleted").nin(true));
+    }
+
+    private static List<FileSetFileData> attachedFileData(DetailingClaim detailingClaim) {
+        var fileData = new ArrayList<FileSetFileData>();
+        toFileSets.apply(detailingClaim).values().forEach(fileSet -> fileData.addAll(attachedFileData(fileSet)));
+        return fileData;
+    }
+
+    private static List<FileSetFileData> attachedFileData(FileSet fileSet) {
+        return toFiles.apply(fileSet).stream()
+                .map(toFileData)
+                .filter(Objects::nonNull)
+                .map(data -> new FileSetFileData(toFileSetId.apply(fileSet), data))
+                .toList();
+    }
+
+    /**
+     * The saved claim with the file data it was saved with
+     * @param detailingClaim
+     * @param fileData
+     * @return
+     */
+    private static DetailingClaim withFileData(DetailingClaim detailingClaim, List<FileSetFileData> fileData) {
+        if (fileData.isEmpty()) {
+            return detailingClaim;
+        }
+
+        var fileDataByFileId = new HashMap<String, FileData>();
+        fileData.forEach(data -> fileDataByFileId.put(toFileId.apply(toDetailingFile.apply(data.fileData())), data.fileData()));
+        var fileSets = toFileSets.apply(detailingClaim);
+        fileSets.replaceAll((fileSetId, fileSet) -> fileSet.withFiles(toFiles.apply(fileSet).stream()
+                .map(file -> withFileData(file, fileDataByFileId.get(toFileId.apply(file))))
+                .toList()));
+        return detailingClaim.withFileSets(fileSets);
+    }
+
+    /**
+     * Copy of the file with the file data, the file's other values are copied as they are
+     * @param detailingFile
+     * @param fileData null to keep the file as it is
+     * @return
+     */
+    private static DetailingFile withFileData(DetailingFile detailingFile, FileData fileData) {
+        if (fileData == null) {
+            return detailingFile;
+        }
+
+        return new DetailingFile.DetailingFileBuilder(toLabel.apply(detailingFile), toPath.apply(detailingFile), toExtension.apply(detailingFile), toFilename.apply(detailingFile), toIsProcessed.apply(detailingFile))
+                .id(toFileId.apply(detailingFile))
+                .fileSize(toFileSize.apply(detailingFile))
+                .mimetype(toMimeType.apply(detailingFile))
+                .contentHash(toContentHash.apply(detailingFile))
+                .processingError(toProcessingError.apply(detailingFile))
+                .parentFolder(toParentFolder.apply(detailingFile))
+                .creationDate(toCreationDate.apply(detailingFile))
+                .fileData(fileData)
+                .build();
+    }
+    // </editor-fold>
+
+    private record FileSetFileData(String fileSetId, FileData fileData) {
     }
 
 }
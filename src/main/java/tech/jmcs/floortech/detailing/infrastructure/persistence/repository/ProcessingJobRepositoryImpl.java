@@ -0,0 +1,81 @@
+package tech.jmcs.floortech.detailing.infrastructure.persistence.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tech.jmcs.floortech.detailing.domain.configs.ProcessingJobStatus;
+import tech.jmcs.floortech.detailing.domain.model.processing.ProcessingJob;
+import tech.jmcs.floortech.detailing.domain.repository.ProcessingJobRepository;
+import tech.jmcs.floortech.detailing.infrastructure.persistence.dao.ProcessingJobDao;
+import tech.jmcs.floortech.detailing.infrastructure.persistence.entity.ProcessingJobEntity;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+
+@Repository
+public class ProcessingJobRepositoryImpl implements ProcessingJobRepository {
+    private final ProcessingJobDao processingJobDao;
+    private final ReactiveMongoOperations mongoOperations;
+
+    @Autowired
+    public ProcessingJobRepositoryImpl(ProcessingJobDao processingJobDao, ReactiveMongoOperations mongoOperations) {
+        this.processingJobDao = processingJobDao;
+        this.mongoOperations = mongoOperations;
+    }
+
+    @Override
+    public Flux<ProcessingJob> findAll() {
+        return processingJobDao.findAll()
+                .map(ProcessingJobEntity::toDomainObject);
+    }
+
+    @Override
+    public Flux<ProcessingJob> findByIds(List<String> ids) {
+        return processingJobDao.findAllById(ids)
+                .map(ProcessingJobEntity::toDomainObject);
+    }
+
+    @Override
+    public Mono<ProcessingJob> findById(String id) {
+        return processingJobDao.findById(id)
+                .map(ProcessingJobEntity::toDomainObject);
+    }
+
+    @Override
+    public Mono<ProcessingJob> save(ProcessingJob processingJob) {
+        Objects.requireNonNull(processingJob);
+        return processingJobDao.save(ProcessingJobEntity.fromDomainObject(processingJob))
+                .map(ProcessingJobEntity::toDomainObject);
+    }
+
+    /**
+     * Fails the stale jobs with a single update; a job that is updated meanwhile no longer matches
+     * @param updatedBefore
+     * @param error
+     * @return number of jobs failed
+     */
+    @Override
+    public Mono<Long> failUnfinishedUpdatedBefore(Date updatedBefore, String error) {
+        var query = Query.query(Criteria.where("status").in(ProcessingJobStatus.QUEUED, ProcessingJobStatus.RUNNING)
+                .and("updatedDate").lt(updatedBefore));
+        var update = new Update()
+                .set("status", ProcessingJobStatus.FAILED)
+                .set("error", error)
+                .set("updatedDate", new Date());
+        return mongoOperations.updateMulti(query, update, ProcessingJobEntity.class)
+                .map(result -> result.getModifiedCount());
+    }
+
+    @Override
+    public Mono<ProcessingJob> delete(String id) {
+        return processingJobDao.findById(id)
+                .flatMap(existing -> processingJobDao.delete(existing).thenReturn(existing))
+                .map(ProcessingJobEntity::toDomainObject);
+    }
+}
@@ -0,0 +1,120 @@
+package tech.jmcs.floortech.detailing.infrastructure.scheduling;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import tech.jmcs.floortech.detailing.domain.service.BlockingIoScheduler;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Named, bounded scheduler for blocking filesystem and file processing calls.
+ * Tasks beyond the thread cap are queued up to the queued task cap, after which they are rejected.
+ * Queue depth, active tasks, completed and rejected task counts are published as metrics when a MeterRegistry
+ * is available.
+ */
+@Component
+public class BlockingIoSchedulerImpl implements BlockingIoScheduler {
+    static final Logger log = LoggerFactory.getLogger(BlockingIoSchedulerImpl.class);
+    public static final String SCHEDULER_NAME = "blocking-io";
+    private static final String METRIC_PREFIX = "detailing.blocking.io.";
+    private final Scheduler scheduler;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    @Autowired
+    public BlockingIoSchedulerImpl(@Value("${files.io.thread-cap:32}") int threadCap,
+                                   @Value("${files.io.queued-task-cap:1000}") int queuedTaskCap,
+                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        this(threadCap, queuedTaskCap);
+        meterRegistry.ifAvailable(registry -> bindMetrics(registry, threadCap, queuedTaskCap));
+    }
+
+    public BlockingIoSchedulerImpl(int threadCap, int queuedTaskCap) {
+        this.scheduler = Schedulers.newBoundedElastic(threadCap, queuedTaskCap, SCHEDULER_NAME);
+        log.info("Blocking I/O scheduler created: threadCap={}, queuedTaskCap={}", threadCap, queuedTaskCap);
+    }
+
+    @PreDestroy
+    private void dispose() {
+        scheduler.dispose();
+    }
+
+    @Override
+    public Scheduler scheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Runs the callable on the blocking I/O scheduler
+     * @param callable
+     * @return Mono of the callable result, empty if the result is null
+     * @param <T>
+     */
+    @Override
+    public <T> Mono<T> fromCallable(Callable<T> callable) {
+        return Mono.defer(() -> {
+            var pending = new AtomicBoolean(true);
+            queued.incrementAndGet();
+            return Mono
+                    .fromCallable(() -> {
+                        leaveQueue(pending);
+                        active.incrementAndGet();
+                        try {
+                            return callable.call();
+                        } finally {
+                            active.decrementAndGet();
+                            completed.incrementAndGet();
+                        }
+                    })
+                    .subscribeOn(scheduler)
+                    .doOnError(RejectedExecutionException.class, e -> {
+                        rejected.incrementAndGet();
+                        log.warn("Blocking I/O task rejected, scheduler is saturated (queued={}, active={})", queued.get(), active.get());
+                    })
+                    .doFinally(signalType -> leaveQueue(pending));
+        });
+    }
+
+    // <editor-fold desc="Instance Helper methods">
+    private void leaveQueue(AtomicBoolean pending) {
+        if (pending.compareAndSet(true, false)) {
+            queued.decrementAndGet();
+        }
+    }
+
+    private void bindMetrics(MeterRegistry registry, int threadCap, int queuedTaskCap) {
+        Gauge.builder(METRIC_PREFIX + "queued", queued, AtomicInteger::get)
+                .description("Blocking I/O tasks waiting for a thread")
+                .register(registry);
+        Gauge.builder(METRIC_PREFIX + "active", active, AtomicInteger::get)
+                .description("Blocking I/O tasks currently running")
+                .register(registry);
+        Gauge.builder(METRIC_PREFIX + "thread.cap", () -> threadCap)
+                .register(registry);
+        Gauge.builder(METRIC_PREFIX + "queued.cap", () -> queuedTaskCap)
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + "completed", completed, AtomicLong::get)
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + "rejected", rejected, AtomicLong::get)
+                .description("Blocking I/O tasks rejected because the queue was full")
+                .register(registry);
+    }
+    // </editor-fold>
+}
@@ -34,8 +34,15 @@ public class Routing {
                         path("/detailing-files"),
                         RouterFunctions
                                 .route(POST("/submit/for/{claimId}").and(accept(MediaType.APPLICATION_JSON)), detailingFileSetHandlers::handleSubmitFileSet)
+                                .andRoute(POST("/upload-session/for/{claimId}").and(accept(MediaType.APPLICATION_JSON)), detailingFileSetHandlers::handleCreateUploadSession)
+                                .andRoute(GET("/upload-session/{sessionId}").and(accept(MediaType.APPLICATION_JSON)), detailingFileSetHandlers::handleGetUploadSession)
+                                .andRoute(PUT("/upload-session/{sessionId}/chunk/{index}"), detailingFileSetHandlers::handleUploadChunk)
+                                .andRoute(POST("/upload-session/{sessionId}/commit").and(accept(MediaType.APPLICATION_JSON)), detailingFileSetHandlers::handleCommitUploadSession)
+                                .andRoute(DELETE("/upload-session/{sessionId}").and(accept(MediaType.APPLICATION_JSON)), detailingFileSetHandlers::handleAbortUploadSession)
                                 .andRoute(GET("/process-file-set/{fileSetId}/of/{claimId}").and(accept(MediaType.APPLICATION_JSON)), detailingFileSetHandlers::handleProcessFileSet)
-                                .andRoute(GET("/get-zip/{fileSetId}/of/{claimId}").and(accept(MediaType.APPLICATION_JSON)), detailingFileSetHandlers::handleRetrieveFileSetAsZip)
+                                .andRoute(POST("/process-file-set/{fileSetId}/of/{claimId}").and(accept(MediaType.APPLICATION_JSON)), detailingFileSetHandlers::handleSubmitProcessFileSet)
+                                .andRoute(GET("/process-job/{jobId}").and(accept(MediaType.APPLICATION_JSON)), detailingFileSetHandlers::handleGetProcessingJob)
+                                .andRoute(GET("/get-zip/{fileSetId}/of/{claimId}"), detailingFileSetHandlers::handleRetrieveFileSetAsZip)
                                 .andRoute(GET("/get-all-sets/for-job/{jobId}").and(accept(MediaType.APPLICATION_JSON)), detailingFileSetHandlers::handleRetrieveAllJobFileSets)
                 );
     }
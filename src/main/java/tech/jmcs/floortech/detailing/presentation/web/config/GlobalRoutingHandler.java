@@ -1,5 +1,6 @@
 package tech.jmcs.floortech.detailing.presentation.web.config;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.web.reactive.function.BodyInserters;
@@ -7,9 +8,24 @@ import org.springframework.web.reactive.function.server.ServerResponse;
 import reactor.core.publisher.Mono;
 import tech.jmcs.floortech.detailing.presentation.web.error.ErrorDto;
 
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
 public interface GlobalRoutingHandler {
     /**
-     * Helper method for generic request processing and error handling
+     * Format of claim dates in routes, with the milliseconds so the claim is matched exactly
+     */
+    String CLAIMED_DATE_FORMAT = "dd-MM-yyyy_HH:mm:ss.SSSZ";
+    /**
+     * Format of claim dates in routes before the milliseconds were added, still accepted
+     */
+    String SECONDS_CLAIMED_DATE_FORMAT = "dd-MM-yyyy_hh:mm:ssZ";
+
+    /**
+     * Helper method for generic request processing and error handling.
+     * A claim that was changed by another request while it was being saved is a conflict (409), other errors are
+     * internal server errors (500)
       * @param action
      * @param httpStatus
      * @return
@@ -23,10 +39,34 @@ public interface GlobalRoutingHandler {
                         .body(BodyInserters.fromValue(result))
                 )
                 .onErrorResume(error -> ServerResponse
-                        .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .status(errorStatus(error))
                         .contentType(MediaType.APPLICATION_JSON)
                         .body(BodyInserters.fromValue(new ErrorDto(error.getMessage())))
                 );
     }
 
+    /**
+     * @param error
+     * @return status of the error response of a request
+     */
+    static HttpStatus errorStatus(Throwable error) {
+        if (error instanceof OptimisticLockingFailureException) {
+            return HttpStatus.CONFLICT;
+        }
+        return HttpStatus.INTERNAL_SERVER_ERROR;
+    }
+
+    /**
+     * Parses a claim date given in a route, in the claimed date format or the earlier format with second precision
+     * @param dateStr
+     * @return
+     * @throws ParseException
+     */
+    static Date parseClaimedDate(String dateStr) throws ParseException { // TODO: Move date format to global date formatting with Spring
+        try {
+            return new SimpleDateFormat(CLAIMED_DATE_FORMAT).parse(dateStr);
+        } catch (ParseException e) {
+            return new SimpleDateFormat(SECONDS_CLAIMED_DATE_FORMAT).parse(dateStr);
+        }
+    }
 }
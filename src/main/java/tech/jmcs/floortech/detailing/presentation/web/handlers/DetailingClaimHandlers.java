@@ -3,26 +3,31 @@ package tech.jmcs.floortech.detailing.presentation.web.handlers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
 import reactor.core.publisher.Mono;
 import tech.jmcs.floortech.detailing.app.service.DetailingClaimService;
 import tech.jmcs.floortech.detailing.app.dto.GetDetailingClaimDto;
+import tech.jmcs.floortech.detailing.app.dto.GetDetailingClaimSummaryDto;
+import tech.jmcs.floortech.detailing.domain.configs.CursorPage;
+import tech.jmcs.floortech.detailing.domain.configs.PageCursor;
 import tech.jmcs.floortech.detailing.presentation.web.config.GlobalRoutingHandler;
+import tech.jmcs.floortech.detailing.presentation.web.error.ErrorDto;
 
 import java.security.Principal;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Optional;
+import java.util.function.BiFunction;
 
 @Component
 public class DetailingClaimHandlers {
     static final Logger log = LoggerFactory.getLogger(DetailingClaimHandlers.class);
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
     final DetailingClaimService detailingClaimService;
     @Autowired
     public DetailingClaimHandlers(DetailingClaimService detailingClaimService) {
@@ -48,10 +53,8 @@ public class DetailingClaimHandlers {
         var claimedByUsername = serverRequest.pathVariable("user");
         var dateStr = serverRequest.pathVariable("claimedDate");
 
-        var sdf = new SimpleDateFormat("dd-MM-yyyy_hh:mm:ssZ"); // TODO: Move date format to global date formatting with Spring
-
         try {
-            var date = sdf.parse(dateStr);
+            var date = GlobalRoutingHandler.parseClaimedDate(dateStr);
             log.info("Looking up claim: {} + {} + {}", jobId, claimedByUsername, date);
             return GlobalRoutingHandler.doRequest(detailingClaimService.getDetailingClaim(jobId, claimedByUsername, date), HttpStatus.OK);
         } catch (ParseException e) {
@@ -61,12 +64,9 @@ public class DetailingClaimHandlers {
     }
 
     public Mono<ServerResponse> handleLookupAllActiveClaims(ServerRequest serverRequest) {
-        var paging = createPagingRequest(serverRequest.queryParam("page"), serverRequest.queryParam("size"))
-                .orElse(PageRequest.of(0, 50));
-        return ServerResponse
-                .status(HttpStatus.OK)
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(detailingClaimService.getAllActiveClaims(paging), GetDetailingClaimDto.class);
+        return claimListResponse(serverRequest,
+                detailingClaimService::getAllActiveClaims,
+                detailingClaimService::getAllActiveClaimSummaries);
     }
 
     public Mono<ServerResponse> handleReleaseDetailingClaim(ServerRequest serverRequest) {
@@ -102,25 +102,19 @@ public class DetailingClaimHandlers {
     }
 
     public Mono<ServerResponse> handleLookupClaimsForUser(ServerRequest serverRequest) {
-        var paging = createPagingRequest(serverRequest.queryParam("page"), serverRequest.queryParam("size"))
-                .orElse(PageRequest.of(0, 50));
         var username = serverRequest.pathVariable("username");
-        return ServerResponse
-                .status(HttpStatus.OK)
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(detailingClaimService.getAllClaimsByStaffUsernameAndActive(username, paging), GetDetailingClaimDto.class);
+        return claimListResponse(serverRequest,
+                (after, size) -> detailingClaimService.getAllClaimsByStaffUsernameAndActive(username, after, size),
+                (after, size) -> detailingClaimService.getAllClaimSummariesByStaffUsernameAndActive(username, after, size));
     }
 
     public Mono<ServerResponse> handleLookupMyClaims(ServerRequest serverRequest) {
-        var paging = createPagingRequest(serverRequest.queryParam("page"), serverRequest.queryParam("size"))
-                .orElse(PageRequest.of(0, 50));
         return serverRequest.principal()
                 .map(Principal::getName)
                         .doOnNext(username -> log.info("User {} is looking up their claims", username))
-                .flatMap(username -> ServerResponse
-                        .status(HttpStatus.OK)
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .body(detailingClaimService.getAllClaimsByStaffUsernameAndActive(username, paging), GetDetailingClaimDto.class)
+                .flatMap(username -> claimListResponse(serverRequest,
+                        (after, size) -> detailingClaimService.getAllClaimsByStaffUsernameAndActive(username, after, size),
+                        (after, size) -> detailingClaimService.getAllClaimSummariesByStaffUsernameAndActive(username, after, size))
                 );
     }
 
@@ -129,17 +123,54 @@ public class DetailingClaimHandlers {
         return GlobalRoutingHandler.doRequest(detailingClaimService.getCurrentActiveClaimByJobId(jobId), HttpStatus.OK);
     }
 
-    private Optional<PageRequest> createPagingRequest(Optional<String> page, Optional<String> size) {
-        if (page.isEmpty() || size.isEmpty()) return Optional.empty();
-        var pageNum = 0;
-        var pageSize = 0;
+    /**
+     * Claim lists return claim summaries (without file sets), unless the full claims are requested with view=full.
+     * Lists are paged by cursor: the page is requested with the cursor and size query parameters, the cursor of the
+     * next page is returned in the X-Next-Cursor header (no header on the last page).
+     * @param serverRequest
+     * @param claims the full claims, by cursor and size
+     * @param summaries the claim summaries, by cursor and size
+     * @return
+     */
+    private Mono<ServerResponse> claimListResponse(ServerRequest serverRequest,
+                                                   BiFunction<PageCursor, Integer, Mono<CursorPage<GetDetailingClaimDto>>> claims,
+                                                   BiFunction<PageCursor, Integer, Mono<CursorPage<GetDetailingClaimSummaryDto>>> summaries) {
+        PageCursor after;
         try {
-            pageNum = Integer.parseInt(page.get());
-        } catch (NumberFormatException ex) {}
+            after = serverRequest.queryParam("cursor").map(PageCursor::fromToken).orElse(null);
+        } catch (IllegalArgumentException e) {
+            return ServerResponse
+                    .status(HttpStatus.BAD_REQUEST)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(BodyInserters.fromValue(new ErrorDto(e.getMessage())));
+        }
+        var size = pageSize(serverRequest.queryParam("size"));
+        if (serverRequest.queryParam("view").filter("full"::equalsIgnoreCase).isPresent()) {
+            return claims.apply(after, size).flatMap(DetailingClaimHandlers::pageResponse);
+        }
+        return summaries.apply(after, size).flatMap(DetailingClaimHandlers::pageResponse);
+    }
+
+    private static Mono<ServerResponse> pageResponse(CursorPage<?> page) {
+        var response = ServerResponse
+                .status(HttpStatus.OK)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (page.next() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.next().toToken());
+        }
+        return response.body(BodyInserters.fromValue(page.items()));
+    }
+
+    /**
+     * @param size
+     * @return the requested page size, between 1 and the max page size, or the default page size
+     */
+    private static int pageSize(Optional<String> size) {
+        var pageSize = CursorPage.DEFAULT_SIZE;
         try {
-            pageSize = Integer.parseInt(size.get());
+            pageSize = size.map(Integer::parseInt).orElse(CursorPage.DEFAULT_SIZE);
         } catch (NumberFormatException ex) {}
-        return Optional.of(PageRequest.of(pageNum, pageSize));
+        return Math.min(Math.max(pageSize, 1), CursorPage.MAX_SIZE);
     }
 
 }
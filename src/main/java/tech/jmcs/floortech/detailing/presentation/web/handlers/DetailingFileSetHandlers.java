@@ -2,42 +2,130 @@ package tech.jmcs.floortech.detailing.presentation.web.handlers;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.http.codec.multipart.PartEvent;
 import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyExtractors;
+import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
 import reactor.core.publisher.Mono;
 import tech.jmcs.floortech.detailing.app.service.DetailingFileService;
+import tech.jmcs.floortech.detailing.app.dto.CreateUploadSessionDto;
+import tech.jmcs.floortech.detailing.app.dto.GetFileDownloadDto;
 import tech.jmcs.floortech.detailing.app.dto.GetFileSetDto;
 import tech.jmcs.floortech.detailing.presentation.web.config.GlobalRoutingHandler;
 
-import java.awt.image.DataBuffer;
 import java.security.Principal;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 
 @Component
 public class DetailingFileSetHandlers {
     static final Logger log = LoggerFactory.getLogger(DetailingFileSetHandlers.class);
+    private static final MediaType ZIP_MEDIA_TYPE = MediaType.parseMediaType("application/zip");
+    private static final int DOWNLOAD_BUFFER_SIZE = 64 * 1024;
     final DetailingFileService detailingFileService;
+    final boolean streamingExtract;
 
-    public DetailingFileSetHandlers(DetailingFileService detailingFileService) {
+    public DetailingFileSetHandlers(DetailingFileService detailingFileService,
+                                    @Value("${files.ingest.streaming-extract:false}") boolean streamingExtract) {
         this.detailingFileService = detailingFileService;
+        this.streamingExtract = streamingExtract;
     }
 
+    /**
+     * Submit file set reading the multipart body as part events, so the archive is checked before it is written
+     * @param serverRequest
+     * @return
+     */
     public Mono<ServerResponse> handleSubmitFileSet(ServerRequest serverRequest) {
+        if (streamingExtract) {
+            return handleSubmitFileSetStreaming(serverRequest);
+        }
         var claimId = serverRequest.pathVariable("claimId");
-        var multipartFile = serverRequest.multipartData();
-        var filePartMono = multipartFile.map(map -> (FilePart) map.toSingleValueMap().get("file"));
+        var partEvents = serverRequest.bodyToFlux(PartEvent.class);
         var contentLength = serverRequest.headers().contentLength().orElse(-1L);
 
         return serverRequest.principal()
                 .map(Principal::getName)
                         .doOnNext(username -> log.info("User {} is submitting file set for detailing claim {}", username, claimId))
-                .flatMap(username -> GlobalRoutingHandler.doRequest(detailingFileService.submitDetailingFilesArchive(username, claimId, filePartMono, contentLength), HttpStatus.OK));
+                .flatMap(username -> GlobalRoutingHandler.doRequest(detailingFileService.submitDetailingFilesArchive(username, claimId, partEvents, contentLength), HttpStatus.OK));
+    }
+
+    /**
+     * Submit file set reading the multipart body as part events, so the archive is extracted while it arrives
+     * @param serverRequest
+     * @return
+     */
+    private Mono<ServerResponse> handleSubmitFileSetStreaming(ServerRequest serverRequest) {
+        var claimId = serverRequest.pathVariable("claimId");
+        var partEvents = serverRequest.bodyToFlux(PartEvent.class);
+        var contentLength = serverRequest.headers().contentLength().orElse(-1L);
+
+        return serverRequest.principal()
+                .map(Principal::getName)
+                        .doOnNext(username -> log.info("User {} is submitting file set for detailing claim {} (streaming)", username, claimId))
+                .flatMap(username -> GlobalRoutingHandler.doRequest(detailingFileService.submitDetailingFilesArchiveStreaming(username, claimId, partEvents, contentLength), HttpStatus.OK));
+    }
+
+    public Mono<ServerResponse> handleCreateUploadSession(ServerRequest serverRequest) {
+        var claimId = serverRequest.pathVariable("claimId");
+        var requestMono = serverRequest.bodyToMono(CreateUploadSessionDto.class);
+        return serverRequest.principal()
+                .map(Principal::getName)
+                        .doOnNext(username -> log.info("User {} is starting an upload session for detailing claim {}", username, claimId))
+                .flatMap(username -> GlobalRoutingHandler.doRequest(requestMono.flatMap(request -> detailingFileService.createUploadSession(username, claimId, request)), HttpStatus.CREATED));
+    }
+
+    public Mono<ServerResponse> handleGetUploadSession(ServerRequest serverRequest) {
+        var sessionId = serverRequest.pathVariable("sessionId");
+        return serverRequest.principal()
+                .map(Principal::getName)
+                .flatMap(username -> GlobalRoutingHandler.doRequest(detailingFileService.getUploadSession(username, sessionId), HttpStatus.OK));
+    }
+
+    /**
+     * Receives one chunk of an upload session as the raw request body
+     * @param serverRequest
+     * @return
+     */
+    public Mono<ServerResponse> handleUploadChunk(ServerRequest serverRequest) {
+        var sessionId = serverRequest.pathVariable("sessionId");
+        var indexStr = serverRequest.pathVariable("index");
+        var content = serverRequest.body(BodyExtractors.toDataBuffers());
+        try {
+            var index = Integer.parseInt(indexStr);
+            return serverRequest.principal()
+                    .map(Principal::getName)
+                            .doOnNext(username -> log.debug("User {} is uploading chunk {} of upload session {}", username, index, sessionId))
+                    .flatMap(username -> GlobalRoutingHandler.doRequest(detailingFileService.uploadChunk(username, sessionId, index, content), HttpStatus.OK));
+        } catch (NumberFormatException e) {
+            return Mono.error(new Exception("Bad chunk index"));
+        }
+    }
+
+    public Mono<ServerResponse> handleCommitUploadSession(ServerRequest serverRequest) {
+        var sessionId = serverRequest.pathVariable("sessionId");
+        return serverRequest.principal()
+                .map(Principal::getName)
+                        .doOnNext(username -> log.info("User {} is committing upload session {}", username, sessionId))
+                .flatMap(username -> GlobalRoutingHandler.doRequest(detailingFileService.commitUploadSession(username, sessionId), HttpStatus.OK));
+    }
+
+    public Mono<ServerResponse> handleAbortUploadSession(ServerRequest serverRequest) {
+        var sessionId = serverRequest.pathVariable("sessionId");
+        return serverRequest.principal()
+                .map(Principal::getName)
+                        .doOnNext(username -> log.info("User {} is aborting upload session {}", username, sessionId))
+                .flatMap(username -> GlobalRoutingHandler.doRequest(detailingFileService.abortUploadSession(username, sessionId), HttpStatus.OK));
     }
 
     public Mono<ServerResponse> handleProcessFileSet(ServerRequest serverRequest) {
@@ -49,23 +137,47 @@ public class DetailingFileSetHandlers {
                 .flatMap(username -> GlobalRoutingHandler.doRequest(detailingFileService.processFileSet(username, claimId, fileSetId), HttpStatus.OK));
     }
 
-    public Mono<ServerResponse> handleRetrieveFileSetAsZip(ServerRequest serverRequest) {
-//        var claimId = serverRequest.pathVariable("claimId");
+    /**
+     * Submits the processing of a file set as a background job, the job is then polled for its progress
+     * (handleGetProcessingJob)
+     * @param serverRequest
+     * @return
+     */
+    public Mono<ServerResponse> handleSubmitProcessFileSet(ServerRequest serverRequest) {
+        var claimId = serverRequest.pathVariable("claimId");
+        var fileSetId = serverRequest.pathVariable("fileSetId");
+        return serverRequest.principal()
+                .map(Principal::getName)
+                        .doOnNext(username -> log.info("User {} is submitting the processing of file set {} for detailing claim {}", username, fileSetId, claimId))
+                .flatMap(username -> GlobalRoutingHandler.doRequest(detailingFileService.submitProcessFileSet(username, claimId, fileSetId), HttpStatus.ACCEPTED));
+    }
+
+    public Mono<ServerResponse> handleGetProcessingJob(ServerRequest serverRequest) {
         var jobId = serverRequest.pathVariable("jobId");
+        return serverRequest.principal()
+                .map(Principal::getName)
+                .flatMap(username -> GlobalRoutingHandler.doRequest(detailingFileService.getProcessingJob(username, jobId), HttpStatus.OK));
+    }
+
+    /**
+     * Download the archive of a file set.  The archive is sent with zero-copy transfer and supports conditional
+     * (ETag / If-None-Match) and Range requests, so interrupted downloads can be resumed.
+     * @param serverRequest
+     * @return
+     */
+    public Mono<ServerResponse> handleRetrieveFileSetAsZip(ServerRequest serverRequest) {
+        var jobId = serverRequest.pathVariable("claimId");
         var fileSetId = serverRequest.pathVariable("fileSetId");
-        var dateStr = serverRequest.pathVariable("claimedDate");
+        var dateStr = serverRequest.queryParam("claimedDate").orElse("");
 
-        var sdf = new SimpleDateFormat("dd-MM-yyyy_hh:mm:ssZ"); // TODO: Move date format to global date formatting with Spring
         try {
-            var date = sdf.parse(dateStr);
+            var date = GlobalRoutingHandler.parseClaimedDate(dateStr);
             return serverRequest.principal()
                     .map(Principal::getName)
                     .doOnNext(username -> log.info("User {} retrieving detailing claim file set {} for {}", username, fileSetId, jobId))
-                    .flatMap(username -> ServerResponse
-                            .status(HttpStatus.OK)
-                            .contentType(MediaType.APPLICATION_JSON)
-                            .body(detailingFileService.getFileSetAsZip(username, jobId, date, fileSetId), DataBuffer.class)
-                    );
+                    .flatMap(username -> detailingFileService.getFileSetArchive(username, jobId, date, fileSetId))
+                    .flatMap(download -> serverRequest.checkNotModified(download.eTag())
+                            .switchIfEmpty(Mono.defer(() -> writeFileDownload(serverRequest, download))));
         } catch (ParseException e) {
             return Mono.error(new Exception("Bad date format"));
         }
@@ -82,4 +194,30 @@ public class DetailingFileSetHandlers {
                         .body(detailingFileService.getAllFileSetsForJobId(jobId), GetFileSetDto.class)
                 );
     }
+
+    /**
+     * Writes a file download.  The FileSystemResource is written by the ResourceHttpMessageWriter, which uses
+     * zero-copy transfer and answers Range requests with 206 Partial Content.
+     * A Range request with an If-Range validator that no longer matches is answered with the full file.
+     * @param serverRequest
+     * @param download
+     * @return
+     */
+    private static Mono<ServerResponse> writeFileDownload(ServerRequest serverRequest, GetFileDownloadDto download) {
+        var contentDisposition = ContentDisposition.attachment().filename(download.filename()).build();
+        var responseBuilder = ServerResponse
+                .status(HttpStatus.OK)
+                .contentType(ZIP_MEDIA_TYPE)
+                .eTag(download.eTag())
+                .lastModified(download.lastModified())
+                .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition.toString());
+
+        var ifRange = serverRequest.headers().firstHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(download.eTag())) {
+            return responseBuilder
+                    .contentLength(download.contentLength())
+                    .body(DataBufferUtils.read(download.resource(), DefaultDataBufferFactory.sharedInstance, DOWNLOAD_BUFFER_SIZE), DataBuffer.class);
+        }
+        return responseBuilder.body(BodyInserters.fromResource(download.resource()));
+    }
 }
@@ -0,0 +1,172 @@
+package tech.jmcs.floortech.detailing.app.components;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import tech.jmcs.floortech.detailing.domain.configs.XPath;
+import tech.jmcs.floortech.detailing.domain.model.filedata.ColumnType;
+import tech.jmcs.floortech.detailing.domain.model.filedata.ExtractedDataRow;
+import tech.jmcs.floortech.detailing.domain.model.filedata.ExtractedDataTable;
+import tech.jmcs.floortech.detailing.domain.model.filedata.FileData;
+import tech.jmcs.floortech.detailing.domain.model.files.DetailingFile;
+import tech.jmcs.floortech.detailing.domain.service.exception.FileProcessorException;
+import tech.jmcs.floortech.detailing.domain.service.fileprocessing.FileProcessor;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static tech.jmcs.floortech.detailing.domain.model.filedata.FileDataFacade.*;
+
+public class CachingFileProcessorTests {
+    private static final Path STORAGE = Path.of("/storage");
+    private static final String CONTENT_HASH = "aa" + "0".repeat(62);
+
+    private FileProcessor fileProcessor;
+    private CachingFileProcessor cachingFileProcessor;
+
+    @BeforeEach
+    void setupForTests() throws FileProcessorException {
+        fileProcessor = Mockito.mock(FileProcessor.class);
+        given(fileProcessor.getVersion()).willReturn("1");
+        given(fileProcessor.processFileData(any(), any())).willAnswer(invocation -> fileData(invocation.getArgument(0), 3, 2));
+        cachingFileProcessor = createCachingFileProcessor(true);
+    }
+
+    @Test
+    public void shouldReuseDataOfFileWithSameContentHashAndExtension() throws FileProcessorException {
+        var first = file("first", CONTENT_HASH, "txt");
+        var second = file("second", CONTENT_HASH, "txt");
+
+        var firstData = cachingFileProcessor.processFileData(first, STORAGE);
+        var secondData = cachingFileProcessor.processFileData(second, STORAGE);
+
+        verify(fileProcessor, times(1)).processFileData(any(), any());
+        // a copy of the cached data for the file being processed
+        assertSame(second, toDetailingFile.apply(secondData));
+        assertNotEquals(toFileDataId.apply(firstData), toFileDataId.apply(secondData));
+        assertEquals(toExtractedData.apply(firstData).keySet(), toExtractedData.apply(secondData).keySet());
+    }
+
+    @Test
+    public void shouldProcessFileAgainWhenExtensionOrProcessorVersionDiffers() throws FileProcessorException {
+        cachingFileProcessor.processFileData(file("first", CONTENT_HASH, "txt"), STORAGE);
+        cachingFileProcessor.processFileData(file("second", CONTENT_HASH, "xls"), STORAGE);
+        verify(fileProcessor, times(2)).processFileData(any(), any());
+
+        given(fileProcessor.getVersion()).willReturn("2");
+        cachingFileProcessor.processFileData(file("third", CONTENT_HASH, "txt"), STORAGE);
+        verify(fileProcessor, times(3)).processFileData(any(), any());
+    }
+
+    @Test
+    public void shouldAlwaysProcessFileWithoutContentHash() throws FileProcessorException {
+        cachingFileProcessor.processFileData(file("first", null, "txt"), STORAGE);
+        cachingFileProcessor.processFileData(file("second", null, "txt"), STORAGE);
+
+        verify(fileProcessor, times(2)).processFileData(any(), any());
+        assertEquals(0, cachingFileProcessor.cache.estimatedSize());
+    }
+
+    @Test
+    public void shouldAlwaysProcessFileWhenCacheIsDisabled() throws FileProcessorException {
+        var uncached = createCachingFileProcessor(false);
+        uncached.processFileData(file("first", CONTENT_HASH, "txt"), STORAGE);
+        uncached.processFileData(file("second", CONTENT_HASH, "txt"), STORAGE);
+
+        verify(fileProcessor, times(2)).processFileData(any(), any());
+    }
+
+    @Test
+    public void shouldWeighDataByExtractedRowsAndLines() throws FileProcessorException {
+        cachingFileProcessor.processFileData(file("first", CONTENT_HASH, "txt"), STORAGE);
+
+        // one for the data, one per extracted row and one per line
+        assertEquals(1 + 3 + 2, weightedSize());
+    }
+
+    @Test
+    public void shouldWeighTableByValuesAndLines() throws FileProcessorException {
+        willAnswer(invocation -> {
+            var fileData = fileData(invocation.getArgument(0), 0, 2);
+            var table = ExtractedDataTable.builder(fileData, new String[]{"id", "qty", "len"}, new ColumnType[]{ColumnType.TEXT, ColumnType.INT, ColumnType.LENGTH_MM}, "id")
+                    .row(new String[]{"B01", "1", "1504"})
+                    .row(new String[]{"B02", "2", "1266"})
+                    .build();
+            return fileData.withExtractedTable(table);
+        }).given(fileProcessor).processFileData(any(), any());
+        cachingFileProcessor.processFileData(file("first", CONTENT_HASH, "txt"), STORAGE);
+
+        // one for the data, one per value of the table (rows by keys) and one per line
+        assertEquals(1 + 2 * 3 + 2, weightedSize());
+    }
+
+    // <editor-fold desc="Helper methods">
+    @SuppressWarnings("unchecked")
+    private CachingFileProcessor createCachingFileProcessor(boolean enabled) {
+        var meterRegistry = (ObjectProvider<MeterRegistry>) Mockito.mock(ObjectProvider.class);
+        return new CachingFileProcessor(fileProcessor, enabled, 1000, Duration.ofHours(1), meterRegistry);
+    }
+
+    private long weightedSize() {
+        // the weight of a put is added by the cache maintenance, which may not have run yet
+        cachingFileProcessor.cache.cleanUp();
+        return cachingFileProcessor.cache.policy().eviction().orElseThrow().weightedSize().orElseThrow();
+    }
+
+    /**
+     * @param name
+     * @param contentHash null for a file without content hash
+     * @param extension
+     * @return unprocessed file of a file set
+     */
+    private static DetailingFile file(String name, String contentHash, String extension) {
+        var filename = name + "." + extension;
+        return DetailingFile.builder(filename, XPath.relative("/a/b/c/" + filename), filename, extension)
+                .id(UUID.randomUUID().toString())
+                .isProcessed(false)
+                .contentHash(contentHash)
+                .build();
+    }
+
+    /**
+     * @param detailingFile
+     * @param rowCount
+     * @param lineCount
+     * @return data extracted from the file, the rows are not in a table
+     */
+    private static FileData fileData(DetailingFile detailingFile, int rowCount, int lineCount) {
+        var lines = new HashMap<Integer, String>();
+        for (int line = 0; line < lineCount; line++) {
+            lines.put(line, "line " + line);
+        }
+        var fileData = FileData.builder(UUID.randomUUID().toString(), detailingFile)
+                .lines(lines)
+                .build();
+        var rows = new HashMap<String, ExtractedDataRow>();
+        for (int row = 1; row <= rowCount; row++) {
+            var itemId = "B0" + row;
+            rows.put(itemId, ExtractedDataRow.builder()
+                    .id(UUID.randomUUID().toString())
+                    .row(row)
+                    .itemId(itemId)
+                    .parent(fileData)
+                    .data(Map.of("id", itemId, "len", "1000"))
+                    .build());
+        }
+        return fileData.withExtractedData(rows);
+    }
+    // </editor-fold>
+}
@@ -0,0 +1,79 @@
+package tech.jmcs.floortech.detailing.app.components.fileprocessing;
+
+import tech.jmcs.floortech.detailing.domain.configs.XPath;
+import tech.jmcs.floortech.detailing.domain.model.filedata.ExtractedDataRowFacade;
+import tech.jmcs.floortech.detailing.domain.model.filedata.FileData;
+import tech.jmcs.floortech.detailing.domain.model.filedata.FileDataFacade;
+import tech.jmcs.floortech.detailing.domain.model.files.DetailingFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Schedules of the jobfiles.zip test archive, with the rows extracted from them before the table processors bound
+ * their columns once per table (fileprocessing/*.tsv, one row per line: item id, then key=value pairs sorted by key,
+ * tab separated).  jobfiles2.zip has no schedules and is not used.
+ */
+final class JobFileSchedules {
+    static final Map<String, String> EXPECTED_ROWS = Map.of(
+            "Beam Listing.txt", "fileprocessing/beam-listing.tsv",
+            "260MM TRUSS LISTING.txt", "fileprocessing/truss-listing.tsv",
+            "SHEETS.txt", "fileprocessing/sheets.tsv"
+    );
+
+    private JobFileSchedules() {
+    }
+
+    /**
+     * Extracts the text schedules of jobfiles.zip
+     * @param folder
+     * @throws IOException
+     */
+    static void extractTo(Path folder) throws IOException {
+        try (var zip = new ZipInputStream(JobFileSchedules.class.getClassLoader().getResourceAsStream("jobfiles.zip"))) {
+            for (var entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                if (EXPECTED_ROWS.containsKey(entry.getName())) {
+                    Files.copy(zip, folder.resolve(entry.getName()));
+                }
+            }
+        }
+    }
+
+    static DetailingFile unprocessedFile(String filename) {
+        return DetailingFile.createUnprocessedDetailingFile(XPath.relative(filename), filename);
+    }
+
+    /**
+     * @param fileData
+     * @return extracted rows in row order, formatted as the expected rows
+     */
+    static List<String> extractedRows(FileData fileData) {
+        var rows = new ArrayList<>(FileDataFacade.toExtractedData.apply(fileData).values());
+        rows.sort(Comparator.comparing(ExtractedDataRowFacade.toRow));
+        return rows.stream()
+                .map(row -> {
+                    var line = new StringBuilder(ExtractedDataRowFacade.toItemId.apply(row));
+                    new TreeMap<>(ExtractedDataRowFacade.toData.apply(row))
+                            .forEach((key, value) -> line.append('\t').append(key).append('=').append(value));
+                    return line.toString();
+                })
+                .toList();
+    }
+
+    static List<String> expectedRows(String schedule) throws IOException {
+        var resource = JobFileSchedules.class.getClassLoader().getResourceAsStream(EXPECTED_ROWS.get(schedule));
+        try (var reader = new BufferedReader(new InputStreamReader(resource, StandardCharsets.UTF_8))) {
+            return reader.lines().toList();
+        }
+    }
+}
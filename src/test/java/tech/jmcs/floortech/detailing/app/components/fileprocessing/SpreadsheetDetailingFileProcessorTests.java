@@ -0,0 +1,93 @@
+package tech.jmcs.floortech.detailing.app.components.fileprocessing;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tech.jmcs.floortech.detailing.domain.service.exception.FileProcessorException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+public class SpreadsheetDetailingFileProcessorTests {
+    @TempDir
+    static Path storage;
+    private final SpreadsheetDetailingFileProcessor processor = new SpreadsheetDetailingFileProcessor(storage, new TableProcessorRegistry());
+
+    @BeforeAll
+    static void extractSchedules() throws IOException {
+        JobFileSchedules.extractTo(storage);
+    }
+
+    @Test
+    public void shouldExtractSameRowsFromXlsAsFromTextSchedule() throws IOException, FileProcessorException {
+        for (var schedule : JobFileSchedules.EXPECTED_ROWS.keySet()) {
+            var workbook = writeWorkbook(schedule, "xls", HSSFWorkbook::new);
+            assertEquals(schedule, JobFileSchedules.expectedRows(schedule), extractedRows(workbook));
+        }
+    }
+
+    @Test
+    public void shouldExtractSameRowsFromXlsxAsFromTextSchedule() throws IOException, FileProcessorException {
+        for (var schedule : JobFileSchedules.EXPECTED_ROWS.keySet()) {
+            var workbook = writeWorkbook(schedule, "xlsx", XSSFWorkbook::new);
+            assertEquals(schedule, JobFileSchedules.expectedRows(schedule), extractedRows(workbook));
+        }
+    }
+
+    @Test
+    public void shouldRejectSpreadsheetThatIsNotRecognized() throws IOException {
+        var workbook = storage.resolve("unknown.xlsx");
+        try (var out = Files.newOutputStream(workbook); var xssf = new XSSFWorkbook()) {
+            var sheet = xssf.createSheet();
+            sheet.createRow(0).createCell(0).setCellValue("DOOR SCHEDULE");
+            sheet.createRow(1).createCell(0).setCellValue("Door");
+            xssf.write(out);
+        }
+
+        assertThrows(FileProcessorException.class, () -> extractedRows(workbook.getFileName().toString()));
+    }
+
+    // <editor-fold desc="Helper methods">
+    /**
+     * Writes the lines of a text schedule to the first sheet of a workbook, one cell per tab separated value, as a
+     * schedule exported to a spreadsheet (empty values are left without a cell)
+     * @param schedule
+     * @param extension
+     * @param workbookFactory
+     * @return filename of the workbook in the storage folder
+     * @throws IOException
+     */
+    private static String writeWorkbook(String schedule, String extension, Supplier<Workbook> workbookFactory) throws IOException {
+        var filename = schedule.replace(".txt", "." + extension);
+        try (var out = Files.newOutputStream(storage.resolve(filename)); var workbook = workbookFactory.get()) {
+            var sheet = workbook.createSheet();
+            var lines = Files.readAllLines(storage.resolve(schedule), StandardCharsets.UTF_8);
+            for (int r = 0; r < lines.size(); r++) {
+                var row = sheet.createRow(r);
+                var values = lines.get(r).split("\t");
+                for (int c = 0; c < values.length; c++) {
+                    if (!values[c].isEmpty()) {
+                        row.createCell(c).setCellValue(values[c]);
+                    }
+                }
+            }
+            workbook.write(out);
+        }
+        return filename;
+    }
+
+    private List<String> extractedRows(String filename) throws FileProcessorException {
+        return JobFileSchedules.extractedRows(processor.processFile(JobFileSchedules.unprocessedFile(filename)));
+    }
+    // </editor-fold>
+}
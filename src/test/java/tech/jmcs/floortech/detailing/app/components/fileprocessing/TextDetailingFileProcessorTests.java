@@ -0,0 +1,53 @@
+package tech.jmcs.floortech.detailing.app.components.fileprocessing;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tech.jmcs.floortech.detailing.domain.service.exception.FileProcessorException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class TextDetailingFileProcessorTests {
+    @TempDir
+    static Path storage;
+
+    @BeforeAll
+    static void extractSchedules() throws IOException {
+        JobFileSchedules.extractTo(storage);
+    }
+
+    @Test
+    public void shouldExtractSameRowsWithMappedAndLineReader() throws FileProcessorException {
+        var mapped = new TextDetailingFileProcessor(storage, true, new TableProcessorRegistry());
+        var lines = new TextDetailingFileProcessor(storage, false, new TableProcessorRegistry());
+
+        for (var schedule : JobFileSchedules.EXPECTED_ROWS.keySet()) {
+            var mappedRows = extractedRows(mapped, schedule);
+            assertFalse(schedule, mappedRows.isEmpty());
+            assertEquals(schedule, mappedRows, extractedRows(lines, schedule));
+        }
+    }
+
+    @Test
+    public void shouldExtractSameRowsAsBeforeColumnsWereBoundPerTable() throws FileProcessorException, IOException {
+        var mapped = new TextDetailingFileProcessor(storage, true, new TableProcessorRegistry());
+        var lines = new TextDetailingFileProcessor(storage, false, new TableProcessorRegistry());
+
+        for (var schedule : JobFileSchedules.EXPECTED_ROWS.keySet()) {
+            var expected = JobFileSchedules.expectedRows(schedule);
+            assertEquals(schedule, expected, extractedRows(mapped, schedule));
+            assertEquals(schedule, expected, extractedRows(lines, schedule));
+        }
+    }
+
+    // <editor-fold desc="Helper methods">
+    private static List<String> extractedRows(TextDetailingFileProcessor processor, String schedule) throws FileProcessorException {
+        return JobFileSchedules.extractedRows(processor.processFile(JobFileSchedules.unprocessedFile(schedule)));
+    }
+    // </editor-fold>
+}
@@ -5,7 +5,6 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.stubbing.Answer;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.testcontainers.shaded.com.fasterxml.jackson.core.JsonProcessingException;
 import org.testcontainers.shaded.com.fasterxml.jackson.databind.ObjectMapper;
@@ -17,11 +16,15 @@ import tech.jmcs.floortech.common.dto.BuilderClientDto;
 import tech.jmcs.floortech.common.dto.EngineerDto;
 import tech.jmcs.floortech.common.dto.FloortechJobDto;
 import tech.jmcs.floortech.detailing.app.dto.GetDetailingClaimDto;
+import tech.jmcs.floortech.detailing.app.dto.GetDetailingClaimSummaryDto;
 import tech.jmcs.floortech.detailing.app.dto.mapper.DetailingClaimDtoMapper;
 import tech.jmcs.floortech.detailing.app.service.exception.DetailingClaimServiceException;
+import tech.jmcs.floortech.detailing.domain.configs.CursorPage;
 import tech.jmcs.floortech.detailing.domain.configs.DetailingStatus;
+import tech.jmcs.floortech.detailing.domain.configs.PageCursor;
 import tech.jmcs.floortech.detailing.domain.model.detailingclaim.DetailingClaim;
 import tech.jmcs.floortech.detailing.domain.model.detailingclaim.DetailingClaimFacade;
+import tech.jmcs.floortech.detailing.domain.model.detailingclaim.DetailingClaimSummary;
 import tech.jmcs.floortech.detailing.domain.repository.DetailingClaimRepository;
 import tech.jmcs.floortech.detailing.domain.service.FloortechJobDataService;
 import tech.jmcs.floortech.detailing.domain.service.RemoteLoggingService;
@@ -215,15 +218,36 @@ public class DetailingClaimServiceTests {
     @Test
     public void shouldGetClaims() {
         var detailingClaims = createListOfExampleClaims(10);
-        var paging = PageRequest.of(0, 5);
-        Mockito.when(detailingClaimRepository.findAllActive(paging)).thenReturn(Flux.fromIterable(detailingClaims).take(5));
+        var next = new PageCursor(new Date(), "CLAIM-0005");
+        Mockito.when(detailingClaimRepository.findAllActive(null, 5)).thenReturn(Mono.just(new CursorPage<>(detailingClaims.subList(0, 5), next)));
         for (DetailingClaim detailingClaim : detailingClaims) {
             Mockito.when(detailingClaimDtoMapper.toGetDto(detailingClaim)).thenReturn(writeGetDto(detailingClaim));
         }
 
-        var resultMono = detailingClaimService.getAllActiveClaims(paging);
+        var resultMono = detailingClaimService.getAllActiveClaims(null, 5);
         StepVerifier.create(resultMono)
-                .expectNextCount(5)
+                .consumeNextWith(page -> {
+                    assertEquals(5, page.items().size());
+                    assertEquals(next, page.next());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldGetClaimSummaries() {
+        var summaries = createListOfExampleSummaries(10, "testuser");
+        var after = new PageCursor(new Date(), "CLAIM-0005");
+        Mockito.when(detailingClaimRepository.findAllActiveSummaries(after, 5)).thenReturn(Mono.just(new CursorPage<>(summaries.subList(5, 10), null)));
+        for (DetailingClaimSummary summary : summaries) {
+            Mockito.when(detailingClaimDtoMapper.toGetSummaryDto(summary)).thenReturn(writeGetSummaryDto(summary));
+        }
+
+        var resultMono = detailingClaimService.getAllActiveClaimSummaries(after, 5);
+        StepVerifier.create(resultMono)
+                .consumeNextWith(page -> {
+                    assertEquals(5, page.items().size());
+                    assertEquals(null, page.next());
+                })
                 .verifyComplete();
     }
 
@@ -244,7 +268,7 @@ public class DetailingClaimServiceTests {
             System.out.println("Used the composite ID to lookup claim");
             return Mono.empty();
         });
-        Mockito.when(detailingClaimRepository.save(cancelledClaim)).thenReturn(Mono.just(cancelledClaim));
+        Mockito.when(detailingClaimRepository.saveStatus(cancelledClaim)).thenReturn(Mono.just(cancelledClaim));
         Mockito.when(detailingClaimDtoMapper.toGetDto(cancelledClaim)).thenReturn(cancelledClaimDto);
 
         var resultMono2 = detailingClaimService.releaseDetailingClaim(claimedByUsername, jobId);
@@ -282,7 +306,7 @@ public class DetailingClaimServiceTests {
         var pausedClaimDto = writeGetDto(pausedClaim);
 
         Mockito.when(detailingClaimRepository.findActiveClaim(jobId, username)).thenReturn(Mono.just(existingJobClaim));
-        Mockito.when(detailingClaimRepository.save(pausedClaim)).thenReturn(Mono.just(pausedClaim));
+        Mockito.when(detailingClaimRepository.saveStatus(pausedClaim)).thenReturn(Mono.just(pausedClaim));
         Mockito.when(detailingClaimDtoMapper.toGetDto(pausedClaim)).thenReturn(pausedClaimDto);
         var resultMono = detailingClaimService.pauseDetailingClaim(username, jobId);
         StepVerifier.create(resultMono)
@@ -319,7 +343,7 @@ public class DetailingClaimServiceTests {
         var jobId = toJobId.apply(existingJobClaim);
 
         Mockito.when(detailingClaimRepository.findPausedClaim(jobId, username)).then((Answer<Mono<DetailingClaim>>) invocationOnMock -> Mono.just(existingJobClaim));
-        Mockito.when(detailingClaimRepository.save(resumedClaim)).thenReturn(Mono.just(resumedClaim));
+        Mockito.when(detailingClaimRepository.saveStatus(resumedClaim)).thenReturn(Mono.just(resumedClaim));
         Mockito.when(detailingClaimDtoMapper.toGetDto(resumedClaim)).thenReturn(writeGetDto(resumedClaim));
 
         var resultMono2 = detailingClaimService.resumeDetailingClaim(username, jobId);
@@ -351,27 +375,46 @@ public class DetailingClaimServiceTests {
     @Test
     public void shouldGetClaimsByUsername() {
         var username = "testuser";
-        var paging = PageRequest.of(0, 2);
         var exampleClaims = createListOfExampleClaims(5, username);
-        Mockito.when(detailingClaimRepository.findAllByStaffUsernameAndActive(username, paging)).thenReturn(Flux.fromIterable(exampleClaims).take(2));
+        Mockito.when(detailingClaimRepository.findAllByStaffUsernameAndActive(username, null, 2)).thenReturn(Mono.just(new CursorPage<>(exampleClaims.subList(0, 2), null)));
         for (DetailingClaim detailingClaim : exampleClaims) {
             Mockito.when(detailingClaimDtoMapper.toGetDto(detailingClaim)).thenReturn(writeGetDto(detailingClaim));
         }
-        var resultMono = detailingClaimService.getAllClaimsByStaffUsernameAndActive(username, paging);
+        var resultMono = detailingClaimService.getAllClaimsByStaffUsernameAndActive(username, null, 2);
         StepVerifier.create(resultMono)
-                .consumeNextWith(dto -> assertEquals(true, dto.claimedByStaffUsername().equals(username)))
-                .consumeNextWith(dto -> assertEquals(true, dto.claimedByStaffUsername().equals(username)))
+                .consumeNextWith(page -> {
+                    assertEquals(2, page.items().size());
+                    page.items().forEach(dto -> assertEquals(true, dto.claimedByStaffUsername().equals(username)));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldGetClaimSummariesByUsername() {
+        var username = "testuser";
+        var summaries = createListOfExampleSummaries(5, username);
+        Mockito.when(detailingClaimRepository.findAllSummariesByStaffUsernameAndActive(username, null, 2)).thenReturn(Mono.just(new CursorPage<>(summaries.subList(0, 2), null)));
+        for (DetailingClaimSummary summary : summaries) {
+            Mockito.when(detailingClaimDtoMapper.toGetSummaryDto(summary)).thenReturn(writeGetSummaryDto(summary));
+        }
+        var resultMono = detailingClaimService.getAllClaimSummariesByStaffUsernameAndActive(username, null, 2);
+        StepVerifier.create(resultMono)
+                .consumeNextWith(page -> {
+                    assertEquals(2, page.items().size());
+                    assertEquals(username, page.items().get(0).claimedByStaffUsername());
+                    assertEquals(1, page.items().get(0).fileSetCount());
+                })
                 .verifyComplete();
     }
 
     @Test
     public void shouldNotFindAnyClaimsByUsername() {
         var username = "testuser";
-        var paging = PageRequest.of(0, 50);
-        Mockito.when(detailingClaimRepository.findAllByStaffUsernameAndActive(username, paging)).thenReturn(Flux.empty());
+        Mockito.when(detailingClaimRepository.findAllByStaffUsernameAndActive(username, null, 50)).thenReturn(Mono.just(new CursorPage<>(List.of(), null)));
         Mockito.when(detailingClaimDtoMapper.toGetDto(any(DetailingClaim.class))).thenReturn(null);
-        var resultMono = detailingClaimService.getAllClaimsByStaffUsernameAndActive(username, paging);
+        var resultMono = detailingClaimService.getAllClaimsByStaffUsernameAndActive(username, null, 50);
         StepVerifier.create(resultMono)
+                .consumeNextWith(page -> assertEquals(true, page.items().isEmpty()))
                 .expectComplete()
                 .verify();
     }
@@ -379,10 +422,10 @@ public class DetailingClaimServiceTests {
     @Test
     public void shouldNotFindAnyClaimsByUsername2() {
         var username = "testuser";
-        var paging = PageRequest.of(0, 50);
-        Mockito.when(detailingClaimRepository.findAllByStaffUsernameAndActive(username, paging)).thenReturn(Flux.empty());
-        var resultMono = detailingClaimService.getAllClaimsByStaffUsernameAndActive(username, paging);
+        Mockito.when(detailingClaimRepository.findAllByStaffUsernameAndActive(username, null, 50)).thenReturn(Mono.just(new CursorPage<>(List.of(), null)));
+        var resultMono = detailingClaimService.getAllClaimsByStaffUsernameAndActive(username, null, 50);
         StepVerifier.create(resultMono)
+                .consumeNextWith(page -> assertEquals(null, page.next()))
                 .expectComplete()
                 .verify();
     }
@@ -457,6 +500,21 @@ public class DetailingClaimServiceTests {
                 .verifyComplete();
     }
 
+    private GetDetailingClaimSummaryDto writeGetSummaryDto(DetailingClaimSummary summary) {
+        return new GetDetailingClaimSummaryDto(summary.jobId(), summary.floortechJobNumber(), summary.jobClientId(), summary.jobClientName(),
+                summary.jobEngineerId(), summary.jobEngineerName(), summary.claimedByStaffUsername(), summary.claimedByStaffId(),
+                summary.claimedAt(), summary.status(), summary.fileSetCount(), summary.fileCount());
+    }
+
+    private List<DetailingClaimSummary> createListOfExampleSummaries(int count, String username) {
+        var summaries = new ArrayList<DetailingClaimSummary>();
+        for (int i = 0; i < count; i++) {
+            summaries.add(new DetailingClaimSummary("JOB-000000" + i, 20000 + i, "CLIENT-0001", "Test Builders",
+                    "ENGINEER-0001", "Test Engineers", username, "STAFF-0001", new Date(), STARTED, 1, 5));
+        }
+        return summaries;
+    }
+
     private GetDetailingClaimDto writeGetDto(DetailingClaim detailingClaim) {
         var jobId = DetailingClaimFacade.toJobId.apply(detailingClaim);
         var jobNumber = DetailingClaimFacade.toJobNumber.apply(detailingClaim);
@@ -5,17 +5,17 @@ import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
-import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.http.codec.multipart.PartEvent;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 import tech.jmcs.floortech.common.helper.StringHelper;
@@ -108,7 +108,7 @@ public class DetailingFileServiceIntegrationTests implements MongoDBTestContaine
         var saved = detailingClaimDao.save(existingEntity).block();
         var claimId = saved.getId();
         var jobId = saved.getJobId();
-        var resultMono = detailingFileService.submitDetailingFilesArchive(currentUser, jobId, Mono.just(mockFilePart), 10000L);
+        var resultMono = detailingFileService.submitDetailingFilesArchive(currentUser, jobId, mockFilePart.toPartEvents(), 10000L);
         StepVerifier.create(resultMono)
                 .consumeNextWith(getFileSetDto -> {
                     System.out.println("File set id: " + getFileSetDto.id());
@@ -163,7 +163,7 @@ public class DetailingFileServiceIntegrationTests implements MongoDBTestContaine
         var saved = detailingClaimDao.save(existingEntity).block();
         var claimId = saved.getId();
         var jobId = saved.getJobId();
-        var resultMono = detailingFileService.submitDetailingFilesArchive(currentUser, jobId, Mono.just(mockFilePart), 10000L);
+        var resultMono = detailingFileService.submitDetailingFilesArchive(currentUser, jobId, mockFilePart.toPartEvents(), 10000L);
         StepVerifier.create(resultMono)
                 .consumeNextWith(getFileSetDto -> {
                     assertEquals(5, getFileSetDto.files().size());
@@ -207,7 +207,7 @@ public class DetailingFileServiceIntegrationTests implements MongoDBTestContaine
         var existingEntity = createExampleDetailingClaim(jobId, clientName, clientId, currentUser);
         var saved = detailingClaimDao.save(existingEntity).block();
         jobId = saved.getJobId();
-        var resultMono = detailingFileService.submitDetailingFilesArchive(currentUser, jobId, Mono.just(mockFilePart), 10000L);
+        var resultMono = detailingFileService.submitDetailingFilesArchive(currentUser, jobId, mockFilePart.toPartEvents(), 10000L);
 
         AtomicReference<String> createdFileSetId = new AtomicReference<>("");
         StepVerifier.create(resultMono)
@@ -345,8 +345,8 @@ public class DetailingFileServiceIntegrationTests implements MongoDBTestContaine
         var mockFilePart = new MockFilePartForTests("jobfiles.zip", mockMultipartFile);
 
         // submit two FileSets to the claim
-        var fileSetDto1 = detailingFileService.submitDetailingFilesArchive(currentUser, jobId, Mono.just(mockFilePart), 700300L).block();
-        var fileSetDto2 = detailingFileService.submitDetailingFilesArchive(currentUser, jobId, Mono.just(mockFilePart), 700300L).block();
+        var fileSetDto1 = detailingFileService.submitDetailingFilesArchive(currentUser, jobId, mockFilePart.toPartEvents(), 700300L).block();
+        var fileSetDto2 = detailingFileService.submitDetailingFilesArchive(currentUser, jobId, mockFilePart.toPartEvents(), 700300L).block();
 
         // retrieve fileset list
         var resultMono = detailingFileService.getFileSetListForJobClaim(jobId, currentUser, createdDate);
@@ -409,8 +409,8 @@ public class DetailingFileServiceIntegrationTests implements MongoDBTestContaine
         var mockFilePart2 = new MockFilePartForTests("jobfiles2.zip", mockMultipartFile2);
 
         // submit two FileSets to the claim
-        var fileSetDto1 = detailingFileService.submitDetailingFilesArchive(currentUser, jobId, Mono.just(mockFilePart), 700300L).block();
-        var fileSetDto2 = detailingFileService.submitDetailingFilesArchive(currentUser, jobId, Mono.just(mockFilePart2), 700300L).block();
+        var fileSetDto1 = detailingFileService.submitDetailingFilesArchive(currentUser, jobId, mockFilePart.toPartEvents(), 700300L).block();
+        var fileSetDto2 = detailingFileService.submitDetailingFilesArchive(currentUser, jobId, mockFilePart2.toPartEvents(), 700300L).block();
 
         var detailingClaim = detailingClaimDao.findByJobId(jobId).blockFirst();
         assertNotEquals(null, detailingClaim);
@@ -491,9 +491,9 @@ public class DetailingFileServiceIntegrationTests implements MongoDBTestContaine
         @Test
         @WithMockUser(username = "test_user", roles = {"FT_STAFF"}, authorities = {})
         public void mustNotSubmitDetailingFilesArchiveBecauseValidationFailure() {
-            var filePart = Mockito.mock(FilePart.class);
+            Flux<PartEvent> partEvents = Flux.empty();
 
-            Mono<GetFileSetDto> resultMono = detailingFileService.submitDetailingFilesArchive(null, "CLAIM-0001", Mono.just(filePart), 1000*1000*101L);
+            Mono<GetFileSetDto> resultMono = detailingFileService.submitDetailingFilesArchive(null, "CLAIM-0001", partEvents, 1000*1000*101L);
             StepVerifier.create(resultMono)
                     .consumeErrorWith(error -> {
                         assertEquals(ConstraintViolationException.class, error.getClass());
@@ -506,9 +506,9 @@ public class DetailingFileServiceIntegrationTests implements MongoDBTestContaine
         @WithMockUser(username = "test_user", roles = {"FT_STAFF"}, authorities = {})
         public void mustNotSubmitDetailingFilesArchiveBecauseValidationFailureContentLength() {
             String user = "test_user";
-            var filePart = Mockito.mock(FilePart.class);
+            Flux<PartEvent> partEvents = Flux.empty();
 
-            Mono<GetFileSetDto> resultMono = detailingFileService.submitDetailingFilesArchive(user, "CLAIM-0001", Mono.just(filePart), 1000*1000*201L);
+            Mono<GetFileSetDto> resultMono = detailingFileService.submitDetailingFilesArchive(user, "CLAIM-0001", partEvents, 1000*1000*201L);
             StepVerifier.create(resultMono)
                     .consumeErrorWith(error -> {
                         System.out.println(error.getMessage());
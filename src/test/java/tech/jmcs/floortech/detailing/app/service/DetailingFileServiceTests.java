@@ -1,12 +1,19 @@
 package tech.jmcs.floortech.detailing.app.service;
 
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
-import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.multipart.FilePartEvent;
+import org.springframework.http.codec.multipart.FormPartEvent;
+import org.springframework.http.codec.multipart.PartEvent;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 import tech.jmcs.floortech.common.helper.ArchiveContents;
@@ -15,30 +22,51 @@ import tech.jmcs.floortech.detailing.app.dto.GetFileDataDto;
 import tech.jmcs.floortech.detailing.app.dto.mapper.FileSetDtoMapper;
 import tech.jmcs.floortech.detailing.app.service.exception.DetailingFileServiceException;
 import tech.jmcs.floortech.detailing.infrastructure.files.storage.exception.FileStorageException;
+import tech.jmcs.floortech.detailing.domain.service.exception.FileProcessorException;
 import tech.jmcs.floortech.detailing.domain.service.exception.ZipFileStorageException;
+import tech.jmcs.floortech.detailing.domain.configs.DetailingStatus;
+import tech.jmcs.floortech.detailing.domain.configs.ProcessingJobStatus;
 import tech.jmcs.floortech.detailing.domain.configs.XPath;
 import tech.jmcs.floortech.detailing.domain.model.detailingclaim.DetailingClaim;
+import tech.jmcs.floortech.detailing.domain.model.filedata.FileData;
 import tech.jmcs.floortech.detailing.domain.model.files.DetailingFileFacade;
 import tech.jmcs.floortech.detailing.domain.repository.DetailingClaimRepository;
 import tech.jmcs.floortech.detailing.domain.model.files.DetailingFile;
 import tech.jmcs.floortech.detailing.domain.model.fileset.FileSet;
+import tech.jmcs.floortech.detailing.domain.model.processing.ProcessingJob;
+import tech.jmcs.floortech.detailing.domain.model.upload.UploadSession;
 import tech.jmcs.floortech.detailing.app.dto.GetFileSetDto;
 import tech.jmcs.floortech.detailing.domain.repository.FileSetRepository;
+import tech.jmcs.floortech.detailing.domain.repository.ProcessingJobRepository;
+import tech.jmcs.floortech.detailing.domain.service.BlockingIoScheduler;
+import tech.jmcs.floortech.detailing.domain.service.ChunkedUploadStorageService;
+import tech.jmcs.floortech.detailing.domain.service.ProcessingJobQueue;
 import tech.jmcs.floortech.detailing.domain.service.RemoteLoggingService;
 import tech.jmcs.floortech.detailing.domain.service.fileprocessing.FileProcessor;
 import tech.jmcs.floortech.detailing.domain.service.FileStorageService;
 import tech.jmcs.floortech.detailing.domain.service.IdGenerator;
 import tech.jmcs.floortech.detailing.domain.service.ZipFileStorageService;
+import tech.jmcs.floortech.detailing.infrastructure.scheduling.BlockingIoSchedulerImpl;
 
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
 import static tech.jmcs.floortech.detailing.domain.model.fileset.FileSetFacade.*;
@@ -48,7 +76,6 @@ import static tech.jmcs.floortech.detailing.domain.model.fileset.FileSetFacade.t
 
 @ExtendWith(SpringExtension.class)
 public class DetailingFileServiceTests {
-    @InjectMocks
     private DetailingFileService detailingFileService;
     @Mock
     private DetailingClaimRepository detailingClaimRepository;
@@ -66,12 +93,24 @@ public class DetailingFileServiceTests {
     private RemoteLoggingService logMessageSender;
     @Mock
     private FileSetDtoMapper fileSetDtoMapper;
+    private final BlockingIoScheduler blockingIoScheduler = new BlockingIoSchedulerImpl(4, 100);
+    @Mock
+    private ChunkedUploadStorageService chunkedUploadStorage;
+    @Mock
+    private ProcessingJobRepository processingJobs;
+    @Mock
+    private ProcessingJobQueue processingJobQueue;
+    @Mock
+    private Validator validator;
+
+    @BeforeEach
+    void setupForTests() {
+        detailingFileService = createDetailingFileService(0, Duration.ofSeconds(60));
+    }
 
     @Test
     public void mustSubmitDetailingFilesArchive() throws ZipFileStorageException {
-        FilePart filePart = Mockito.mock(FilePart.class);
-        given(filePart.filename()).willReturn("TestFile.zip");
-        given(filePart.transferTo(any(Path.class))).willReturn(Mono.empty());
+        var partEvents = archivePartEvents("TestFile.zip");
         var jobId = "21000";
         var staffId = "STAFF-0002";
         var staffUsername = "bob";
@@ -112,14 +151,14 @@ public class DetailingFileServiceTests {
 
         Mockito.when(detailingClaimRepository.findActiveClaim(jobId, staffUsername)).thenReturn(Mono.just(existingClaim));
 //        Mockito.when(detailingClaimRepository.findById("CLAIM-0001")).thenReturn(Mono.just(existingClaim));
-        Mockito.when(fileStorage.saveToRoot(eq(filePart), anyString(), anyString(), anyString())).thenReturn(Mono.just(zipPath));
+        Mockito.when(zipFileStorage.saveArchive(eq("TestFile.zip"), any(), anyLong(), anyString(), anyString(), anyString())).thenReturn(Mono.just(zipPath));
         Mockito.when(fileStorage.makeRelative(Paths.get("D:\\temp\\tests\\ft_uploads\\_ft_detailing2\\a\\b\\c\\file.zip"))).thenReturn(Paths.get("a\\b\\c\\file.zip"));
         Mockito.when(zipFileStorage.unzipArchive(any(Path.class), eq(false))).thenReturn(contents);
-        Mockito.when(detailingClaimRepository.save(any(DetailingClaim.class))).thenReturn(Mono.just(updatedClaim));
+        Mockito.when(detailingClaimRepository.saveFileSet(any(DetailingClaim.class), any(FileSet.class))).thenReturn(Mono.just(updatedClaim));
         Mockito.when(idGenerator.generateUuid()).thenReturn(testUuid);
         Mockito.when(fileSetDtoMapper.toGetDto(any(FileSet.class))).thenReturn(writeGetDto(newFileSet));
 
-        var resultMono = detailingFileService.submitDetailingFilesArchive(staffUsername, jobId, Mono.just(filePart), 10000L);
+        var resultMono = detailingFileService.submitDetailingFilesArchive(staffUsername, jobId, partEvents, 10000L);
         StepVerifier.create(resultMono)
                 .consumeNextWith(getFileSetDto -> {
                     System.out.println(getFileSetDto);
@@ -128,6 +167,179 @@ public class DetailingFileServiceTests {
                 .verifyComplete();
     }
 
+    @Test
+    public void mustProcessFileSetInParallelInFileSetOrder() throws FileProcessorException {
+        detailingFileService = createDetailingFileService(4, Duration.ofSeconds(60));
+        var running = new AtomicInteger();
+        var maxRunning = new AtomicInteger();
+        given(fileProcessor.isSupported(any())).willReturn(true);
+        given(fileProcessor.processFileData(any(), any())).willAnswer(invocation -> {
+            DetailingFile detailingFile = invocation.getArgument(0);
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            // the first files of the set take the longest, so they finish last
+            Thread.sleep((5 - fileNumber(detailingFile)) * 100L);
+            running.decrementAndGet();
+            return FileData.createEmpty(detailingFile);
+        });
+
+        StepVerifier.create(processFileSet(5))
+                .consumeNextWith(getFileSetDto -> {
+                    assertEquals(List.of(1, 2, 3, 4, 5), fileNumbers(getFileSetDto));
+                    assertTrue(getFileSetDto.files().stream().allMatch(file -> file.processingError() == null));
+                })
+                .verifyComplete();
+        assertTrue(maxRunning.get() > 1);
+    }
+
+    @Test
+    public void mustProcessOtherFilesOfFileSetWhenFileFails() throws FileProcessorException {
+        given(fileProcessor.isSupported(any())).willReturn(true);
+        given(fileProcessor.processFileData(any(), any())).willAnswer(invocation -> {
+            DetailingFile detailingFile = invocation.getArgument(0);
+            return switch (fileNumber(detailingFile)) {
+                case 2 -> throw new FileProcessorException("Data file not recognized");
+                case 3 -> throw new IllegalStateException("Unexpected column");
+                default -> FileData.createEmpty(detailingFile);
+            };
+        });
+
+        StepVerifier.create(processFileSet(4))
+                .consumeNextWith(getFileSetDto -> {
+                    assertEquals(List.of(1, 2, 3, 4), fileNumbers(getFileSetDto));
+                    var errors = getFileSetDto.files().stream().map(GetDetailingFileDto::processingError).toList();
+                    assertEquals(Arrays.asList(null, "Data file not recognized", "Unexpected column", null), errors);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    public void mustInterruptFileProcessingThatTimesOut() throws FileProcessorException, InterruptedException {
+        detailingFileService = createDetailingFileService(0, Duration.ofMillis(300));
+        var interrupted = new CountDownLatch(1);
+        given(fileProcessor.isSupported(any())).willReturn(true);
+        given(fileProcessor.processFileData(any(), any())).willAnswer(invocation -> {
+            DetailingFile detailingFile = invocation.getArgument(0);
+            if (fileNumber(detailingFile) == 2) {
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    throw new CancellationException("File processing was interrupted");
+                }
+            }
+            return FileData.createEmpty(detailingFile);
+        });
+
+        StepVerifier.create(processFileSet(3))
+                .consumeNextWith(getFileSetDto -> {
+                    var errors = getFileSetDto.files().stream().map(GetDetailingFileDto::processingError).toList();
+                    assertNull(errors.get(0));
+                    assertTrue(errors.get(1).contains("timed out"));
+                    assertNull(errors.get(2));
+                })
+                .verifyComplete();
+        // the abandoned file does not keep running
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void mustGetCompletedProcessingJobWhenClaimIsNoLongerActive() {
+        var claimId = "JOB-0000000001";
+        var username = "bob";
+        var files = List.of(DetailingFile.createUnprocessedDetailingFile(XPath.relative("/a/b/c/file1.txt"), "file1.txt"));
+        var fileSet = FileSet.createNewFileSet("FILESET-0001", XPath.relative("/a/b/c/file.zip"), files);
+        var completedClaim = DetailingClaim.builder(claimId, username)
+                .claimedByStaffUsername(username)
+                .build()
+                .withFileSets(Map.of("FILESET-0001", fileSet))
+                .withStatus(DetailingStatus.COMPLETED);
+        var job = ProcessingJob.create("PROCESSING-0001", claimId, "FILESET-0001", username, List.of("/a/b/c/file1.txt"))
+                .running()
+                .completed();
+
+        given(processingJobs.findById("PROCESSING-0001")).willReturn(Mono.just(job));
+        // the claim was completed after the job finished
+        given(detailingClaimRepository.findActiveClaim(claimId, username)).willReturn(Mono.empty());
+        given(detailingClaimRepository.findClaims(claimId, username)).willReturn(Flux.just(completedClaim));
+        given(detailingClaimRepository.loadFileData(any())).willAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        given(fileSetDtoMapper.toGetDto(any())).willAnswer(invocation -> writeGetDto(invocation.getArgument(0)));
+
+        StepVerifier.create(detailingFileService.getProcessingJob(username, "PROCESSING-0001"))
+                .consumeNextWith(getProcessingJobDto -> {
+                    assertEquals(ProcessingJobStatus.COMPLETED, getProcessingJobDto.status());
+                    assertEquals("FILESET-0001", getProcessingJobDto.fileSet().id());
+                })
+                .verifyComplete();
+    }
+
+    /**
+     * @param processingParallelism
+     * @param processingFileTimeout
+     * @return service with the mocks, without eager processing and with the default upload session size
+     */
+    private DetailingFileService createDetailingFileService(int processingParallelism, Duration processingFileTimeout) {
+        return new DetailingFileService(detailingClaimRepository, fileStorage, zipFileStorage, fileProcessor, idGenerator, logMessageSender, fileSetDtoMapper, validator, blockingIoScheduler, chunkedUploadStorage, processingJobs, processingJobQueue,
+                processingParallelism, processingFileTimeout, false, DataSize.ofMegabytes(500));
+    }
+
+    /**
+     * Processes a file set of the files /a/b/c/file1.txt to /a/b/c/file[fileCount].txt, as the owner of the claim
+     * @param fileCount
+     * @return Dto Mono
+     */
+    private Mono<GetFileSetDto> processFileSet(int fileCount) {
+        var claimId = "JOB-0000000001";
+        var username = "bob";
+        var files = new ArrayList<DetailingFile>();
+        for (int i = 1; i <= fileCount; i++) {
+            files.add(DetailingFile.createUnprocessedDetailingFile(XPath.relative("/a/b/c/file" + i + ".txt"), "file" + i + ".txt")
+                    .withFileSize(100)
+                    .withMimeType("text/plain"));
+        }
+        var fileSet = FileSet.createNewFileSet("FILESET-0001", XPath.relative("/a/b/c/file.zip"), files);
+        var claim = DetailingClaim.builder(claimId, username)
+                .claimedByStaffUsername(username)
+                .build()
+                .withFileSets(Map.of("FILESET-0001", fileSet));
+
+        given(detailingClaimRepository.findActiveClaim(claimId, username)).willReturn(Mono.just(claim));
+        given(detailingClaimRepository.saveFileSet(any(), any())).willAnswer(invocation -> {
+            FileSet processed = invocation.getArgument(1);
+            return Mono.just(claim.withFileSets(Map.of("FILESET-0001", processed)));
+        });
+        given(detailingClaimRepository.loadFileData(any())).willAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        given(fileSetDtoMapper.toGetDto(any())).willAnswer(invocation -> writeGetDto(invocation.getArgument(0)));
+        given(fileStorage.getRoot()).willReturn(Paths.get("/a"));
+        return detailingFileService.processFileSet(username, claimId, "FILESET-0001");
+    }
+
+    private static int fileNumber(DetailingFile detailingFile) {
+        return fileNumber(DetailingFileFacade.toPath.apply(detailingFile));
+    }
+
+    /**
+     * @param path
+     * @return number of the file in the file set of processFileSet
+     */
+    private static int fileNumber(XPath path) {
+        return Integer.parseInt(path.path().replaceAll("\\D", ""));
+    }
+
+    private static List<Integer> fileNumbers(GetFileSetDto getFileSetDto) {
+        return getFileSetDto.files().stream().map(file -> fileNumber(file.filePath())).toList();
+    }
+
+    /**
+     * @param filename
+     * @return part events of a multipart body with a form field and the archive part
+     */
+    private static Flux<PartEvent> archivePartEvents(String filename) {
+        var content = DefaultDataBufferFactory.sharedInstance.wrap("PK archive".getBytes(StandardCharsets.UTF_8));
+        return Flux.concat(
+                FormPartEvent.create("label", "Level 1"),
+                FilePartEvent.create("file", filename, MediaType.APPLICATION_OCTET_STREAM, Flux.just(content)));
+    }
+
     private GetFileSetDto writeGetDto(FileSet fileSet) {
         var id = toFileSetId.apply(fileSet);
         var label = toLabel.apply(fileSet);
@@ -163,6 +375,8 @@ public class DetailingFileServiceTests {
         var filename = DetailingFileFacade.toFilename.apply(detailingFile);
         var fileSize = DetailingFileFacade.toFileSize.apply(detailingFile);
         var mimetype = DetailingFileFacade.toMimeType.apply(detailingFile);
+        var contentHash = DetailingFileFacade.toContentHash.apply(detailingFile);
+        var processingError = DetailingFileFacade.toProcessingError.apply(detailingFile);
         var parentFolder = DetailingFileFacade.toParentFolder.apply(detailingFile);
         var label = DetailingFileFacade.toLabel.apply(detailingFile);
         var creationDate = DetailingFileFacade.toCreationDate.apply(detailingFile);
@@ -174,7 +388,7 @@ public class DetailingFileServiceTests {
 //        }
 
         return new GetDetailingFileDto(
-                id, path, extension, filename, fileSize, mimetype, parentFolder, label, creationDate,
+                id, path, extension, filename, fileSize, mimetype, contentHash, processingError, parentFolder, label, creationDate,
                 getFileDataDto
         );
     }
@@ -189,12 +403,10 @@ public class DetailingFileServiceTests {
                 .jobId(jobId)
                 .claimedByStaffId(other_username)
                 .build();
-        var filePart = Mockito.mock(FilePart.class);
-        given(filePart.filename()).willReturn("TestFile.zip");
-        given(filePart.transferTo(any(Path.class))).willReturn(Mono.empty());
+        var partEvents = archivePartEvents("TestFile.zip");
 
         Mockito.when(detailingClaimRepository.findActiveClaim(jobId, user)).thenReturn(Mono.just(existingClaim));
-        Mono<GetFileSetDto> resultMono = detailingFileService.submitDetailingFilesArchive(user, jobId, Mono.just(filePart), 10000L);
+        Mono<GetFileSetDto> resultMono = detailingFileService.submitDetailingFilesArchive(user, jobId, partEvents, 10000L);
         StepVerifier.create(resultMono)
                 .consumeErrorWith(error -> {
                     assertEquals(true, error instanceof DetailingFileServiceException);
@@ -217,14 +429,12 @@ public class DetailingFileServiceTests {
                 .jobClientId("XYXYXYXYXYXYX")
                 .jobClientName("A company")
                 .build();
-        var filePart = Mockito.mock(FilePart.class);
-        given(filePart.filename()).willReturn("TestFile.zip");
-        given(filePart.transferTo(any(Path.class))).willReturn(Mono.empty());
+        var partEvents = archivePartEvents("TestFile.zip");
 
         Mockito.when(detailingClaimRepository.findActiveClaim(jobId, username)).thenReturn(Mono.just(existingClaim));
-        Mockito.when(fileStorage.saveToRoot(eq(filePart), anyString(), anyString(), anyString())).thenReturn(Mono.error(new FileStorageException("")));
+        Mockito.when(zipFileStorage.saveArchive(eq("TestFile.zip"), any(), anyLong(), anyString(), anyString(), anyString())).thenReturn(Mono.error(new FileStorageException("")));
 
-        Mono<GetFileSetDto> resultMono = detailingFileService.submitDetailingFilesArchive(username, jobId, Mono.just(filePart), 10000L);
+        Mono<GetFileSetDto> resultMono = detailingFileService.submitDetailingFilesArchive(username, jobId, partEvents, 10000L);
         StepVerifier.create(resultMono)
                 .consumeErrorWith(error -> {
                     System.out.println("Error class: " + error.getClass());
@@ -234,4 +444,92 @@ public class DetailingFileServiceTests {
                 .verify();
     }
 
+    @Test
+    public void mustNotSubmitDetailingFilesArchiveBecauseTooLarge() {
+        var jobId = "21000";
+        var username = "bob";
+        var partEvents = archivePartEvents("TestFile.zip");
+
+        Mono<GetFileSetDto> resultMono = detailingFileService.submitDetailingFilesArchive(username, jobId, partEvents, 200*1000*1000L);
+        StepVerifier.create(resultMono)
+                .consumeErrorWith(error -> {
+                    assertEquals(true, error instanceof DetailingFileServiceException);
+                    assertEquals(true, error.getMessage().contains("larger than 100MB"));
+                })
+                .verify();
+        Mockito.verifyNoInteractions(zipFileStorage);
+    }
+
+    @Test
+    public void mustNotSubmitDetailingFilesArchiveBecauseNoArchivePart() {
+        var jobId = "21000";
+        var username = "bob";
+        var existingClaim = DetailingClaim.builder("JOB-00001", "test-user")
+                .jobId(jobId)
+                .floortechJobNumber(21000)
+                .claimedByStaffUsername(username)
+                .jobClientId("XYXYXYXYXYXYX")
+                .jobClientName("A company")
+                .build();
+        Flux<PartEvent> partEvents = FormPartEvent.create("label", "Level 1").cast(PartEvent.class).flux();
+
+        Mockito.when(detailingClaimRepository.findActiveClaim(jobId, username)).thenReturn(Mono.just(existingClaim));
+        Mono<GetFileSetDto> resultMono = detailingFileService.submitDetailingFilesArchive(username, jobId, partEvents, 10000L);
+        StepVerifier.create(resultMono)
+                .consumeErrorWith(error -> {
+                    assertEquals(true, error instanceof DetailingFileServiceException);
+                    assertEquals(true, error.getMessage().contains("No archive was found"));
+                })
+                .verify();
+        Mockito.verifyNoInteractions(zipFileStorage);
+    }
+
+    @Test
+    public void mustNotUploadChunkBecauseWrongUser() {
+        var sessionId = UUID.randomUUID().toString();
+        var session = UploadSession.create(sessionId, "21000", "other_user", "TestFile.zip", 1000L, 2);
+
+        Mockito.when(chunkedUploadStorage.findSession(sessionId)).thenReturn(Mono.just(session));
+        var resultMono = detailingFileService.uploadChunk("test_user", sessionId, 0, Flux.empty());
+        StepVerifier.create(resultMono)
+                .consumeErrorWith(error -> {
+                    assertEquals(true, error instanceof DetailingFileServiceException);
+                    assertEquals(true, error.getMessage().toLowerCase().contains("not the owner of this upload session"));
+                })
+                .verify();
+        Mockito.verify(chunkedUploadStorage, Mockito.never()).writeChunk(any(), anyInt(), any());
+    }
+
+    @Test
+    public void mustNotAbortUploadSessionBecauseWrongUser() {
+        var sessionId = UUID.randomUUID().toString();
+        var session = UploadSession.create(sessionId, "21000", "other_user", "TestFile.zip", 1000L, 2);
+
+        Mockito.when(chunkedUploadStorage.findSession(sessionId)).thenReturn(Mono.just(session));
+        var resultMono = detailingFileService.abortUploadSession("test_user", sessionId);
+        StepVerifier.create(resultMono)
+                .consumeErrorWith(error -> {
+                    assertEquals(true, error instanceof DetailingFileServiceException);
+                    assertEquals(true, error.getMessage().toLowerCase().contains("not the owner of this upload session"));
+                })
+                .verify();
+        Mockito.verify(chunkedUploadStorage, Mockito.never()).deleteSession(any());
+    }
+
+    @Test
+    public void mustNotUploadChunkBecauseIndexOutOfRange() {
+        var sessionId = UUID.randomUUID().toString();
+        var username = "bob";
+        var session = UploadSession.create(sessionId, "21000", username, "TestFile.zip", 1000L, 2);
+
+        Mockito.when(chunkedUploadStorage.findSession(sessionId)).thenReturn(Mono.just(session));
+        var resultMono = detailingFileService.uploadChunk(username, sessionId, 2, Flux.empty());
+        StepVerifier.create(resultMono)
+                .consumeErrorWith(error -> {
+                    assertEquals(true, error instanceof DetailingFileServiceException);
+                    assertEquals(true, error.getMessage().toLowerCase().contains("out of range"));
+                })
+                .verify();
+    }
+
 }
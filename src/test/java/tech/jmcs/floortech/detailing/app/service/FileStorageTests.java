@@ -7,12 +7,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 import tech.jmcs.floortech.detailing.domain.service.FileStorageService;
 import tech.jmcs.floortech.detailing.infrastructure.files.storage.FileStorageServiceImpl;
+import tech.jmcs.floortech.detailing.infrastructure.scheduling.BlockingIoSchedulerImpl;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -22,6 +24,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 
 @WebFluxTest(FileStorageServiceImpl.class)
+@Import(BlockingIoSchedulerImpl.class)
 @ExtendWith(SpringExtension.class)
 public class FileStorageTests {
 
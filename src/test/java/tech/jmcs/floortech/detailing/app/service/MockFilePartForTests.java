@@ -4,7 +4,10 @@ import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.http.codec.multipart.FilePartEvent;
+import org.springframework.http.codec.multipart.PartEvent;
 import org.springframework.mock.web.MockMultipartFile;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -56,4 +59,11 @@ class MockFilePartForTests implements FilePart {
     public Flux<DataBuffer> content() {
         return DataBufferUtils.readInputStream(() -> mockMultipartFile.getInputStream(), new DefaultDataBufferFactory(), 64);
     }
+
+    /**
+     * @return the file as the part events of a multipart body
+     */
+    public Flux<PartEvent> toPartEvents() {
+        return FilePartEvent.create("file", filename(), MediaType.APPLICATION_OCTET_STREAM, content()).cast(PartEvent.class);
+    }
 }
@@ -0,0 +1,183 @@
+package tech.jmcs.floortech.detailing.infrastructure.files.storage;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import tech.jmcs.floortech.detailing.domain.model.upload.UploadSession;
+import tech.jmcs.floortech.detailing.domain.service.FileStorageService;
+import tech.jmcs.floortech.detailing.infrastructure.files.storage.exception.FileStorageException;
+import tech.jmcs.floortech.detailing.infrastructure.scheduling.BlockingIoSchedulerImpl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+
+public class ChunkedUploadStorageServiceImplTests {
+    private static final BlockingIoSchedulerImpl blockingIo = new BlockingIoSchedulerImpl(4, 100);
+    private static final byte[] ZIP_SIGNATURE = {'P', 'K', 3, 4};
+
+    @TempDir
+    Path root;
+    private FileStorageService fileStorage;
+    private ChunkedUploadStorageServiceImpl chunkedUploadStorage;
+
+    @BeforeEach
+    void setupForTests() {
+        fileStorage = Mockito.mock(FileStorageService.class);
+        given(fileStorage.getRoot()).willReturn(root);
+        chunkedUploadStorage = new ChunkedUploadStorageServiceImpl(fileStorage, blockingIo);
+    }
+
+    @AfterAll
+    static void disposeScheduler() {
+        blockingIo.scheduler().dispose();
+    }
+
+    @Test
+    public void shouldRejectChunkThatExceedsArchiveSize() {
+        var session = createSession(100, 3);
+        writeChunk(session, 0, 50);
+        writeChunk(session, 1, 40);
+
+        StepVerifier.create(chunkedUploadStorage.writeChunk(session, 2, content(2, 40)))
+                .expectError(FileStorageException.class)
+                .verify();
+        StepVerifier.create(chunkedUploadStorage.findSession(session.id()))
+                .consumeNextWith(found -> assertEquals(List.of(2), List.copyOf(found.missingChunks())))
+                .verifyComplete();
+        assertEquals(List.of("chunk-000000.part", "chunk-000001.part", "session.properties"), sessionFiles(session));
+    }
+
+    @Test
+    public void shouldReplaceReceivedChunkWithinArchiveSize() {
+        var session = createSession(100, 3);
+        writeChunk(session, 0, 50);
+        writeChunk(session, 1, 40);
+        // sent again, the chunk it replaces no longer counts
+        writeChunk(session, 1, 40);
+        writeChunk(session, 2, 10);
+
+        given(fileStorage.createInRoot(anyString())).willReturn(Mono.fromCallable(() -> Files.createFile(root.resolve("archive.zip"))));
+        StepVerifier.create(chunkedUploadStorage.assemble(session))
+                .consumeNextWith(path -> {
+                    try {
+                        assertEquals(100, Files.size(path));
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldAssembleSessionOnce() {
+        var session = createSession(90, 2);
+        writeChunk(session, 0, 50);
+        writeChunk(session, 1, 40);
+
+        // the first commit is still creating its target when the second commit starts
+        given(fileStorage.createInRoot(anyString())).willReturn(Mono.delay(Duration.ofMillis(500))
+                .then(Mono.fromCallable(() -> Files.createFile(root.resolve("archive.zip")))));
+        var first = chunkedUploadStorage.assemble(session)
+                .map(path -> "assembled");
+        var second = Mono.delay(Duration.ofMillis(100))
+                .then(chunkedUploadStorage.assemble(session))
+                .map(path -> "assembled")
+                .onErrorResume(FileStorageException.class, e -> Mono.just("rejected"));
+
+        StepVerifier.create(Flux.merge(first, second))
+                .recordWith(ArrayList::new)
+                .expectNextCount(2)
+                .consumeRecordedWith(results -> assertTrue(results.containsAll(List.of("assembled", "rejected"))))
+                .verifyComplete();
+        assertFalse(Files.exists(root.resolve(FileStorageServiceImpl.TEMP_FOLDER_PREFIX).resolve(ChunkedUploadStorageServiceImpl.UPLOADS_FOLDER).resolve(session.id())));
+    }
+
+    @Test
+    public void shouldNotDeleteSessionBeingAssembled() {
+        var session = createSession(90, 2);
+        writeChunk(session, 0, 50);
+        writeChunk(session, 1, 40);
+
+        // the commit is still creating its target when the session is deleted
+        given(fileStorage.createInRoot(anyString())).willReturn(Mono.delay(Duration.ofMillis(500))
+                .then(Mono.fromCallable(() -> Files.createFile(root.resolve("archive.zip")))));
+        var assembled = chunkedUploadStorage.assemble(session)
+                .map(path -> "assembled");
+        var deleted = Mono.delay(Duration.ofMillis(100))
+                .then(chunkedUploadStorage.deleteSession(session.id()))
+                .thenReturn("deleted")
+                .onErrorResume(FileStorageException.class, e -> Mono.just("rejected"));
+
+        StepVerifier.create(Flux.merge(assembled, deleted))
+                .recordWith(ArrayList::new)
+                .expectNextCount(2)
+                .consumeRecordedWith(results -> assertTrue(results.containsAll(List.of("assembled", "rejected"))))
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldDeleteSessionWithReceivedChunks() {
+        var session = createSession(90, 2);
+        writeChunk(session, 0, 50);
+
+        StepVerifier.create(chunkedUploadStorage.deleteSession(session.id()))
+                .verifyComplete();
+        StepVerifier.create(chunkedUploadStorage.findSession(session.id()))
+                .verifyComplete();
+        assertFalse(Files.exists(root.resolve(FileStorageServiceImpl.TEMP_FOLDER_PREFIX).resolve(ChunkedUploadStorageServiceImpl.UPLOADS_FOLDER).resolve(session.id())));
+    }
+
+    // <editor-fold desc="Helper methods">
+    private UploadSession createSession(long totalSize, int chunkCount) {
+        var session = UploadSession.create("session-0001", "JOB-0001", "alice", "archive.zip", totalSize, chunkCount);
+        return chunkedUploadStorage.createSession(session).block();
+    }
+
+    private void writeChunk(UploadSession session, int index, int size) {
+        StepVerifier.create(chunkedUploadStorage.writeChunk(session, index, content(index, size)))
+                .consumeNextWith(updated -> assertTrue(updated.receivedChunks().contains(index)))
+                .verifyComplete();
+    }
+
+    private List<String> sessionFiles(UploadSession session) {
+        var sessionFolder = root.resolve(FileStorageServiceImpl.TEMP_FOLDER_PREFIX).resolve(ChunkedUploadStorageServiceImpl.UPLOADS_FOLDER).resolve(session.id());
+        try (var files = Files.list(sessionFolder)) {
+            return files.map(path -> path.getFileName().toString()).sorted().toList();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param index chunk index, the first chunk starts with a zip signature
+     * @param size
+     * @return content of a chunk
+     */
+    private static Flux<DataBuffer> content(int index, int size) {
+        var bytes = new byte[size];
+        Arrays.fill(bytes, (byte) index);
+        if (index == 0) {
+            System.arraycopy(ZIP_SIGNATURE, 0, bytes, 0, ZIP_SIGNATURE.length);
+        }
+        return Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(bytes));
+    }
+    // </editor-fold>
+}
@@ -0,0 +1,51 @@
+package tech.jmcs.floortech.detailing.infrastructure.files.storage;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class DataBufferInputStreamTests {
+    private static final int PREFETCH = 4;
+
+    @Test
+    public void shouldReadAllBuffers() throws IOException {
+        var content = Flux.range(0, 20).map(i -> toDataBuffer("chunk-" + i + ";"));
+        try (var in = new DataBufferInputStream(content, PREFETCH, Duration.ofSeconds(5))) {
+            var expected = new StringBuilder();
+            for (int i = 0; i < 20; i++) {
+                expected.append("chunk-").append(i).append(';');
+            }
+            assertArrayEquals(expected.toString().getBytes(StandardCharsets.UTF_8), in.readAllBytes());
+        }
+    }
+
+    @Test
+    public void shouldFailWhenMoreBuffersArePublishedThanRequested() {
+        // ignores back pressure, every buffer is pushed before the reader requests more
+        Flux<DataBuffer> content = Flux.create(sink -> {
+            for (int i = 0; i < PREFETCH * 4; i++) {
+                sink.next(toDataBuffer("chunk-" + i + ";"));
+            }
+            sink.complete();
+        }, FluxSink.OverflowStrategy.IGNORE);
+        try (var in = new DataBufferInputStream(content, PREFETCH, Duration.ofSeconds(5))) {
+            var e = assertThrows(IOException.class, in::readAllBytes);
+            assertTrue(Exceptions.isOverflow(e.getCause()));
+        }
+    }
+
+    private static DataBuffer toDataBuffer(String value) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,174 @@
+package tech.jmcs.floortech.detailing.infrastructure.files.storage;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import tech.jmcs.floortech.detailing.infrastructure.scheduling.BlockingIoSchedulerImpl;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.BDDMockito.given;
+
+public class StorageJanitorTests {
+    private static final BlockingIoSchedulerImpl blockingIo = new BlockingIoSchedulerImpl(4, 100);
+    private static final Instant EXPIRED = Instant.now().minus(Duration.ofDays(60));
+
+    @TempDir
+    Path root;
+    private FileStorageServiceImpl fileStorage;
+
+    @BeforeEach
+    void setupForTests() {
+        fileStorage = Mockito.mock(FileStorageServiceImpl.class);
+        given(fileStorage.getRoot()).willReturn(root);
+    }
+
+    @AfterAll
+    static void disposeScheduler() {
+        blockingIo.scheduler().dispose();
+    }
+
+    @Test
+    public void shouldDeleteTempFilesPastRetention() throws IOException {
+        var expired = createFile(FileStorageServiceImpl.TEMP_FOLDER_PREFIX + "/a/expired.zip", EXPIRED);
+        var recent = createFile(FileStorageServiceImpl.TEMP_FOLDER_PREFIX + "/a/recent.zip", Instant.now().minus(Duration.ofHours(1)));
+        var expiredSession = createFile(FileStorageServiceImpl.TEMP_FOLDER_PREFIX + "/" + ChunkedUploadStorageServiceImpl.UPLOADS_FOLDER + "/session-0001/chunk-000000.part", EXPIRED);
+        // a session is purged once nothing in it, its folder included, was written within the retention
+        Files.setLastModifiedTime(expiredSession.getParent(), FileTime.from(EXPIRED));
+
+        createJanitor(100).sweep();
+
+        assertFalse(Files.exists(expired));
+        assertTrue(Files.exists(recent));
+        assertFalse(Files.exists(expiredSession.getParent()));
+    }
+
+    @Test
+    public void shouldKeepDeletedFilesUntilRetentionHasPassedSinceFirstRun() throws IOException {
+        // soft deleted before the deletion time was stamped, the modification time is the time it was written
+        var deleted = createFile(FileStorageServiceImpl.DELETED_FOLDER_PREFIX + "/a/schedule.txt", EXPIRED);
+
+        createJanitor(100).sweep();
+        assertTrue(Files.exists(deleted));
+        var deletedSince = Instant.parse(readCursors().getProperty(StorageJanitor.DELETED_SINCE_KEY));
+        assertTrue(Instant.now().minus(Duration.ofMinutes(1)).isBefore(deletedSince));
+
+        // first run was longer ago than the deleted retention
+        writeDeletedSince(Instant.now().minus(Duration.ofDays(31)));
+        createJanitor(100).sweep();
+        assertFalse(Files.exists(deleted));
+    }
+
+    @Test
+    public void shouldContinueFromCursorWhenRunBudgetIsExhausted() throws IOException {
+        var files = new Path[5];
+        for (int i = 0; i < files.length; i++) {
+            files[i] = createFile(FileStorageServiceImpl.TEMP_FOLDER_PREFIX + "/file-" + i + ".zip", EXPIRED);
+        }
+        var janitor = createJanitor(2);
+
+        janitor.sweep();
+        assertFalse(Files.exists(files[0]));
+        assertFalse(Files.exists(files[1]));
+        assertTrue(Files.exists(files[2]));
+        assertEquals("file-1.zip", readCursors().getProperty(FileStorageServiceImpl.TEMP_FOLDER_PREFIX));
+
+        janitor.sweep();
+        assertFalse(Files.exists(files[2]));
+        assertFalse(Files.exists(files[3]));
+        assertTrue(Files.exists(files[4]));
+
+        janitor.sweep();
+        assertFalse(Files.exists(files[4]));
+        // the area was swept to the end, the next run starts from the beginning
+        assertFalse(readCursors().containsKey(FileStorageServiceImpl.TEMP_FOLDER_PREFIX));
+    }
+
+    @Test
+    public void shouldDeleteOnlyUnreferencedBlobs() throws IOException {
+        var contentStore = new ContentAddressedStore(root.resolve(FileStorageServiceImpl.BLOBS_FOLDER_PREFIX));
+        given(fileStorage.getContentStore()).willReturn(contentStore);
+        var referenced = createFile("JOB-0001/schedule.txt", Instant.now());
+        contentStore.store(referenced, "aa" + "0".repeat(62));
+        var unreferenced = createFile("JOB-0002/schedule.txt", Instant.now());
+        contentStore.store(unreferenced, "bb" + "0".repeat(62));
+        Files.delete(unreferenced);
+        var referencedBlob = contentStore.blobPath("aa" + "0".repeat(62));
+        var unreferencedBlob = contentStore.blobPath("bb" + "0".repeat(62));
+        Files.setLastModifiedTime(referencedBlob, FileTime.from(EXPIRED));
+        Files.setLastModifiedTime(unreferencedBlob, FileTime.from(EXPIRED));
+
+        createJanitor(100).sweep();
+
+        assertTrue(Files.exists(referencedBlob));
+        assertTrue(Files.exists(referenced));
+        assertFalse(Files.exists(unreferencedBlob));
+    }
+
+    @Test
+    public void shouldSweepScheduledRunOnBlockingIoScheduler() throws InterruptedException {
+        var sweptOn = new AtomicReference<String>();
+        var swept = new CountDownLatch(1);
+        given(fileStorage.getRoot()).willAnswer(invocation -> {
+            sweptOn.set(Thread.currentThread().getName());
+            swept.countDown();
+            return root;
+        });
+
+        createJanitor(100).scheduledSweep();
+
+        assertTrue(swept.await(5, TimeUnit.SECONDS));
+        assertNotNull(sweptOn.get());
+        assertTrue(sweptOn.get().startsWith(BlockingIoSchedulerImpl.SCHEDULER_NAME));
+    }
+
+    // <editor-fold desc="Helper methods">
+    @SuppressWarnings("unchecked")
+    private StorageJanitor createJanitor(int maxFilesPerRun) {
+        var meterRegistry = (ObjectProvider<MeterRegistry>) Mockito.mock(ObjectProvider.class);
+        return new StorageJanitor(fileStorage, blockingIo, Duration.ofHours(24), Duration.ofDays(30), maxFilesPerRun, 0, meterRegistry);
+    }
+
+    private Path createFile(String relativePath, Instant lastModified) throws IOException {
+        var file = root.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, relativePath, StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(file, FileTime.from(lastModified));
+        return file;
+    }
+
+    private Properties readCursors() throws IOException {
+        var cursors = new Properties();
+        try (var in = Files.newInputStream(root.resolve(StorageJanitor.CURSOR_FILENAME))) {
+            cursors.load(in);
+        }
+        return cursors;
+    }
+
+    private void writeDeletedSince(Instant deletedSince) throws IOException {
+        var cursors = readCursors();
+        cursors.setProperty(StorageJanitor.DELETED_SINCE_KEY, deletedSince.toString());
+        try (var out = Files.newOutputStream(root.resolve(StorageJanitor.CURSOR_FILENAME))) {
+            cursors.store(out, null);
+        }
+    }
+    // </editor-fold>
+}
@@ -0,0 +1,123 @@
+package tech.jmcs.floortech.detailing.infrastructure.files.storage;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import tech.jmcs.floortech.detailing.infrastructure.files.storage.exception.FileStorageException;
+import tech.jmcs.floortech.detailing.infrastructure.scheduling.BlockingIoSchedulerImpl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StreamingZipExtractorTests {
+    private static final BlockingIoSchedulerImpl blockingIo = new BlockingIoSchedulerImpl(4, 100);
+    private static final int CHUNK_SIZE = 4096;
+
+    @TempDir
+    Path folder;
+
+    @AfterAll
+    static void disposeScheduler() {
+        blockingIo.scheduler().dispose();
+    }
+
+    @Test
+    public void shouldWriteArchiveAndExtractEntries() throws IOException {
+        var archive = createArchive();
+        var archivePath = folder.resolve("upload.zip");
+
+        var resultMono = new StreamingZipExtractor(archivePath, blockingIo).extract(toContent(archive, 0, archive.length));
+        StepVerifier.create(resultMono)
+                .consumeNextWith(result -> {
+                    assertEquals(2, result.entries().size());
+                    assertEquals(folder.resolve("first.txt"), result.entries().get(0).path());
+                    assertEquals(folder.resolve("second.txt"), result.entries().get(1).path());
+                })
+                .verifyComplete();
+        assertTrue(Arrays.equals(archive, Files.readAllBytes(archivePath)));
+    }
+
+    @Test
+    public void shouldFailAndDeleteArchiveWhenContentFailsAfterLastEntry() {
+        var archive = createArchive();
+        var archivePath = folder.resolve("upload.zip");
+        // every entry arrives, the content fails while the central directory is streaming
+        var content = toContent(archive, 0, archive.length - 10)
+                .concatWith(Flux.error(new FileStorageException("Upload interrupted")));
+
+        var resultMono = new StreamingZipExtractor(archivePath, blockingIo).extract(content);
+        StepVerifier.create(resultMono)
+                .expectError(IOException.class)
+                .verify();
+        assertFalse(Files.exists(archivePath));
+        assertFalse(Files.exists(folder.resolve("first.txt")));
+        assertFalse(Files.exists(folder.resolve("second.txt")));
+    }
+
+    @Test
+    public void shouldFailAndDeleteArchiveWhenBudgetIsExceededAfterLastEntry() {
+        var archive = createArchive();
+        var archivePath = folder.resolve("upload.zip");
+        var content = toContent(archive, 0, archive.length - 10)
+                .concatWith(toContent(archive, archive.length - 10, archive.length));
+        var guardedContent = ArchiveUploadGuard.guard(content, archive.length - 1);
+
+        var resultMono = new StreamingZipExtractor(archivePath, blockingIo).extract(guardedContent);
+        StepVerifier.create(resultMono)
+                .expectError(IOException.class)
+                .verify();
+        assertFalse(Files.exists(archivePath));
+        assertFalse(Files.exists(folder.resolve("first.txt")));
+        assertFalse(Files.exists(folder.resolve("second.txt")));
+    }
+
+    // <editor-fold desc="Static helper methods">
+    private static byte[] createArchive() {
+        var bytes = new ByteArrayOutputStream();
+        try (var zipOut = new ZipOutputStream(bytes)) {
+            addEntry(zipOut, "first.txt", 20_000);
+            addEntry(zipOut, "second.txt", 30_000);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void addEntry(ZipOutputStream zipOut, String name, int lines) throws IOException {
+        zipOut.putNextEntry(new ZipEntry(name));
+        for (int i = 0; i < lines; i++) {
+            zipOut.write((name + " line " + i + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        zipOut.closeEntry();
+    }
+
+    /**
+     * @param bytes
+     * @param from index of the first byte of the content
+     * @param to index after the last byte of the content
+     * @return the bytes as buffers of CHUNK_SIZE
+     */
+    private static Flux<DataBuffer> toContent(byte[] bytes, int from, int to) {
+        var dataBuffers = new ArrayList<byte[]>();
+        for (int offset = from; offset < to; offset += CHUNK_SIZE) {
+            dataBuffers.add(Arrays.copyOfRange(bytes, offset, Math.min(to, offset + CHUNK_SIZE)));
+        }
+        return Flux.fromIterable(dataBuffers).map(DefaultDataBufferFactory.sharedInstance::wrap);
+    }
+    // </editor-fold>
+}
@@ -0,0 +1,143 @@
+package tech.jmcs.floortech.detailing.infrastructure.messaging;
+
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Delivery;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.MessageProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.rabbitmq.AcknowledgableDelivery;
+import reactor.rabbitmq.ConsumeOptions;
+import reactor.rabbitmq.OutboundMessage;
+import reactor.rabbitmq.QueueSpecification;
+import reactor.rabbitmq.Receiver;
+import reactor.rabbitmq.Sender;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+public class ProcessingJobQueueImplTests {
+    private static final String QUEUE = "test.processing-jobs";
+    private static final long DELIVERY_TAG = 7L;
+
+    private Sender sender;
+    private Receiver receiver;
+    private Channel channel;
+    private Sinks.Many<AcknowledgableDelivery> deliveries;
+    private ProcessingJobQueueImpl processingJobQueue;
+
+    @BeforeEach
+    void setupForTests() {
+        sender = Mockito.mock(Sender.class);
+        receiver = Mockito.mock(Receiver.class);
+        channel = Mockito.mock(Channel.class);
+        deliveries = Sinks.many().unicast().onBackpressureBuffer();
+        given(sender.declareQueue(any(QueueSpecification.class))).willReturn(Mono.empty());
+        given(sender.send(any())).willReturn(Mono.empty());
+        given(receiver.consumeManualAck(eq(QUEUE), any(ConsumeOptions.class))).willReturn(deliveries.asFlux());
+        processingJobQueue = new ProcessingJobQueueImpl(sender, receiver, QUEUE, 2, 3, Duration.ofMillis(10));
+    }
+
+    @Test
+    public void shouldAckJobOnceWorkerCompletes() throws IOException {
+        var finished = Sinks.<String>one();
+        var consumer = processingJobQueue.consume(jobId -> finished.asMono());
+        deliveries.tryEmitNext(delivery("JOB-0001", null));
+
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+        finished.tryEmitValue("JOB-0001");
+        verify(channel, timeout(1000)).basicAck(DELIVERY_TAG, false);
+        verify(sender, never()).send(any());
+        consumer.dispose();
+    }
+
+    @Test
+    public void shouldNotAckJobWhenConsumerStopsBeforeWorkerCompletes() throws IOException {
+        var consumer = processingJobQueue.consume(jobId -> Mono.never());
+        deliveries.tryEmitNext(delivery("JOB-0001", null));
+        consumer.dispose();
+
+        // left unacknowledged, the broker delivers the job again
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+        verify(channel, never()).basicNack(anyLong(), anyBoolean(), anyBoolean());
+    }
+
+    @Test
+    public void shouldRetryJobWhenWorkerFails() throws IOException {
+        var consumer = processingJobQueue.consume(jobId -> Mono.error(new IllegalStateException("Database not available")));
+        deliveries.tryEmitNext(delivery("JOB-0001", null));
+
+        verify(channel, timeout(1000)).basicAck(DELIVERY_TAG, false);
+        var message = sentMessage();
+        assertEquals(QUEUE, message.getRoutingKey());
+        assertEquals("JOB-0001", new String(message.getBody(), StandardCharsets.UTF_8));
+        assertEquals(2, message.getProperties().getHeaders().get(ProcessingJobQueueImpl.ATTEMPTS_HEADER));
+        consumer.dispose();
+    }
+
+    @Test
+    public void shouldDeadLetterJobAfterLastAttempt() throws IOException {
+        var consumer = processingJobQueue.consume(jobId -> Mono.error(new IllegalStateException("Database not available")));
+        deliveries.tryEmitNext(delivery("JOB-0001", 3));
+
+        verify(channel, timeout(1000)).basicAck(DELIVERY_TAG, false);
+        var message = sentMessage();
+        assertEquals(QUEUE + ".dead", message.getRoutingKey());
+        assertEquals("JOB-0001", new String(message.getBody(), StandardCharsets.UTF_8));
+        consumer.dispose();
+    }
+
+    @Test
+    public void shouldReturnJobToQueueWhenItCannotBePublished() throws IOException {
+        given(sender.send(any())).willReturn(Mono.error(new IOException("Connection closed")));
+        var consumer = processingJobQueue.consume(jobId -> Mono.error(new IllegalStateException("Database not available")));
+        deliveries.tryEmitNext(delivery("JOB-0001", null));
+
+        verify(channel, timeout(1000)).basicNack(DELIVERY_TAG, false, true);
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+        consumer.dispose();
+    }
+
+    // <editor-fold desc="Helper methods">
+    /**
+     * @param jobId
+     * @param attempts value of the attempts header, null for a first delivery
+     * @return delivery acknowledged on the mocked channel
+     */
+    private AcknowledgableDelivery delivery(String jobId, Integer attempts) {
+        var properties = attempts != null
+                ? MessageProperties.PERSISTENT_TEXT_PLAIN.builder().headers(Map.of(ProcessingJobQueueImpl.ATTEMPTS_HEADER, attempts)).build()
+                : MessageProperties.PERSISTENT_TEXT_PLAIN;
+        var envelope = new Envelope(DELIVERY_TAG, false, "", QUEUE);
+        var delivery = new Delivery(envelope, properties, jobId.getBytes(StandardCharsets.UTF_8));
+        return new AcknowledgableDelivery(delivery, channel, (context, e) -> {
+            throw new IllegalStateException(e);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private OutboundMessage sentMessage() {
+        var captor = ArgumentCaptor.forClass(Publisher.class);
+        verify(sender).send(captor.capture());
+        return Flux.from((Publisher<OutboundMessage>) captor.getValue()).blockFirst();
+    }
+    // </editor-fold>
+}
@@ -1,5 +1,6 @@
 package tech.jmcs.floortech.detailing.infrastructure.persistence.dao;
 
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -9,7 +10,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 import tech.jmcs.floortech.common.dto.BuilderClientDto;
@@ -21,11 +27,15 @@ import tech.jmcs.floortech.detailing.domain.model.detailingclaim.DetailingClaim;
 import tech.jmcs.floortech.detailing.infrastructure.persistence.entity.DetailingClaimEntity;
 import tech.jmcs.floortech.detailing.infrastructure.persistence.entity.FileSetEntity;
 
+import java.time.Instant;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
 import static tech.jmcs.floortech.detailing.domain.configs.DetailingStatus.STARTED;
 
 @DataMongoTest
@@ -36,6 +46,8 @@ import static tech.jmcs.floortech.detailing.domain.configs.DetailingStatus.START
 public class DetailingClaimDaoIntegrationTest implements MongoDBTestContainer {
     @Autowired
     private DetailingClaimDao detailingClaimDao;
+    @Autowired
+    private ReactiveMongoOperations mongoOperations;
 
     @Test
     public void shouldCreateDetailingClaim() {
@@ -70,6 +82,65 @@ public class DetailingClaimDaoIntegrationTest implements MongoDBTestContainer {
                 .verifyComplete();
     }
 
+    @Test
+    public void shouldFindClaimsCreatedBetweenDates() {
+        var second = Instant.parse("2023-09-01T02:30:15Z");
+        var deletedClaim = new DetailingClaimEntity();
+        deletedClaim.setDeleted(true);
+        var setup = detailingClaimDao.deleteAll()
+                .thenMany(Flux.concat(
+                        saveCreatedAt(new DetailingClaimEntity(), "alice", second.minusMillis(1)),
+                        saveCreatedAt(new DetailingClaimEntity(), "alice", second),
+                        saveCreatedAt(new DetailingClaimEntity(), "alice", second.plusMillis(999)),
+                        saveCreatedAt(new DetailingClaimEntity(), "alice", second.plusSeconds(1)),
+                        saveCreatedAt(new DetailingClaimEntity(), "bob", second.plusMillis(500)),
+                        saveCreatedAt(deletedClaim, "alice", second.plusMillis(500))));
+        StepVerifier.create(setup)
+                .expectNextCount(6)
+                .verifyComplete();
+
+        var createdWithinSecond = detailingClaimDao.findByCompoundIdCreatedBetween("JOB0000001", "alice", Date.from(second), Date.from(second.plusSeconds(1)))
+                .map(entity -> entity.getCreatedDate().toInstant())
+                .collectList();
+        StepVerifier.create(createdWithinSecond)
+                .consumeNextWith(created -> assertEquals(Set.of(second, second.plusMillis(999)), Set.copyOf(created)))
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldListOnlyClaimsWithLastModifiedDate() {
+        var setup = detailingClaimDao.deleteAll()
+                .thenMany(Flux.concat(
+                        saveCreatedAt(new DetailingClaimEntity(), "carol", Instant.parse("2023-09-01T02:30:15Z")),
+                        saveCreatedAt(new DetailingClaimEntity(), "carol", Instant.parse("2023-09-02T02:30:15Z"))))
+                .collectList()
+                .block();
+        var legacy = setup.get(1);
+        mongoOperations.updateFirst(Query.query(Criteria.where("_id").is(new ObjectId(legacy.getId()))), new Update().unset("lastModifiedDate"), DetailingClaimEntity.class).block();
+
+        StepVerifier.create(detailingClaimDao.findByStaffUsernameAndStatus("carol", DetailingStatus.CANCELLED, PageRequest.ofSize(10)))
+                .consumeNextWith(entity -> assertEquals(setup.get(0).getId(), entity.getId()))
+                .verifyComplete();
+    }
+
+    /**
+     * @param entity
+     * @param staffUsername
+     * @param createdDate
+     * @return the claim of JOB0000001 saved with the created date
+     */
+    private Mono<DetailingClaimEntity> saveCreatedAt(DetailingClaimEntity entity, String staffUsername, Instant createdDate) {
+        entity.setJobId("JOB0000001");
+        entity.setClaimedByStaffUsername(staffUsername);
+        entity.setStatus(DetailingStatus.CANCELLED);
+        // the created date is set by auditing when the claim is inserted, so it is changed once saved
+        return detailingClaimDao.save(entity)
+                .flatMap(saved -> {
+                    saved.setCreatedDate(Date.from(createdDate));
+                    return detailingClaimDao.save(saved);
+                });
+    }
+
     @Nested
     class NestedTests {
         @BeforeEach
@@ -231,6 +302,20 @@ public class DetailingClaimDaoIntegrationTest implements MongoDBTestContainer {
                     .verifyComplete();
         }
 
+        @Test
+        public void shouldPageClaimsAfterLastClaimOfPage() {
+            var first = detailingClaimDao.findByStaffUsernameAndStatus("bob", DetailingStatus.CANCELLED, PageRequest.ofSize(1))
+                    .blockFirst();
+            var next = detailingClaimDao.findByStaffUsernameAndStatusBefore("bob", DetailingStatus.CANCELLED,
+                    first.getLastModifiedDate(), new ObjectId(first.getId()), PageRequest.ofSize(1));
+            StepVerifier.create(next)
+                    .consumeNextWith(entity -> {
+                        assertNotEquals(first.getId(), entity.getId());
+                        assertTrue(entity.getLastModifiedDate().compareTo(first.getLastModifiedDate()) <= 0);
+                    })
+                    .verifyComplete();
+        }
+
         @Test
         public void shouldCancelOneActiveClaim() {
             var paging = PageRequest.of(0, 10);
@@ -1,10 +1,324 @@
 package tech.jmcs.floortech.detailing.infrastructure.persistence.repository;
 
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import tech.jmcs.floortech.detailing.AppConfiguration;
+import tech.jmcs.floortech.detailing.domain.configs.XPath;
+import tech.jmcs.floortech.detailing.domain.model.detailingclaim.DetailingClaim;
+import tech.jmcs.floortech.detailing.domain.model.filedata.ExtractedDataRow;
+import tech.jmcs.floortech.detailing.domain.model.filedata.FileData;
+import tech.jmcs.floortech.detailing.domain.model.files.DetailingFile;
+import tech.jmcs.floortech.detailing.domain.model.fileset.FileSet;
+import tech.jmcs.floortech.detailing.infrastructure.persistence.config.MongoConfig;
+import tech.jmcs.floortech.detailing.infrastructure.persistence.dao.DetailingClaimDao;
+import tech.jmcs.floortech.detailing.infrastructure.persistence.dao.ExtractedDataRowDao;
+import tech.jmcs.floortech.detailing.infrastructure.persistence.dao.FileDataDao;
+import tech.jmcs.floortech.detailing.infrastructure.persistence.dao.MongoDBTestContainer;
+import tech.jmcs.floortech.detailing.infrastructure.persistence.entity.DetailingClaimEntity;
+import tech.jmcs.floortech.detailing.infrastructure.persistence.entity.FileDataEntity;
+import tech.jmcs.floortech.detailing.infrastructure.persistence.exception.PersistenceException;
 
-@WebFluxTest(DetailingClaimRepositoryImpl.class)
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static tech.jmcs.floortech.detailing.domain.configs.DetailingStatus.CANCELLED;
+import static tech.jmcs.floortech.detailing.domain.configs.DetailingStatus.PAUSED;
+import static tech.jmcs.floortech.detailing.domain.configs.DetailingStatus.STARTED;
+import static tech.jmcs.floortech.detailing.domain.model.detailingclaim.DetailingClaimFacade.toFileSets;
+import static tech.jmcs.floortech.detailing.domain.model.detailingclaim.DetailingClaimFacade.toStatus;
+import static tech.jmcs.floortech.detailing.domain.model.detailingclaim.DetailingClaimFacade.toVersion;
+import static tech.jmcs.floortech.detailing.domain.model.detailingclaim.DetailingClaimFacade.toClaimedAt;
+import static tech.jmcs.floortech.detailing.domain.model.filedata.ExtractedDataRowFacade.toData;
+import static tech.jmcs.floortech.detailing.domain.model.filedata.FileDataFacade.toExtractedData;
+import static tech.jmcs.floortech.detailing.domain.model.filedata.FileDataFacade.toFileDataId;
+import static tech.jmcs.floortech.detailing.domain.model.files.DetailingFileFacade.toFileData;
+import static tech.jmcs.floortech.detailing.domain.model.files.DetailingFileFacade.toFileId;
+import static tech.jmcs.floortech.detailing.domain.model.fileset.FileSetFacade.toFileSetId;
+import static tech.jmcs.floortech.detailing.domain.model.fileset.FileSetFacade.toFiles;
+
+@DataMongoTest
 @ExtendWith(SpringExtension.class)
-public class DetailingClaimRepositoryImplTests {
+@Import({AppConfiguration.class, MongoConfig.class, DetailingClaimRepositoryImpl.class})
+public class DetailingClaimRepositoryImplTests implements MongoDBTestContainer {
+    private static final String FILE_SET_ID = "FILESET-0001";
+    private static final String FILE_ID = "FILE-0001";
+
+    @Autowired
+    private DetailingClaimRepositoryImpl detailingClaimRepository;
+    @Autowired
+    private DetailingClaimDao detailingClaimDao;
+    @Autowired
+    private FileDataDao fileDataDao;
+    @Autowired
+    private ExtractedDataRowDao extractedDataRowDao;
+    @Autowired
+    private ReactiveMongoOperations mongoOperations;
+    @Autowired
+    private AuditorAware<String> auditorAware;
+
+    @BeforeEach
+    void setupForTests() {
+        Mono.when(detailingClaimDao.deleteAll(), fileDataDao.deleteAll(), extractedDataRowDao.deleteAll()).block();
+    }
+
+    @Test
+    public void shouldSaveAndLoadFileData() {
+        var claim = withProcessedFile(createClaim(), fileData(UUID.randomUUID().toString(), Map.of("B1", "6000", "B2", "4200")));
+        var saved = detailingClaimRepository.save(claim).block();
+        assertNotNull(saved);
+
+        StepVerifier.create(loadSavedFileSet(saved))
+                .consumeNextWith(fileSet -> assertEquals(Map.of("B1", "6000", "B2", "4200"), lengths(fileSet)))
+                .verifyComplete();
+        // the claim only holds the file information
+        StepVerifier.create(detailingClaimDao.findAll())
+                .consumeNextWith(entity -> assertNull(entity.getFileSets().get(FILE_SET_ID).getFiles().get(0).getFileData()))
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldReplaceFileDataWhenSavedAgain() {
+        var saved = detailingClaimRepository.save(withProcessedFile(createClaim(), fileData(UUID.randomUUID().toString(), Map.of("B1", "6000", "B2", "4200")))).block();
+        assertNotNull(saved);
+        var reprocessedId = UUID.randomUUID().toString();
+        var resaved = detailingClaimRepository.save(withProcessedFile(saved, fileData(reprocessedId, Map.of("B1", "6100")))).block();
+        assertNotNull(resaved);
+
+        StepVerifier.create(fileDataDao.findAll())
+                .consumeNextWith(entity -> assertEquals(reprocessedId, entity.getId()))
+                .verifyComplete();
+        StepVerifier.create(extractedDataRowDao.findAll())
+                .consumeNextWith(row -> assertEquals(reprocessedId, row.getFileDataId()))
+                .verifyComplete();
+        StepVerifier.create(loadSavedFileSet(resaved))
+                .consumeNextWith(fileSet -> assertEquals(Map.of("B1", "6100"), lengths(fileSet)))
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldLoadLaterFileDataWhenEarlierSaveIsNotDeleted() {
+        var saved = detailingClaimRepository.save(withProcessedFile(createClaim(), fileData(UUID.randomUUID().toString(), Map.of("B1", "6000")))).block();
+        assertNotNull(saved);
+        // an overlapping save of the file that has not yet deleted the earlier data
+        var earlier = FileDataEntity.fromDomainObject(fileData(UUID.randomUUID().toString(), Map.of()), "CLAIM-0001", FILE_SET_ID);
+        earlier.setSavedDate(new Date(0));
+        fileDataDao.save(earlier).block();
+
+        StepVerifier.create(loadSavedFileSet(saved))
+                .consumeNextWith(fileSet -> assertEquals(Map.of("B1", "6000"), lengths(fileSet)))
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldReadFileDataEmbeddedInLegacyClaim() {
+        var saved = detailingClaimRepository.save(withProcessedFile(createClaim(), null)).block();
+        assertNotNull(saved);
+        // the file data of claims saved before it was split out is embedded in the file, with its rows by item id
+        var legacyRow = new Document("_id", "ROW-0001")
+                .append("row", 1)
+                .append("itemId", "B1")
+                .append("data", new Document("itemId", "B1").append("length", "5800"));
+        var legacyFileData = new Document("_id", "LEGACY-0001")
+                .append("fileId", FILE_ID)
+                .append("lines", new Document())
+                .append("extractedData", new Document("B1", legacyRow));
+        var query = Query.query(Criteria.where("jobId").is("JOB-0000000001"));
+        var update = new Update().set("fileSets." + FILE_SET_ID + ".files.0.fileData", legacyFileData);
+        mongoOperations.updateFirst(query, update, DetailingClaimEntity.class).block();
+
+        StepVerifier.create(detailingClaimRepository.findClaims("JOB-0000000001", "alice"))
+                .consumeNextWith(claim -> {
+                    var file = toFiles.apply(toFileSets.apply(claim).get(FILE_SET_ID)).get(0);
+                    var fileData = toFileData.apply(file);
+                    assertEquals("LEGACY-0001", toFileDataId.apply(fileData));
+                    assertEquals("5800", toData.apply(toExtractedData.apply(fileData).get("B1")).get("length"));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldSaveStatusOnlyWhenClaimHasVersionItWasFoundWith() {
+        var saved = detailingClaimRepository.save(createClaim()).block();
+        assertNotNull(saved);
+        var version = toVersion.apply(saved);
+
+        StepVerifier.create(detailingClaimRepository.saveStatus(saved.withStatus(STARTED)))
+                .consumeNextWith(started -> {
+                    assertEquals(STARTED, toStatus.apply(started));
+                    assertEquals(Long.valueOf(version + 1), toVersion.apply(started));
+                })
+                .verifyComplete();
+        // the claim as it was found before the status was saved
+        StepVerifier.create(detailingClaimRepository.saveStatus(saved.withStatus(CANCELLED)))
+                .expectError(OptimisticLockingFailureException.class)
+                .verify();
+        StepVerifier.create(detailingClaimDao.findAll())
+                .consumeNextWith(entity -> {
+                    assertEquals(STARTED, entity.getStatus());
+                    assertEquals(auditorAware.getCurrentAuditor().orElseThrow(), entity.getModifiedByUser());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldSaveFileSetWithoutChangingOtherFileSetsOrStatus() {
+        var saved = detailingClaimRepository.save(createClaim().withStatus(STARTED)).block();
+        assertNotNull(saved);
+        var first = FileSet.createNewFileSet("FILESET-0001", XPath.relative("/a/b/c/first.zip"), List.of(processedFile()));
+        var second = FileSet.createNewFileSet("FILESET-0002", XPath.relative("/a/b/c/second.zip"), List.of(processedFile()));
+        detailingClaimRepository.saveFileSet(saved, first).block();
+        // the status is changed after the claim was found, and the claim found does not have the first file set
+        mongoOperations.updateFirst(Query.query(Criteria.where("jobId").is("JOB-0000000001")), new Update().set("status", PAUSED), DetailingClaimEntity.class).block();
+
+        StepVerifier.create(detailingClaimRepository.saveFileSet(saved, second))
+                .consumeNextWith(claim -> {
+                    assertEquals(Set.of("FILESET-0001", "FILESET-0002"), toFileSets.apply(claim).keySet());
+                    assertEquals(PAUSED, toStatus.apply(claim));
+                    assertEquals(Long.valueOf(toVersion.apply(saved) + 2), toVersion.apply(claim));
+                })
+                .verifyComplete();
+        StepVerifier.create(detailingClaimDao.findAll())
+                .consumeNextWith(entity -> assertEquals(auditorAware.getCurrentAuditor().orElseThrow(), entity.getModifiedByUser()))
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldFindClaimByClaimDateWithMilliseconds() {
+        var second = Instant.parse("2023-09-01T02:30:15Z");
+        saveCreatedAt(second.plusMillis(100));
+        var claim = saveCreatedAt(second.plusMillis(600));
+
+        StepVerifier.create(detailingClaimRepository.findClaim("JOB-0000000001", "alice", Date.from(second.plusMillis(600))))
+                .consumeNextWith(found -> assertEquals(claim.getCreatedDate(), toClaimedAt.apply(found)))
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldFindClaimCreatedWithinSecondOfClaimDate() {
+        var second = Instant.parse("2023-09-01T02:30:15Z");
+        var claim = saveCreatedAt(second.plusMillis(600));
+        saveCreatedAt(second.plusSeconds(1));
+
+        StepVerifier.create(detailingClaimRepository.findClaim("JOB-0000000001", "alice", Date.from(second)))
+                .consumeNextWith(found -> assertEquals(claim.getCreatedDate(), toClaimedAt.apply(found)))
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldNotFindClaimWhenMoreThanOneClaimWasCreatedWithinSecondOfClaimDate() {
+        var second = Instant.parse("2023-09-01T02:30:15Z");
+        saveCreatedAt(second.plusMillis(100));
+        saveCreatedAt(second.plusMillis(600));
+
+        StepVerifier.create(detailingClaimRepository.findClaim("JOB-0000000001", "alice", Date.from(second)))
+                .expectError(PersistenceException.class)
+                .verify();
+    }
+
+    // <editor-fold desc="Helper methods">
+    /**
+     * @param createdDate
+     * @return a claim saved with the created date, which is set by auditing when the claim is inserted
+     */
+    private DetailingClaimEntity saveCreatedAt(Instant createdDate) {
+        var saved = detailingClaimDao.save(DetailingClaimEntity.fromDomainObject(createClaim())).block();
+        assertNotNull(saved);
+        saved.setCreatedDate(Date.from(createdDate));
+        return detailingClaimDao.save(saved).block();
+    }
+
+    private Mono<FileSet> loadSavedFileSet(DetailingClaim saved) {
+        var fileSet = toFileSets.apply(saved).get(FILE_SET_ID);
+        // the file set as it is read with the claim, without the file data
+        var files = toFiles.apply(fileSet).stream()
+                .map(file -> file.withFileData(null))
+                .toList();
+        return detailingClaimRepository.loadFileData(fileSet.withFiles(files));
+    }
+
+    private static DetailingClaim createClaim() {
+        return DetailingClaim.builder("JOB-0000000001", "alice")
+                .floortechJobNumber(21000)
+                .jobClientId("CLIENT-0001")
+                .jobClientName("WA Builders")
+                .claimedByStaffId("STAFF-0001")
+                .claimedByStaffUsername("alice")
+                .build();
+    }
+
+    /**
+     * @param claim
+     * @param fileData data of the processed file, null for a file without data
+     * @return the claim with a file set of one processed file
+     */
+    private static DetailingClaim withProcessedFile(DetailingClaim claim, FileData fileData) {
+        var file = processedFile();
+        var fileWithData = fileData != null ? file.withFileData(fileData.copyFor(toFileDataId.apply(fileData), file)) : file;
+        var fileSet = FileSet.createNewFileSet(FILE_SET_ID, XPath.relative("/a/b/c/schedule.zip"), List.of(fileWithData));
+        return claim.withFileSets(Map.of(toFileSetId.apply(fileSet), fileSet));
+    }
+
+    private static DetailingFile processedFile() {
+        return DetailingFile.builder("schedule.txt", XPath.relative("/a/b/c/schedule.txt"), "schedule", "txt")
+                .id(FILE_ID)
+                .isProcessed(true)
+                .creationDate(new Date())
+                .build();
+    }
+
+    /**
+     * @param id
+     * @param lengths length of each beam by item id
+     * @return data extracted from the file
+     */
+    private static FileData fileData(String id, Map<String, String> lengths) {
+        var fileData = FileData.builder(id, processedFile())
+                .lines(Map.of())
+                .build();
+        var rows = new HashMap<String, ExtractedDataRow>();
+        var row = 1;
+        for (var entry : lengths.entrySet()) {
+            rows.put(entry.getKey(), ExtractedDataRow.builder()
+                    .id(UUID.randomUUID().toString())
+                    .row(row++)
+                    .itemId(entry.getKey())
+                    .parent(fileData)
+                    .data(Map.of("itemId", entry.getKey(), "length", entry.getValue()))
+                    .build());
+        }
+        return fileData.withExtractedData(rows);
+    }
+
+    private static Map<String, String> lengths(FileSet fileSet) {
+        var file = toFiles.apply(fileSet).stream()
+                .filter(detailingFile -> FILE_ID.equals(toFileId.apply(detailingFile)))
+                .findFirst()
+                .orElseThrow();
+        var lengths = new HashMap<String, String>();
+        toExtractedData.apply(toFileData.apply(file)).forEach((itemId, row) -> lengths.put(itemId, toData.apply(row).get("length")));
+        return lengths;
+    }
+    // </editor-fold>
 }